@@ -0,0 +1,39 @@
+#!/bin/bash
+# Benchmark throughput lấy product theo ID và multi-get: REST (JSON) so với gRPC (protobuf)
+# Chạy trên tms-server của docker-compose (REST port 1990, gRPC port 1991), dùng hey và ghz qua docker:
+#   ./scripts/benchmarks/grpc-vs-rest.sh [product-id] [clients] [seconds]
+# Product có ID 1..20 phải tồn tại (dữ liệu mẫu của scripts/db-init đủ dùng)
+
+set -euo pipefail
+
+PRODUCT_ID=${1:-1}
+CLIENTS=${2:-50}
+DURATION=${3:-30}
+REST_URL=${REST_URL:-http://localhost:1990}
+GRPC_TARGET=${GRPC_TARGET:-localhost:1991}
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+PROTO_DIR="$SCRIPT_DIR/../../tms-server/src/main/proto"
+IDS=$(seq -s, 1 20)
+
+hey() {
+    docker run --rm --network host williamyeh/hey -c "$CLIENTS" -z "${DURATION}s" "$@" \
+        | grep -E "Requests/sec|Average|99% in"
+}
+
+ghz() {
+    docker run --rm --network host -v "$PROTO_DIR:/proto:ro" ghcr.io/bojand/ghz:latest \
+        --insecure --proto /proto/product.proto -c "$CLIENTS" -z "${DURATION}s" "$@" "$GRPC_TARGET" \
+        | grep -E "Requests/sec|Average|99 % in"
+}
+
+echo "⏱️  REST GET /api/products/$PRODUCT_ID"
+hey "$REST_URL/api/products/$PRODUCT_ID"
+
+echo "⏱️  gRPC tms.product.v1.ProductService/GetProduct"
+ghz --call tms.product.v1.ProductService.GetProduct -d "{\"id\": $PRODUCT_ID}"
+
+echo "⏱️  REST GET /api/products?ids=$IDS"
+hey "$REST_URL/api/products?ids=$IDS"
+
+echo "⏱️  gRPC tms.product.v1.ProductService/BatchGetProducts (20 id)"
+ghz --call tms.product.v1.ProductService.BatchGetProducts -d "{\"ids\": [$IDS]}"
@@ -0,0 +1,60 @@
+-- Benchmark: truy vấn theo khoảng giá trên bảng products thường và bảng partition theo dải giá
+-- Tạo hai bảng cùng dữ liệu (mặc định 50 triệu dòng, đổi bằng psql -v rows=...) với cùng cấu trúc và index
+-- như bảng products của ứng dụng trước và sau khi ProductPartitionManager chuyển đổi
+-- Chạy qua scripts/benchmarks/price-range-partitioning.sh
+
+\if :{?rows}
+\else
+\set rows 50000000
+\endif
+
+\timing on
+
+DROP TABLE IF EXISTS bench_products_plain;
+DROP TABLE IF EXISTS bench_products_partitioned;
+
+-- Giá phân bố đều từ 0 tới 60 triệu (cùng đơn vị VND với dữ liệu mẫu)
+CREATE TABLE bench_products_plain (
+    id bigint NOT NULL,
+    name varchar(255) NOT NULL,
+    description text,
+    price double precision NOT NULL,
+    change_seq bigint NOT NULL DEFAULT 0
+);
+INSERT INTO bench_products_plain
+SELECT g, 'Product ' || g, 'Mô tả sản phẩm ' || g, round((random() * 60000000)::numeric, 2)::double precision, 0
+FROM generate_series(1, :rows) AS g;
+ALTER TABLE bench_products_plain ADD PRIMARY KEY (id);
+CREATE INDEX bench_plain_price_id ON bench_products_plain (price, id);
+CREATE INDEX bench_plain_name_id ON bench_products_plain (name, id);
+
+-- Cùng các mốc mặc định của tms.product.partitioning.price-bounds
+CREATE TABLE bench_products_partitioned (LIKE bench_products_plain INCLUDING DEFAULTS) PARTITION BY RANGE (price);
+CREATE TABLE bench_products_p_min_1000000 PARTITION OF bench_products_partitioned FOR VALUES FROM (MINVALUE) TO (1000000);
+CREATE TABLE bench_products_p_1000000_5000000 PARTITION OF bench_products_partitioned FOR VALUES FROM (1000000) TO (5000000);
+CREATE TABLE bench_products_p_5000000_10000000 PARTITION OF bench_products_partitioned FOR VALUES FROM (5000000) TO (10000000);
+CREATE TABLE bench_products_p_10000000_20000000 PARTITION OF bench_products_partitioned FOR VALUES FROM (10000000) TO (20000000);
+CREATE TABLE bench_products_p_20000000_50000000 PARTITION OF bench_products_partitioned FOR VALUES FROM (20000000) TO (50000000);
+CREATE TABLE bench_products_p_50000000_max PARTITION OF bench_products_partitioned FOR VALUES FROM (50000000) TO (MAXVALUE);
+INSERT INTO bench_products_partitioned SELECT * FROM bench_products_plain;
+ALTER TABLE bench_products_partitioned ADD PRIMARY KEY (id, price);
+CREATE INDEX bench_partitioned_price_id ON bench_products_partitioned (price, id);
+CREATE INDEX bench_partitioned_name_id ON bench_products_partitioned (name, id);
+
+VACUUM ANALYZE bench_products_plain;
+VACUUM ANALYZE bench_products_partitioned;
+
+-- Kế hoạch thực thi của cùng một truy vấn findByPriceBetween: bảng partition chỉ quét partition 1-5 triệu
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, description, price, change_seq FROM bench_products_plain WHERE price BETWEEN 2000000 AND 2010000;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, description, price, change_seq FROM bench_products_partitioned WHERE price BETWEEN 2000000 AND 2010000;
+
+-- Khoảng rộng: index trên bảng thường không còn lợi, bảng partition quét tuần tự đúng một partition
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM bench_products_plain WHERE price BETWEEN 1000000 AND 4999999;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM bench_products_partitioned WHERE price BETWEEN 1000000 AND 4999999;
+
+SELECT relname, pg_size_pretty(pg_total_relation_size(oid)) AS total_size
+FROM pg_class WHERE relname LIKE 'bench_products_%' AND relkind IN ('r', 'p') ORDER BY relname;
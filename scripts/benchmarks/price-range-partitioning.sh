@@ -0,0 +1,35 @@
+#!/bin/bash
+# Benchmark độ trễ truy vấn theo khoảng giá: bảng products thường so với bảng partition theo dải giá
+# Chạy trên container tms-db của docker-compose:
+#   ./scripts/benchmarks/price-range-partitioning.sh [rows] [clients] [seconds]
+# Mặc định 50.000.000 dòng (cần khoảng 20GB đĩa, tạo dữ liệu mất vài chục phút), 8 client, 60 giây mỗi lượt
+
+set -euo pipefail
+
+ROWS=${1:-50000000}
+CLIENTS=${2:-8}
+DURATION=${3:-60}
+DB_USER=${POSTGRES_USER:-tms_user}
+DB_NAME=${POSTGRES_DB:-tms_db}
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+cd "$SCRIPT_DIR/../.."
+
+echo "📦 Tạo dữ liệu benchmark ($ROWS dòng)..."
+docker-compose exec -T tms-db psql -U "$DB_USER" -d "$DB_NAME" -v ON_ERROR_STOP=1 -v rows="$ROWS" \
+    < "$SCRIPT_DIR/price-range-partitioning-setup.sql"
+
+docker-compose cp "$SCRIPT_DIR/price-range-narrow.pgbench" tms-db:/tmp/price-range-narrow.pgbench
+docker-compose cp "$SCRIPT_DIR/price-range-wide.pgbench" tms-db:/tmp/price-range-wide.pgbench
+
+for workload in narrow wide; do
+    for table in bench_products_plain bench_products_partitioned; do
+        echo "⏱️  $workload / $table"
+        docker-compose exec -T tms-db pgbench -U "$DB_USER" -d "$DB_NAME" -n -M prepared \
+            -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -D table="$table" \
+            -f "/tmp/price-range-$workload.pgbench" \
+            | grep -E "latency average|latency stddev|tps ="
+    done
+done
+
+echo "🧹 Xóa bảng benchmark: DROP TABLE bench_products_plain, bench_products_partitioned;"
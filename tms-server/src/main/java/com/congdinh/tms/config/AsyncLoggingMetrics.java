@@ -0,0 +1,56 @@
+package com.congdinh.tms.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * AsyncLoggingMetrics - Metrics của RingBufferAsyncAppender (appender ASYNC trong logback-spring.xml)
+ * Appender do Logback tạo nên được tìm lại trên root logger mỗi lần đọc metric (Logback có thể được cấu hình lại)
+ */
+@Component
+public class AsyncLoggingMetrics {
+
+    static final String APPENDER_NAME = "ASYNC";
+
+    public AsyncLoggingMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("tms.logging.async.dropped", this, AsyncLoggingMetrics::dropped)
+                .description("Số log event bị bỏ vì ring buffer đầy")
+                .register(meterRegistry);
+        Gauge.builder("tms.logging.async.queued", this, AsyncLoggingMetrics::queued)
+                .description("Số log event đang chờ ghi")
+                .register(meterRegistry);
+        Gauge.builder("tms.logging.async.capacity", this, AsyncLoggingMetrics::capacity)
+                .description("Dung lượng ring buffer log")
+                .register(meterRegistry);
+    }
+
+    private double dropped() {
+        RingBufferAsyncAppender appender = appender();
+        return appender == null ? 0 : appender.getDroppedCount();
+    }
+
+    private double queued() {
+        RingBufferAsyncAppender appender = appender();
+        return appender == null ? 0 : appender.getQueueSize();
+    }
+
+    private double capacity() {
+        RingBufferAsyncAppender appender = appender();
+        return appender == null ? 0 : appender.getCapacity();
+    }
+
+    RingBufferAsyncAppender appender() {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (factory instanceof LoggerContext context && context.getLogger(Logger.ROOT_LOGGER_NAME)
+                .getAppender(APPENDER_NAME) instanceof RingBufferAsyncAppender appender) {
+            return appender;
+        }
+        return null;
+    }
+}
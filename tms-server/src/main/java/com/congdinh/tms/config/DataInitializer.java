@@ -2,6 +2,8 @@ package com.congdinh.tms.config;
 
 import com.congdinh.tms.entities.Product;
 import com.congdinh.tms.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,8 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Bean
     CommandLineRunner initDatabase(ProductRepository repository) {
         return args -> {
@@ -38,7 +42,7 @@ public class DataInitializer {
                     "Laptop Apple với chip M3, màn hình Retina 13 inch, hiệu năng mạnh mẽ", 
                     32990000.0));
                 
-                System.out.println("Đã khởi tạo dữ liệu mẫu cho Product!");
+                log.info("Đã khởi tạo dữ liệu mẫu cho Product!");
             }
         };
     }
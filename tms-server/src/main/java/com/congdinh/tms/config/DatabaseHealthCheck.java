@@ -1,7 +1,10 @@
 package com.congdinh.tms.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 
@@ -14,8 +17,11 @@ import java.sql.SQLException;
  * Giúp debug các vấn đề kết nối database
  */
 @Configuration
+@Profile("!embedded")
 public class DatabaseHealthCheck {
 
+    private static final Logger log = LoggerFactory.getLogger(DatabaseHealthCheck.class);
+
     private final DataSource dataSource;
 
     @Value("${spring.datasource.url}")
@@ -30,18 +36,13 @@ public class DatabaseHealthCheck {
 
     @EventListener
     public void handleContextRefresh(ContextRefreshedEvent event) {
-        System.out.println("=== DATABASE CONNECTION CHECK ===");
-        System.out.println("Database URL: " + databaseUrl);
-        System.out.println("Database User: " + databaseUser);
-        
         try (Connection connection = dataSource.getConnection()) {
-            System.out.println("✅ Database connection successful!");
-            System.out.println("Database Product Name: " + connection.getMetaData().getDatabaseProductName());
-            System.out.println("Database Version: " + connection.getMetaData().getDatabaseProductVersion());
+            log.info("Kết nối database thành công: {} (user {}, {} {})", databaseUrl, databaseUser,
+                    connection.getMetaData().getDatabaseProductName(),
+                    connection.getMetaData().getDatabaseProductVersion());
         } catch (SQLException e) {
-            System.err.println("❌ Database connection failed: " + e.getMessage());
+            log.error("Không kết nối được database {} (user {}): {}", databaseUrl, databaseUser, e.getMessage());
             throw new RuntimeException("Failed to connect to database", e);
         }
-        System.out.println("==================================");
     }
 }
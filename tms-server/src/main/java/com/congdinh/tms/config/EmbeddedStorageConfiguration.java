@@ -0,0 +1,73 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.repositories.EmbeddedProductChangeSequence;
+import com.congdinh.tms.repositories.EmbeddedProductRepository;
+import com.congdinh.tms.repositories.EmbeddedProductStore;
+import com.congdinh.tms.repositories.EmbeddedProductTombstoneRepository;
+import com.congdinh.tms.repositories.EmbeddedTransactionManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Path;
+
+/**
+ * EmbeddedStorageConfiguration - Profile embedded: lưu Product trong EmbeddedProductStore thay vì PostgreSQL
+ * application-embedded.properties tắt DataSource/JPA auto-configuration; các bean ở đây thay thế
+ * ProductRepository, ProductChangeSequence, ProductTombstoneRepository và transaction manager,
+ * nên các service và controller chạy không đổi. Các bean chỉ dùng được với Postgres
+ * (LISTEN/NOTIFY, partitioning, kiểm tra kết nối) có @Profile("!embedded")
+ */
+@Configuration
+@Profile("embedded")
+public class EmbeddedStorageConfiguration {
+
+    @Bean
+    EmbeddedProductStore embeddedProductStore(
+            MeterRegistry meterRegistry,
+            @Value("${tms.embedded.directory:data/embedded}") String directory,
+            @Value("${tms.embedded.fsync:true}") boolean fsync,
+            @Value("${tms.embedded.lock-timeout-ms:10000}") long lockTimeoutMillis,
+            @Value("${tms.embedded.snapshot.journal-bytes:67108864}") long snapshotJournalBytes,
+            @Value("${tms.embedded.snapshot.interval-seconds:60}") long snapshotIntervalSeconds) {
+        EmbeddedProductStore store = new EmbeddedProductStore(Path.of(directory), fsync, lockTimeoutMillis,
+                snapshotJournalBytes, snapshotIntervalSeconds);
+        Gauge.builder("tms.embedded.products", store, EmbeddedProductStore::size)
+                .description("Số product trong embedded store (đã commit)")
+                .register(meterRegistry);
+        Gauge.builder("tms.embedded.journal.bytes", store, EmbeddedProductStore::journalBytes)
+                .description("Kích thước journal kể từ snapshot gần nhất")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tms.embedded.snapshot.generation", store, EmbeddedProductStore::snapshotGeneration)
+                .description("Thế hệ của journal hiện tại (tăng mỗi lần ghi snapshot)")
+                .register(meterRegistry);
+        Gauge.builder("tms.embedded.recovery.ms", store, EmbeddedProductStore::recoveryMillis)
+                .description("Thời gian khôi phục dữ liệu (snapshot + journal) khi khởi động")
+                .register(meterRegistry);
+        return store;
+    }
+
+    @Bean
+    EmbeddedTransactionManager transactionManager(EmbeddedProductStore store) {
+        return new EmbeddedTransactionManager(store);
+    }
+
+    @Bean
+    EmbeddedProductRepository productRepository(EmbeddedProductStore store) {
+        return new EmbeddedProductRepository(store);
+    }
+
+    @Bean
+    EmbeddedProductChangeSequence productChangeSequence(EmbeddedProductStore store) {
+        return new EmbeddedProductChangeSequence(store);
+    }
+
+    @Bean
+    EmbeddedProductTombstoneRepository productTombstoneRepository(EmbeddedProductStore store) {
+        return new EmbeddedProductTombstoneRepository(store);
+    }
+}
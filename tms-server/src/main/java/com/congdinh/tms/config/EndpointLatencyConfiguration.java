@@ -0,0 +1,18 @@
+package com.congdinh.tms.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * EndpointLatencyConfiguration - Đăng ký EndpointLatencyFilter
+ * Khai báo bằng @Bean thay vì @Component: @WebMvcTest tự nạp mọi Filter là @Component nhưng không nạp
+ * EndpointLatencyRecorder, nên các test controller sẽ không khởi động được
+ */
+@Configuration
+public class EndpointLatencyConfiguration {
+
+    @Bean
+    EndpointLatencyFilter endpointLatencyFilter(EndpointLatencyRecorder recorder) {
+        return new EndpointLatencyFilter(recorder);
+    }
+}
@@ -0,0 +1,28 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.EndpointLatencyDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * EndpointLatencyEndpoint - Actuator endpoint /actuator/latency: p50/p90/p99/p99.9/max theo endpoint + status
+ * và error budget so với SLO (tms.latency.slo.*) trong các cửa sổ 1, 5, 15 phút
+ */
+@Component
+@Endpoint(id = "latency")
+public class EndpointLatencyEndpoint {
+
+    private final EndpointLatencyRecorder recorder;
+
+    public EndpointLatencyEndpoint(EndpointLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public List<EndpointLatencyDTO> latency() {
+        return recorder.report();
+    }
+}
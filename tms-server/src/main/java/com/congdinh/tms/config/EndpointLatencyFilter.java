@@ -0,0 +1,92 @@
+package com.congdinh.tms.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * EndpointLatencyFilter - Đo thời gian xử lý mỗi request tới controller và ghi vào EndpointLatencyRecorder
+ * Endpoint được xác định bằng HandlerMethod khớp với request (cùng một object cho mọi request của endpoint đó),
+ * request không khớp controller nào (404, static resource) bị bỏ qua
+ * Đăng ký qua EndpointLatencyConfiguration
+ */
+public class EndpointLatencyFilter extends OncePerRequestFilter {
+
+    private final EndpointLatencyRecorder recorder;
+
+    public EndpointLatencyFilter(EndpointLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !recorder.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Response streaming/async: chỉ xong khi async context kết thúc
+                request.getAsyncContext().addListener(new CompletionListener(request, response, start));
+            } else {
+                record(request, failed ? HttpStatus.INTERNAL_SERVER_ERROR.value() : response.getStatus(), start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long start) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler
+                && request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+            recorder.record(handler, request.getMethod(), pattern, status, System.nanoTime() - start);
+        }
+    }
+
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response.getStatus(), start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            record(request, HttpStatus.SERVICE_UNAVAILABLE.value(), start);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            record(request, HttpStatus.INTERNAL_SERVER_ERROR.value(), start);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.EndpointLatencyDTO;
+import com.congdinh.tms.dtos.LatencyPercentilesDTO;
+import com.congdinh.tms.dtos.LatencySloWindowDTO;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * EndpointLatencyRecorder - Histogram độ trễ (HdrHistogram) theo endpoint + HTTP status với cửa sổ trượt 1/5/15 phút
+ * - Ghi (request path): HdrHistogram Recorder là wait-free và không cấp phát bộ nhớ; tra cứu endpoint/status
+ *   chỉ là ConcurrentHashMap#get + đọc mảng, chỉ request đầu tiên của một endpoint/status mới tạo Recorder
+ * - Đọc (thread nền): mỗi slot-seconds lấy interval histogram của Recorder vào một vòng slot (PackedHistogram,
+ *   slot trống không tốn bộ nhớ); cửa sổ N phút là tổng của các slot đã đóng trong N phút gần nhất
+ */
+@Component
+public class EndpointLatencyRecorder {
+
+    static final Map<String, Integer> WINDOW_MINUTES = windows();
+    // Độ trễ tính bằng micro giây, tối đa 1 phút (giá trị lớn hơn được tính là 1 phút); sai số 1%
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int MAX_STATUS = 599;
+
+    private final ConcurrentHashMap<Object, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int slotSeconds;
+    private final int slotCount;
+    private final long defaultThresholdMicros;
+    private final double sloTarget;
+    private final Map<String, Long> thresholdMicros;
+    private final ScheduledExecutorService scheduler;
+
+    // Chỉ thread rotate ghi; các slot của mọi series dùng chung chỉ số
+    private int currentSlot;
+
+    public EndpointLatencyRecorder(@Value("${tms.latency.enabled:true}") boolean enabled,
+                                   @Value("${tms.latency.slot-seconds:10}") int slotSeconds,
+                                   @Value("${tms.latency.slo.default-threshold-ms:200}") long defaultThresholdMillis,
+                                   @Value("${tms.latency.slo.target:0.99}") double sloTarget,
+                                   @Value("${tms.latency.slo.thresholds:}") List<String> thresholds) {
+        if (slotSeconds <= 0 || 60 % slotSeconds != 0) {
+            throw new IllegalArgumentException("tms.latency.slot-seconds phải là ước số của 60");
+        }
+        if (sloTarget <= 0 || sloTarget >= 1) {
+            throw new IllegalArgumentException("tms.latency.slo.target phải nằm trong khoảng (0, 1)");
+        }
+        this.enabled = enabled;
+        this.slotSeconds = slotSeconds;
+        this.slotCount = 15 * 60 / slotSeconds;
+        this.defaultThresholdMicros = TimeUnit.MILLISECONDS.toMicros(defaultThresholdMillis);
+        this.sloTarget = sloTarget;
+        this.thresholdMicros = parseThresholds(thresholds);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "endpoint-latency-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleAtFixedRate(this::rotate, slotSeconds, slotSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Cú pháp: "GET /api/products/{id}=50,GET /api/products/search/keyword=300" (ngưỡng tính bằng ms)
+     */
+    static Map<String, Long> parseThresholds(List<String> thresholds) {
+        Map<String, Long> result = new HashMap<>();
+        if (thresholds == null) {
+            return result;
+        }
+        for (String threshold : thresholds) {
+            if (threshold.isBlank()) {
+                continue;
+            }
+            int separator = threshold.lastIndexOf('=');
+            try {
+                result.put(threshold.substring(0, separator).trim(),
+                        TimeUnit.MILLISECONDS.toMicros(Long.parseLong(threshold.substring(separator + 1).trim())));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Ngưỡng SLO không hợp lệ: " + threshold, ex);
+            }
+        }
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param key    định danh ổn định của endpoint (HandlerMethod), dùng làm key thay cho chuỗi để không cấp phát
+     * @param method HTTP method và pattern chỉ được dùng khi gặp endpoint lần đầu
+     */
+    public void record(Object key, String method, String pattern, int status, long elapsedNanos) {
+        if (!enabled || status < 0 || status > MAX_STATUS) {
+            return;
+        }
+        EndpointLatency endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(key, ignored -> new EndpointLatency(method + " " + pattern));
+        }
+        endpoint.series(status).record(elapsedNanos);
+    }
+
+    /**
+     * Đóng slot hiện tại: chuyển dữ liệu của mọi Recorder vào slot rồi sang slot kế tiếp
+     */
+    synchronized void rotate() {
+        for (EndpointLatency endpoint : endpoints.values()) {
+            for (int status = 0; status <= MAX_STATUS; status++) {
+                LatencySeries series = endpoint.byStatus.get(status);
+                if (series != null) {
+                    series.close(currentSlot);
+                }
+            }
+        }
+        currentSlot = (currentSlot + 1) % slotCount;
+    }
+
+    public synchronized List<EndpointLatencyDTO> report() {
+        List<EndpointLatencyDTO> result = new ArrayList<>();
+        for (EndpointLatency endpoint : endpoints.values()) {
+            long threshold = thresholdMicros.getOrDefault(endpoint.name, defaultThresholdMicros);
+            Map<Integer, Map<String, LatencyPercentilesDTO>> statuses = new TreeMap<>();
+            Map<String, long[]> totals = new LinkedHashMap<>();
+            WINDOW_MINUTES.keySet().forEach(window -> totals.put(window, new long[2]));
+            for (int status = 0; status <= MAX_STATUS; status++) {
+                LatencySeries series = endpoint.byStatus.get(status);
+                if (series == null) {
+                    continue;
+                }
+                Map<String, LatencyPercentilesDTO> windows = new LinkedHashMap<>();
+                for (Map.Entry<String, Integer> window : WINDOW_MINUTES.entrySet()) {
+                    Histogram histogram = series.window(window.getValue() * 60 / slotSeconds);
+                    long count = histogram.getTotalCount();
+                    long[] total = totals.get(window.getKey());
+                    total[0] += count;
+                    total[1] += status >= 500 ? count : count - histogram.getCountBetweenValues(0, threshold);
+                    windows.put(window.getKey(), percentiles(histogram));
+                }
+                statuses.put(status, windows);
+            }
+            Map<String, LatencySloWindowDTO> slo = new LinkedHashMap<>();
+            totals.forEach((window, total) -> {
+                double errorRate = total[0] == 0 ? 0 : (double) total[1] / total[0];
+                slo.put(window, new LatencySloWindowDTO(total[0], total[1], errorRate, errorRate / (1 - sloTarget)));
+            });
+            result.add(new EndpointLatencyDTO(endpoint.name, threshold / 1000.0, sloTarget, slo, statuses));
+        }
+        result.sort(Comparator.comparing(EndpointLatencyDTO::getEndpoint));
+        return result;
+    }
+
+    private static LatencyPercentilesDTO percentiles(AbstractHistogram histogram) {
+        return new LatencyPercentilesDTO(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static Map<String, Integer> windows() {
+        Map<String, Integer> windows = new LinkedHashMap<>();
+        windows.put("1m", 1);
+        windows.put("5m", 5);
+        windows.put("15m", 15);
+        return windows;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private final class EndpointLatency {
+
+        private final String name;
+        private final AtomicReferenceArray<LatencySeries> byStatus = new AtomicReferenceArray<>(MAX_STATUS + 1);
+
+        private EndpointLatency(String name) {
+            this.name = name;
+        }
+
+        private LatencySeries series(int status) {
+            LatencySeries series = byStatus.get(status);
+            if (series == null) {
+                byStatus.compareAndSet(status, null, new LatencySeries());
+                series = byStatus.get(status);
+            }
+            return series;
+        }
+    }
+
+    private final class LatencySeries {
+
+        private final Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final PackedHistogram[] slots = new PackedHistogram[slotCount];
+        private Histogram recycled;
+
+        private void record(long elapsedNanos) {
+            recorder.recordValue(Math.min(elapsedNanos / 1000, HIGHEST_TRACKABLE_MICROS));
+        }
+
+        private void close(int slot) {
+            Histogram interval = recorder.getIntervalHistogram(recycled);
+            recycled = interval;
+            if (interval.getTotalCount() == 0) {
+                slots[slot] = null;
+                return;
+            }
+            PackedHistogram packed = new PackedHistogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            packed.add(interval);
+            slots[slot] = packed;
+        }
+
+        /**
+         * Tổng của windowSlots slot đã đóng gần nhất (slot currentSlot - 1 trở về trước)
+         */
+        private Histogram window(int windowSlots) {
+            Histogram histogram = new Histogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            for (int i = 1; i <= windowSlots; i++) {
+                PackedHistogram slot = slots[Math.floorMod(currentSlot - i, slotCount)];
+                if (slot != null) {
+                    histogram.add(slot);
+                }
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.JfrRecordingDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * JfrEndpoint - Actuator endpoint /actuator/jfr để profile tiến trình đang chạy mà không cần vào pod
+ * Yêu cầu header Authorization: Bearer ${tms.jfr.token} (JfrEndpointAuthFilter)
+ * - GET: danh sách recording
+ * - POST {"profile": "profile", "durationSeconds": 60}: bắt đầu recording (profile mặc định là default)
+ * - GET /{id}: tải file .jfr (409 nếu recording chưa kết thúc)
+ * - GET /{id}/summary: method nóng, nơi cấp phát bộ nhớ và lock contention trong com.congdinh.tms
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final int DEFAULT_DURATION_SECONDS = 60;
+
+    private final JfrProfiler profiler;
+
+    public JfrEndpoint(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public List<JfrRecordingDTO> recordings() {
+        return profiler.list();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> start(@Nullable String profile, @Nullable Integer durationSeconds) {
+        return respond(() -> profiler.start(profile == null ? "default" : profile,
+                durationSeconds == null ? DEFAULT_DURATION_SECONDS : durationSeconds));
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector long id) {
+        try {
+            return new WebEndpointResponse<>(new FileSystemResource(profiler.file(id)));
+        } catch (ResourceNotFoundException ex) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        } catch (IllegalStateException ex) {
+            return new WebEndpointResponse<>(409);
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Object> summary(@Selector long id, @Selector String view) {
+        if (!"summary".equals(view)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return respond(() -> profiler.summarize(id));
+    }
+
+    private static WebEndpointResponse<Object> respond(Supplier<Object> operation) {
+        try {
+            return new WebEndpointResponse<>(operation.get());
+        } catch (IllegalArgumentException ex) {
+            return new WebEndpointResponse<>(error(ex), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (ResourceNotFoundException ex) {
+            return new WebEndpointResponse<>(error(ex), WebEndpointResponse.STATUS_NOT_FOUND);
+        } catch (IllegalStateException ex) {
+            return new WebEndpointResponse<>(error(ex), 409);
+        }
+    }
+
+    private static Object error(RuntimeException ex) {
+        return Map.of("message", ex.getMessage());
+    }
+}
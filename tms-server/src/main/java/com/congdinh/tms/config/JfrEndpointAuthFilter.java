@@ -0,0 +1,46 @@
+package com.congdinh.tms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * JfrEndpointAuthFilter - Bảo vệ /actuator/jfr bằng bearer token (tms.jfr.token)
+ * Ứng dụng không dùng Spring Security; endpoint này cho phép đọc stack trace và dữ liệu heap sample nên
+ * chỉ mở khi đã cấu hình token. Đăng ký qua JfrEndpointConfiguration
+ */
+public class JfrEndpointAuthFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] token;
+
+    public JfrEndpointAuthFilter(String token) {
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token.length == 0) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "JFR endpoint bị tắt vì chưa cấu hình tms.jfr.token");
+            return;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        // So sánh thời gian hằng để không lộ token qua thời gian phản hồi
+        if (authorization == null || !authorization.startsWith(BEARER)
+                || !MessageDigest.isEqual(token, authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8))) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token không hợp lệ");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,22 @@
+package com.congdinh.tms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JfrEndpointConfiguration - Gắn JfrEndpointAuthFilter vào đường dẫn của JfrEndpoint
+ */
+@Configuration
+public class JfrEndpointConfiguration {
+
+    @Bean
+    FilterRegistrationBean<JfrEndpointAuthFilter> jfrEndpointAuthFilter(
+            @Value("${tms.jfr.token:}") String token,
+            @Value("${management.endpoints.web.base-path:/actuator}") String basePath) {
+        FilterRegistrationBean<JfrEndpointAuthFilter> registration = new FilterRegistrationBean<>(new JfrEndpointAuthFilter(token));
+        registration.addUrlPatterns(basePath + "/jfr", basePath + "/jfr/*");
+        return registration;
+    }
+}
@@ -0,0 +1,225 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.JfrFrameStatDTO;
+import com.congdinh.tms.dtos.JfrRecordingDTO;
+import com.congdinh.tms.dtos.JfrSummaryDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JfrProfiler - Chạy Java Flight Recorder theo yêu cầu trên tiến trình đang chạy
+ * - Tối đa một recording chạy cùng lúc, thời gian và kích thước có giới hạn; recording tự dừng sau durationSeconds
+ * - Giữ lại retained-recordings recording gần nhất (file .jfr trong tms.jfr.directory), cũ hơn thì bị xóa
+ * - Tóm tắt recording theo frame com.congdinh.tms: method nóng, nơi cấp phát bộ nhớ, lock contention
+ */
+@Component
+public class JfrProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrProfiler.class);
+
+    // Các cấu hình có sẵn trong JDK: default (~1% overhead) và profile (~2%, sample dày hơn)
+    static final Set<String> PROFILES = Set.of("default", "profile");
+    private static final String APP_PACKAGE = "com.congdinh.tms.";
+
+    private final Path directory;
+    private final int maxDurationSeconds;
+    private final long maxSizeBytes;
+    private final int retainedRecordings;
+    private final int topFrames;
+
+    // Theo thứ tự tạo; được bảo vệ bởi lock của chính object này
+    private final Map<Long, JfrSession> sessions = new LinkedHashMap<>();
+    private long nextId = 1;
+
+    public JfrProfiler(@Value("${tms.jfr.directory:${java.io.tmpdir}/tms-jfr}") Path directory,
+                       @Value("${tms.jfr.max-duration-seconds:300}") int maxDurationSeconds,
+                       @Value("${tms.jfr.max-size-mb:200}") long maxSizeMb,
+                       @Value("${tms.jfr.retained-recordings:3}") int retainedRecordings,
+                       @Value("${tms.jfr.top-frames:20}") int topFrames) {
+        this.directory = directory;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.retainedRecordings = Math.max(1, retainedRecordings);
+        this.topFrames = topFrames;
+    }
+
+    public synchronized JfrRecordingDTO start(String profile, int durationSeconds) {
+        if (!PROFILES.contains(profile)) {
+            throw new IllegalArgumentException("Profile JFR phải là một trong " + PROFILES);
+        }
+        if (durationSeconds < 1 || durationSeconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Thời gian recording phải nằm trong khoảng 1 đến " + maxDurationSeconds + " giây");
+        }
+        if (sessions.values().stream().anyMatch(session -> session.recording.getState() == RecordingState.RUNNING)) {
+            throw new IllegalStateException("Đang có một recording JFR chạy, hãy chờ recording đó kết thúc");
+        }
+        evictOldSessions();
+        long id = nextId++;
+        try {
+            Files.createDirectories(directory);
+            Recording recording = new Recording(Configuration.getConfiguration(profile));
+            recording.setName("tms-" + id);
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+            recording.start();
+            JfrSession session = new JfrSession(id, profile, durationSeconds, Instant.now(), recording,
+                    directory.resolve("tms-" + id + ".jfr"));
+            sessions.put(id, session);
+            log.info("Bắt đầu recording JFR {} (profile {}, {} giây)", id, profile, durationSeconds);
+            return session.toDto();
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Không khởi tạo được recording JFR", ex);
+        }
+    }
+
+    public synchronized List<JfrRecordingDTO> list() {
+        return sessions.values().stream().map(JfrSession::toDto).toList();
+    }
+
+    /**
+     * File .jfr của recording đã dừng; lần đầu gọi sẽ dump recording ra đĩa và giải phóng buffer của JFR
+     */
+    public synchronized Path file(long id) {
+        JfrSession session = sessions.get(id);
+        if (session == null) {
+            throw new ResourceNotFoundException("Recording JFR", "id", id);
+        }
+        if (session.recording.getState() == RecordingState.RUNNING || session.recording.getState() == RecordingState.NEW
+                || session.recording.getState() == RecordingState.DELAYED) {
+            throw new IllegalStateException("Recording JFR " + id + " chưa kết thúc");
+        }
+        if (session.recording.getState() != RecordingState.CLOSED) {
+            try {
+                session.recording.dump(session.file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Không ghi được file JFR", ex);
+            } finally {
+                session.recording.close();
+            }
+        }
+        return session.file;
+    }
+
+    public JfrSummaryDTO summarize(long id) {
+        Path file = file(id);
+        JfrRecordingDTO recording;
+        synchronized (this) {
+            recording = sessions.get(id).toDto();
+        }
+        Map<String, long[]> hotMethods = new HashMap<>();
+        Map<String, long[]> allocationSites = new HashMap<>();
+        Map<String, long[]> lockContention = new HashMap<>();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> add(hotMethods, event, 1);
+                    case "jdk.ObjectAllocationSample" -> add(allocationSites, event, event.getLong("weight"));
+                    case "jdk.JavaMonitorEnter", "jdk.ThreadPark" -> add(lockContention, event, event.getDuration().toNanos());
+                    default -> {
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Không đọc được file JFR", ex);
+        }
+        lockContention.values().forEach(stat -> stat[1] = Duration.ofNanos(stat[1]).toMillis());
+        return new JfrSummaryDTO(recording, top(hotMethods), top(allocationSites), top(lockContention));
+    }
+
+    private static void add(Map<String, long[]> stats, RecordedEvent event, long value) {
+        String frame = applicationFrame(event.getStackTrace());
+        if (frame != null) {
+            long[] stat = stats.computeIfAbsent(frame, ignored -> new long[2]);
+            stat[0]++;
+            stat[1] += value;
+        }
+    }
+
+    /**
+     * Frame com.congdinh.tms gần đỉnh stack nhất, bỏ qua class proxy do Spring sinh ra ($$SpringCGLIB$$)
+     */
+    static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE) && !type.contains("$$")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return null;
+    }
+
+    private List<JfrFrameStatDTO> top(Map<String, long[]> stats) {
+        return stats.entrySet().stream()
+                .map(entry -> new JfrFrameStatDTO(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(JfrFrameStatDTO::getValue).reversed())
+                .limit(topFrames)
+                .toList();
+    }
+
+    // Gọi khi đang giữ lock: xóa các recording đã dừng cũ nhất để chỉ giữ tối đa retainedRecordings - 1
+    private void evictOldSessions() {
+        List<Long> evicted = new ArrayList<>();
+        Iterator<JfrSession> iterator = sessions.values().iterator();
+        while (sessions.size() - evicted.size() >= retainedRecordings && iterator.hasNext()) {
+            JfrSession session = iterator.next();
+            session.recording.close();
+            try {
+                Files.deleteIfExists(session.file);
+            } catch (IOException ex) {
+                log.warn("Không xóa được file JFR {}", session.file, ex);
+            }
+            evicted.add(session.id);
+        }
+        evicted.forEach(sessions::remove);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        sessions.values().forEach(session -> session.recording.close());
+    }
+
+    private record JfrSession(long id, String profile, int durationSeconds, Instant startedAt,
+                              Recording recording, Path file) {
+
+        private JfrRecordingDTO toDto() {
+            RecordingState state = recording.getState();
+            String status = state == RecordingState.CLOSED || state == RecordingState.STOPPED ? "STOPPED" : "RUNNING";
+            return new JfrRecordingDTO(id, profile, durationSeconds, startedAt, status);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.congdinh.tms.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LogEventRingBuffer - Hàng đợi vòng có giới hạn, không dùng lock, nhiều producer một consumer
+ * Thuật toán bounded queue của Dmitry Vyukov: mỗi slot có một sequence cho biết slot đang chờ ghi hay chờ đọc,
+ * producer giành vị trí bằng một lần CAS trên tail, consumer (chỉ một thread) đọc theo head không cần CAS.
+ * offer() không bao giờ chờ: trả về false khi đầy để caller tự chọn bỏ event hay thử lại
+ */
+final class LogEventRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Chỉ consumer ghi; volatile để size() đọc được từ thread khác
+    private volatile long head;
+
+    LogEventRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Dung lượng ring buffer phải lớn hơn 1: " + requestedCapacity);
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Thêm phần tử; false nếu buffer đầy
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    // Công bố slot cho consumer sau khi phần tử đã được ghi
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // difference > 0: producer khác vừa giành vị trí này, đọc lại tail
+        }
+    }
+
+    /**
+     * Lấy phần tử cũ nhất, null nếu rỗng. Chỉ được gọi từ một thread consumer
+     */
+    E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        // Trả slot cho producer ở vòng tiếp theo
+        sequences.lazySet(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,38 @@
+package com.congdinh.tms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * ObservedJsonHttpMessageConverter - Tạo observation (span + timer tms.http.json.write) cho mỗi lần
+ * serialize response ra JSON, để tách thời gian Jackson khỏi thời gian của controller/service/SQL
+ */
+public class ObservedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    static final String OBSERVATION_NAME = "tms.http.json.write";
+
+    private final ObservationRegistry observationRegistry;
+
+    public ObservedJsonHttpMessageConverter(ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+        super(objectMapper);
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .contextualName("json write")
+                // Kiểu của body chỉ gắn vào span, không thành tag của timer
+                .highCardinalityKeyValue("json.type", object.getClass().getSimpleName())
+                .observeChecked(() -> super.writeInternal(object, type, outputMessage));
+    }
+}
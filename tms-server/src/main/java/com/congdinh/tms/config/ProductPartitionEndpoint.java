@@ -0,0 +1,38 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductPartitionDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * ProductPartitionEndpoint - Actuator endpoint /actuator/productpartitions để quản lý partition của bảng products
+ * Không nằm trong management.endpoints.web.exposure.include mặc định vì có thao tác ghi khóa bảng
+ * - GET: danh sách partition
+ * - POST {"splitAt": 5000000}: tách partition theo dải giá tại mốc splitAt
+ */
+@Component
+@Profile("!embedded")
+@Endpoint(id = "productpartitions")
+public class ProductPartitionEndpoint {
+
+    private final ProductPartitionManager partitionManager;
+
+    public ProductPartitionEndpoint(ProductPartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @ReadOperation
+    public List<ProductPartitionDTO> partitions() {
+        return partitionManager.listPartitions();
+    }
+
+    @WriteOperation
+    public List<ProductPartitionDTO> split(double splitAt) {
+        return partitionManager.splitPriceRange(splitAt);
+    }
+}
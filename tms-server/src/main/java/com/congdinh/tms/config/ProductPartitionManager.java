@@ -0,0 +1,284 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductPartitionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ProductPartitionManager - Chuyển bảng products sang declarative partitioning của Postgres và quản lý partition
+ * PRICE_RANGE: partition theo dải giá, truy vấn lọc theo giá (findByPriceBetween, /price-range, /query) chỉ quét
+ * các partition giao với khoảng giá (partition pruning). Khóa chính phải chứa cột partition nên là (id, price):
+ * tìm theo id phải dò index của mọi partition (phần lớn được second-level cache hấp thụ).
+ * ID_HASH: partition theo hash của id, giữ khóa chính (id) nhưng không pruning được theo giá.
+ * Hibernate (ddl-auto=update) vẫn nhận ra bảng đã partition (PostgreSQLDialect đăng ký loại PARTITIONED TABLE)
+ */
+@Component
+@Profile("!embedded")
+public class ProductPartitionManager {
+
+    public enum Strategy {
+        PRICE_RANGE,
+        ID_HASH
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPartitionManager.class);
+    private static final String TABLE = "products";
+    private static final String ID_SEQUENCE = "products_id_seq";
+
+    // pg_get_expr của partition range trên cột double precision, ví dụ FOR VALUES FROM (MINVALUE) TO (1e+06)
+    private static final Pattern RANGE_BOUND = Pattern.compile(
+            "FOR VALUES FROM \\((MINVALUE|'?[-+0-9.eE]+'?)\\) TO \\((MAXVALUE|'?[-+0-9.eE]+'?)\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Strategy strategy;
+    private final double[] priceBounds;
+    private final int hashPartitions;
+
+    public ProductPartitionManager(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${tms.product.partitioning.enabled:false}") boolean enabled,
+                                   @Value("${tms.product.partitioning.strategy:PRICE_RANGE}") Strategy strategy,
+                                   @Value("${tms.product.partitioning.price-bounds:1000000,5000000,10000000,20000000,50000000}") double[] priceBounds,
+                                   @Value("${tms.product.partitioning.hash-partitions:8}") int hashPartitions) {
+        double[] sortedBounds = priceBounds.clone();
+        Arrays.sort(sortedBounds);
+        for (int i = 0; i < sortedBounds.length; i++) {
+            if (!Double.isFinite(sortedBounds[i]) || (i > 0 && sortedBounds[i] == sortedBounds[i - 1])) {
+                throw new IllegalArgumentException("Các mốc giá của partition phải là số hữu hạn và không trùng nhau");
+            }
+        }
+        if (hashPartitions < 2) {
+            throw new IllegalArgumentException("Số partition hash phải lớn hơn 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.strategy = strategy;
+        this.priceBounds = sortedBounds;
+        this.hashPartitions = hashPartitions;
+    }
+
+    /**
+     * Bật tms.product.partitioning.enabled: chuyển bảng khi ứng dụng khởi động (lần đầu, sau khi Hibernate tạo bảng)
+     * Với bảng lớn nên chạy trong maintenance window: bảng bị khóa ACCESS EXCLUSIVE trong khi copy dữ liệu
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void partitionOnStartup() {
+        if (enabled && isSupported() && !isPartitioned()) {
+            partitionTable();
+        }
+    }
+
+    /**
+     * Declarative partitioning chỉ có trên PostgreSQL (H2 của profile test không hỗ trợ)
+     */
+    public boolean isSupported() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)", Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Các partition hiện có cùng ước lượng số dòng và dung lượng (gồm cả index)
+     */
+    public List<ProductPartitionDTO> listPartitions() {
+        if (!isSupported() || !isPartitioned()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                        SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound,
+                               c.reltuples::bigint AS estimated_rows, pg_total_relation_size(c.oid) AS total_bytes
+                        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = to_regclass(?)
+                        ORDER BY c.relname""",
+                (rs, rowNum) -> new ProductPartitionDTO(rs.getString("relname"), rs.getString("bound"),
+                        rs.getLong("estimated_rows"), rs.getLong("total_bytes")),
+                TABLE);
+    }
+
+    /**
+     * Chuyển bảng products hiện tại thành bảng partition trong một transaction:
+     * đổi tên bảng cũ, tạo bảng partition cùng cấu trúc, copy dữ liệu, rồi tạo lại sequence, khóa chính và index
+     * (identity column chưa được hỗ trợ trên bảng partition trước Postgres 17 nên id dùng sequence mặc định)
+     */
+    public List<ProductPartitionDTO> partitionTable() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Partitioning chỉ được hỗ trợ trên PostgreSQL");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (isPartitioned()) {
+                throw new IllegalStateException("Bảng products đã được partition");
+            }
+            String legacyTable = TABLE + "_unpartitioned";
+            jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            // Lấy định nghĩa index (trừ khóa chính) trước khi đổi tên để tạo lại trên bảng mới
+            List<String> indexDefinitions = jdbcTemplate.queryForList("""
+                            SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i
+                            WHERE i.indrelid = to_regclass(?) AND NOT i.indisprimary""",
+                    String.class, TABLE);
+
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + legacyTable);
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + legacyTable
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE INCLUDING COMMENTS) "
+                    + partitionClause());
+            for (String partition : partitionDefinitions()) {
+                jdbcTemplate.execute(partition);
+            }
+            jdbcTemplate.execute("INSERT INTO " + TABLE + " SELECT * FROM " + legacyTable);
+            // Xóa bảng cũ trước để giải phóng tên sequence/khóa chính/index
+            jdbcTemplate.execute("DROP TABLE " + legacyTable);
+
+            jdbcTemplate.execute("CREATE SEQUENCE " + ID_SEQUENCE + " OWNED BY " + TABLE + ".id");
+            jdbcTemplate.queryForObject("SELECT setval('" + ID_SEQUENCE + "', COALESCE(max(id), 0) + 1, false) FROM "
+                    + TABLE, Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN id SET DEFAULT nextval('" + ID_SEQUENCE + "')");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + TABLE + "_pkey PRIMARY KEY "
+                    + (strategy == Strategy.PRICE_RANGE ? "(id, price)" : "(id)"));
+            for (String indexDefinition : indexDefinitions) {
+                jdbcTemplate.execute(indexDefinition);
+            }
+        });
+        log.info("Đã chuyển bảng {} sang partition theo {}", TABLE, strategy);
+        return listPartitions();
+    }
+
+    /**
+     * Tách partition PRICE_RANGE chứa mốc giá price thành hai partition [lower, price) và [price, upper)
+     * Partition cũ được detach, dữ liệu được chèn lại qua bảng cha để Postgres tự định tuyến vào partition mới
+     */
+    public List<ProductPartitionDTO> splitPriceRange(double price) {
+        if (!Double.isFinite(price)) {
+            throw new IllegalArgumentException("Mốc giá phải là số hữu hạn");
+        }
+        if (!isSupported() || !isPartitioned()) {
+            throw new IllegalStateException("Bảng products chưa được partition");
+        }
+        if (strategy != Strategy.PRICE_RANGE) {
+            throw new IllegalStateException("Chỉ có thể tách partition với strategy PRICE_RANGE");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            PriceRange target = null;
+            for (ProductPartitionDTO partition : listPartitions()) {
+                PriceRange range = PriceRange.parse(partition.getName(), partition.getBound());
+                if (range.lower() == price || range.upper() == price) {
+                    throw new IllegalArgumentException("Đã có ranh giới partition tại giá " + literal(price));
+                }
+                if (range.contains(price)) {
+                    target = range;
+                }
+            }
+            if (target == null) {
+                throw new IllegalStateException("Không tìm thấy partition chứa giá " + literal(price));
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + target.name());
+            jdbcTemplate.execute(rangePartition(target.lower(), price));
+            jdbcTemplate.execute(rangePartition(price, target.upper()));
+            jdbcTemplate.execute("INSERT INTO " + TABLE + " SELECT * FROM " + target.name());
+            jdbcTemplate.execute("DROP TABLE " + target.name());
+        });
+        log.info("Đã tách partition của bảng {} tại giá {}", TABLE, literal(price));
+        return listPartitions();
+    }
+
+    private String partitionClause() {
+        return strategy == Strategy.PRICE_RANGE ? "PARTITION BY RANGE (price)" : "PARTITION BY HASH (id)";
+    }
+
+    // Câu CREATE TABLE ... PARTITION OF cho cấu hình hiện tại, phủ toàn bộ miền giá trị
+    List<String> partitionDefinitions() {
+        List<String> definitions = new ArrayList<>();
+        if (strategy == Strategy.ID_HASH) {
+            for (int remainder = 0; remainder < hashPartitions; remainder++) {
+                definitions.add("CREATE TABLE " + TABLE + "_h" + remainder + " PARTITION OF " + TABLE
+                        + " FOR VALUES WITH (MODULUS " + hashPartitions + ", REMAINDER " + remainder + ")");
+            }
+            return definitions;
+        }
+        double lower = Double.NEGATIVE_INFINITY;
+        for (double bound : priceBounds) {
+            definitions.add(rangePartition(lower, bound));
+            lower = bound;
+        }
+        definitions.add(rangePartition(lower, Double.POSITIVE_INFINITY));
+        return definitions;
+    }
+
+    // Vô cực được dùng để biểu diễn MINVALUE/MAXVALUE
+    static String rangePartition(double lower, double upper) {
+        return "CREATE TABLE " + partitionName(lower, upper) + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM (" + bound(lower) + ") TO (" + bound(upper) + ")";
+    }
+
+    // Ví dụ products_p_1000000_5000000, products_p_min_1000000, products_p_m5_0_5 (từ -5 tới 0.5)
+    static String partitionName(double lower, double upper) {
+        return TABLE + "_p_" + nameLabel(lower) + "_" + nameLabel(upper);
+    }
+
+    private static String bound(double value) {
+        if (Double.isInfinite(value)) {
+            return value < 0 ? "MINVALUE" : "MAXVALUE";
+        }
+        return literal(value);
+    }
+
+    private static String nameLabel(double value) {
+        if (Double.isInfinite(value)) {
+            return value < 0 ? "min" : "max";
+        }
+        return literal(value).replace('-', 'm').replace('.', '_');
+    }
+
+    private static String literal(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Khoảng [lower, upper) của một partition PRICE_RANGE, đọc từ pg_get_expr(relpartbound)
+     */
+    record PriceRange(String name, double lower, double upper) {
+
+        static PriceRange parse(String name, String bound) {
+            Matcher matcher = RANGE_BOUND.matcher(bound == null ? "" : bound);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Partition " + name + " không phải partition theo dải giá: " + bound);
+            }
+            return new PriceRange(name, value(matcher.group(1), Double.NEGATIVE_INFINITY),
+                    value(matcher.group(2), Double.POSITIVE_INFINITY));
+        }
+
+        boolean contains(double price) {
+            return price > lower && price < upper;
+        }
+
+        private static double value(String token, double unbounded) {
+            if (token.endsWith("VALUE")) {
+                return unbounded;
+            }
+            return Double.parseDouble(token.replace("'", ""));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.repositories.ProductRowHandler;
+import com.congdinh.tms.services.ProductRowStream;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * ProductRowStreamHttpMessageConverter - Ghi ProductRowStream ra JSON array bằng JsonGenerator, từng dòng một
+ * Mỗi dòng được ghi vào buffer của generator (Jackson tái sử dụng buffer giữa các request) và đẩy ra response
+ * khi buffer đầy, nên bộ nhớ dùng cho response không phụ thuộc số dòng. Kết quả giống hệt khi serialize
+ * List<ProductResponseDTO> (cùng thứ tự thuộc tính, chỉ các trường được chọn, null được ghi tường minh).
+ * Dấu '[' chỉ được ghi khi đã có dòng đầu tiên: lỗi khi mở connection / chạy truy vấn xảy ra trước khi có byte nào
+ * được ghi và vẫn trả về response lỗi bình thường; lỗi giữa chừng thì response đã gửi đi một phần sẽ bị cắt.
+ */
+@Component
+public class ProductRowStreamHttpMessageConverter extends AbstractHttpMessageConverter<ProductRowStream> {
+
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+
+    // ObservationRegistry không có trong test slice (@WebMvcTest) - khi đó không tạo observation
+    @Autowired
+    public ProductRowStreamHttpMessageConverter(ObjectMapper objectMapper,
+                                                ObjectProvider<ObservationRegistry> observationRegistry) {
+        this(objectMapper, observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    public ProductRowStreamHttpMessageConverter(ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductRowStream.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ProductRowStream readInternal(Class<? extends ProductRowStream> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("ProductRowStream chỉ dùng cho response", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ProductRowStream stream, HttpOutputMessage outputMessage) throws IOException {
+        // Cùng observation với ObservedJsonHttpMessageConverter; ở đây span gồm cả thời gian đọc từ database
+        Observation.createNotStarted(ObservedJsonHttpMessageConverter.OBSERVATION_NAME, observationRegistry)
+                .contextualName("json write")
+                .highCardinalityKeyValue("json.type", ProductRowStream.class.getSimpleName())
+                .observeChecked(() -> write(stream, outputMessage));
+    }
+
+    private void write(ProductRowStream stream, HttpOutputMessage outputMessage) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        // Servlet container tự đóng output stream sau request
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (generator) {
+            JsonRowWriter writer = new JsonRowWriter(generator, stream.fields());
+            try {
+                stream.forEach(writer);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            writer.finish();
+        }
+    }
+
+    private static final class JsonRowWriter implements ProductRowHandler {
+
+        private final JsonGenerator generator;
+        private final boolean writeId;
+        private final boolean writeName;
+        private final boolean writeDescription;
+        private final boolean writePrice;
+        private boolean started;
+
+        private JsonRowWriter(JsonGenerator generator, Set<ProductField> fields) {
+            this.generator = generator;
+            this.writeId = fields.contains(ProductField.ID);
+            this.writeName = fields.contains(ProductField.NAME);
+            this.writeDescription = fields.contains(ProductField.DESCRIPTION);
+            this.writePrice = fields.contains(ProductField.PRICE);
+        }
+
+        @Override
+        public void handle(Long id, String name, String description, Double price) {
+            try {
+                if (!started) {
+                    generator.writeStartArray();
+                    started = true;
+                }
+                generator.writeStartObject();
+                // Giống ProductResponseDTOSerializer: chỉ các trường được chọn, null được ghi tường minh
+                if (writeId) {
+                    if (id == null) {
+                        generator.writeNullField("id");
+                    } else {
+                        generator.writeNumberField("id", id);
+                    }
+                }
+                if (writeName) {
+                    generator.writeStringField("name", name);
+                }
+                if (writeDescription) {
+                    generator.writeStringField("description", description);
+                }
+                if (writePrice) {
+                    if (price == null) {
+                        generator.writeNullField("price");
+                    } else {
+                        generator.writeNumberField("price", price);
+                    }
+                }
+                generator.writeEndObject();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void finish() throws IOException {
+            if (!started) {
+                generator.writeStartArray();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
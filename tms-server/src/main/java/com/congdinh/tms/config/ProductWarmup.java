@@ -0,0 +1,255 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.controllers.ProductController;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductSpecifications;
+import com.congdinh.tms.services.ProductRowStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductWarmup - Làm nóng cache và JIT trước khi pod nhận traffic
+ * Chạy đồng bộ trong ApplicationReadyEvent: Spring Boot chỉ chuyển readiness sang ACCEPTING_TRAFFIC
+ * (/actuator/health/readiness = UP) sau khi mọi listener của ApplicationReadyEvent kết thúc.
+ * 1. Preload các product hot (theo tms.product.warmup.product-ids, mặc định các product thay đổi gần nhất)
+ *    vào second-level cache và các truy vấn tìm kiếm phổ biến vào ProductSearchCache
+ * 2. Gọi lặp lại đường đi ProductController -> ProductService -> ProductMapper -> Jackson theo từng round
+ *    tới khi độ trễ mỗi round ổn định (JIT đã biên dịch) hoặc hết thời gian cho phép
+ */
+@Component
+public class ProductWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWarmup.class);
+    private static final int MULTI_GET_CHUNK = 100;
+    private static final int SUGGEST_LIMIT = 10;
+
+    private final ProductController productController;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ProductRowStreamHttpMessageConverter rowStreamConverter;
+    private final boolean enabled;
+    private final List<Long> configuredProductIds;
+    private final int hotProducts;
+    private final List<String> searches;
+    private final int callsPerRound;
+    private final int maxRounds;
+    private final long maxDurationMillis;
+    private final double tolerance;
+    private final int stableRounds;
+
+    // Kết quả lần warmup gần nhất, xuất ra qua Micrometer
+    private volatile long durationNanos;
+    private volatile long timeToReadyNanos;
+    private volatile long firstRoundNanos;
+    private volatile long lastRoundNanos;
+    private volatile int rounds;
+    private volatile boolean converged;
+
+    public ProductWarmup(ProductController productController,
+                         ProductRepository productRepository,
+                         ObjectMapper objectMapper,
+                         ProductRowStreamHttpMessageConverter rowStreamConverter,
+                         MeterRegistry meterRegistry,
+                         @Value("${tms.product.warmup.enabled:true}") boolean enabled,
+                         @Value("${tms.product.warmup.product-ids:}") List<Long> configuredProductIds,
+                         @Value("${tms.product.warmup.hot-products:200}") int hotProducts,
+                         @Value("${tms.product.warmup.searches:}") List<String> searches,
+                         @Value("${tms.product.warmup.calls-per-round:200}") int callsPerRound,
+                         @Value("${tms.product.warmup.max-rounds:200}") int maxRounds,
+                         @Value("${tms.product.warmup.max-duration-ms:30000}") long maxDurationMillis,
+                         @Value("${tms.product.warmup.tolerance:0.05}") double tolerance,
+                         @Value("${tms.product.warmup.stable-rounds:3}") int stableRounds) {
+        this.productController = productController;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.rowStreamConverter = rowStreamConverter;
+        this.enabled = enabled;
+        this.configuredProductIds = configuredProductIds == null ? List.of() : List.copyOf(configuredProductIds);
+        this.hotProducts = hotProducts;
+        this.searches = searches == null ? List.of() : searches.stream().map(String::trim).filter(s -> !s.isEmpty()).toList();
+        this.callsPerRound = Math.max(1, callsPerRound);
+        this.maxRounds = maxRounds;
+        this.maxDurationMillis = maxDurationMillis;
+        this.tolerance = tolerance;
+        this.stableRounds = Math.max(1, stableRounds);
+
+        TimeGauge.builder("tms.product.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.durationNanos)
+                .description("Thời gian chạy warmup")
+                .register(meterRegistry);
+        TimeGauge.builder("tms.product.warmup.time_to_ready", this, TimeUnit.NANOSECONDS, warmup -> warmup.timeToReadyNanos)
+                .description("Thời gian từ khi JVM khởi động tới khi warmup xong và readiness chuyển sang UP")
+                .register(meterRegistry);
+        TimeGauge.builder("tms.product.warmup.first_round", this, TimeUnit.NANOSECONDS, warmup -> warmup.firstRoundNanos)
+                .description("Độ trễ trung bình mỗi lần gọi trong round warmup đầu tiên (JVM còn lạnh)")
+                .register(meterRegistry);
+        TimeGauge.builder("tms.product.warmup.steady_state", this, TimeUnit.NANOSECONDS, warmup -> warmup.lastRoundNanos)
+                .description("Độ trễ trung bình mỗi lần gọi trong round warmup cuối cùng (trạng thái ổn định)")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.warmup.rounds", this, warmup -> warmup.rounds)
+                .description("Số round warmup đã chạy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Chạy sau khi các bản sao trong bộ nhớ đã load xong: ProductNameIndex#rebuild, ProductColumnarCatalog#load và
+     * ProductSimilarityIndex#rebuild khai báo Order HIGHEST_PRECEDENCE + 100, nhỏ hơn LOWEST_PRECEDENCE ở đây
+     * (listener không khai báo Order cũng mặc định là LOWEST_PRECEDENCE, nên không được dựa vào Order của warmup)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<Long> productIds = preload();
+            exercise(productIds, start);
+        } catch (RuntimeException ex) {
+            // Warmup chỉ là tối ưu: lỗi không được chặn pod nhận traffic
+            log.warn("Warmup thất bại sau {} round, bỏ qua", rounds, ex);
+        }
+        durationNanos = System.nanoTime() - start;
+        timeToReadyNanos = TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime());
+        log.info("Warmup xong sau {} ms, {} round, độ trễ mỗi lần gọi {} µs -> {} µs{}",
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), rounds,
+                TimeUnit.NANOSECONDS.toMicros(firstRoundNanos), TimeUnit.NANOSECONDS.toMicros(lastRoundNanos),
+                converged ? "" : " (chưa ổn định, dừng do giới hạn)");
+    }
+
+    /**
+     * Nạp product hot vào second-level cache (multi-get dùng findAllById) và các truy vấn phổ biến vào search cache
+     */
+    List<Long> preload() {
+        List<Long> productIds = configuredProductIds.isEmpty() ? mostRecentlyChangedIds() : configuredProductIds;
+        for (int from = 0; from < productIds.size(); from += MULTI_GET_CHUNK) {
+            productController.getProductsByIds(productIds.subList(from, Math.min(from + MULTI_GET_CHUNK, productIds.size())), null);
+        }
+        for (String search : searches) {
+            productController.searchProductsByName(search, null);
+            productController.searchProductsByKeyword(search, null);
+        }
+        return productIds;
+    }
+
+    private List<Long> mostRecentlyChangedIds() {
+        if (hotProducts <= 0) {
+            return List.of();
+        }
+        return productRepository.findProjected(ProductSpecifications.all(), EnumSet.of(ProductField.ID),
+                        Sort.by(Sort.Direction.DESC, "changeSeq", "id"), hotProducts).stream()
+                .map(ProductResponseDTO::getId)
+                .toList();
+    }
+
+    /**
+     * Chạy từng round callsPerRound lần gọi, dừng khi độ trễ trung bình thay đổi không quá tolerance
+     * trong stableRounds round liên tiếp
+     */
+    private void exercise(List<Long> productIds, long start) {
+        if (productIds.isEmpty() && searches.isEmpty()) {
+            return;
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+        List<Runnable> calls = hotCalls(productIds);
+        int stable = 0;
+        long previous = 0;
+        for (int round = 0; round < maxRounds && System.nanoTime() < deadline; round++) {
+            long roundStart = System.nanoTime();
+            for (int call = 0; call < callsPerRound; call++) {
+                calls.get(call % calls.size()).run();
+            }
+            long average = (System.nanoTime() - roundStart) / callsPerRound;
+            if (round == 0) {
+                firstRoundNanos = average;
+            }
+            lastRoundNanos = average;
+            rounds = round + 1;
+            stable = previous > 0 && Math.abs(average - previous) <= previous * tolerance ? stable + 1 : 0;
+            previous = average;
+            if (stable >= stableRounds) {
+                converged = true;
+                return;
+            }
+        }
+    }
+
+    // Các request điển hình: lấy theo ID, multi-get, tìm kiếm, gợi ý - mỗi kết quả đều được serialize ra JSON
+    private List<Runnable> hotCalls(List<Long> productIds) {
+        List<Runnable> calls = new ArrayList<>();
+        if (!productIds.isEmpty()) {
+            List<Long> multiGet = productIds.subList(0, Math.min(MULTI_GET_CHUNK, productIds.size()));
+            calls.add(() -> serialize(productController.getProductsByIds(multiGet, null).getBody()));
+            for (Long id : productIds.subList(0, Math.min(10, productIds.size()))) {
+                calls.add(() -> serialize(productController.getProductById(id).getBody()));
+            }
+        }
+        for (String search : searches) {
+            calls.add(() -> serialize(productController.searchProductsByName(search, null).getBody()));
+            calls.add(() -> serialize(productController.searchProductsByKeyword(search, null).getBody()));
+            String prefix = search.substring(0, Math.min(3, search.length()));
+            calls.add(() -> serialize(productController.suggestProducts(prefix, SUGGEST_LIMIT).getBody()));
+        }
+        return calls;
+    }
+
+    private void serialize(Object body) {
+        try {
+            if (body instanceof ProductRowStream rows) {
+                // Danh sách được ghi qua đúng converter streaming của response thật
+                rowStreamConverter.write(rows, MediaType.APPLICATION_JSON, new DiscardingOutputMessage());
+                return;
+            }
+            objectMapper.writeValueAsBytes(body);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
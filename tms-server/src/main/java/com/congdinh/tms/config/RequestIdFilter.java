@@ -0,0 +1,65 @@
+package com.congdinh.tms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * RequestIdFilter - Gắn request id cho mọi request: lấy từ header X-Request-Id nếu hợp lệ, nếu không thì sinh mới
+ * Request id được đưa vào MDC (requestId) nên có trong mọi log event JSON của request, và trả lại qua header X-Request-Id
+ * Thời điểm bắt đầu request được lưu trong request attribute để log lỗi/ghi có thể kèm thời gian đã xử lý (elapsedMillis)
+ * Đăng ký qua RequestLoggingConfiguration
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+    private static final String REQUEST_ID_ATTRIBUTE = RequestIdFilter.class.getName() + ".requestId";
+    private static final String START_ATTRIBUTE = RequestIdFilter.class.getName() + ".start";
+    // Không nhận request id tùy ý từ client để tránh chèn nội dung lạ vào log
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Khôi phục MDC khi request async được dispatch lại trên thread khác
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = (String) request.getAttribute(REQUEST_ID_ATTRIBUTE);
+        if (requestId == null) {
+            String header = request.getHeader(HEADER);
+            requestId = header != null && VALID_REQUEST_ID.matcher(header).matches() ? header : UUID.randomUUID().toString();
+            request.setAttribute(REQUEST_ID_ATTRIBUTE, requestId);
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            response.setHeader(HEADER, requestId);
+        }
+        MDC.put(MDC_KEY, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    /**
+     * Số mili giây từ khi request bắt đầu, -1 nếu request không đi qua filter
+     */
+    public static long elapsedMillis(HttpServletRequest request) {
+        return request.getAttribute(START_ATTRIBUTE) instanceof Long start
+                ? (System.nanoTime() - start) / 1_000_000
+                : -1;
+    }
+}
@@ -0,0 +1,17 @@
+package com.congdinh.tms.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RequestLoggingConfiguration - Đăng ký RequestIdFilter
+ * Khai báo bằng @Bean giống EndpointLatencyConfiguration để các test @WebMvcTest không tự nạp filter
+ */
+@Configuration
+public class RequestLoggingConfiguration {
+
+    @Bean
+    RequestIdFilter requestIdFilter() {
+        return new RequestIdFilter();
+    }
+}
@@ -0,0 +1,209 @@
+package com.congdinh.tms.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RingBufferAsyncAppender - Logback appender bất đồng bộ: thread gọi log chỉ đưa event vào LogEventRingBuffer,
+ * một worker thread riêng ghi event ra các appender bên dưới (console JSON...), nên độ trễ request
+ * không phụ thuộc tốc độ stdout hay đĩa
+ * Khi buffer đầy: policy DROP bỏ event INFO trở xuống và tăng bộ đếm (metric tms.logging.async.dropped,
+ * xem AsyncLoggingMetrics), event WARN/ERROR vẫn chờ tới khi có chỗ vì đó là các event cần nhất khi sự cố làm log
+ * tăng vọt; policy BLOCK cho thread gọi log chờ với mọi level. Cấu hình trong logback-spring.xml
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    /**
+     * Cách xử lý khi ring buffer đầy
+     */
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder dropped = new LongAdder();
+    private int capacity = 8192;
+    private OverflowPolicy policy = OverflowPolicy.DROP;
+    private long maxFlushTimeMillis = 1000;
+
+    private volatile LogEventRingBuffer<ILoggingEvent> buffer;
+    private Thread worker;
+    private volatile boolean workerParked;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("Chưa cấu hình appender-ref cho " + getName());
+            return;
+        }
+        buffer = new LogEventRingBuffer<>(capacity);
+        worker = new Thread(this::drain, "tms-async-log-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        // Worker ghi nốt các event còn trong buffer rồi mới dừng
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTimeMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Hết " + maxFlushTimeMillis + " ms nhưng còn " + buffer.size() + " event chưa được ghi");
+        }
+        if (dropped.sum() > 0) {
+            addInfo("Đã bỏ " + dropped.sum() + " event do ring buffer đầy");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Chụp MDC, message đã format, tên thread... trước khi event rời thread gọi log
+        event.prepareForDeferredProcessing();
+        if (Thread.currentThread() == worker) {
+            // Log phát sinh trong lúc worker đang ghi: ghi thẳng để worker không tự chờ chính mình khi buffer đầy
+            appenders.appendLoopOnAppenders(event);
+            return;
+        }
+        if (!buffer.offer(event)) {
+            if (policy == OverflowPolicy.DROP && !event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                dropped.increment();
+                return;
+            }
+            while (!buffer.offer(event)) {
+                if (!isStarted()) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.unpark(worker);
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            }
+        }
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void drain() {
+        while (isStarted() || !buffer.isEmpty()) {
+            ILoggingEvent event = buffer.poll();
+            if (event != null) {
+                try {
+                    appenders.appendLoopOnAppenders(event);
+                } catch (RuntimeException ex) {
+                    addError("Không ghi được log event", ex);
+                }
+                continue;
+            }
+            workerParked = true;
+            // Kiểm tra lại sau khi bật cờ: producer có thể vừa thêm event trước khi thấy cờ
+            if (buffer.isEmpty() && isStarted()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            workerParked = false;
+        }
+    }
+
+    /**
+     * Số event đã bị bỏ vì buffer đầy
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Số event đang chờ worker ghi
+     */
+    public int getQueueSize() {
+        LogEventRingBuffer<ILoggingEvent> current = buffer;
+        return current == null ? 0 : current.size();
+    }
+
+    public int getCapacity() {
+        LogEventRingBuffer<ILoggingEvent> current = buffer;
+        return current == null ? capacity : current.capacity();
+    }
+
+    /**
+     * Dung lượng ring buffer, được làm tròn lên lũy thừa của 2
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(OverflowPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Thời gian tối đa chờ ghi nốt buffer khi dừng appender
+     */
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
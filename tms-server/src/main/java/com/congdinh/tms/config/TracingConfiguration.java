@@ -0,0 +1,43 @@
+package com.congdinh.tms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * TracingConfiguration - Các phần tracing không có sẵn trong auto-configuration của Spring Boot
+ * Span theo request HTTP, theo method của ProductController/ProductService (@Observed), theo câu SQL và
+ * connection (datasource-micrometer) đều đi qua Micrometer Observation -> OpenTelemetry; ở đây bổ sung:
+ * - span cho bước serialize JSON của response
+ * - exporter ghi span ra file (bên cạnh OTLP exporter của Spring Boot)
+ */
+@Configuration
+public class TracingConfiguration {
+
+    /**
+     * Thay MappingJackson2HttpMessageConverter mặc định (dùng chung ObjectMapper của Spring Boot)
+     */
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                           ObservationRegistry observationRegistry) {
+        return new ObservedJsonHttpMessageConverter(objectMapper, observationRegistry);
+    }
+
+    /**
+     * Spring Boot gom mọi SpanExporter bean vào BatchSpanProcessor, nên exporter này chạy song song với OTLP
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tms.tracing.file.enabled", havingValue = "true")
+    SpanExporter jsonFileSpanExporter(ObjectMapper objectMapper,
+                                      @Value("${tms.tracing.file.path:logs/spans.jsonl}") Path path) throws IOException {
+        return new JsonFileSpanExporter(path, objectMapper);
+    }
+}
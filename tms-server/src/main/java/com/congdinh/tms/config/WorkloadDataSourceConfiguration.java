@@ -0,0 +1,97 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.services.WorkloadLane;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * WorkloadDataSourceConfiguration - Thay Hikari pool duy nhất bằng một pool cho mỗi WorkloadLane
+ * Mỗi pool nhận cấu hình chung từ spring.datasource.hikari.*, kích thước và connection-timeout riêng
+ * từ tms.workload.<lane>.*; metric hikaricp.* của từng pool có tag pool=tms-<lane>.
+ * Tắt bằng tms.workload.enabled=false để quay lại pool của Spring Boot
+ */
+@Configuration
+@Profile("!embedded")
+@ConditionalOnProperty(name = "tms.workload.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkloadDataSourceConfiguration {
+
+    /**
+     * Spring Boot chỉ tạo JdbcConnectionDetails từ spring.datasource.* khi tự tạo DataSource;
+     * ProductInvalidationListener và các pool ở đây cần bean này (Testcontainers có thể cung cấp bean riêng)
+     */
+    @Bean
+    @ConditionalOnMissingBean(JdbcConnectionDetails.class)
+    JdbcConnectionDetails jdbcConnectionDetails(DataSourceProperties properties) {
+        return new JdbcConnectionDetails() {
+            @Override
+            public String getUsername() {
+                return properties.determineUsername();
+            }
+
+            @Override
+            public String getPassword() {
+                return properties.determinePassword();
+            }
+
+            @Override
+            public String getJdbcUrl() {
+                return properties.determineUrl();
+            }
+
+            @Override
+            public String getDriverClassName() {
+                return properties.determineDriverClassName();
+            }
+        };
+    }
+
+    @Bean
+    WorkloadRoutingDataSource dataSource(JdbcConnectionDetails connectionDetails, Environment environment,
+                                         MeterRegistry meterRegistry) {
+        Map<WorkloadLane, HikariDataSource> pools = new EnumMap<>(WorkloadLane.class);
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            pools.put(lane, createPool(lane, connectionDetails, environment, meterRegistry));
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    private static HikariDataSource createPool(WorkloadLane lane, JdbcConnectionDetails connectionDetails,
+                                               Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(connectionDetails.getDriverClassName())
+                .url(connectionDetails.getJdbcUrl())
+                .username(connectionDetails.getUsername())
+                .password(connectionDetails.getPassword())
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+
+        String prefix = "tms.workload." + lane.getKey() + ".";
+        int poolSize = environment.getProperty(prefix + "pool-size", Integer.class, lane.getDefaultPoolSize());
+        int minIdle = environment.getProperty(prefix + "min-idle", Integer.class, 1);
+        pool.setPoolName("tms-" + lane.getKey());
+        pool.setMaximumPoolSize(poolSize);
+        pool.setMinimumIdle(Math.min(minIdle, poolSize));
+        Long connectionTimeout = environment.getProperty(prefix + "connection-timeout-ms", Long.class);
+        if (connectionTimeout != null) {
+            pool.setConnectionTimeout(connectionTimeout);
+        }
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
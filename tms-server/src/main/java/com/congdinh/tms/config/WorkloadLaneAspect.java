@@ -0,0 +1,74 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.services.Lane;
+import com.congdinh.tms.services.ProductBatchLoader;
+import com.congdinh.tms.services.ProductRowStream;
+import com.congdinh.tms.services.WorkloadLane;
+import com.congdinh.tms.services.WorkloadLanes;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * WorkloadLaneAspect - Chuyển lời gọi method có @Lane (trên method hoặc class) sang thread của lane đó
+ * Chạy ngoài cùng (trước @Transactional và @Observed): transaction được mở trên thread của lane,
+ * nên connection được lấy từ pool của lane. ProductRowStream chỉ truy vấn khi response được ghi, với tốc độ của client,
+ * nên stream trả về được bọc để phần đọc database chạy trên lane EXPORT: client chậm không giữ thread của lane
+ * đã gọi method (kết quả đã nằm trong bộ nhớ thì đọc ngay trên thread ghi response).
+ * Method có @Lane(callerThreadWhenBatching = true) chạy trên thread của caller khi ProductBatchLoader bật
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadLaneAspect {
+
+    private final WorkloadLanes workloadLanes;
+    private final ProductBatchLoader batchLoader;
+
+    public WorkloadLaneAspect(WorkloadLanes workloadLanes, ProductBatchLoader batchLoader) {
+        this.workloadLanes = workloadLanes;
+        this.batchLoader = batchLoader;
+    }
+
+    @Around("@annotation(com.congdinh.tms.services.Lane) || @within(com.congdinh.tms.services.Lane)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Lane annotation = resolveLane(joinPoint);
+        WorkloadLane lane = annotation.value();
+        if (annotation.callerThreadWhenBatching() && batchLoader.isEnabled()) {
+            // Chỉ chờ batch của ProductBatchLoader: không chiếm thread của lane trong lúc chờ
+            return WorkloadLanes.callBound(lane, () -> proceed(joinPoint));
+        }
+        Object result = workloadLanes.call(lane, () -> proceed(joinPoint));
+        if (result instanceof ProductRowStream stream && !stream.isInMemory()) {
+            return ProductRowStream.projected(stream.fields(),
+                    handler -> workloadLanes.run(WorkloadLane.EXPORT, () -> stream.forEach(handler)));
+        }
+        return result;
+    }
+
+    private static Lane resolveLane(ProceedingJoinPoint joinPoint) {
+        Lane lane = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), Lane.class);
+        if (lane == null) {
+            lane = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Lane.class);
+        }
+        return lane;
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return joinPoint.proceed();
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new UndeclaredThrowableException(ex);
+        }
+    }
+}
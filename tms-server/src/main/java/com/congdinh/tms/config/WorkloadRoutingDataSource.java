@@ -0,0 +1,44 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.services.WorkloadLane;
+import com.congdinh.tms.services.WorkloadLanes;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WorkloadRoutingDataSource - DataSource của ứng dụng, mỗi WorkloadLane một Hikari pool riêng
+ * Connection được lấy từ pool của lane gắn với thread hiện tại (WorkloadLanes.current());
+ * công việc không thuộc lane nào (khởi động, warmup, job nền) dùng pool của lane BULK
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<WorkloadLane, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadLane, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadLane.BULK));
+        // Lane không có pool riêng thì dùng pool mặc định thay vì lỗi
+        setLenientFallback(true);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadLanes.current();
+    }
+
+    /**
+     * Pool của một lane - để đọc cấu hình và trạng thái (số connection đang dùng, đang chờ)
+     */
+    public HikariDataSource getPool(WorkloadLane lane) {
+        return pools.get(lane);
+    }
+
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
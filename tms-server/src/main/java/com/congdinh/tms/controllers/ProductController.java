@@ -1,38 +1,68 @@
 package com.congdinh.tms.controllers;
 
+import com.congdinh.tms.dtos.ProductBatchRequestDTO;
+import com.congdinh.tms.dtos.ProductBatchResponseDTO;
+import com.congdinh.tms.dtos.ProductChangesResponseDTO;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductIdsRequestDTO;
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentJobDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentRequestDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
 import com.congdinh.tms.dtos.ProductRequestDTO;
 import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.dtos.ProductSuggestionDTO;
+import com.congdinh.tms.dtos.SimilarProductDTO;
+import com.congdinh.tms.services.ProductBatchService;
+import com.congdinh.tms.services.ProductChangeTracker;
+import com.congdinh.tms.services.ProductPriceAdjustmentService;
+import com.congdinh.tms.services.ProductRowStream;
 import com.congdinh.tms.services.ProductService;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
 
 /**
  * ProductController - REST API endpoints cho Product
  * Theo REST conventions với HTTP methods và status codes
  * Sử dụng DTOs thay vì expose Entity trực tiếp
+ * @Observed: mỗi handler là một span con của span HTTP (tên ProductController#method)
  */
+@Observed(name = "tms.product.controller")
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:2025") // Cho phép CORS từ React app
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductPriceAdjustmentService priceAdjustmentService;
+    private final ProductBatchService batchService;
+    private final ProductChangeTracker changeTracker;
 
     // Constructor injection (không cần @Autowired từ Spring 4.3+)
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductPriceAdjustmentService priceAdjustmentService,
+                             ProductBatchService batchService, ProductChangeTracker changeTracker) {
         this.productService = productService;
+        this.priceAdjustmentService = priceAdjustmentService;
+        this.batchService = batchService;
+        this.changeTracker = changeTracker;
     }
 
     /**
-     * GET /api/products - Lấy tất cả products
+     * GET /api/products?fields=id,name,price - Lấy tất cả products
+     * Tham số fields (tùy chọn) áp dụng cho mọi endpoint trả về danh sách: chỉ các trường này được SELECT và trả về
+     * Các endpoint danh sách trả về ProductRowStream: các dòng được ghi ra JSON ngay khi đọc từ database
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> products = productService.getAllProducts();
+    public ResponseEntity<ProductRowStream> getAllProducts(@RequestParam(required = false) String fields) {
+        ProductRowStream products = productService.streamAllProducts(parseFields(fields));
         return ResponseEntity.ok(products);
     }
 
@@ -45,6 +75,32 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    /**
+     * GET /api/products?ids=1,2,3 - Lấy nhiều product theo ID trong một request
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductMultiGetResponseDTO> getProductsByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields) {
+        ProductMultiGetResponseDTO result = fields == null
+                ? productService.getProductsByIds(ids)
+                : productService.getProductsByIds(ids, ProductField.parse(fields));
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * POST /api/products/lookup - Lấy nhiều product theo ID (cho danh sách ID lớn)
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductMultiGetResponseDTO> lookupProducts(
+            @Valid @RequestBody ProductIdsRequestDTO productIdsRequestDTO,
+            @RequestParam(required = false) String fields) {
+        ProductMultiGetResponseDTO result = fields == null
+                ? productService.getProductsByIds(productIdsRequestDTO.getIds())
+                : productService.getProductsByIds(productIdsRequestDTO.getIds(), ProductField.parse(fields));
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * POST /api/products - Tạo mới product
      */
@@ -74,12 +130,24 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * POST /api/products/batch - Thực hiện nhiều thao tác create/update/delete theo thứ tự trong một request
+     * Luôn trả về 200 với kết quả của từng thao tác (status và error giống khi gọi riêng lẻ)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponseDTO> executeBatch(@Valid @RequestBody ProductBatchRequestDTO request) {
+        ProductBatchResponseDTO response = batchService.execute(request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET /api/products/search?name=keyword - Tìm kiếm theo tên
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDTO>> searchProductsByName(@RequestParam String name) {
-        List<ProductResponseDTO> products = productService.searchProductsByName(name);
+    public ResponseEntity<ProductRowStream> searchProductsByName(
+            @RequestParam String name,
+            @RequestParam(required = false) String fields) {
+        ProductRowStream products = productService.streamProductsByName(name, parseFields(fields));
         return ResponseEntity.ok(products);
     }
 
@@ -87,19 +155,99 @@ public class ProductController {
      * GET /api/products/search/keyword?q=keyword - Tìm kiếm theo keyword
      */
     @GetMapping("/search/keyword")
-    public ResponseEntity<List<ProductResponseDTO>> searchProductsByKeyword(@RequestParam String q) {
-        List<ProductResponseDTO> products = productService.searchProductsByKeyword(q);
+    public ResponseEntity<ProductRowStream> searchProductsByKeyword(
+            @RequestParam String q,
+            @RequestParam(required = false) String fields) {
+        ProductRowStream products = productService.streamProductsByKeyword(q, parseFields(fields));
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * GET /api/products/query?name=&q=&minPrice=&maxPrice=&sort=price,desc&limit=20&cursor=&fields=
+     * Kết hợp nhiều điều kiện lọc trong một request; trang tiếp theo lấy bằng nextCursor của trang trước
+     */
+    @GetMapping("/query")
+    public ResponseEntity<ProductPageResponseDTO> queryProducts(@Valid ProductQueryRequestDTO query) {
+        ProductPageResponseDTO page = productService.queryProducts(query);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * GET /api/products/suggest?prefix=lap&limit=10 - Gợi ý tên product khi người dùng đang gõ
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestionDTO> suggestions = productService.suggestProducts(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    /**
+     * GET /api/products/{id}/similar?k=10 - Các product có tên và mô tả giống product id nhất
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarProductDTO>> findSimilarProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int k) {
+        List<SimilarProductDTO> similar = productService.findSimilarProducts(id, k);
+        return ResponseEntity.ok(similar);
+    }
+
+    /**
+     * GET /api/products/changes?since=&limit=100 - Đồng bộ delta: các product đã tạo/sửa và ID đã xóa sau token
+     * Lần đầu gọi không có since để lấy toàn bộ catalog; lặp lại với nextToken tới khi hasMore = false
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponseDTO> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        ProductChangesResponseDTO changes = changeTracker.getChanges(since, limit);
+        return ResponseEntity.ok(changes);
+    }
+
     /**
      * GET /api/products/price-range?min=0&max=100 - Tìm kiếm theo khoảng giá
      */
     @GetMapping("/price-range")
-    public ResponseEntity<List<ProductResponseDTO>> findProductsByPriceRange(
+    public ResponseEntity<ProductRowStream> findProductsByPriceRange(
             @RequestParam double min, 
-            @RequestParam double max) {
-        List<ProductResponseDTO> products = productService.findProductsByPriceRange(min, max);
+            @RequestParam double max,
+            @RequestParam(required = false) String fields) {
+        ProductRowStream products = productService.streamProductsByPriceRange(min, max, parseFields(fields));
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * POST /api/products/price-adjustments - Điều chỉnh giá hàng loạt (phần trăm hoặc số tuyệt đối)
+     * Chạy nền theo từng chunk; trả về 202 cùng job để theo dõi tiến độ
+     */
+    @PostMapping("/price-adjustments")
+    public ResponseEntity<ProductPriceAdjustmentJobDTO> startPriceAdjustment(
+            @Valid @RequestBody ProductPriceAdjustmentRequestDTO request) {
+        ProductPriceAdjustmentJobDTO job = priceAdjustmentService.startAdjustment(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/products/price-adjustments/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * GET /api/products/price-adjustments/{jobId} - Tiến độ của job điều chỉnh giá
+     */
+    @GetMapping("/price-adjustments/{jobId}")
+    public ResponseEntity<ProductPriceAdjustmentJobDTO> getPriceAdjustment(@PathVariable String jobId) {
+        return ResponseEntity.ok(priceAdjustmentService.getAdjustment(jobId));
+    }
+
+    /**
+     * DELETE /api/products/price-adjustments/{jobId} - Hủy job điều chỉnh giá (dừng trước chunk tiếp theo)
+     */
+    @DeleteMapping("/price-adjustments/{jobId}")
+    public ResponseEntity<ProductPriceAdjustmentJobDTO> cancelPriceAdjustment(@PathVariable String jobId) {
+        return ResponseEntity.ok(priceAdjustmentService.cancelAdjustment(jobId));
+    }
+
+    private static Set<ProductField> parseFields(String fields) {
+        return fields == null ? ProductField.all() : ProductField.parse(fields);
+    }
 }
@@ -0,0 +1,74 @@
+package com.congdinh.tms.dtos;
+
+import java.util.Map;
+
+/**
+ * EndpointLatencyDTO - Độ trễ và error budget của một endpoint (actuator endpoint latency)
+ * Key của các Map cửa sổ là 1m, 5m, 15m
+ */
+public class EndpointLatencyDTO {
+
+    // Ví dụ: GET /api/products/{id}
+    private String endpoint;
+    private double sloThresholdMs;
+    private double sloTarget;
+    private Map<String, LatencySloWindowDTO> slo;
+    // HTTP status -> cửa sổ -> percentile
+    private Map<Integer, Map<String, LatencyPercentilesDTO>> statuses;
+
+    // Default constructor
+    public EndpointLatencyDTO() {
+    }
+
+    // Constructor with all fields
+    public EndpointLatencyDTO(String endpoint, double sloThresholdMs, double sloTarget,
+                              Map<String, LatencySloWindowDTO> slo,
+                              Map<Integer, Map<String, LatencyPercentilesDTO>> statuses) {
+        this.endpoint = endpoint;
+        this.sloThresholdMs = sloThresholdMs;
+        this.sloTarget = sloTarget;
+        this.slo = slo;
+        this.statuses = statuses;
+    }
+
+    // Getters and Setters
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public double getSloThresholdMs() {
+        return sloThresholdMs;
+    }
+
+    public void setSloThresholdMs(double sloThresholdMs) {
+        this.sloThresholdMs = sloThresholdMs;
+    }
+
+    public double getSloTarget() {
+        return sloTarget;
+    }
+
+    public void setSloTarget(double sloTarget) {
+        this.sloTarget = sloTarget;
+    }
+
+    public Map<String, LatencySloWindowDTO> getSlo() {
+        return slo;
+    }
+
+    public void setSlo(Map<String, LatencySloWindowDTO> slo) {
+        this.slo = slo;
+    }
+
+    public Map<Integer, Map<String, LatencyPercentilesDTO>> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Map<Integer, Map<String, LatencyPercentilesDTO>> statuses) {
+        this.statuses = statuses;
+    }
+}
@@ -0,0 +1,49 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * JfrFrameStatDTO - Tổng hợp các event JFR theo frame com.congdinh.tms gần đỉnh stack nhất
+ * Đơn vị của value tùy danh sách: số sample (hotMethods), byte (allocationSites), ms (lockContention)
+ */
+public class JfrFrameStatDTO {
+
+    // Ví dụ: com.congdinh.tms.services.ProductService.searchProductsByKeyword
+    private String frame;
+    private long events;
+    private long value;
+
+    // Default constructor
+    public JfrFrameStatDTO() {
+    }
+
+    // Constructor with all fields
+    public JfrFrameStatDTO(String frame, long events, long value) {
+        this.frame = frame;
+        this.events = events;
+        this.value = value;
+    }
+
+    // Getters and Setters
+    public String getFrame() {
+        return frame;
+    }
+
+    public void setFrame(String frame) {
+        this.frame = frame;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public void setEvents(long events) {
+        this.events = events;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,70 @@
+package com.congdinh.tms.dtos;
+
+import java.time.Instant;
+
+/**
+ * JfrRecordingDTO - Thông tin một phiên Java Flight Recorder (actuator endpoint jfr)
+ * state: RUNNING khi đang ghi, STOPPED khi đã ghi xong và có thể tải file .jfr
+ */
+public class JfrRecordingDTO {
+
+    private long id;
+    private String profile;
+    private int durationSeconds;
+    private Instant startedAt;
+    private String state;
+
+    // Default constructor
+    public JfrRecordingDTO() {
+    }
+
+    // Constructor with all fields
+    public JfrRecordingDTO(long id, String profile, int durationSeconds, Instant startedAt, String state) {
+        this.id = id;
+        this.profile = profile;
+        this.durationSeconds = durationSeconds;
+        this.startedAt = startedAt;
+        this.state = state;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+}
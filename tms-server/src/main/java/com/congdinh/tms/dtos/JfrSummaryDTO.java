@@ -0,0 +1,63 @@
+package com.congdinh.tms.dtos;
+
+import java.util.List;
+
+/**
+ * JfrSummaryDTO - Tóm tắt một recording JFR, chỉ gồm các frame thuộc com.congdinh.tms
+ * - hotMethods: jdk.ExecutionSample, value = số sample
+ * - allocationSites: jdk.ObjectAllocationSample, value = số byte cấp phát ước lượng
+ * - lockContention: jdk.JavaMonitorEnter + jdk.ThreadPark, value = tổng thời gian chờ (ms)
+ */
+public class JfrSummaryDTO {
+
+    private JfrRecordingDTO recording;
+    private List<JfrFrameStatDTO> hotMethods;
+    private List<JfrFrameStatDTO> allocationSites;
+    private List<JfrFrameStatDTO> lockContention;
+
+    // Default constructor
+    public JfrSummaryDTO() {
+    }
+
+    // Constructor with all fields
+    public JfrSummaryDTO(JfrRecordingDTO recording, List<JfrFrameStatDTO> hotMethods,
+                         List<JfrFrameStatDTO> allocationSites, List<JfrFrameStatDTO> lockContention) {
+        this.recording = recording;
+        this.hotMethods = hotMethods;
+        this.allocationSites = allocationSites;
+        this.lockContention = lockContention;
+    }
+
+    // Getters and Setters
+    public JfrRecordingDTO getRecording() {
+        return recording;
+    }
+
+    public void setRecording(JfrRecordingDTO recording) {
+        this.recording = recording;
+    }
+
+    public List<JfrFrameStatDTO> getHotMethods() {
+        return hotMethods;
+    }
+
+    public void setHotMethods(List<JfrFrameStatDTO> hotMethods) {
+        this.hotMethods = hotMethods;
+    }
+
+    public List<JfrFrameStatDTO> getAllocationSites() {
+        return allocationSites;
+    }
+
+    public void setAllocationSites(List<JfrFrameStatDTO> allocationSites) {
+        this.allocationSites = allocationSites;
+    }
+
+    public List<JfrFrameStatDTO> getLockContention() {
+        return lockContention;
+    }
+
+    public void setLockContention(List<JfrFrameStatDTO> lockContention) {
+        this.lockContention = lockContention;
+    }
+}
@@ -0,0 +1,59 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * LatencySloWindowDTO - Error budget của một endpoint trong một cửa sổ thời gian
+ * Request "xấu" là request lỗi 5xx hoặc chậm hơn ngưỡng SLO; burnRate = errorRate / (1 - sloTarget),
+ * burnRate 1 nghĩa là tiêu error budget đúng bằng tốc độ cho phép
+ */
+public class LatencySloWindowDTO {
+
+    private long total;
+    private long bad;
+    private double errorRate;
+    private double burnRate;
+
+    // Default constructor
+    public LatencySloWindowDTO() {
+    }
+
+    // Constructor with all fields
+    public LatencySloWindowDTO(long total, long bad, double errorRate, double burnRate) {
+        this.total = total;
+        this.bad = bad;
+        this.errorRate = errorRate;
+        this.burnRate = burnRate;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getBad() {
+        return bad;
+    }
+
+    public void setBad(long bad) {
+        this.bad = bad;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getBurnRate() {
+        return burnRate;
+    }
+
+    public void setBurnRate(double burnRate) {
+        this.burnRate = burnRate;
+    }
+}
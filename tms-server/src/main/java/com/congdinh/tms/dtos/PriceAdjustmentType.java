@@ -0,0 +1,11 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * PriceAdjustmentType - Cách điều chỉnh giá hàng loạt
+ */
+public enum PriceAdjustmentType {
+    // amount là phần trăm, ví dụ -15 nghĩa là giảm 15%
+    PERCENTAGE,
+    // amount được cộng thẳng vào giá, ví dụ -5000 nghĩa là giảm 5000
+    ABSOLUTE
+}
@@ -0,0 +1,81 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * ProductBatchOperationDTO - Một thao tác trong POST /api/products/batch
+ * CREATE cần product; UPDATE cần id và product; DELETE chỉ cần id
+ */
+public class ProductBatchOperationDTO {
+
+    /**
+     * Loại thao tác - tương ứng POST, PUT, DELETE trên /api/products
+     */
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private Type op;
+
+    private Long id;
+
+    // Được validate riêng cho từng thao tác: một thao tác sai không làm cả request bị từ chối
+    private ProductRequestDTO product;
+
+    // Default constructor
+    public ProductBatchOperationDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductBatchOperationDTO(Type op, Long id, ProductRequestDTO product) {
+        this.op = op;
+        this.id = id;
+        this.product = product;
+    }
+
+    public static ProductBatchOperationDTO create(ProductRequestDTO product) {
+        return new ProductBatchOperationDTO(Type.CREATE, null, product);
+    }
+
+    public static ProductBatchOperationDTO update(Long id, ProductRequestDTO product) {
+        return new ProductBatchOperationDTO(Type.UPDATE, id, product);
+    }
+
+    public static ProductBatchOperationDTO delete(Long id) {
+        return new ProductBatchOperationDTO(Type.DELETE, id, null);
+    }
+
+    // Getters and Setters
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ProductRequestDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductRequestDTO product) {
+        this.product = product;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchOperationDTO{" +
+                "op=" + op +
+                ", id=" + id +
+                ", product=" + product +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.congdinh.tms.dtos;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * ProductBatchRequestDTO - Danh sách thao tác có thứ tự cho POST /api/products/batch
+ */
+public class ProductBatchRequestDTO {
+
+    @NotEmpty(message = "Danh sách thao tác không được để trống")
+    private List<ProductBatchOperationDTO> operations;
+
+    // Số thao tác mỗi transaction; 0 = tất cả trong một transaction, null = theo tms.product.batch.chunk-size
+    @Min(value = 0, message = "Chunk size không được âm")
+    private Integer chunkSize;
+
+    // Default constructor
+    public ProductBatchRequestDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductBatchRequestDTO(List<ProductBatchOperationDTO> operations, Integer chunkSize) {
+        this.operations = operations;
+        this.chunkSize = chunkSize;
+    }
+
+    // Getters and Setters
+    public List<ProductBatchOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<ProductBatchOperationDTO> operations) {
+        this.operations = operations;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchRequestDTO{" +
+                "operations=" + operations +
+                ", chunkSize=" + chunkSize +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.congdinh.tms.dtos;
+
+import java.util.List;
+
+/**
+ * ProductBatchResponseDTO - Kết quả của POST /api/products/batch
+ */
+public class ProductBatchResponseDTO {
+
+    private int succeeded;
+    private int failed;
+    private List<ProductBatchResultDTO> results;
+
+    // Default constructor
+    public ProductBatchResponseDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductBatchResponseDTO(List<ProductBatchResultDTO> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(ProductBatchResultDTO::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductBatchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ProductBatchResultDTO> results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchResponseDTO{" +
+                "succeeded=" + succeeded +
+                ", failed=" + failed +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.congdinh.tms.dtos;
+
+import com.congdinh.tms.exceptions.ErrorResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * ProductBatchResultDTO - Kết quả của một thao tác trong batch, cùng thứ tự với request
+ * status là HTTP status mà thao tác đó sẽ nhận nếu gọi riêng lẻ; error có cùng cấu trúc với response lỗi của API
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBatchResultDTO {
+
+    private int index;
+    private ProductBatchOperationDTO.Type op;
+    private int status;
+    private ProductResponseDTO product;
+    private ErrorResponse error;
+
+    // Default constructor
+    public ProductBatchResultDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductBatchResultDTO(int index, ProductBatchOperationDTO.Type op, int status,
+                                 ProductResponseDTO product, ErrorResponse error) {
+        this.index = index;
+        this.op = op;
+        this.status = status;
+        this.product = product;
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public ProductBatchOperationDTO.Type getOp() {
+        return op;
+    }
+
+    public void setOp(ProductBatchOperationDTO.Type op) {
+        this.op = op;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public ProductResponseDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductResponseDTO product) {
+        this.product = product;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchResultDTO{" +
+                "index=" + index +
+                ", op=" + op +
+                ", status=" + status +
+                '}';
+    }
+}
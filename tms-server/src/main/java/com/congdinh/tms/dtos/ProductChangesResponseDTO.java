@@ -0,0 +1,84 @@
+package com.congdinh.tms.dtos;
+
+import java.util.List;
+
+/**
+ * ProductChangesResponseDTO - Kết quả của GET /api/products/changes
+ * products là trạng thái hiện tại của các product được tạo/cập nhật, deletedIds là các product đã bị xóa.
+ * Client lưu nextToken và gửi lại ở lần đồng bộ sau; hasMore = true nghĩa là nên gọi tiếp ngay.
+ * resync = true khi token đã quá hạn (tombstone cần cho nó có thể đã bị dọn): response này bắt đầu lại
+ * từ đầu catalog, client phải xóa bản sao cục bộ trước khi áp dụng
+ */
+public class ProductChangesResponseDTO {
+
+    private List<ProductResponseDTO> products;
+    private List<Long> deletedIds;
+    private String nextToken;
+    private boolean hasMore;
+    private boolean resync;
+
+    // Default constructor
+    public ProductChangesResponseDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductChangesResponseDTO(List<ProductResponseDTO> products, List<Long> deletedIds,
+                                     String nextToken, boolean hasMore) {
+        this.products = products;
+        this.deletedIds = deletedIds;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<ProductResponseDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductResponseDTO> products) {
+        this.products = products;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public void setDeletedIds(List<Long> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangesResponseDTO{" +
+                "products=" + products +
+                ", deletedIds=" + deletedIds +
+                ", nextToken='" + nextToken + '\'' +
+                ", hasMore=" + hasMore +
+                ", resync=" + resync +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package com.congdinh.tms.dtos;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * ProductField - Các trường của ProductResponseDTO có thể chọn qua tham số ?fields=id,name,price
+ * Mỗi trường tương ứng với một cột trong bảng products
+ */
+public enum ProductField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    PRICE("price");
+
+    private final String attribute;
+
+    ProductField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * Tên thuộc tính trong Product entity và trong JSON response
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Tất cả các trường (response đầy đủ)
+     */
+    public static Set<ProductField> all() {
+        return EnumSet.allOf(ProductField.class);
+    }
+
+    /**
+     * Parse tham số fields, ví dụ "id,name,price"; null hoặc rỗng nghĩa là tất cả các trường
+     */
+    public static Set<ProductField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return all();
+        }
+        Set<ProductField> result = EnumSet.noneOf(ProductField.class);
+        for (String field : fields.split(",")) {
+            String name = field.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            result.add(Arrays.stream(values())
+                    .filter(value -> value.attribute.equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Trường không hợp lệ: " + name
+                            + ". Các trường hợp lệ: id, name, description, price")));
+        }
+        return result.isEmpty() ? all() : result;
+    }
+
+    /**
+     * Dạng chuỗi ổn định của một tập trường (dùng làm một phần của cache key)
+     */
+    public static String format(Set<ProductField> fields) {
+        return fields.stream()
+                .sorted()
+                .map(ProductField::getAttribute)
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,40 @@
+package com.congdinh.tms.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * ProductIdsRequestDTO - Danh sách ID cần lấy trong một request (POST /api/products/lookup)
+ * Dùng cho trường hợp có nhiều ID, không vừa trong query string
+ */
+public class ProductIdsRequestDTO {
+
+    @NotEmpty(message = "Danh sách ID không được để trống")
+    private List<Long> ids;
+
+    // Default constructor
+    public ProductIdsRequestDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductIdsRequestDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductIdsRequestDTO{" +
+                "ids=" + ids +
+                '}';
+    }
+}
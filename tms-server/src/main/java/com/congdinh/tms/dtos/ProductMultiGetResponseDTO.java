@@ -0,0 +1,48 @@
+package com.congdinh.tms.dtos;
+
+import java.util.List;
+
+/**
+ * ProductMultiGetResponseDTO - Kết quả lấy nhiều product theo ID
+ * products giữ đúng thứ tự ID được yêu cầu, missingIds là các ID không tồn tại
+ */
+public class ProductMultiGetResponseDTO {
+
+    private List<ProductResponseDTO> products;
+    private List<Long> missingIds;
+
+    // Default constructor
+    public ProductMultiGetResponseDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductMultiGetResponseDTO(List<ProductResponseDTO> products, List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<ProductResponseDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductResponseDTO> products) {
+        this.products = products;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductMultiGetResponseDTO{" +
+                "products=" + products +
+                ", missingIds=" + missingIds +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.congdinh.tms.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * ProductPageResponseDTO - Một trang kết quả của GET /api/products/query
+ * nextCursor là null khi đã hết dữ liệu; truyền lại qua ?cursor= để lấy trang tiếp theo
+ */
+public class ProductPageResponseDTO {
+
+    private List<ProductResponseDTO> products;
+    private String nextCursor;
+
+    // Default constructor
+    public ProductPageResponseDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductPageResponseDTO(List<ProductResponseDTO> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<ProductResponseDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductResponseDTO> products) {
+        this.products = products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Bản sao độc lập: danh sách mới chứa bản sao của từng product
+     */
+    public ProductPageResponseDTO copy() {
+        return new ProductPageResponseDTO(products == null ? null
+                : products.stream().map(ProductResponseDTO::copy).collect(Collectors.toCollection(ArrayList::new)), nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPageResponseDTO{" +
+                "products=" + products +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
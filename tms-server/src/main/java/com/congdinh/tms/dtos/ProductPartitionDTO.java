@@ -0,0 +1,69 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * ProductPartitionDTO - Thông tin một partition của bảng products (actuator endpoint productpartitions)
+ * bound là biểu thức partition do Postgres trả về, ví dụ FOR VALUES FROM (1e+06) TO (5e+06)
+ */
+public class ProductPartitionDTO {
+
+    private String name;
+    private String bound;
+    // Ước lượng từ pg_class.reltuples (cập nhật bởi ANALYZE/autovacuum), -1 nếu chưa từng ANALYZE
+    private long estimatedRows;
+    private long totalBytes;
+
+    // Default constructor
+    public ProductPartitionDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductPartitionDTO(String name, String bound, long estimatedRows, long totalBytes) {
+        this.name = name;
+        this.bound = bound;
+        this.estimatedRows = estimatedRows;
+        this.totalBytes = totalBytes;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBound() {
+        return bound;
+    }
+
+    public void setBound(String bound) {
+        this.bound = bound;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows(long estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPartitionDTO{" +
+                "name='" + name + '\'' +
+                ", bound='" + bound + '\'' +
+                ", estimatedRows=" + estimatedRows +
+                ", totalBytes=" + totalBytes +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.congdinh.tms.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * ProductPriceAdjustmentJobDTO - Trạng thái và tiến độ của một job điều chỉnh giá hàng loạt
+ */
+public class ProductPriceAdjustmentJobDTO {
+
+    /**
+     * Trạng thái job
+     */
+    public enum Status {
+        // Đang chờ trong hàng đợi (số job chạy đồng thời bị giới hạn)
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        // Đã dừng theo yêu cầu; các chunk đã commit trước đó vẫn được giữ
+        CANCELLED,
+        FAILED
+    }
+
+    private String id;
+    private Status status;
+    private PriceAdjustmentType type;
+    private double amount;
+    // Số product khớp điều kiện lọc tại thời điểm tạo job (ước lượng cho tiến độ)
+    private long totalProducts;
+    private long updatedProducts;
+    private int completedChunks;
+    private boolean cancelRequested;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    // Default constructor
+    public ProductPriceAdjustmentJobDTO() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public PriceAdjustmentType getType() {
+        return type;
+    }
+
+    public void setType(PriceAdjustmentType type) {
+        this.type = type;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public long getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(long totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
+    public long getUpdatedProducts() {
+        return updatedProducts;
+    }
+
+    public void setUpdatedProducts(long updatedProducts) {
+        this.updatedProducts = updatedProducts;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(int completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPriceAdjustmentJobDTO{" +
+                "id='" + id + '\'' +
+                ", status=" + status +
+                ", updatedProducts=" + updatedProducts +
+                ", totalProducts=" + totalProducts +
+                ", completedChunks=" + completedChunks +
+                '}';
+    }
+}
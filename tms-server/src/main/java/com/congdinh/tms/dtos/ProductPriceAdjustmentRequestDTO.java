@@ -0,0 +1,108 @@
+package com.congdinh.tms.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * ProductPriceAdjustmentRequestDTO - Yêu cầu điều chỉnh giá hàng loạt (POST /api/products/price-adjustments)
+ * Các điều kiện lọc (ids, khoảng giá, tên) được kết hợp bằng AND; phải có ít nhất một điều kiện
+ */
+public class ProductPriceAdjustmentRequestDTO {
+
+    @NotNull(message = "Kiểu điều chỉnh không được để trống")
+    private PriceAdjustmentType type;
+
+    @NotNull(message = "Giá trị điều chỉnh không được để trống")
+    private Double amount;
+
+    @Size(max = 10000, message = "Chỉ được chỉ định tối đa 10000 ID")
+    private List<Long> ids;
+
+    @DecimalMin(value = "0.0", message = "Giá tối thiểu không được âm")
+    private Double minPrice;
+
+    @DecimalMin(value = "0.0", message = "Giá tối đa không được âm")
+    private Double maxPrice;
+
+    // Tên chứa chuỗi này (không phân biệt hoa thường)
+    private String name;
+
+    // Default constructor
+    public ProductPriceAdjustmentRequestDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductPriceAdjustmentRequestDTO(PriceAdjustmentType type, Double amount, List<Long> ids,
+                                            Double minPrice, Double maxPrice, String name) {
+        this.type = type;
+        this.amount = amount;
+        this.ids = ids;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public PriceAdjustmentType getType() {
+        return type;
+    }
+
+    public void setType(PriceAdjustmentType type) {
+        this.type = type;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPriceAdjustmentRequestDTO{" +
+                "type=" + type +
+                ", amount=" + amount +
+                ", ids=" + ids +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
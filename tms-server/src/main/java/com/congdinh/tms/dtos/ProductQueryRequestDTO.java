@@ -0,0 +1,118 @@
+package com.congdinh.tms.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+/**
+ * ProductQueryRequestDTO - Tham số của GET /api/products/query
+ * Tất cả các điều kiện lọc đều tùy chọn và được kết hợp bằng AND trong một truy vấn duy nhất
+ */
+public class ProductQueryRequestDTO {
+
+    // Tên chứa chuỗi này (không phân biệt hoa thường)
+    private String name;
+
+    // Tên hoặc mô tả chứa keyword
+    private String q;
+
+    @DecimalMin(value = "0.0", message = "Giá tối thiểu không được âm")
+    private Double minPrice;
+
+    @DecimalMin(value = "0.0", message = "Giá tối đa không được âm")
+    private Double maxPrice;
+
+    // Dạng "price" hoặc "price,desc"; các trường sắp xếp hợp lệ: id, name, price
+    private String sort = "id";
+
+    @Min(value = 1, message = "Limit phải lớn hơn 0")
+    private Integer limit = 20;
+
+    // nextCursor của trang trước
+    private String cursor;
+
+    // Sparse fieldset, ví dụ "id,name,price"
+    private String fields;
+
+    // Default constructor
+    public ProductQueryRequestDTO() {
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductQueryRequestDTO{" +
+                "name='" + name + '\'' +
+                ", q='" + q + '\'' +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", sort='" + sort + '\'' +
+                ", limit=" + limit +
+                ", cursor='" + cursor + '\'' +
+                ", fields='" + fields + '\'' +
+                '}';
+    }
+}
@@ -1,15 +1,25 @@
 package com.congdinh.tms.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Set;
+
 /**
  * ProductResponseDTO - Data Transfer Object cho việc trả về thông tin Product
  * Chỉ bao gồm các thông tin cần thiết để hiển thị
+ * Response rút gọn (?fields=...) dùng cùng DTO: chỉ các trường trong fields được serialize,
+ * trường được chọn vẫn ghi null tường minh (xem ProductResponseDTOSerializer)
  */
+@JsonSerialize(using = ProductResponseDTOSerializer.class)
 public class ProductResponseDTO {
 
     private Long id;
     private String name;
     private String description;
-    private double price;
+    private Double price;
+    // Các trường được chọn; null nghĩa là response đầy đủ
+    private Set<ProductField> fields;
 
     // Default constructor
     public ProductResponseDTO() {
@@ -48,14 +58,44 @@ public class ProductResponseDTO {
         this.description = description;
     }
 
-    public double getPrice() {
+    public Double getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(Double price) {
         this.price = price;
     }
 
+    @JsonIgnore
+    public Set<ProductField> getFields() {
+        return fields;
+    }
+
+    @JsonIgnore
+    public void setFields(Set<ProductField> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Bản sao độc lập; tập fields không bị sửa sau khi gán nên được dùng chung
+     */
+    public ProductResponseDTO copy() {
+        ProductResponseDTO copy = new ProductResponseDTO();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.price = price;
+        copy.fields = fields;
+        return copy;
+    }
+
+    /**
+     * Trường có nằm trong response không (luôn true với response đầy đủ)
+     */
+    public boolean isSelected(ProductField field) {
+        return fields == null || fields.contains(field);
+    }
+
     @Override
     public String toString() {
         return "ProductResponseDTO{" +
@@ -0,0 +1,38 @@
+package com.congdinh.tms.dtos;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * ProductResponseDTOSerializer - Ghi các trường được chọn của ProductResponseDTO, theo thứ tự id, name, description, price
+ * Trường không được chọn (?fields=...) bị bỏ khỏi JSON; trường được chọn có giá trị null vẫn được ghi là null
+ * để response đầy đủ giữ nguyên contract (ví dụ "description": null)
+ */
+public class ProductResponseDTOSerializer extends StdSerializer<ProductResponseDTO> {
+
+    public ProductResponseDTOSerializer() {
+        super(ProductResponseDTO.class);
+    }
+
+    @Override
+    public void serialize(ProductResponseDTO product, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(product);
+        if (product.isSelected(ProductField.ID)) {
+            provider.defaultSerializeField("id", product.getId(), generator);
+        }
+        if (product.isSelected(ProductField.NAME)) {
+            provider.defaultSerializeField("name", product.getName(), generator);
+        }
+        if (product.isSelected(ProductField.DESCRIPTION)) {
+            provider.defaultSerializeField("description", product.getDescription(), generator);
+        }
+        if (product.isSelected(ProductField.PRICE)) {
+            provider.defaultSerializeField("price", product.getPrice(), generator);
+        }
+        generator.writeEndObject();
+    }
+}
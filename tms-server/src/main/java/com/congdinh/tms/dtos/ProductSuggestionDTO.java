@@ -0,0 +1,56 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * ProductSuggestionDTO - Gợi ý product cho autocomplete (chỉ gồm thông tin cần hiển thị)
+ */
+public class ProductSuggestionDTO {
+
+    private Long id;
+    private String name;
+    private double price;
+
+    // Default constructor
+    public ProductSuggestionDTO() {
+    }
+
+    // Constructor with all fields
+    public ProductSuggestionDTO(Long id, String name, double price) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSuggestionDTO{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", price=" + price +
+                '}';
+    }
+}
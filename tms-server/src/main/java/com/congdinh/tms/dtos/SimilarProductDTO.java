@@ -0,0 +1,67 @@
+package com.congdinh.tms.dtos;
+
+/**
+ * SimilarProductDTO - Product tương tự một product khác cùng độ tương đồng cosine (0..1) giữa name + description
+ */
+public class SimilarProductDTO {
+
+    private Long id;
+    private String name;
+    private double price;
+    private double score;
+
+    // Default constructor
+    public SimilarProductDTO() {
+    }
+
+    // Constructor with all fields
+    public SimilarProductDTO(Long id, String name, double price, double score) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return "SimilarProductDTO{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", price=" + price +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -1,13 +1,24 @@
 package com.congdinh.tms.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Product Entity - Đại diện cho bảng products trong database
  * Sử dụng JPA annotations để mapping với PostgreSQL
  */
 @Entity
-@Table(name = "products")
+// Second-level cache: READ_WRITE dùng soft-lock nên transaction khác không đọc được bản cũ khi đang cập nhật
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+// Index (price, id) phục vụ lọc theo khoảng giá và keyset pagination khi sắp xếp theo giá;
+// index (name, id) phục vụ sắp xếp/phân trang theo tên; index (change_seq, id) phục vụ đồng bộ delta
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_change_seq_id", columnList = "change_seq, id")
+})
 public class Product {
     
     @Id
@@ -17,12 +28,18 @@ public class Product {
     @Column(name = "name", nullable = false, length = 255)
     private String name;
     
+    // Cột TEXT không giới hạn: chỉ được load khi thực sự truy cập (cần bytecode enhancement, xem pom.xml)
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
     
     @Column(name = "price", nullable = false)
     private double price;
 
+    // Change sequence của transaction ghi gần nhất (xem ProductChangeTracker); các dòng có sẵn trước đó là 0
+    @Column(name = "change_seq", nullable = false, columnDefinition = "bigint default 0")
+    private long changeSeq;
+
     // Default constructor (required by JPA)
     public Product() {
     }
@@ -75,6 +92,14 @@ public class Product {
         this.price = price;
     }
 
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     // toString method for debugging
     @Override
     public String toString() {
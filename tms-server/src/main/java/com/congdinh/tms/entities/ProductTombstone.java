@@ -0,0 +1,76 @@
+package com.congdinh.tms.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * ProductTombstone - Dấu vết của một Product đã bị xóa, để client đồng bộ delta biết cần xóa bản sao cục bộ
+ * ID của product không bao giờ được dùng lại (IDENTITY) nên mỗi product có tối đa một tombstone
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+        @Index(name = "idx_product_tombstones_change_seq", columnList = "change_seq, product_id"),
+        @Index(name = "idx_product_tombstones_deleted_at", columnList = "deleted_at")
+})
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Change sequence của transaction đã xóa product (xem ProductChangeTracker)
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    // Default constructor (required by JPA)
+    public ProductTombstone() {
+    }
+
+    public ProductTombstone(Long productId, long changeSeq) {
+        this.productId = productId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductTombstone{" +
+                "productId=" + productId +
+                ", changeSeq=" + changeSeq +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.congdinh.tms.events;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+
+/**
+ * ProductChangedEvent - Event được publish mỗi khi Product được tạo, cập nhật hoặc xóa qua ProductService
+ * Các cache/index đọc lắng nghe event này (sau khi transaction commit) để tự cập nhật
+ *
+ * @param type      loại thay đổi
+ * @param productId ID của product bị thay đổi
+ * @param product   trạng thái mới của product (null khi DELETED)
+ * @param remote    true nếu thay đổi được ghi trên node khác và chỉ được nhận qua ProductInvalidationListener
+ */
+public record ProductChangedEvent(ChangeType type, Long productId, ProductResponseDTO product, boolean remote) {
+
+    /**
+     * Loại thay đổi
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ProductChangedEvent created(ProductResponseDTO product) {
+        return new ProductChangedEvent(ChangeType.CREATED, product.getId(), product, false);
+    }
+
+    public static ProductChangedEvent updated(ProductResponseDTO product) {
+        return new ProductChangedEvent(ChangeType.UPDATED, product.getId(), product, false);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(ChangeType.DELETED, productId, null, false);
+    }
+
+    /**
+     * Thay đổi do node khác ghi; product là trạng thái vừa đọc lại từ database (null nếu đã bị xóa)
+     */
+    public static ProductChangedEvent remote(ChangeType type, Long productId, ProductResponseDTO product) {
+        return new ProductChangedEvent(type, productId, product, true);
+    }
+}
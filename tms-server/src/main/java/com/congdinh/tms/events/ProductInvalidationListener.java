@@ -0,0 +1,359 @@
+package com.congdinh.tms.events;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductSpecifications;
+import com.congdinh.tms.services.ProductColumnarCatalog;
+import com.congdinh.tms.services.ProductNameIndex;
+import com.congdinh.tms.services.ProductSearchCache;
+import com.congdinh.tms.services.ProductSimilarityIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * ProductInvalidationListener - Nhận thay đổi Product do các node khác ghi (Postgres LISTEN) và cập nhật cache cục bộ
+ * Dùng một connection riêng ngoài Hikari pool (LISTEN giữ connection suốt vòng đời ứng dụng).
+ * Khi mất kết nối, các notification gửi trong lúc đó bị mất hẳn, nên sau khi LISTEN lại sẽ xóa toàn bộ cache cục bộ.
+ * LISTEN được mở trước khi các bản sao trong bộ nhớ (index gợi ý, bản sao dạng cột, ma trận vector) load lúc khởi động,
+ * nên thay đổi của node khác commit trong lúc load đến được các bản sao như một thay đổi thường
+ */
+@Component
+@Profile("!embedded")
+public class ProductInvalidationListener {
+
+    // application_name của connection LISTEN trong pg_stat_activity
+    public static final String APPLICATION_NAME = "tms-product-invalidation-listener";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductInvalidationListener.class);
+
+    // Thời gian chờ tối đa giữa các lần kết nối lại
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final ProductInvalidationNotifier notifier;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductSearchCache searchCache;
+    private final ProductNameIndex nameIndex;
+    private final ProductColumnarCatalog columnarCatalog;
+    private final ProductSimilarityIndex similarityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JdbcConnectionDetails connectionDetails;
+    private final boolean enabled;
+    private final String channel;
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final Counter receivedCounter;
+    private final Counter flushCounter;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public ProductInvalidationListener(ProductInvalidationNotifier notifier,
+                                       ProductRepository productRepository,
+                                       ProductMapper productMapper,
+                                       ProductSearchCache searchCache,
+                                       ProductNameIndex nameIndex,
+                                       ProductColumnarCatalog columnarCatalog,
+                                       ProductSimilarityIndex similarityIndex,
+                                       ApplicationEventPublisher eventPublisher,
+                                       EntityManagerFactory entityManagerFactory,
+                                       PlatformTransactionManager transactionManager,
+                                       JdbcConnectionDetails connectionDetails,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${tms.product.cluster-invalidation.enabled:false}") boolean enabled,
+                                       @Value("${tms.product.cluster-invalidation.channel:tms_product_changes}") String channel,
+                                       @Value("${tms.product.cluster-invalidation.poll-timeout-ms:5000}") int pollTimeoutMillis,
+                                       @Value("${tms.product.cluster-invalidation.reconnect-delay-ms:1000}") long reconnectDelayMillis) {
+        this.notifier = notifier;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.searchCache = searchCache;
+        this.nameIndex = nameIndex;
+        this.columnarCatalog = columnarCatalog;
+        this.similarityIndex = similarityIndex;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.connectionDetails = connectionDetails;
+        // Tên kênh được ghép thẳng vào câu LISTEN nên chỉ cho phép identifier đơn giản
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Tên kênh LISTEN/NOTIFY không hợp lệ: " + channel);
+        }
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.receivedCounter = Counter.builder("tms.product.cluster_invalidation.received")
+                .description("Số notification thay đổi Product nhận từ các node khác")
+                .register(meterRegistry);
+        this.flushCounter = Counter.builder("tms.product.cluster_invalidation.flushes")
+                .description("Số lần xóa toàn bộ cache cục bộ do có thể đã bỏ lỡ notification")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.cluster_invalidation.connected", this, listener -> listener.isConnected() ? 1 : 0)
+                .description("1 nếu connection LISTEN đang hoạt động")
+                .register(meterRegistry);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Bắt đầu LISTEN khi ứng dụng đã sẵn sàng, trên thread khởi động và trước mọi listener ApplicationReadyEvent khác
+     * (các bản sao load sau với Order HIGHEST_PRECEDENCE + 100); nếu chưa kết nối được thì sẽ xóa toàn bộ cache cục bộ
+     * ngay khi LISTEN được, vì các bản sao đã load mà không nhận được notification
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        Connection initialConnection = null;
+        try {
+            initialConnection = listen();
+        } catch (SQLException | RuntimeException ex) {
+            log.warn("Không thể LISTEN kênh {} khi khởi động: {}. Sẽ thử lại trên thread nền", channel, ex.getMessage());
+        }
+        Connection firstConnection = initialConnection;
+        listenerThread = new Thread(() -> listenLoop(firstConnection), "product-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * initialConnection: connection đã LISTEN trong start(), null nếu lúc khởi động chưa kết nối được
+     */
+    private void listenLoop(Connection initialConnection) {
+        // true khi đã có lúc không LISTEN trong khi cache cục bộ vẫn đang phục vụ
+        boolean missedMessages = initialConnection == null;
+        Connection nextConnection = initialConnection;
+        long delay = reconnectDelayMillis;
+        while (running) {
+            try (Connection listenConnection = nextConnection != null ? nextConnection : listen()) {
+                connected = true;
+                delay = reconnectDelayMillis;
+                if (missedMessages) {
+                    log.warn("Đã LISTEN lại kênh {}, xóa toàn bộ cache cục bộ vì có thể đã bỏ lỡ thay đổi", channel);
+                    flushAll();
+                    missedMessages = false;
+                }
+                receive(listenConnection.unwrap(PGConnection.class), listenConnection);
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    break;
+                }
+                missedMessages = true;
+                log.warn("Mất kết nối LISTEN kênh {}: {}. Thử lại sau {} ms", channel, ex.getMessage(), delay);
+            } finally {
+                nextConnection = null;
+                connected = false;
+                connection = null;
+            }
+            if (!sleep(delay)) {
+                break;
+            }
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+        }
+    }
+
+    // Mở connection riêng và LISTEN; notification đến trước khi thread nền đọc được giữ trong connection
+    private Connection listen() throws SQLException {
+        Connection listenConnection = openConnection();
+        connection = listenConnection;
+        try (Statement statement = listenConnection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException | RuntimeException ex) {
+            closeQuietly(listenConnection);
+            throw ex;
+        }
+        return listenConnection;
+    }
+
+    private void receive(PGConnection pgConnection, Connection listenConnection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+            if (notifications == null || notifications.length == 0) {
+                // Heartbeat: phát hiện connection đã chết (ví dụ half-open TCP) khi không có notification
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                handleNotification(notification.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Xử lý một payload dạng nodeId:TYPE:productId hoặc nodeId:PRICES:id1,id2,... (xem ProductInvalidationNotifier#encode)
+     */
+    void handleNotification(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length == 3 && ProductPricesChangedEvent.NOTIFICATION_TYPE.equals(parts[1])) {
+            handlePricesNotification(parts, payload);
+            return;
+        }
+        ProductChangedEvent.ChangeType type;
+        long productId;
+        try {
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(payload);
+            }
+            type = ProductChangedEvent.ChangeType.valueOf(parts[1]);
+            productId = Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            // Không biết product nào bị đổi - an toàn nhất là xóa hết
+            log.warn("Notification không hợp lệ trên kênh {}: {}", channel, payload);
+            flushAll();
+            return;
+        }
+        if (parts[0].equals(notifier.getNodeId())) {
+            // Node này đã tự cập nhật cache qua ProductChangedEvent cục bộ
+            return;
+        }
+        receivedCounter.increment();
+
+        evictSecondLevelCache(productId);
+        ProductResponseDTO product = type == ProductChangedEvent.ChangeType.DELETED ? null : loadProduct(productId);
+        if (product == null) {
+            // Product có thể đã bị xóa sau khi notification được gửi
+            type = ProductChangedEvent.ChangeType.DELETED;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.remote(type, productId, product));
+    }
+
+    private void handlePricesNotification(String[] parts, String payload) {
+        List<Long> productIds = new ArrayList<>();
+        try {
+            for (String id : parts[2].split(",")) {
+                productIds.add(Long.parseLong(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Notification không hợp lệ trên kênh {}: {}", channel, payload);
+            flushAll();
+            return;
+        }
+        if (parts[0].equals(notifier.getNodeId())) {
+            return;
+        }
+        receivedCounter.increment();
+
+        // Cả chunk: xóa region Product và query cache một lần, đọc lại giá bằng một truy vấn
+        entityManagerFactory.getCache().evict(Product.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        Map<Long, Double> prices = new HashMap<>();
+        List<ProductResponseDTO> products = readOnlyTransaction.execute(status -> productRepository.findProjectedUncached(
+                ProductSpecifications.idIn(productIds), EnumSet.of(ProductField.ID, ProductField.PRICE), Sort.by("id"), 0));
+        if (products != null) {
+            products.forEach(product -> prices.put(product.getId(), product.getPrice()));
+        }
+        eventPublisher.publishEvent(ProductPricesChangedEvent.remote(prices));
+    }
+
+    /**
+     * Xóa toàn bộ cache cục bộ: second-level cache, query cache, search cache, build lại index gợi ý
+     * và load lại bản sao dạng cột, ma trận vector tìm sản phẩm tương tự
+     */
+    public void flushAll() {
+        flushCounter.increment();
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        searchCache.invalidateAll();
+        nameIndex.rebuild();
+        columnarCatalog.reload();
+        similarityIndex.rebuild();
+    }
+
+    private void evictSecondLevelCache(long productId) {
+        entityManagerFactory.getCache().evict(Product.class, productId);
+        // Timestamp của bảng chỉ được cập nhật khi ghi trên chính node này, nên phải tự xóa query cache
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    private Connection openConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", connectionDetails.getUsername());
+        properties.setProperty("password", connectionDetails.getPassword());
+        // Dễ nhận ra connection này trong pg_stat_activity
+        properties.setProperty("ApplicationName", APPLICATION_NAME);
+        return DriverManager.getConnection(connectionDetails.getJdbcUrl(), properties);
+    }
+
+    private ProductResponseDTO loadProduct(long productId) {
+        return readOnlyTransaction.execute(status -> productRepository.findById(productId)
+                .map(productMapper::toResponseDTO)
+                .orElse(null));
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            // Đang shutdown - bỏ qua
+        }
+    }
+}
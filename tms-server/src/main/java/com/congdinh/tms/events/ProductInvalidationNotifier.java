@@ -0,0 +1,107 @@
+package com.congdinh.tms.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * ProductInvalidationNotifier - Gửi thay đổi Product cho các node khác qua Postgres NOTIFY
+ * Chạy đồng bộ trong transaction ghi của ProductService: NOTIFY của Postgres chỉ được gửi đi khi transaction commit
+ * (và bị hủy nếu rollback), nên các node khác không bao giờ nhận được thay đổi chưa commit
+ */
+@Component
+@Profile("!embedded")
+public class ProductInvalidationNotifier {
+
+    // Giới hạn payload của NOTIFY là 8000 byte; chừa chỗ cho nodeId và TYPE
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    // Mỗi tiến trình có một ID riêng để bỏ qua notification do chính nó gửi
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String channel;
+    private final Counter sentCounter;
+
+    public ProductInvalidationNotifier(JdbcTemplate jdbcTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${tms.product.cluster-invalidation.enabled:false}") boolean enabled,
+                                       @Value("${tms.product.cluster-invalidation.channel:tms_product_changes}") String channel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.sentCounter = Counter.builder("tms.product.cluster_invalidation.sent")
+                .description("Số notification thay đổi Product đã gửi cho các node khác")
+                .register(meterRegistry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @EventListener (không phải @TransactionalEventListener): phải chạy trong transaction ghi
+     * để pg_notify dùng chung connection và commit/rollback cùng dữ liệu
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled || event.remote()) {
+            return;
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, channel, encode(nodeId, event));
+        sentCounter.increment();
+    }
+
+    /**
+     * Cả chunk đổi giá được gửi trong một NOTIFY (hoặc vài NOTIFY nếu danh sách id vượt giới hạn payload)
+     */
+    @EventListener
+    public void onProductPricesChanged(ProductPricesChangedEvent event) {
+        if (!enabled || event.remote() || event.prices().isEmpty()) {
+            return;
+        }
+        for (String payload : encode(nodeId, event)) {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, channel, payload);
+            sentCounter.increment();
+        }
+    }
+
+    /**
+     * Payload dạng nodeId:PRICES:id1,id2,... - giá không được gửi kèm, node nhận đọc lại từ database
+     */
+    static List<String> encode(String nodeId, ProductPricesChangedEvent event) {
+        String prefix = nodeId + ":" + ProductPricesChangedEvent.NOTIFICATION_TYPE + ":";
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(prefix);
+        for (Long id : new TreeSet<>(event.prices().keySet())) {
+            String token = id.toString();
+            if (payload.length() > prefix.length() && payload.length() + 1 + token.length() > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(prefix.length());
+            }
+            if (payload.length() > prefix.length()) {
+                payload.append(',');
+            }
+            payload.append(token);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    /**
+     * Payload dạng nodeId:TYPE:productId - đủ nhỏ so với giới hạn 8000 byte của NOTIFY
+     */
+    static String encode(String nodeId, ProductChangedEvent event) {
+        return nodeId + ":" + event.type().name() + ":" + event.productId();
+    }
+}
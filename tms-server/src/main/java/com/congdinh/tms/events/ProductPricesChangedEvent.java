@@ -0,0 +1,32 @@
+package com.congdinh.tms.events;
+
+import java.util.Map;
+
+/**
+ * ProductPricesChangedEvent - Giá của nhiều product đổi trong cùng một transaction (một chunk điều chỉnh giá hàng loạt)
+ * Thay cho một ProductChangedEvent mỗi dòng: cache/index xử lý cả chunk một lần, và chỉ một NOTIFY
+ * được gửi cho các node khác. Các trường khác của product không đổi
+ *
+ * @param prices giá mới theo productId
+ * @param remote true nếu thay đổi được ghi trên node khác và chỉ được nhận qua ProductInvalidationListener
+ */
+public record ProductPricesChangedEvent(Map<Long, Double> prices, boolean remote) {
+
+    // TYPE trong payload NOTIFY (xem ProductInvalidationNotifier#encode)
+    public static final String NOTIFICATION_TYPE = "PRICES";
+
+    public ProductPricesChangedEvent {
+        prices = Map.copyOf(prices);
+    }
+
+    public static ProductPricesChangedEvent of(Map<Long, Double> prices) {
+        return new ProductPricesChangedEvent(prices, false);
+    }
+
+    /**
+     * Thay đổi do node khác ghi; prices là giá vừa đọc lại từ database
+     */
+    public static ProductPricesChangedEvent remote(Map<Long, Double> prices) {
+        return new ProductPricesChangedEvent(prices, true);
+    }
+}
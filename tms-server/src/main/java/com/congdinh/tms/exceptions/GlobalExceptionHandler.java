@@ -1,11 +1,17 @@
 package com.congdinh.tms.exceptions;
 
+import com.congdinh.tms.config.RequestIdFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
@@ -14,10 +20,14 @@ import java.util.Map;
 /**
  * GlobalExceptionHandler - Xử lý tất cả exceptions trong ứng dụng
  * Trả về response thống nhất cho các lỗi khác nhau
+ * Mỗi lỗi được ghi thành một event JSON (event=http.error, status, exception, path, durationMs; requestId từ MDC):
+ * lỗi 4xx ở mức WARN, lỗi 5xx ở mức ERROR kèm stack trace
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     /**
      * Xử lý ResourceNotFoundException
      */
@@ -32,6 +42,7 @@ public class GlobalExceptionHandler {
                 request.getDescription(false)
         );
         
+        logError(HttpStatus.NOT_FOUND, ex, request);
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
@@ -56,6 +67,7 @@ public class GlobalExceptionHandler {
                 request.getDescription(false)
         );
         
+        logError(HttpStatus.BAD_REQUEST, ex, request);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -73,9 +85,30 @@ public class GlobalExceptionHandler {
                 request.getDescription(false)
         );
         
+        logError(HttpStatus.BAD_REQUEST, ex, request);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Xử lý WorkloadLaneSaturatedException: lane quá tải, client nên thử lại sau (Retry-After)
+     */
+    @ExceptionHandler(WorkloadLaneSaturatedException.class)
+    public ResponseEntity<ErrorResponse> handleWorkloadLaneSaturatedException(
+            WorkloadLaneSaturatedException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        logError(HttpStatus.SERVICE_UNAVAILABLE, ex, request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     /**
      * Xử lý tất cả các exception không được xử lý cụ thể
      */
@@ -90,6 +123,18 @@ public class GlobalExceptionHandler {
                 request.getDescription(false)
         );
         
+        logError(HttpStatus.INTERNAL_SERVER_ERROR, ex, request);
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    private static void logError(HttpStatus status, Exception ex, WebRequest request) {
+        LoggingEventBuilder event = status.is5xxServerError() ? log.atError().setCause(ex) : log.atWarn();
+        event.addKeyValue("event", "http.error")
+                .addKeyValue("status", status.value())
+                .addKeyValue("exception", ex.getClass().getSimpleName())
+                .addKeyValue("path", request.getDescription(false))
+                .addKeyValue("durationMs", request instanceof ServletWebRequest servletRequest
+                        ? RequestIdFilter.elapsedMillis(servletRequest.getRequest()) : -1)
+                .log(ex.getMessage());
+    }
 }
@@ -0,0 +1,21 @@
+package com.congdinh.tms.exceptions;
+
+import com.congdinh.tms.services.WorkloadLane;
+
+/**
+ * WorkloadLaneSaturatedException - Lane đã đầy: hàng đợi hết chỗ hoặc request chờ quá queue-timeout
+ * Trả về 503 để client thử lại sau, thay vì chờ chiếm thread của server
+ */
+public class WorkloadLaneSaturatedException extends RuntimeException {
+
+    private final WorkloadLane lane;
+
+    public WorkloadLaneSaturatedException(WorkloadLane lane, String message) {
+        super(message);
+        this.lane = lane;
+    }
+
+    public WorkloadLane getLane() {
+        return lane;
+    }
+}
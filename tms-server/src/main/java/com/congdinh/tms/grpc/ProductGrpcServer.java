@@ -0,0 +1,90 @@
+package com.congdinh.tms.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductGrpcServer - gRPC server (Netty, HTTP/2) chạy song song với Tomcat trên port riêng tms.grpc.port
+ * Start/stop theo vòng đời của ApplicationContext; khi shutdown chờ các call đang chạy tối đa shutdown-timeout
+ */
+@Component
+public class ProductGrpcServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductGrpcServer.class);
+
+    private final ProductGrpcService productGrpcService;
+    private final boolean enabled;
+    private final int port;
+    private final int maxInboundMessageBytes;
+    private final long shutdownTimeoutMillis;
+    private volatile Server server;
+
+    public ProductGrpcServer(ProductGrpcService productGrpcService,
+                             @Value("${tms.grpc.enabled:true}") boolean enabled,
+                             @Value("${tms.grpc.port:9090}") int port,
+                             @Value("${tms.grpc.max-inbound-message-bytes:4194304}") int maxInboundMessageBytes,
+                             @Value("${tms.grpc.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.productGrpcService = productGrpcService;
+        this.enabled = enabled;
+        this.port = port;
+        this.maxInboundMessageBytes = maxInboundMessageBytes;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(productGrpcService)
+                    .maxInboundMessageSize(maxInboundMessageBytes)
+                    .build()
+                    .start();
+            log.info("gRPC server đang lắng nghe trên port {}", server.getPort());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Không khởi động được gRPC server trên port " + port, ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Port thực tế (khi tms.grpc.port=0 thì là port ngẫu nhiên), -1 nếu server chưa chạy
+     */
+    public int getPort() {
+        Server running = server;
+        return running == null ? -1 : running.getPort();
+    }
+}
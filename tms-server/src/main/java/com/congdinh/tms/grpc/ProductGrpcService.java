@@ -0,0 +1,224 @@
+package com.congdinh.tms.grpc;
+
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.exceptions.WorkloadLaneSaturatedException;
+import com.congdinh.tms.grpc.proto.BatchGetProductsRequest;
+import com.congdinh.tms.grpc.proto.BatchGetProductsResponse;
+import com.congdinh.tms.grpc.proto.CreateProductRequest;
+import com.congdinh.tms.grpc.proto.DeleteProductRequest;
+import com.congdinh.tms.grpc.proto.DeleteProductResponse;
+import com.congdinh.tms.grpc.proto.GetProductRequest;
+import com.congdinh.tms.grpc.proto.ListProductsRequest;
+import com.congdinh.tms.grpc.proto.Product;
+import com.congdinh.tms.grpc.proto.ProductInput;
+import com.congdinh.tms.grpc.proto.ProductServiceGrpc;
+import com.congdinh.tms.grpc.proto.SearchProductsRequest;
+import com.congdinh.tms.grpc.proto.UpdateProductRequest;
+import com.congdinh.tms.services.ProductService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * ProductGrpcService - gRPC API cho Product (src/main/proto/product.proto), ủy quyền cho ProductService
+ * giống ProductController nên dùng chung cache, batch loader, change tracking...
+ * Lỗi được chuyển thành gRPC status: ResourceNotFoundException -> NOT_FOUND,
+ * IllegalArgumentException / validation -> INVALID_ARGUMENT, còn lại -> INTERNAL
+ */
+@Component
+public class ProductGrpcService extends ProductServiceGrpc.ProductServiceImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductGrpcService.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ProductService productService;
+    private final Validator validator;
+
+    public ProductGrpcService(ProductService productService, Validator validator) {
+        this.productService = productService;
+        this.validator = validator;
+    }
+
+    @Override
+    public void getProduct(GetProductRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> toProto(productService.getProductById(request.getId())));
+    }
+
+    @Override
+    public void batchGetProducts(BatchGetProductsRequest request, StreamObserver<BatchGetProductsResponse> responseObserver) {
+        unary(responseObserver, () -> {
+            ProductMultiGetResponseDTO result = productService.getProductsByIds(request.getIdsList());
+            BatchGetProductsResponse.Builder response = BatchGetProductsResponse.newBuilder()
+                    .addAllMissingIds(result.getMissingIds());
+            result.getProducts().forEach(product -> response.addProducts(toProto(product)));
+            return response.build();
+        });
+    }
+
+    @Override
+    public void createProduct(CreateProductRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> toProto(productService.createProduct(toRequest(request.getProduct()))));
+    }
+
+    @Override
+    public void updateProduct(UpdateProductRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> toProto(productService.updateProduct(request.getId(), toRequest(request.getProduct()))));
+    }
+
+    @Override
+    public void deleteProduct(DeleteProductRequest request, StreamObserver<DeleteProductResponse> responseObserver) {
+        unary(responseObserver, () -> {
+            productService.deleteProduct(request.getId());
+            return DeleteProductResponse.getDefaultInstance();
+        });
+    }
+
+    /**
+     * Đọc từng trang qua ProductService#queryProducts (keyset cursor theo id), chỉ đọc trang tiếp theo
+     * khi client đã nhận hết trang trước (flow control của gRPC) nên export cả bảng không dồn vào bộ nhớ
+     */
+    @Override
+    public void listProducts(ListProductsRequest request, StreamObserver<Product> responseObserver) {
+        int pageSize = request.getPageSize() > 0 ? request.getPageSize() : DEFAULT_PAGE_SIZE;
+        stream(responseObserver, cursor -> {
+            ProductQueryRequestDTO query = new ProductQueryRequestDTO();
+            query.setName(StringUtils.hasText(request.getName()) ? request.getName() : null);
+            query.setQ(StringUtils.hasText(request.getQ()) ? request.getQ() : null);
+            query.setMinPrice(request.hasMinPrice() ? request.getMinPrice() : null);
+            query.setMaxPrice(request.hasMaxPrice() ? request.getMaxPrice() : null);
+            query.setSort("id");
+            query.setLimit(pageSize);
+            query.setCursor(cursor);
+            return productService.queryProducts(query);
+        });
+    }
+
+    @Override
+    public void searchProducts(SearchProductsRequest request, StreamObserver<Product> responseObserver) {
+        stream(responseObserver, ignored -> new ProductPageResponseDTO(
+                request.getMode() == SearchProductsRequest.Mode.KEYWORD
+                        ? productService.searchProductsByKeyword(request.getQuery())
+                        : productService.searchProductsByName(request.getQuery()),
+                null));
+    }
+
+    private <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private void stream(StreamObserver<Product> responseObserver, Function<String, ProductPageResponseDTO> pages) {
+        ServerCallStreamObserver<Product> observer = (ServerCallStreamObserver<Product>) responseObserver;
+        PageStreamer streamer = new PageStreamer(observer, pages);
+        observer.setOnCancelHandler(streamer::cancel);
+        observer.setOnReadyHandler(streamer::drain);
+    }
+
+    private ProductRequestDTO toRequest(ProductInput input) {
+        ProductRequestDTO request = new ProductRequestDTO(input.getName(),
+                StringUtils.hasText(input.getDescription()) ? input.getDescription() : null, input.getPrice());
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+        return request;
+    }
+
+    static Product toProto(ProductResponseDTO dto) {
+        Product.Builder product = Product.newBuilder().setId(dto.getId()).setPrice(dto.getPrice());
+        // Protobuf không nhận null: trường không có giá trị để mặc định ""
+        if (dto.getName() != null) {
+            product.setName(dto.getName());
+        }
+        if (dto.getDescription() != null) {
+            product.setDescription(dto.getDescription());
+        }
+        return product.build();
+    }
+
+    static StatusRuntimeException toStatus(RuntimeException ex) {
+        if (ex instanceof ResourceNotFoundException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof WorkloadLaneSaturatedException) {
+            return Status.RESOURCE_EXHAUSTED.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        log.error("Lỗi khi xử lý gRPC request", ex);
+        return Status.INTERNAL.withDescription("Đã xảy ra lỗi hệ thống").asRuntimeException();
+    }
+
+    /**
+     * Gửi product theo từng trang; gRPC gọi drain (onReadyHandler) tuần tự mỗi khi stream sẵn sàng nhận thêm
+     */
+    private static final class PageStreamer {
+
+        private final ServerCallStreamObserver<Product> observer;
+        private final Function<String, ProductPageResponseDTO> pages;
+        private Iterator<ProductResponseDTO> page;
+        private String nextCursor;
+        private volatile boolean done;
+
+        private PageStreamer(ServerCallStreamObserver<Product> observer, Function<String, ProductPageResponseDTO> pages) {
+            this.observer = observer;
+            this.pages = pages;
+        }
+
+        private void drain() {
+            try {
+                while (!done && observer.isReady()) {
+                    if (page == null || !page.hasNext()) {
+                        if (page != null && nextCursor == null) {
+                            done = true;
+                            observer.onCompleted();
+                            return;
+                        }
+                        ProductPageResponseDTO result = pages.apply(nextCursor);
+                        page = result.getProducts().iterator();
+                        nextCursor = result.getNextCursor();
+                        continue;
+                    }
+                    observer.onNext(toProto(page.next()));
+                }
+            } catch (RuntimeException ex) {
+                done = true;
+                observer.onError(toStatus(ex));
+            }
+        }
+
+        private void cancel() {
+            done = true;
+        }
+    }
+}
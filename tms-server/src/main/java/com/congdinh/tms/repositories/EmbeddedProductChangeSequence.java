@@ -0,0 +1,29 @@
+package com.congdinh.tms.repositories;
+
+/**
+ * EmbeddedProductChangeSequence - ProductChangeSequence của profile embedded
+ * Bộ đếm là một giá trị của EmbeddedProductStore (bắt đầu từ 0) và được ghi cùng journal với product.
+ * Transaction ghi giữ write lock của store từ lần ghi đầu tiên tới khi kết thúc, nên các transaction commit
+ * theo đúng thứ tự sequence và giá trị đã commit của bộ đếm chính là horizon
+ */
+public class EmbeddedProductChangeSequence implements ProductChangeSequence {
+
+    private final EmbeddedProductStore store;
+
+    public EmbeddedProductChangeSequence(EmbeddedProductStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public long currentTransactionSeq() {
+        store.lockForWrite();
+        long seq = store.counter() + 1;
+        store.setCounter(seq);
+        return seq;
+    }
+
+    @Override
+    public long committedHorizon() {
+        return store.counter();
+    }
+}
@@ -0,0 +1,354 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Index;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Row;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * EmbeddedProductRepository - ProductRepository của profile embedded, chạy trên EmbeddedProductStore
+ * Mỗi truy vấn được chuyển thành một lần duyệt index đã sắp xếp:
+ * - findById/findAllById: tra thẳng map theo id
+ * - khoảng giá, sắp xếp theo giá: index (price, id); sắp xếp theo tên: index (name, id);
+ *   đồng bộ delta: index (change_seq, id); keyset theo id: map theo id
+ * - điều kiện ProductSpecifications (ProductFilter) được kiểm tra trên từng dòng, khoảng id/giá của nó
+ *   giới hạn đoạn index phải duyệt và việc duyệt dừng ngay khi đủ LIMIT dòng
+ * Chỉ hỗ trợ Specification tạo từ ProductSpecifications
+ */
+public class EmbeddedProductRepository extends EmbeddedRepositorySupport<Product, Long> implements ProductRepository {
+
+    // Ngưỡng số id để tra từng id thay vì duyệt index (điều kiện idIn)
+    private static final int ID_LOOKUP_THRESHOLD = 1024;
+
+    public EmbeddedProductRepository(EmbeddedProductStore store) {
+        super(store);
+    }
+
+    // ---- CRUD ----
+
+    @Override
+    protected Long getId(Product product) {
+        return product.getId();
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(store.get(id)).map(EmbeddedProductRepository::toEntity);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.get(id) != null;
+    }
+
+    @Override
+    public long count() {
+        return store.count();
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return toEntities(store.scan(Index.ID, null, null, true, null, 0));
+    }
+
+    @Override
+    public List<Product> findAll(Sort sort) {
+        if (sort.isUnsorted()) {
+            return findAll();
+        }
+        return toEntities(select(ProductSpecifications.all(), sort, 0));
+    }
+
+    /**
+     * id null: thêm mới với id tự tăng (như IDENTITY) và gán id cho chính entity được truyền vào
+     */
+    @Override
+    public <S extends Product> S save(S product) {
+        if (product.getId() == null) {
+            Row row = store.insert(product.getName(), product.getDescription(), product.getPrice(),
+                    product.getChangeSeq());
+            product.setId(row.id());
+        } else {
+            store.put(new Row(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getChangeSeq()));
+        }
+        return product;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    // ---- Các truy vấn của ProductRepository ----
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCase(String name) {
+        return toEntities(scan(Index.ID, null, null, true,
+                (ProductFilter) ProductSpecifications.nameContainsIgnoreCase(name), 0));
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return toEntities(store.scan(Index.PRICE, priceKey(minPrice, Long.MIN_VALUE), priceKey(maxPrice, Long.MAX_VALUE),
+                true, null, 0));
+    }
+
+    @Override
+    public List<Product> findByPriceGreaterThan(double price) {
+        return toEntities(store.scan(Index.PRICE, priceKey(price, Long.MAX_VALUE), null, true,
+                row -> row.price() > price, 0));
+    }
+
+    @Override
+    public List<Product> searchByKeyword(String keyword) {
+        return toEntities(scan(Index.ID, null, null, true,
+                (ProductFilter) ProductSpecifications.keywordContains(keyword), 0));
+    }
+
+    @Override
+    public List<Product> findMostExpensiveProducts() {
+        List<Row> top = store.scan(Index.PRICE, null, null, false, null, 1);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        double maxPrice = top.get(0).price();
+        return toEntities(store.scan(Index.PRICE, priceKey(maxPrice, Long.MIN_VALUE), priceKey(maxPrice, Long.MAX_VALUE),
+                true, null, 0));
+    }
+
+    /**
+     * Cùng công thức với câu UPDATE của JPA: price * factor + delta, không nhỏ hơn 0, làm tròn 2 chữ số thập phân
+     */
+    @Override
+    public int adjustPrices(Collection<Long> ids, double factor, double delta, long changeSeq) {
+        return store.update(ids, row -> {
+            double adjusted = Math.max(0.0, row.price() * factor + delta);
+            double rounded = Math.round(adjusted * 100) / 100.0;
+            return new Row(row.id(), row.name(), row.description(), rounded, changeSeq);
+        });
+    }
+
+    @Override
+    public List<ProductChangeRow> findChangedAfter(long changeSeq, long id, long horizon, Limit limit) {
+        Row from = changeSeqKey(changeSeq, id);
+        List<Row> rows = store.scan(Index.CHANGE_SEQ, from, changeSeqKey(horizon, Long.MAX_VALUE), true,
+                row -> row.changeSeq() > changeSeq || row.id() > id, limitOf(limit));
+        List<ProductChangeRow> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(new ProductChangeRow(row.id(), row.name(), row.description(), row.price(), row.changeSeq()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<ProductResponseDTO> findPageAfter(long id, Limit limit) {
+        if (id == Long.MAX_VALUE) {
+            return List.of();
+        }
+        List<Row> rows = store.scan(Index.ID, idKey(id + 1), null, true, null, limitOf(limit));
+        List<ProductResponseDTO> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(new ProductResponseDTO(row.id(), row.name(), row.description(), row.price()));
+        }
+        return result;
+    }
+
+    // ---- ProductRepositoryCustom ----
+
+    @Override
+    public List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields) {
+        return findProjected(specification, fields, Sort.by("id"), 0);
+    }
+
+    @Override
+    public List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields,
+                                                  Sort sort, int limit) {
+        List<Row> rows = select(specification, sort, limit);
+        List<ProductResponseDTO> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(toDTO(row, fields));
+        }
+        return result;
+    }
+
+    @Override
+    public List<ProductResponseDTO> findProjectedUncached(Specification<Product> specification, Set<ProductField> fields,
+                                                          Sort sort, int limit) {
+        // Không có query cache
+        return findProjected(specification, fields, sort, limit);
+    }
+
+    @Override
+    public void forEachProjected(Specification<Product> specification, Set<ProductField> fields,
+                                 ProductRowHandler handler) {
+        boolean withId = fields.contains(ProductField.ID);
+        boolean withName = fields.contains(ProductField.NAME);
+        boolean withDescription = fields.contains(ProductField.DESCRIPTION);
+        boolean withPrice = fields.contains(ProductField.PRICE);
+        for (Row row : select(specification, Sort.by("id"), 0)) {
+            handler.handle(withId ? row.id() : null, withName ? row.name() : null,
+                    withDescription ? row.description() : null, withPrice ? row.price() : null);
+        }
+    }
+
+    @Override
+    public long countMatching(Specification<Product> specification) {
+        return scan(Index.ID, asFilter(specification), true, 0).size();
+    }
+
+    // ---- Chuyển đổi và chọn index ----
+
+    /**
+     * Khi thứ tự sắp xếp trùng với một index (cột rồi id, cùng chiều) thì duyệt index đó và dừng ở limit dòng;
+     * thứ tự khác thì lọc toàn bộ rồi sắp xếp trong bộ nhớ
+     */
+    private List<Row> select(Specification<Product> specification, Sort sort, int limit) {
+        ProductFilter filter = asFilter(specification);
+        Index index = indexFor(sort);
+        if (index != null) {
+            return scan(index, filter, sort.isUnsorted() || sort.iterator().next().isAscending(), limit);
+        }
+        List<Row> rows = scan(Index.ID, filter, true, 0);
+        rows.sort(comparator(sort));
+        return limit > 0 && rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    private List<Row> scan(Index index, ProductFilter filter, boolean ascending, int limit) {
+        Set<Long> ids = filter.getIds();
+        if (ids != null && ids.size() <= ID_LOOKUP_THRESHOLD) {
+            List<Row> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Row row = store.get(id);
+                if (row != null && matches(filter, row)) {
+                    rows.add(row);
+                }
+            }
+            rows.sort(ascending ? index.order() : index.order().reversed());
+            return limit > 0 && rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        }
+        if (index == Index.ID) {
+            return scan(index, idKey(filter.getMinId()), idKey(filter.getMaxId()), ascending, filter, limit);
+        }
+        if (index == Index.PRICE) {
+            return scan(index, priceKey(filter.getMinPrice(), Long.MIN_VALUE),
+                    priceKey(filter.getMaxPrice(), Long.MAX_VALUE), ascending, filter, limit);
+        }
+        return scan(index, null, null, ascending, filter, limit);
+    }
+
+    private List<Row> scan(Index index, Row from, Row to, boolean ascending, ProductFilter filter, int limit) {
+        Predicate<Row> matcher = row -> matches(filter, row);
+        return store.scan(index, from, to, ascending, matcher, limit);
+    }
+
+    private static boolean matches(ProductFilter filter, Row row) {
+        return filter.matches(row.id(), row.name(), row.description(), row.price());
+    }
+
+    private static ProductFilter asFilter(Specification<Product> specification) {
+        if (specification instanceof ProductFilter filter) {
+            return filter;
+        }
+        throw new IllegalArgumentException("Profile embedded chỉ hỗ trợ điều kiện tạo từ ProductSpecifications");
+    }
+
+    /**
+     * Index phục vụ được thứ tự sắp xếp: (id), (price, id) hoặc (name, id) với cùng một chiều
+     */
+    private static Index indexFor(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return Index.ID;
+        }
+        Sort.Order first = orders.next();
+        Index index = switch (first.getProperty()) {
+            case "id" -> Index.ID;
+            case "price" -> Index.PRICE;
+            case "name" -> Index.NAME;
+            default -> null;
+        };
+        if (index == null || index == Index.ID) {
+            return index;
+        }
+        if (!orders.hasNext()) {
+            return null;
+        }
+        Sort.Order second = orders.next();
+        return "id".equals(second.getProperty()) && second.getDirection() == first.getDirection() && !orders.hasNext()
+                ? index : null;
+    }
+
+    private static Comparator<Row> comparator(Sort sort) {
+        Comparator<Row> result = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Row> column = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingLong(Row::id);
+                case "price" -> Comparator.comparingDouble(Row::price);
+                case "name" -> Comparator.comparing(Row::name);
+                case "description" -> Comparator.comparing(Row::description,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Không thể sắp xếp theo trường: " + order.getProperty());
+            };
+            result = result.thenComparing(order.isAscending() ? column : column.reversed());
+        }
+        return result;
+    }
+
+    private static int limitOf(Limit limit) {
+        return limit.isLimited() ? limit.max() : 0;
+    }
+
+    private static Row idKey(long id) {
+        return new Row(id, null, null, 0, 0);
+    }
+
+    private static Row priceKey(double price, long id) {
+        return new Row(id, null, null, price, 0);
+    }
+
+    private static Row changeSeqKey(long changeSeq, long id) {
+        return new Row(id, null, null, 0, changeSeq);
+    }
+
+    private static List<Product> toEntities(List<Row> rows) {
+        List<Product> result = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.add(toEntity(row));
+        }
+        return result;
+    }
+
+    private static Product toEntity(Row row) {
+        Product product = new Product(row.id(), row.name(), row.description(), row.price());
+        product.setChangeSeq(row.changeSeq());
+        return product;
+    }
+
+    private static ProductResponseDTO toDTO(Row row, Set<ProductField> fields) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        for (ProductField field : fields) {
+            switch (field) {
+                case ID -> dto.setId(row.id());
+                case NAME -> dto.setName(row.name());
+                case DESCRIPTION -> dto.setDescription(row.description());
+                case PRICE -> dto.setPrice(row.price());
+            }
+        }
+        dto.setFields(fields);
+        return dto;
+    }
+}
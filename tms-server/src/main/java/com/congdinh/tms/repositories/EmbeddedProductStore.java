@@ -0,0 +1,655 @@
+package com.congdinh.tms.repositories;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * EmbeddedProductStore - Storage engine trong bộ nhớ cho profile embedded (chạy không cần PostgreSQL)
+ * - Dữ liệu: ConcurrentSkipListMap theo id và các index sắp xếp (price, id), (name, id), (change_seq, id).
+ *   Mỗi dòng là một Row bất biến nên đọc không cần lock
+ * - Transaction (EmbeddedTransactionManager): thay đổi được ghi vào bản nháp của transaction, chỉ chính transaction
+ *   đó thấy cho tới khi commit. Lần ghi đầu tiên lấy write lock của store và giữ tới khi commit/rollback,
+ *   nên các transaction ghi chạy tuần tự (và commit theo thứ tự change sequence, xem EmbeddedProductChangeSequence).
+ *   Commit ghi một frame vào journal rồi mới áp dụng vào các index; ghi ngoài transaction tự commit từng thao tác
+ * - Đọc thấy dữ liệu đã commit theo từng dòng (read committed): một scan chạy đồng thời với commit có thể thấy
+ *   một phần các dòng của commit đó, và một dòng đang đổi giá/tên có thể tạm vắng mặt trong index giá/tên
+ * - Bền vững: journal append-only + snapshot (xem EmbeddedStoreFiles). Snapshot được ghi định kỳ khi journal vượt
+ *   snapshotJournalBytes và khi đóng store, để khởi động lại chỉ phải replay một phần journal ngắn
+ */
+public class EmbeddedProductStore implements AutoCloseable {
+
+    /**
+     * Một dòng của bảng products
+     */
+    public record Row(long id, String name, String description, double price, long changeSeq) {
+    }
+
+    /**
+     * Một dòng của bảng product_tombstones
+     */
+    public record Tombstone(long productId, long changeSeq, LocalDateTime deletedAt) {
+    }
+
+    /**
+     * Các thứ tự duyệt được hỗ trợ bởi index (cột, id)
+     */
+    public enum Index {
+        ID(Comparator.comparingLong(Row::id)),
+        PRICE(Comparator.comparingDouble(Row::price).thenComparingLong(Row::id)),
+        NAME(Comparator.comparing(Row::name).thenComparingLong(Row::id)),
+        CHANGE_SEQ(Comparator.comparingLong(Row::changeSeq).thenComparingLong(Row::id));
+
+        private final Comparator<Row> order;
+
+        Index(Comparator<Row> order) {
+            this.order = order;
+        }
+
+        public Comparator<Row> order() {
+            return order;
+        }
+    }
+
+    /**
+     * Bản nháp của một transaction: giá trị null nghĩa là dòng bị xóa
+     */
+    public static final class Transaction {
+
+        private final Map<Long, Row> rows = new LinkedHashMap<>();
+        private final Map<Long, Tombstone> tombstones = new LinkedHashMap<>();
+        private Long counter;
+        private boolean locked;
+        // Transaction tham gia (propagation REQUIRED) bị lỗi: transaction ngoài cùng phải rollback
+        private boolean rollbackOnly;
+
+        void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+
+        boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        private boolean hasChanges() {
+            return !rows.isEmpty() || !tombstones.isEmpty() || counter != null;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedProductStore.class);
+
+    private static final Comparator<Tombstone> TOMBSTONE_ORDER = Comparator.comparingLong(Tombstone::changeSeq)
+            .thenComparingLong(Tombstone::productId);
+
+    private final ConcurrentSkipListMap<Long, Row> rows = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Row> byPrice = new ConcurrentSkipListSet<>(Index.PRICE.order());
+    private final ConcurrentSkipListSet<Row> byName = new ConcurrentSkipListSet<>(Index.NAME.order());
+    private final ConcurrentSkipListSet<Row> byChangeSeq = new ConcurrentSkipListSet<>(Index.CHANGE_SEQ.order());
+    private final ConcurrentSkipListMap<Long, Tombstone> tombstones = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Tombstone> tombstonesByChangeSeq = new ConcurrentSkipListSet<>(TOMBSTONE_ORDER);
+    // ID tiếp theo được cấp; không bao giờ giảm, kể cả khi product có id lớn nhất bị xóa (giống IDENTITY)
+    private final AtomicLong nextId = new AtomicLong(1);
+    private volatile long counter;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object snapshotMonitor = new Object();
+    private final EmbeddedStoreFiles files;
+    private final long lockTimeoutMillis;
+    private final long snapshotJournalBytes;
+    private final ScheduledExecutorService snapshotScheduler;
+    private final long recoveryMillis;
+    private volatile boolean closed;
+
+    public EmbeddedProductStore(Path directory, boolean fsync, long lockTimeoutMillis, long snapshotJournalBytes,
+                                long snapshotIntervalSeconds) {
+        this.files = new EmbeddedStoreFiles(directory, fsync);
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.snapshotJournalBytes = snapshotJournalBytes;
+
+        long start = System.nanoTime();
+        EmbeddedStoreFiles.Recovery recovery;
+        try {
+            recovery = files.recover(new RecoverySink());
+        } catch (IOException | RuntimeException ex) {
+            throw new DataAccessResourceFailureException("Không khôi phục được dữ liệu từ " + directory, ex);
+        }
+        this.recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Đã khôi phục {} sản phẩm từ {} sau {} ms (snapshot thế hệ {}, replay {} commit / {} byte journal{})",
+                rows.size(), directory, recoveryMillis, recovery.snapshotGeneration(), recovery.journalFrames(),
+                recovery.journalBytes(), recovery.truncatedTail() ? ", đã cắt commit ghi dở" : "");
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (snapshotIntervalSeconds > 0) {
+            snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfNeeded, snapshotIntervalSeconds,
+                    snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+        // Journal dài sau lần chạy trước: snapshot ngay để lần khởi động sau nhanh hơn
+        if (files.journalBytes() >= snapshotJournalBytes) {
+            snapshotScheduler.execute(this::snapshotIfNeeded);
+        }
+    }
+
+    // ---- Transaction ----
+
+    /**
+     * Transaction mới (EmbeddedTransactionManager gắn nó vào thread hiện tại)
+     */
+    public Transaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * Ghi journal rồi áp dụng thay đổi; luôn nhả write lock kể cả khi ghi journal lỗi (dữ liệu không đổi)
+     */
+    public void commit(Transaction tx) {
+        try {
+            if (tx.hasChanges()) {
+                checkOpen();
+                try {
+                    files.append(nextId.get(), tx.rows, tx.tombstones, tx.counter);
+                } catch (IOException ex) {
+                    throw new DataAccessResourceFailureException("Không ghi được journal", ex);
+                }
+                apply(tx);
+            }
+        } finally {
+            release(tx);
+        }
+    }
+
+    public void rollback(Transaction tx) {
+        tx.rows.clear();
+        tx.tombstones.clear();
+        tx.counter = null;
+        release(tx);
+    }
+
+    /**
+     * Lấy write lock cho transaction hiện tại mà chưa ghi gì (tương đương SELECT ... FOR UPDATE)
+     * Ngoài transaction thì không có tác dụng
+     */
+    public void lockForWrite() {
+        Transaction tx = current();
+        if (tx != null) {
+            acquire(tx);
+        }
+    }
+
+    // ---- Đọc: thấy dữ liệu đã commit cộng với bản nháp của transaction hiện tại ----
+
+    public Row get(long id) {
+        Transaction tx = current();
+        if (tx != null && tx.rows.containsKey(id)) {
+            return tx.rows.get(id);
+        }
+        return rows.get(id);
+    }
+
+    public long count() {
+        long count = rows.size();
+        Transaction tx = current();
+        if (tx != null) {
+            for (Map.Entry<Long, Row> entry : tx.rows.entrySet()) {
+                count += (entry.getValue() != null ? 1 : 0) - (rows.containsKey(entry.getKey()) ? 1 : 0);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Duyệt index theo thứ tự, chỉ trong đoạn [from, to] (null = không giới hạn), lấy tối đa limit dòng khớp matcher
+     * (limit <= 0: không giới hạn). Dừng ngay khi đủ limit dòng nên chi phí tỉ lệ với số dòng phải đi qua
+     */
+    public List<Row> scan(Index index, Row from, Row to, boolean ascending, Predicate<Row> matcher, int limit) {
+        Transaction tx = current();
+        Map<Long, Row> overlay = tx == null ? Map.of() : tx.rows;
+        List<Row> result = new ArrayList<>();
+        for (Row row : range(index, from, to, ascending)) {
+            if (overlay.containsKey(row.id()) || (matcher != null && !matcher.test(row))) {
+                continue;
+            }
+            result.add(row);
+            if (limit > 0 && result.size() == limit) {
+                break;
+            }
+        }
+        boolean merged = false;
+        Comparator<Row> order = index.order();
+        for (Row row : overlay.values()) {
+            if (row != null && (from == null || order.compare(row, from) >= 0) && (to == null || order.compare(row, to) <= 0)
+                    && (matcher == null || matcher.test(row))) {
+                result.add(row);
+                merged = true;
+            }
+        }
+        if (merged) {
+            result.sort(ascending ? order : order.reversed());
+            if (limit > 0 && result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+
+    public Tombstone getTombstone(long productId) {
+        Transaction tx = current();
+        if (tx != null && tx.tombstones.containsKey(productId)) {
+            return tx.tombstones.get(productId);
+        }
+        return tombstones.get(productId);
+    }
+
+    /**
+     * Tombstone theo thứ tự (change_seq, product_id), trong đoạn [from, to], tối đa limit
+     */
+    public List<Tombstone> scanTombstones(Tombstone from, Tombstone to, Predicate<Tombstone> matcher, int limit) {
+        Transaction tx = current();
+        Map<Long, Tombstone> overlay = tx == null ? Map.of() : tx.tombstones;
+        List<Tombstone> result = new ArrayList<>();
+        NavigableSet<Tombstone> range = TOMBSTONE_ORDER.compare(from, to) > 0
+                ? new TreeSet<>(TOMBSTONE_ORDER)
+                : tombstonesByChangeSeq.subSet(from, true, to, true);
+        for (Tombstone tombstone : range) {
+            if (overlay.containsKey(tombstone.productId()) || (matcher != null && !matcher.test(tombstone))) {
+                continue;
+            }
+            result.add(tombstone);
+            if (limit > 0 && result.size() == limit) {
+                break;
+            }
+        }
+        boolean merged = false;
+        for (Tombstone tombstone : overlay.values()) {
+            if (tombstone != null && TOMBSTONE_ORDER.compare(tombstone, from) >= 0
+                    && TOMBSTONE_ORDER.compare(tombstone, to) <= 0 && (matcher == null || matcher.test(tombstone))) {
+                result.add(tombstone);
+                merged = true;
+            }
+        }
+        if (merged) {
+            result.sort(TOMBSTONE_ORDER);
+            if (limit > 0 && result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+
+    public List<Tombstone> allTombstones() {
+        return scanTombstones(new Tombstone(Long.MIN_VALUE, Long.MIN_VALUE, null),
+                new Tombstone(Long.MAX_VALUE, Long.MAX_VALUE, null), null, 0);
+    }
+
+    /**
+     * Giá trị bộ đếm change sequence (kể cả giá trị chưa commit của transaction hiện tại)
+     */
+    public long counter() {
+        Transaction tx = current();
+        return tx != null && tx.counter != null ? tx.counter : counter;
+    }
+
+    // ---- Ghi ----
+
+    /**
+     * Thêm dòng mới với id được cấp tự động
+     */
+    public Row insert(String name, String description, double price, long changeSeq) {
+        return write(tx -> {
+            Row row = new Row(nextId.getAndIncrement(), name, description, price, changeSeq);
+            tx.rows.put(row.id(), row);
+            return row;
+        });
+    }
+
+    /**
+     * Thêm hoặc thay thế dòng có id của row
+     */
+    public Row put(Row row) {
+        return write(tx -> {
+            nextId.accumulateAndGet(row.id() + 1, Math::max);
+            tx.rows.put(row.id(), row);
+            return row;
+        });
+    }
+
+    public boolean delete(long id) {
+        return write(tx -> {
+            boolean existed = get(id) != null;
+            if (existed) {
+                tx.rows.put(id, null);
+            }
+            return existed;
+        });
+    }
+
+    /**
+     * Áp dụng cùng một thay đổi lên nhiều dòng trong một lần ghi (update là null thì bỏ qua dòng đó)
+     * Trả về số dòng đã thay đổi
+     */
+    public int update(Collection<Long> ids, Function<Row, Row> update) {
+        return write(tx -> {
+            int updated = 0;
+            for (Long id : ids) {
+                Row current = get(id);
+                Row changed = current == null ? null : update.apply(current);
+                if (changed != null) {
+                    tx.rows.put(id, changed);
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    public void putTombstone(Tombstone tombstone) {
+        write(tx -> tx.tombstones.put(tombstone.productId(), tombstone));
+    }
+
+    public boolean deleteTombstone(long productId) {
+        return write(tx -> {
+            boolean existed = getTombstone(productId) != null;
+            if (existed) {
+                tx.tombstones.put(productId, null);
+            }
+            return existed;
+        });
+    }
+
+    public void setCounter(long value) {
+        write(tx -> tx.counter = value);
+    }
+
+    // ---- Snapshot, metrics, vòng đời ----
+
+    /**
+     * Ghi snapshot nếu journal hiện tại vượt ngưỡng
+     */
+    public void snapshotIfNeeded() {
+        if (files.journalBytes() >= snapshotJournalBytes) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Chụp trạng thái đã commit (giữ write lock chỉ trong lúc chép danh sách tham chiếu và đổi journal),
+     * rồi ghi snapshot ngoài lock nên các transaction ghi chỉ bị chặn trong thời gian ngắn
+     */
+    public void snapshot() {
+        synchronized (snapshotMonitor) {
+            if (closed) {
+                return;
+            }
+            List<Row> rowsCopy;
+            List<Tombstone> tombstonesCopy;
+            long counterCopy;
+            long nextIdCopy;
+            long generation;
+            long start = System.nanoTime();
+            writeLock.lock();
+            try {
+                if (files.journalBytes() == 0) {
+                    return;
+                }
+                rowsCopy = new ArrayList<>(rows.values());
+                tombstonesCopy = new ArrayList<>(tombstones.values());
+                counterCopy = counter;
+                nextIdCopy = nextId.get();
+                generation = files.rotate();
+            } catch (IOException ex) {
+                throw new DataAccessResourceFailureException("Không tạo được journal mới", ex);
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                files.writeSnapshot(generation, nextIdCopy, counterCopy, rowsCopy, tombstonesCopy);
+            } catch (IOException ex) {
+                // Journal cũ vẫn còn nên không mất dữ liệu; lần sau thử lại
+                log.error("Không ghi được snapshot thế hệ {}", generation, ex);
+                return;
+            }
+            log.info("Đã ghi snapshot thế hệ {} ({} sản phẩm) sau {} ms", generation, rowsCopy.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public long journalBytes() {
+        return files.journalBytes();
+    }
+
+    public long snapshotGeneration() {
+        return files.generation();
+    }
+
+    public long recoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /**
+     * Snapshot lần cuối rồi đóng journal
+     */
+    @Override
+    public void close() {
+        snapshotScheduler.shutdownNow();
+        try {
+            snapshotIfNeeded();
+        } catch (RuntimeException ex) {
+            log.error("Không ghi được snapshot khi đóng store", ex);
+        }
+        writeLock.lock();
+        try {
+            synchronized (snapshotMonitor) {
+                closed = true;
+            }
+            files.close();
+        } catch (IOException ex) {
+            log.error("Không đóng được journal", ex);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Transaction current() {
+        return (Transaction) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private <T> T write(Function<Transaction, T> change) {
+        checkOpen();
+        Transaction tx = current();
+        if (tx != null) {
+            acquire(tx);
+            return change.apply(tx);
+        }
+        Transaction autoCommit = begin();
+        acquire(autoCommit);
+        try {
+            T result = change.apply(autoCommit);
+            commit(autoCommit);
+            return result;
+        } finally {
+            release(autoCommit);
+        }
+    }
+
+    private void acquire(Transaction tx) {
+        if (tx.locked) {
+            return;
+        }
+        try {
+            if (!writeLock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Hết thời gian chờ write lock sau " + lockTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Bị ngắt khi chờ write lock", ex);
+        }
+        tx.locked = true;
+    }
+
+    private void release(Transaction tx) {
+        if (tx.locked) {
+            tx.locked = false;
+            writeLock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new DataAccessResourceFailureException("Embedded store đã đóng");
+        }
+    }
+
+    // Chỉ gọi khi giữ write lock
+    private void apply(Transaction tx) {
+        for (Map.Entry<Long, Row> entry : tx.rows.entrySet()) {
+            if (entry.getValue() == null) {
+                removeRow(entry.getKey());
+            } else {
+                putRow(entry.getValue());
+            }
+        }
+        for (Map.Entry<Long, Tombstone> entry : tx.tombstones.entrySet()) {
+            if (entry.getValue() == null) {
+                removeTombstone(entry.getKey());
+            } else {
+                putTombstoneRow(entry.getValue());
+            }
+        }
+        if (tx.counter != null) {
+            counter = tx.counter;
+        }
+    }
+
+    private void putRow(Row row) {
+        Row previous = rows.put(row.id(), row);
+        if (previous != null) {
+            byPrice.remove(previous);
+            byName.remove(previous);
+            byChangeSeq.remove(previous);
+        }
+        byPrice.add(row);
+        byName.add(row);
+        byChangeSeq.add(row);
+    }
+
+    private void removeRow(long id) {
+        Row previous = rows.remove(id);
+        if (previous != null) {
+            byPrice.remove(previous);
+            byName.remove(previous);
+            byChangeSeq.remove(previous);
+        }
+    }
+
+    private void putTombstoneRow(Tombstone tombstone) {
+        Tombstone previous = tombstones.put(tombstone.productId(), tombstone);
+        if (previous != null) {
+            tombstonesByChangeSeq.remove(previous);
+        }
+        tombstonesByChangeSeq.add(tombstone);
+    }
+
+    private void removeTombstone(long productId) {
+        Tombstone previous = tombstones.remove(productId);
+        if (previous != null) {
+            tombstonesByChangeSeq.remove(previous);
+        }
+    }
+
+    private Iterable<Row> range(Index index, Row from, Row to, boolean ascending) {
+        Comparator<Row> order = index.order();
+        if (from != null && to != null && order.compare(from, to) > 0) {
+            return List.of();
+        }
+        if (index == Index.ID) {
+            ConcurrentNavigableMap<Long, Row> map = rows;
+            if (from != null) {
+                map = map.tailMap(from.id(), true);
+            }
+            if (to != null) {
+                map = map.headMap(to.id(), true);
+            }
+            return ascending ? map.values() : map.descendingMap().values();
+        }
+        NavigableSet<Row> set = switch (index) {
+            case PRICE -> byPrice;
+            case NAME -> byName;
+            default -> byChangeSeq;
+        };
+        if (from != null) {
+            set = set.tailSet(from, true);
+        }
+        if (to != null) {
+            set = set.headSet(to, true);
+        }
+        return ascending ? set : set.descendingSet();
+    }
+
+    /**
+     * Áp dụng dữ liệu đọc từ snapshot/journal thẳng vào các index (chưa có request nào lúc khôi phục)
+     */
+    private final class RecoverySink implements EmbeddedStoreFiles.Sink {
+
+        @Override
+        public void put(Row row) {
+            putRow(row);
+            nextId.accumulateAndGet(row.id() + 1, Math::max);
+        }
+
+        @Override
+        public void delete(long id) {
+            removeRow(id);
+        }
+
+        @Override
+        public void putTombstone(Tombstone tombstone) {
+            putTombstoneRow(tombstone);
+        }
+
+        @Override
+        public void deleteTombstone(long productId) {
+            removeTombstone(productId);
+        }
+
+        @Override
+        public void counter(long value) {
+            counter = value;
+        }
+
+        @Override
+        public void nextId(long value) {
+            nextId.accumulateAndGet(value, Math::max);
+        }
+    }
+}
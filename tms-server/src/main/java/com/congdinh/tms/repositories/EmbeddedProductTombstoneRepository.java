@@ -0,0 +1,87 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.entities.ProductTombstone;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Tombstone;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * EmbeddedProductTombstoneRepository - ProductTombstoneRepository của profile embedded
+ * Tombstone được lưu trong EmbeddedProductStore với index (change_seq, product_id) cho feed đồng bộ delta
+ */
+public class EmbeddedProductTombstoneRepository extends EmbeddedRepositorySupport<ProductTombstone, Long>
+        implements ProductTombstoneRepository {
+
+    public EmbeddedProductTombstoneRepository(EmbeddedProductStore store) {
+        super(store);
+    }
+
+    @Override
+    protected Long getId(ProductTombstone tombstone) {
+        return tombstone.getProductId();
+    }
+
+    @Override
+    public List<ProductTombstone> findChangedAfter(long changeSeq, long productId, long horizon, Limit limit) {
+        return toEntities(store.scanTombstones(new Tombstone(productId, changeSeq, null),
+                new Tombstone(Long.MAX_VALUE, horizon, null),
+                tombstone -> tombstone.changeSeq() > changeSeq || tombstone.productId() > productId,
+                limit.isLimited() ? limit.max() : 0));
+    }
+
+    @Override
+    public int deleteDeletedBefore(LocalDateTime cutoff) {
+        int deleted = 0;
+        for (Tombstone tombstone : store.allTombstones()) {
+            if (tombstone.deletedAt() != null && tombstone.deletedAt().isBefore(cutoff)
+                    && store.deleteTombstone(tombstone.productId())) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public Optional<ProductTombstone> findById(Long productId) {
+        return Optional.ofNullable(store.getTombstone(productId)).map(EmbeddedProductTombstoneRepository::toEntity);
+    }
+
+    @Override
+    public List<ProductTombstone> findAll() {
+        return toEntities(store.allTombstones());
+    }
+
+    @Override
+    public long count() {
+        return store.allTombstones().size();
+    }
+
+    @Override
+    public <S extends ProductTombstone> S save(S tombstone) {
+        store.putTombstone(new Tombstone(tombstone.getProductId(), tombstone.getChangeSeq(), tombstone.getDeletedAt()));
+        return tombstone;
+    }
+
+    @Override
+    public void deleteById(Long productId) {
+        store.deleteTombstone(productId);
+    }
+
+    private static List<ProductTombstone> toEntities(List<Tombstone> tombstones) {
+        List<ProductTombstone> result = new ArrayList<>(tombstones.size());
+        for (Tombstone tombstone : tombstones) {
+            result.add(toEntity(tombstone));
+        }
+        return result;
+    }
+
+    private static ProductTombstone toEntity(Tombstone tombstone) {
+        ProductTombstone entity = new ProductTombstone(tombstone.productId(), tombstone.changeSeq());
+        entity.setDeletedAt(tombstone.deletedAt());
+        return entity;
+    }
+}
@@ -0,0 +1,620 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.repositories.EmbeddedProductStore.Row;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Tombstone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * EmbeddedStoreFiles - Journal và snapshot trên đĩa của EmbeddedProductStore
+ * Cả hai dùng chung một dạng frame: [int độ dài payload][int CRC32C của payload][payload], payload gồm
+ * nextId và một dãy thao tác (PUT, DELETE, TOMBSTONE, ...). Frame chỉ được áp dụng khi CRC khớp,
+ * nên một commit ghi dở lúc crash không bao giờ được áp dụng một nửa.
+ * - journal-N.log: mỗi commit một frame, append-only (fsync mỗi commit nếu bật)
+ * - snapshot-N.dat: toàn bộ dữ liệu tại thời điểm bắt đầu journal-N, ghi và đọc bằng memory-mapped file
+ *   (ghi ra file .tmp rồi rename atomic, frame cuối chứa thao tác END)
+ * Khôi phục = snapshot mới nhất + replay các journal từ cùng thế hệ trở đi. Không thread-safe:
+ * EmbeddedProductStore chỉ gọi append/rotate khi giữ write lock
+ */
+final class EmbeddedStoreFiles implements AutoCloseable {
+
+    /**
+     * Nơi nhận dữ liệu đọc lại khi khôi phục
+     */
+    interface Sink {
+        void put(Row row);
+
+        void delete(long id);
+
+        void putTombstone(Tombstone tombstone);
+
+        void deleteTombstone(long productId);
+
+        void counter(long value);
+
+        void nextId(long value);
+    }
+
+    /**
+     * Kết quả khôi phục: thế hệ snapshot đã đọc (0 = chưa có snapshot), số frame journal đã replay
+     */
+    record Recovery(long snapshotGeneration, long journalFrames, long journalBytes, boolean truncatedTail) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStoreFiles.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x544D5353; // "TMSS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 16;
+    private static final int FRAME_HEADER_BYTES = 8;
+    // nextId + số thao tác
+    private static final int MIN_PAYLOAD_BYTES = 12;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_TOMBSTONE = 3;
+    private static final byte OP_DELETE_TOMBSTONE = 4;
+    private static final byte OP_COUNTER = 5;
+    private static final byte OP_END = 6;
+
+    // Mỗi lần map một cửa sổ 64 MB (một mapping không vượt quá 2 GB)
+    private static final int MAP_WINDOW_BYTES = 64 * 1024 * 1024;
+    // Số dòng mỗi frame của snapshot
+    private static final int SNAPSHOT_ROWS_PER_FRAME = 4096;
+
+    private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.dat");
+
+    private final Path directory;
+    private final boolean fsync;
+    // Buffer frame dùng lại giữa các commit (luôn được gọi dưới write lock)
+    private final FrameBuffer journalFrame = new FrameBuffer();
+
+    private FileChannel journal;
+    // Đọc được từ thread khác (metrics, lịch snapshot)
+    private volatile long generation;
+    private volatile long journalBytes;
+    private boolean broken;
+
+    EmbeddedStoreFiles(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Đọc snapshot mới nhất và replay journal, sau đó mở journal để ghi tiếp
+     * Frame cuối cùng của journal cuối cùng bị hỏng (crash khi đang ghi) thì bị cắt bỏ;
+     * hỏng ở bất kỳ chỗ nào khác là lỗi dữ liệu và không khởi động
+     */
+    Recovery recover(Sink sink) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path tmp : files.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        TreeMap<Long, Path> snapshots = list(SNAPSHOT_FILE);
+        TreeMap<Long, Path> journals = list(JOURNAL_FILE);
+
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.lastKey();
+        if (snapshotGeneration > 0) {
+            readSnapshot(snapshots.lastEntry().getValue(), snapshotGeneration, sink);
+        }
+        long frames = 0;
+        long bytes = 0;
+        boolean truncated = false;
+        Map<Long, Path> replay = journals.tailMap(snapshotGeneration, true);
+        for (Map.Entry<Long, Path> entry : replay.entrySet()) {
+            boolean last = entry.getKey().equals(journals.lastKey());
+            JournalReplay result = replayJournal(entry.getValue(), last, sink);
+            frames += result.frames();
+            bytes += result.validBytes();
+            truncated |= result.truncated();
+        }
+        generation = Math.max(1, Math.max(snapshotGeneration, journals.isEmpty() ? 0 : journals.lastKey()));
+        openJournal(generation);
+        return new Recovery(snapshotGeneration, frames, bytes, truncated);
+    }
+
+    /**
+     * Ghi một commit vào journal; trả về khi frame đã nằm trong file (và trên đĩa nếu bật fsync)
+     */
+    void append(long nextId, Map<Long, Row> rows, Map<Long, Tombstone> tombstones, Long counter) throws IOException {
+        FrameBuffer frame = journalFrame;
+        frame.begin(nextId);
+        for (Map.Entry<Long, Row> entry : rows.entrySet()) {
+            if (entry.getValue() == null) {
+                frame.delete(entry.getKey());
+            } else {
+                frame.put(entry.getValue());
+            }
+        }
+        for (Map.Entry<Long, Tombstone> entry : tombstones.entrySet()) {
+            if (entry.getValue() == null) {
+                frame.deleteTombstone(entry.getKey());
+            } else {
+                frame.tombstone(entry.getValue());
+            }
+        }
+        if (counter != null) {
+            frame.counter(counter);
+        }
+        ByteBuffer buffer = frame.finish();
+        if (broken) {
+            throw new IOException("Journal không còn ghi được sau lỗi trước đó");
+        }
+        int size = buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (fsync) {
+                journal.force(false);
+            }
+        } catch (IOException ex) {
+            // Bỏ phần frame đã ghi dở: các commit sau không được nằm sau một frame hỏng
+            try {
+                journal.truncate(journalBytes);
+            } catch (IOException truncateFailure) {
+                broken = true;
+                ex.addSuppressed(truncateFailure);
+            }
+            throw ex;
+        }
+        journalBytes += size;
+    }
+
+    /**
+     * Đóng journal hiện tại và bắt đầu thế hệ mới; trả về số thế hệ mới
+     * Snapshot của thế hệ mới phải chứa đúng trạng thái tại thời điểm gọi rotate
+     */
+    long rotate() throws IOException {
+        journal.force(false);
+        journal.close();
+        generation++;
+        openJournal(generation);
+        return generation;
+    }
+
+    /**
+     * Ghi snapshot của thế hệ generation qua memory-mapped file, rồi xóa snapshot và journal cũ hơn
+     */
+    void writeSnapshot(long generation, long nextId, long counter, Collection<Row> rows,
+                       Collection<Tombstone> tombstones) throws IOException {
+        Path target = directory.resolve(snapshotName(generation));
+        Path tmp = directory.resolve(snapshotName(generation) + ".tmp");
+        try (MappedOutput output = new MappedOutput(tmp)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            header.putInt(SNAPSHOT_MAGIC).putInt(FORMAT_VERSION).putLong(generation).flip();
+            output.write(header);
+
+            FrameBuffer frame = new FrameBuffer();
+            frame.begin(nextId);
+            frame.counter(counter);
+            int inFrame = 0;
+            for (Row row : rows) {
+                frame.put(row);
+                if (++inFrame == SNAPSHOT_ROWS_PER_FRAME) {
+                    output.write(frame.finish());
+                    frame.begin(nextId);
+                    inFrame = 0;
+                }
+            }
+            for (Tombstone tombstone : tombstones) {
+                frame.tombstone(tombstone);
+                if (++inFrame == SNAPSHOT_ROWS_PER_FRAME) {
+                    output.write(frame.finish());
+                    frame.begin(nextId);
+                    inFrame = 0;
+                }
+            }
+            frame.end();
+            output.write(frame.finish());
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        for (Map.Entry<Long, Path> old : list(SNAPSHOT_FILE).headMap(generation).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+        for (Map.Entry<Long, Path> old : list(JOURNAL_FILE).headMap(generation).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+    }
+
+    long journalBytes() {
+        return journalBytes;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null && journal.isOpen()) {
+            journal.force(false);
+            journal.close();
+        }
+    }
+
+    private void openJournal(long generation) throws IOException {
+        Path path = directory.resolve(journalName(generation));
+        journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        journalBytes = journal.size();
+        syncDirectory();
+    }
+
+    private void readSnapshot(Path path, long generation, Sink sink) throws IOException {
+        try (MappedInput input = new MappedInput(path)) {
+            if (input.remaining() < SNAPSHOT_HEADER_BYTES || input.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Snapshot không hợp lệ: " + path);
+            }
+            int version = input.getInt();
+            if (version != FORMAT_VERSION || input.getLong() != generation) {
+                throw new IOException("Snapshot " + path + " có phiên bản " + version + " không được hỗ trợ");
+            }
+            while (true) {
+                ByteBuffer payload = input.readFrame();
+                if (payload == null) {
+                    throw new IOException("Snapshot bị hỏng hoặc không đầy đủ: " + path);
+                }
+                if (decode(payload, sink)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private record JournalReplay(long frames, long validBytes, boolean truncated) {
+    }
+
+    private JournalReplay replayJournal(Path path, boolean last, Sink sink) throws IOException {
+        long frames = 0;
+        long validBytes;
+        try (MappedInput input = new MappedInput(path)) {
+            ByteBuffer payload;
+            while ((payload = input.readFrame()) != null) {
+                decode(payload, sink);
+                frames++;
+            }
+            validBytes = input.position();
+            if (input.remaining() == 0) {
+                return new JournalReplay(frames, validBytes, false);
+            }
+            if (!last) {
+                throw new IOException("Journal bị hỏng tại byte " + validBytes + ": " + path);
+            }
+            log.warn("Cắt bỏ {} byte cuối của journal {} (commit ghi dở khi dừng đột ngột)", input.remaining(), path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        return new JournalReplay(frames, validBytes, true);
+    }
+
+    /**
+     * Áp dụng các thao tác của một frame; trả về true nếu gặp END (hết snapshot)
+     */
+    private static boolean decode(ByteBuffer payload, Sink sink) {
+        sink.nextId(payload.getLong());
+        int operations = payload.getInt();
+        for (int i = 0; i < operations; i++) {
+            byte op = payload.get();
+            switch (op) {
+                case OP_PUT -> {
+                    long id = payload.getLong();
+                    long changeSeq = payload.getLong();
+                    double price = payload.getDouble();
+                    String name = getString(payload);
+                    String description = getString(payload);
+                    sink.put(new Row(id, name, description, price, changeSeq));
+                }
+                case OP_DELETE -> sink.delete(payload.getLong());
+                case OP_TOMBSTONE -> {
+                    long productId = payload.getLong();
+                    long changeSeq = payload.getLong();
+                    LocalDateTime deletedAt = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+                    sink.putTombstone(new Tombstone(productId, changeSeq, deletedAt));
+                }
+                case OP_DELETE_TOMBSTONE -> sink.deleteTombstone(payload.getLong());
+                case OP_COUNTER -> sink.counter(payload.getLong());
+                case OP_END -> {
+                    return true;
+                }
+                default -> throw new IllegalStateException("Thao tác không hợp lệ trong frame: " + op);
+            }
+        }
+        return false;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private TreeMap<Long, Path> list(Pattern pattern) throws IOException {
+        TreeMap<Long, Path> result = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = pattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    result.put(Long.parseLong(matcher.group(1)), path);
+                }
+            });
+        }
+        return result;
+    }
+
+    // Rename và tạo file chỉ bền vững khi thư mục cũng được fsync (không hỗ trợ trên mọi hệ điều hành)
+    private void syncDirectory() {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            log.debug("Không fsync được thư mục {}: {}", directory, ex.getMessage());
+        }
+    }
+
+    private static String journalName(long generation) {
+        return String.format("journal-%020d.log", generation);
+    }
+
+    private static String snapshotName(long generation) {
+        return String.format("snapshot-%020d.dat", generation);
+    }
+
+    /**
+     * Buffer tạo một frame: chừa 8 byte header, ghi payload, rồi điền độ dài và CRC
+     */
+    private static final class FrameBuffer {
+
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private int operations;
+
+        void begin(long nextId) {
+            buffer.clear();
+            buffer.position(FRAME_HEADER_BYTES);
+            buffer.putLong(nextId);
+            // Số thao tác, điền khi finish
+            buffer.putInt(0);
+            operations = 0;
+        }
+
+        void put(Row row) {
+            byte[] name = bytes(row.name());
+            byte[] description = bytes(row.description());
+            ensure(1 + 24 + 8 + (name == null ? 0 : name.length) + (description == null ? 0 : description.length));
+            buffer.put(OP_PUT).putLong(row.id()).putLong(row.changeSeq()).putDouble(row.price());
+            putBytes(name);
+            putBytes(description);
+            operations++;
+        }
+
+        void delete(long id) {
+            ensure(9);
+            buffer.put(OP_DELETE).putLong(id);
+            operations++;
+        }
+
+        void tombstone(Tombstone tombstone) {
+            ensure(29);
+            buffer.put(OP_TOMBSTONE).putLong(tombstone.productId()).putLong(tombstone.changeSeq())
+                    .putLong(tombstone.deletedAt().toEpochSecond(ZoneOffset.UTC))
+                    .putInt(tombstone.deletedAt().getNano());
+            operations++;
+        }
+
+        void deleteTombstone(long productId) {
+            ensure(9);
+            buffer.put(OP_DELETE_TOMBSTONE).putLong(productId);
+            operations++;
+        }
+
+        void counter(long value) {
+            ensure(9);
+            buffer.put(OP_COUNTER).putLong(value);
+            operations++;
+        }
+
+        void end() {
+            ensure(1);
+            buffer.put(OP_END);
+            operations++;
+        }
+
+        /**
+         * Frame hoàn chỉnh, sẵn sàng để ghi (dùng đến lần begin tiếp theo)
+         */
+        ByteBuffer finish() {
+            int payloadLength = buffer.position() - FRAME_HEADER_BYTES;
+            buffer.putInt(FRAME_HEADER_BYTES + 8, operations);
+            crc.reset();
+            crc.update(buffer.array(), FRAME_HEADER_BYTES, payloadLength);
+            buffer.putInt(0, payloadLength);
+            buffer.putInt(4, (int) crc.getValue());
+            buffer.flip();
+            return buffer;
+        }
+
+        private void putBytes(byte[] value) {
+            if (value == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(value.length).put(value);
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        private static byte[] bytes(String value) {
+            return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Đọc file qua các cửa sổ memory-mapped liên tiếp
+     */
+    private static final class MappedInput implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final long size;
+        private final CRC32C crc = new CRC32C();
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedInput(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW_BYTES));
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        long remaining() {
+            return size - position();
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return window.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(8);
+            return window.getLong();
+        }
+
+        /**
+         * Payload của frame tiếp theo, hoặc null nếu hết file hay frame không đầy đủ/sai CRC
+         * (vị trí đọc khi đó vẫn ở đầu frame)
+         */
+        ByteBuffer readFrame() throws IOException {
+            long start = position();
+            if (size - start < FRAME_HEADER_BYTES) {
+                return null;
+            }
+            int length = getInt();
+            int checksum = getInt();
+            if (length < MIN_PAYLOAD_BYTES || size - position() < length) {
+                seek(start);
+                return null;
+            }
+            byte[] payload = new byte[length];
+            ensure(length);
+            window.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                seek(start);
+                return null;
+            }
+            return ByteBuffer.wrap(payload);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = position();
+            if (size - position < bytes) {
+                throw new EOFException();
+            }
+            seek(position, Math.max(bytes, MAP_WINDOW_BYTES));
+        }
+
+        private void seek(long position) throws IOException {
+            if (position >= windowStart && position <= windowStart + window.limit()) {
+                window.position((int) (position - windowStart));
+            } else {
+                seek(position, MAP_WINDOW_BYTES);
+            }
+        }
+
+        private void seek(long position, int windowBytes) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, windowBytes));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Ghi file qua các cửa sổ memory-mapped liên tiếp; khi đóng thì cắt file về đúng độ dài đã ghi và fsync
+     */
+    private static final class MappedOutput implements AutoCloseable {
+
+        private final FileChannel channel;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedOutput(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, MAP_WINDOW_BYTES);
+        }
+
+        void write(ByteBuffer source) throws IOException {
+            if (window.remaining() < source.remaining()) {
+                window.force();
+                long position = windowStart + window.position();
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                        Math.max(source.remaining(), MAP_WINDOW_BYTES));
+            }
+            window.put(source);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                window.force();
+                channel.truncate(windowStart + window.position());
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
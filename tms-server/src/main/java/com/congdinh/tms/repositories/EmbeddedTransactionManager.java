@@ -0,0 +1,89 @@
+package com.congdinh.tms.repositories;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * EmbeddedTransactionManager - PlatformTransactionManager của profile embedded
+ * Gắn một EmbeddedProductStore.Transaction vào thread hiện tại (key là store), nên @Transactional,
+ * TransactionTemplate và @TransactionalEventListener hoạt động như với JpaTransactionManager.
+ * Isolation và timeout không được hỗ trợ (luôn là read committed + write lock của store)
+ */
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final EmbeddedProductStore store;
+
+    public EmbeddedTransactionManager(EmbeddedProductStore store) {
+        this.store = store;
+    }
+
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private EmbeddedProductStore.Transaction transaction;
+
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction != null && transaction.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+            // Không có gì để flush: thay đổi nằm trong bản nháp tới khi commit
+        }
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        TransactionObject object = new TransactionObject();
+        object.transaction = (EmbeddedProductStore.Transaction) TransactionSynchronizationManager.getResource(store);
+        return object;
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        TransactionObject object = (TransactionObject) transaction;
+        object.transaction = store.begin();
+        TransactionSynchronizationManager.bindResource(store, object.transaction);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).transaction = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.setRollbackOnly();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionObject object = (TransactionObject) transaction;
+        TransactionSynchronizationManager.unbindResourceIfPossible(store);
+        object.transaction = null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.congdinh.tms.repositories;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * JdbcProductChangeSequence - Change sequence của database JDBC
+ * - PostgreSQL: change sequence là transaction ID 64 bit (xid8). Transaction ID do Postgres cấp tăng dần và không cần
+ *   khóa chung nào, nên các transaction ghi Product chạy song song. Snapshot cho biết transaction đang chạy có ID nhỏ
+ *   nhất (xmin): mọi transaction có ID nhỏ hơn đã kết thúc, nên xmin - 1 là horizon an toàn. Một sequence riêng
+ *   (nextval) không dùng được ở đây vì giá trị của nó không liên hệ với snapshot: không biết sequence nhỏ nhất
+ *   còn đang chạy trên các node khác
+ * - Database khác (H2 của profile test, chỉ một node): bộ đếm trong tiến trình, horizon = sequence nhỏ nhất
+ *   của các transaction còn đang chạy - 1
+ */
+@Repository
+@Profile("!embedded")
+public class JdbcProductChangeSequence implements ProductChangeSequence {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // null cho tới lần dùng đầu tiên
+    private volatile Boolean postgres;
+
+    // Chỉ dùng khi không phải PostgreSQL - được bảo vệ bởi lock của inFlight
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long lastIssued = -1;
+
+    public JdbcProductChangeSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Trên PostgreSQL: cấp transaction ID nếu transaction chưa có (Postgres vẫn cấp ở lần ghi đầu tiên),
+     * dùng chung connection của transaction JPA hiện tại
+     */
+    @Override
+    public long currentTransactionSeq() {
+        if (isPostgres()) {
+            return jdbcTemplate.queryForObject("SELECT pg_current_xact_id()::text::bigint", Long.class);
+        }
+        long seq;
+        synchronized (inFlight) {
+            seq = initialized() + 1;
+            lastIssued = seq;
+            inFlight.add(seq);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (inFlight) {
+                    inFlight.remove(seq);
+                }
+            }
+        });
+        return seq;
+    }
+
+    /**
+     * Trên PostgreSQL, một transaction đang chạy lâu (kể cả không ghi Product) làm horizon đứng yên cho tới khi
+     * nó kết thúc: feed chỉ chậm lại, không bỏ sót thay đổi
+     */
+    @Override
+    public long committedHorizon() {
+        if (isPostgres()) {
+            return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint - 1",
+                    Long.class);
+        }
+        synchronized (inFlight) {
+            long issued = initialized();
+            return inFlight.isEmpty() ? issued : inFlight.first() - 1;
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            current = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            postgres = current;
+        }
+        return current;
+    }
+
+    // Chỉ gọi khi đang giữ lock của inFlight: tiếp tục sau sequence lớn nhất đã có trong database
+    private long initialized() {
+        if (lastIssued < 0) {
+            Long max = jdbcTemplate.queryForObject("SELECT GREATEST((SELECT COALESCE(MAX(change_seq), 0) FROM products), "
+                    + "(SELECT COALESCE(MAX(change_seq), 0) FROM product_tombstones))", Long.class);
+            lastIssued = max == null ? 0 : max;
+        }
+        return lastIssued;
+    }
+}
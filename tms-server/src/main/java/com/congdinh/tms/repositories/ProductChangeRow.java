@@ -0,0 +1,8 @@
+package com.congdinh.tms.repositories;
+
+/**
+ * ProductChangeRow - Một dòng của feed đồng bộ delta: trạng thái hiện tại của product cùng change sequence
+ * Được tạo trực tiếp bằng JPQL constructor expression nên description được SELECT cùng câu truy vấn
+ */
+public record ProductChangeRow(Long id, String name, String description, double price, long changeSeq) {
+}
@@ -0,0 +1,19 @@
+package com.congdinh.tms.repositories;
+
+/**
+ * ProductChangeSequence - Nguồn change sequence cho feed đồng bộ delta (xem ProductChangeTracker)
+ * Sequence của một transaction ghi không nhất thiết commit theo thứ tự; committedHorizon cho biết tới đâu
+ * thì mọi transaction đã kết thúc, để client đã đọc tới horizon không bao giờ bỏ lỡ một thay đổi commit muộn
+ */
+public interface ProductChangeSequence {
+
+    /**
+     * Change sequence của transaction ghi hiện tại; phải được gọi trong transaction đó
+     */
+    long currentTransactionSeq();
+
+    /**
+     * Sequence lớn nhất mà mọi transaction có sequence nhỏ hơn hoặc bằng nó đều đã commit hoặc rollback
+     */
+    long committedHorizon();
+}
@@ -0,0 +1,140 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.entities.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ProductFilter - Điều kiện lọc Product do ProductSpecifications tạo ra
+ * Vừa là Specification (Criteria API, cho JPA) vừa kiểm tra được trực tiếp trên một dòng trong bộ nhớ
+ * (EmbeddedProductRepository). Kèm theo khoảng id, khoảng giá và tập id suy ra từ điều kiện để engine
+ * trong bộ nhớ chỉ quét đúng đoạn index cần thiết; các khoảng này chỉ thu hẹp phạm vi quét,
+ * mọi dòng trong phạm vi vẫn phải qua matches()
+ */
+public final class ProductFilter implements Specification<Product> {
+
+    /**
+     * Điều kiện trên giá trị các cột của một dòng
+     */
+    @FunctionalInterface
+    public interface RowPredicate {
+        boolean matches(long id, String name, String description, double price);
+    }
+
+    private final Specification<Product> specification;
+    private final RowPredicate predicate;
+    private final long minId;
+    private final long maxId;
+    private final double minPrice;
+    private final double maxPrice;
+    private final Set<Long> ids;
+
+    private ProductFilter(Specification<Product> specification, RowPredicate predicate, long minId, long maxId,
+                          double minPrice, double maxPrice, Set<Long> ids) {
+        this.specification = specification;
+        this.predicate = predicate;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.ids = ids;
+    }
+
+    static ProductFilter of(Specification<Product> specification, RowPredicate predicate) {
+        return new ProductFilter(specification, predicate, Long.MIN_VALUE, Long.MAX_VALUE,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null);
+    }
+
+    ProductFilter withIdRange(long minId, long maxId) {
+        return new ProductFilter(specification, predicate, Math.max(this.minId, minId), Math.min(this.maxId, maxId),
+                minPrice, maxPrice, ids);
+    }
+
+    ProductFilter withPriceRange(double minPrice, double maxPrice) {
+        return new ProductFilter(specification, predicate, minId, maxId,
+                Math.max(this.minPrice, minPrice), Math.min(this.maxPrice, maxPrice), ids);
+    }
+
+    ProductFilter withIds(Set<Long> ids) {
+        return new ProductFilter(specification, predicate, minId, maxId, minPrice, maxPrice, intersect(this.ids, ids));
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Product> root, @Nullable CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return specification.toPredicate(root, query, cb);
+    }
+
+    /**
+     * Kết hợp với một ProductFilter khác vẫn là ProductFilter (giữ được dạng kiểm tra trong bộ nhớ);
+     * với Specification bất kỳ thì chỉ còn dạng Criteria API
+     */
+    @Override
+    public Specification<Product> and(@Nullable Specification<Product> other) {
+        if (other == null) {
+            return this;
+        }
+        Specification<Product> combined = Specification.super.and(other);
+        if (!(other instanceof ProductFilter filter)) {
+            return combined;
+        }
+        RowPredicate left = predicate;
+        RowPredicate right = filter.predicate;
+        return new ProductFilter(combined,
+                (id, name, description, price) -> left.matches(id, name, description, price)
+                        && right.matches(id, name, description, price),
+                Math.max(minId, filter.minId), Math.min(maxId, filter.maxId),
+                Math.max(minPrice, filter.minPrice), Math.min(maxPrice, filter.maxPrice),
+                intersect(ids, filter.ids));
+    }
+
+    public boolean matches(long id, String name, String description, double price) {
+        return predicate.matches(id, name, description, price);
+    }
+
+    // Khoảng id (bao gồm hai đầu) mà mọi dòng thỏa điều kiện phải nằm trong
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    // Khoảng giá (bao gồm hai đầu) mà mọi dòng thỏa điều kiện phải nằm trong
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice > Double.NEGATIVE_INFINITY || maxPrice < Double.POSITIVE_INFINITY;
+    }
+
+    // Tập id được phép, null nếu điều kiện không giới hạn theo danh sách id
+    @Nullable
+    public Set<Long> getIds() {
+        return ids;
+    }
+
+    private static Set<Long> intersect(Set<Long> left, Set<Long> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        Set<Long> result = new HashSet<>(left);
+        result.retainAll(right);
+        return Set.copyOf(result);
+    }
+}
@@ -1,11 +1,18 @@
 package com.congdinh.tms.repositories;
 
+import com.congdinh.tms.dtos.ProductResponseDTO;
 import com.congdinh.tms.entities.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,22 +20,59 @@ import java.util.List;
  * Spring Data JPA sẽ tự động implement các method cơ bản
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
+    // Các query đọc được đánh dấu cacheable (query cache): Hibernate tự loại bỏ kết quả đã cache
+    // khi bảng products bị ghi qua JPA, các entity được hydrate từ second-level cache
+
+    // Lấy tất cả product
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
+
     // Tìm kiếm product theo tên (case-insensitive)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByNameContainingIgnoreCase(String name);
     
     // Tìm kiếm product có giá trong khoảng min-max
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByPriceBetween(double minPrice, double maxPrice);
     
     // Tìm kiếm product có giá lớn hơn một giá trị
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByPriceGreaterThan(double price);
     
     // Custom query sử dụng JPQL
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
     List<Product> searchByKeyword(@Param("keyword") String keyword);
     
-    // Custom query sử dụng native SQL
-    @Query(value = "SELECT * FROM products WHERE price = (SELECT MAX(price) FROM products)", nativeQuery = true)
+    // Product có giá cao nhất; viết bằng JPQL chứ không phải native SQL: Hibernate chỉ biết query space (bảng products)
+    // của JPQL, nên kết quả cache của native query không bị loại bỏ khi bảng bị ghi
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p FROM Product p WHERE p.price = (SELECT MAX(p2.price) FROM Product p2)")
     List<Product> findMostExpensiveProducts();
+
+    // Điều chỉnh giá hàng loạt bằng một câu UPDATE: giá mới = price * factor + delta,
+    // làm tròn 2 chữ số thập phân và không nhỏ hơn 0. Hibernate tự xóa region product trong
+    // second-level cache và đánh dấu query cache của bảng products là cũ (bulk operation)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.price = ROUND(CASE WHEN p.price * :factor + :delta < 0 THEN 0.0 "
+            + "ELSE p.price * :factor + :delta END, 2), p.changeSeq = :changeSeq WHERE p.id IN :ids")
+    int adjustPrices(@Param("ids") Collection<Long> ids, @Param("factor") double factor, @Param("delta") double delta,
+                     @Param("changeSeq") long changeSeq);
+
+    // Đồng bộ delta: product thay đổi sau vị trí (changeSeq, id) và không vượt quá horizon,
+    // theo thứ tự (change_seq, id) - điều kiện changeSeq >= :changeSeq để quét range trên index
+    @Query("SELECT new com.congdinh.tms.repositories.ProductChangeRow(p.id, p.name, p.description, p.price, p.changeSeq) "
+            + "FROM Product p WHERE p.changeSeq >= :changeSeq AND p.changeSeq <= :horizon "
+            + "AND (p.changeSeq > :changeSeq OR p.id > :id) ORDER BY p.changeSeq, p.id")
+    List<ProductChangeRow> findChangedAfter(@Param("changeSeq") long changeSeq, @Param("id") long id,
+                                            @Param("horizon") long horizon, Limit limit);
+
+    // Đọc toàn bộ bảng theo từng trang id (keyset) thẳng ra DTO, không qua query cache và persistence context
+    // (dùng khi load ProductColumnarCatalog)
+    @Query("SELECT new com.congdinh.tms.dtos.ProductResponseDTO(p.id, p.name, p.description, p.price) "
+            + "FROM Product p WHERE p.id > :id ORDER BY p.id")
+    List<ProductResponseDTO> findPageAfter(@Param("id") long id, Limit limit);
 }
@@ -0,0 +1,47 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ProductRepositoryCustom - Các truy vấn không thể khai báo bằng derived query / @Query
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Chỉ SELECT các cột được yêu cầu, các cột khác (ví dụ description TEXT) không bao giờ được đọc
+     * Kết quả sắp xếp theo id; các trường không được chọn để null trong DTO
+     */
+    List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields);
+
+    /**
+     * Như trên nhưng với thứ tự sắp xếp và giới hạn số dòng do caller chọn (LIMIT được đẩy xuống database)
+     * limit <= 0 nghĩa là không giới hạn
+     */
+    List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields,
+                                           Sort sort, int limit);
+
+    /**
+     * Như trên nhưng không qua query cache: cho truy vấn nội bộ không bao giờ lặp lại
+     * (ví dụ từng chunk của job điều chỉnh giá), tránh thêm vào query cache các entry chỉ dùng một lần
+     */
+    List<ProductResponseDTO> findProjectedUncached(Specification<Product> specification, Set<ProductField> fields,
+                                                   Sort sort, int limit);
+
+    /**
+     * Như findProjected (sắp xếp theo id) nhưng đưa từng dòng cho handler ngay khi đọc từ ResultSet,
+     * không dựng List kết quả; phải được gọi trong transaction vì kết quả được đọc dần theo fetch size
+     */
+    void forEachProjected(Specification<Product> specification, Set<ProductField> fields, ProductRowHandler handler);
+
+    /**
+     * Đếm số product khớp điều kiện
+     */
+    long countMatching(Specification<Product> specification);
+}
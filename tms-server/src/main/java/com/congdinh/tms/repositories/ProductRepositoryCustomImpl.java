@@ -0,0 +1,146 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ProductRepositoryCustomImpl - Implement các truy vấn của ProductRepositoryCustom bằng Criteria API
+ * Spring Data tự động ghép class này vào ProductRepository (hậu tố Impl)
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Số dòng driver đọc mỗi lần khi duyệt kết quả bằng forEachProjected
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields) {
+        return findProjected(specification, fields, Sort.by("id"), 0);
+    }
+
+    @Override
+    public List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields,
+                                                  Sort sort, int limit) {
+        return findProjected(specification, fields, sort, limit, true);
+    }
+
+    @Override
+    public List<ProductResponseDTO> findProjectedUncached(Specification<Product> specification, Set<ProductField> fields,
+                                                          Sort sort, int limit) {
+        return findProjected(specification, fields, sort, limit, false);
+    }
+
+    private List<ProductResponseDTO> findProjected(Specification<Product> specification, Set<ProductField> fields,
+                                                   Sort sort, int limit, boolean cacheable) {
+        List<ProductField> selectedFields = new ArrayList<>(fields);
+        TypedQuery<Tuple> typedQuery = createProjectedQuery(specification, selectedFields, sort);
+        typedQuery.setHint(AvailableHints.HINT_CACHEABLE, cacheable);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<ProductResponseDTO> result = new ArrayList<>();
+        Set<ProductField> resultFields = Set.copyOf(fields);
+        for (Tuple tuple : typedQuery.getResultList()) {
+            result.add(toDTO(tuple, selectedFields, resultFields));
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachProjected(Specification<Product> specification, Set<ProductField> fields,
+                                 ProductRowHandler handler) {
+        TypedQuery<Tuple> typedQuery = createProjectedQuery(specification, new ArrayList<>(fields), Sort.by("id"));
+        // Không qua query cache (cache cần cả danh sách); fetch size để PostgreSQL trả kết quả theo từng đợt
+        // thay vì đọc hết vào bộ nhớ của driver
+        typedQuery.setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+        typedQuery.setHint(AvailableHints.HINT_READ_ONLY, true);
+
+        boolean withId = fields.contains(ProductField.ID);
+        boolean withName = fields.contains(ProductField.NAME);
+        boolean withDescription = fields.contains(ProductField.DESCRIPTION);
+        boolean withPrice = fields.contains(ProductField.PRICE);
+        try (Stream<Tuple> rows = typedQuery.getResultStream()) {
+            rows.forEach(tuple -> handler.handle(
+                    withId ? tuple.get(ProductField.ID.getAttribute(), Long.class) : null,
+                    withName ? tuple.get(ProductField.NAME.getAttribute(), String.class) : null,
+                    withDescription ? tuple.get(ProductField.DESCRIPTION.getAttribute(), String.class) : null,
+                    withPrice ? tuple.get(ProductField.PRICE.getAttribute(), Double.class) : null));
+        }
+    }
+
+    @Override
+    public long countMatching(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private TypedQuery<Tuple> createProjectedQuery(Specification<Product> specification, List<ProductField> selectedFields,
+                                                   Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (ProductField field : selectedFields) {
+            selections.add(root.get(field.getAttribute()).alias(field.getAttribute()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<Object> path = root.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.orderBy(orders);
+        return entityManager.createQuery(query);
+    }
+
+    private ProductResponseDTO toDTO(Tuple tuple, List<ProductField> fields, Set<ProductField> resultFields) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        for (ProductField field : fields) {
+            Object value = tuple.get(field.getAttribute());
+            switch (field) {
+                case ID -> dto.setId((Long) value);
+                case NAME -> dto.setName((String) value);
+                case DESCRIPTION -> dto.setDescription((String) value);
+                case PRICE -> dto.setPrice((Double) value);
+            }
+        }
+        dto.setFields(resultFields);
+        return dto;
+    }
+}
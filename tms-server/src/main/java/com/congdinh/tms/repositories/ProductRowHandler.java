@@ -0,0 +1,11 @@
+package com.congdinh.tms.repositories;
+
+/**
+ * ProductRowHandler - Nhận từng dòng product khi đang duyệt kết quả truy vấn (xem ProductRepositoryCustom#forEachProjected)
+ * Các trường không được chọn là null; giá trị không được giữ lại sau khi handle trả về
+ */
+@FunctionalInterface
+public interface ProductRowHandler {
+
+    void handle(Long id, String name, String description, Double price);
+}
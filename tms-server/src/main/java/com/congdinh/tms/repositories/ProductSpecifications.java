@@ -0,0 +1,146 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.entities.Product;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ProductSpecifications - Các điều kiện lọc Product dùng Criteria API
+ * Có thể kết hợp với nhau bằng and()/or() để build query động.
+ * Mỗi điều kiện là một ProductFilter: kết hợp bằng and() vẫn kiểm tra được trong bộ nhớ (EmbeddedProductRepository)
+ * với cùng ngữ nghĩa như câu SQL
+ */
+public final class ProductSpecifications {
+
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Không lọc gì - tất cả products
+     */
+    public static Specification<Product> all() {
+        return ProductFilter.of((root, query, cb) -> cb.conjunction(), (id, name, description, price) -> true);
+    }
+
+    /**
+     * Tên chứa term, không phân biệt hoa thường (giống findByNameContainingIgnoreCase)
+     */
+    public static Specification<Product> nameContainsIgnoreCase(String term) {
+        String folded = term.toLowerCase(Locale.ROOT);
+        String pattern = "%" + ESCAPE.escape(folded) + "%";
+        return ProductFilter.of(
+                (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, ESCAPE.getEscapeCharacter()),
+                (id, name, description, price) -> name.toLowerCase(Locale.ROOT).contains(folded));
+    }
+
+    /**
+     * Tên hoặc mô tả chứa keyword (giống ProductRepository.searchByKeyword)
+     */
+    public static Specification<Product> keywordContains(String keyword) {
+        String pattern = "%" + ESCAPE.escape(keyword) + "%";
+        // LIKE trên description NULL không khớp
+        return ProductFilter.of(
+                (root, query, cb) -> cb.or(
+                        cb.like(root.get("name"), pattern, ESCAPE.getEscapeCharacter()),
+                        cb.like(root.get("description"), pattern, ESCAPE.getEscapeCharacter())),
+                (id, name, description, price) -> name.contains(keyword)
+                        || (description != null && description.contains(keyword)));
+    }
+
+    /**
+     * Giá nằm trong khoảng [minPrice, maxPrice]
+     */
+    public static Specification<Product> priceBetween(double minPrice, double maxPrice) {
+        return ProductFilter.of((root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice),
+                        (id, name, description, price) -> price >= minPrice && price <= maxPrice)
+                .withPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Giá lớn hơn hoặc bằng minPrice
+     */
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return ProductFilter.of((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice),
+                        (id, name, description, price) -> price >= minPrice)
+                .withPriceRange(minPrice, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Giá nhỏ hơn hoặc bằng maxPrice
+     */
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return ProductFilter.of((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice),
+                        (id, name, description, price) -> price <= maxPrice)
+                .withPriceRange(Double.NEGATIVE_INFINITY, maxPrice);
+    }
+
+    /**
+     * ID lớn hơn lastId - dùng để chia bảng thành các chunk liên tiếp theo khóa chính
+     */
+    public static Specification<Product> idGreaterThan(long lastId) {
+        return ProductFilter.of((root, query, cb) -> cb.greaterThan(root.get("id"), lastId),
+                        (id, name, description, price) -> id > lastId)
+                .withIdRange(lastId + 1, Long.MAX_VALUE);
+    }
+
+    /**
+     * Keyset pagination: các product đứng sau (sortValue, id) theo thứ tự sort attribute rồi tới id
+     * Tương đương (sort > v) OR (sort = v AND id > lastId) - dùng được index (price, id)
+     * sortValue bị bỏ qua khi sắp xếp theo id
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Product> after(String sortAttribute, boolean ascending,
+                                                                                Y sortValue, long lastId) {
+        Specification<Product> specification = (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idAfter = ascending ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+            if ("id".equals(sortAttribute)) {
+                return idAfter;
+            }
+            Path<Y> sortPath = root.get(sortAttribute);
+            Predicate sortAfter = ascending ? cb.greaterThan(sortPath, sortValue) : cb.lessThan(sortPath, sortValue);
+            return cb.or(sortAfter, cb.and(cb.equal(sortPath, sortValue), idAfter));
+        };
+        return switch (sortAttribute) {
+            case "id" -> ProductFilter.of(specification,
+                            (id, name, description, price) -> ascending ? id > lastId : id < lastId)
+                    .withIdRange(ascending ? lastId + 1 : Long.MIN_VALUE, ascending ? Long.MAX_VALUE : lastId - 1);
+            case "price" -> {
+                double value = ((Number) sortValue).doubleValue();
+                yield ProductFilter.of(specification, (id, name, description, price) -> {
+                            int compared = Double.compare(price, value);
+                            return ascending ? compared > 0 || (compared == 0 && id > lastId)
+                                    : compared < 0 || (compared == 0 && id < lastId);
+                        })
+                        .withPriceRange(ascending ? value : Double.NEGATIVE_INFINITY,
+                                ascending ? Double.POSITIVE_INFINITY : value);
+            }
+            case "name" -> {
+                String value = (String) sortValue;
+                yield ProductFilter.of(specification, (id, name, description, price) -> {
+                    int compared = name.compareTo(value);
+                    return ascending ? compared > 0 || (compared == 0 && id > lastId)
+                            : compared < 0 || (compared == 0 && id < lastId);
+                });
+            }
+            default -> throw new IllegalArgumentException("Không thể sắp xếp theo trường: " + sortAttribute);
+        };
+    }
+
+    /**
+     * ID nằm trong danh sách
+     */
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        Set<Long> allowed = Set.copyOf(ids);
+        return ProductFilter.of((root, query, cb) -> root.get("id").in(ids),
+                        (id, name, description, price) -> allowed.contains(id))
+                .withIds(allowed);
+    }
+}
@@ -0,0 +1,31 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.entities.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ProductTombstoneRepository - Tombstone của các Product đã bị xóa
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    // Tombstone sau vị trí (changeSeq, productId) và không vượt quá horizon, theo thứ tự (change_seq, product_id)
+    @Query("SELECT t FROM ProductTombstone t WHERE t.changeSeq >= :changeSeq AND t.changeSeq <= :horizon "
+            + "AND (t.changeSeq > :changeSeq OR t.productId > :productId) "
+            + "ORDER BY t.changeSeq, t.productId")
+    List<ProductTombstone> findChangedAfter(@Param("changeSeq") long changeSeq, @Param("productId") long productId,
+                                            @Param("horizon") long horizon, Limit limit);
+
+    // Dọn tombstone đã quá thời gian lưu giữ (xem ProductChangeTracker#purgeTombstones)
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,43 @@
+package com.congdinh.tms.services;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * FloatDotProduct - Tích vô hướng giữa một dòng của ma trận float (row-major) và vector truy vấn
+ * best(): dùng Vector API (jdk.incubator.vector, SIMD) khi JVM chạy với --add-modules jdk.incubator.vector,
+ * nếu không thì dùng vòng lặp scalar
+ */
+interface FloatDotProduct {
+
+    FloatDotProduct SCALAR = new FloatDotProduct() {
+        @Override
+        public float dot(float[] matrix, int offset, float[] query, int dims) {
+            float sum = 0f;
+            for (int i = 0; i < dims; i++) {
+                sum += matrix[offset + i] * query[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    };
+
+    float dot(float[] matrix, int offset, float[] query, int dims);
+
+    String name();
+
+    static FloatDotProduct best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return new VectorFloatDotProduct();
+        } catch (LinkageError ex) {
+            LoggerFactory.getLogger(FloatDotProduct.class).warn("Không dùng được Vector API, chuyển sang scalar", ex);
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.congdinh.tms.services;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lane - Chạy method trên executor và connection pool của một WorkloadLane (xem WorkloadLaneAspect)
+ * Đặt trên class là lane mặc định cho mọi method public của class, đặt trên method thì ghi đè lane của class
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Lane {
+
+    WorkloadLane value();
+
+    /**
+     * true: khi ProductBatchLoader bật, method chạy trên thread của caller (lane vẫn được gắn để chọn connection pool)
+     * thay vì trên executor của lane. Method như vậy phần lớn thời gian chỉ chờ batch đóng (tối đa một cửa sổ gom),
+     * truy vấn chạy trên dispatch thread của batch loader; nếu chờ trên thread của lane thì số lookup trong một cửa sổ
+     * bị giới hạn bởi số thread của lane thay vì max-batch-size
+     */
+    boolean callerThreadWhenBatching() default false;
+}
@@ -0,0 +1,209 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.exceptions.WorkloadLaneSaturatedException;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ProductBatchLoader - Gom các lookup theo ID đến trong một cửa sổ ngắn thành một truy vấn
+ * Theo kiểu DataLoader: các ID được gom trong tối đa window (ví dụ 2ms) hoặc tới khi đủ maxBatchSize,
+ * sau đó chạy một câu WHERE id IN (...) và trả kết quả về cho từng caller.
+ * Thread scheduler chỉ hẹn giờ đóng cửa sổ; truy vấn của batch chạy trên một executor nhỏ (dispatch-threads)
+ * để các batch không phải xếp hàng sau nhau trên một thread.
+ * Kết quả được map sang DTO ngay trong transaction của batch (description là thuộc tính lazy).
+ * Caller chờ tối đa timeout-ms rồi nhận 503 như khi lane POINT_READ quá tải; mọi lỗi của batch (kể cả Error,
+ * executor từ chối) đều được trả về cho các caller đang chờ
+ */
+@Component
+public class ProductBatchLoader {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final DistributionSummary batchSizeSummary;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+
+    // Batch đang gom - được bảo vệ bởi lock của chính object này
+    private Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> pending = new LinkedHashMap<>();
+
+    public ProductBatchLoader(ProductRepository productRepository,
+                              ProductMapper productMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${tms.product.batch-loader.enabled:false}") boolean enabled,
+                              @Value("${tms.product.batch-loader.window-micros:2000}") long windowMicros,
+                              @Value("${tms.product.batch-loader.max-batch-size:100}") int maxBatchSize,
+                              @Value("${tms.product.batch-loader.dispatch-threads:4}") int dispatchThreads,
+                              @Value("${tms.product.batch-loader.timeout-ms:1000}") long timeoutMillis) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.batchSizeSummary = DistributionSummary.builder("tms.product.batch_loader.batch_size")
+                .description("Số ID trong mỗi truy vấn findAllById")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger dispatcherCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-batch-loader-dispatch-" + dispatcherCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Tìm product theo ID; chờ tối đa một cửa sổ gom batch cộng thời gian truy vấn, không quá timeout-ms
+     */
+    public Optional<ProductResponseDTO> load(Long id) {
+        try {
+            return enqueue(id).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new WorkloadLaneSaturatedException(WorkloadLane.POINT_READ,
+                    "Đọc theo id đang quá tải: đã chờ batch quá " + timeoutMillis + " ms");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bị ngắt khi chờ batch đọc theo id", ex);
+        }
+    }
+
+    private CompletableFuture<Optional<ProductResponseDTO>> enqueue(Long id) {
+        Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> fullBatch = null;
+        CompletableFuture<Optional<ProductResponseDTO>> future;
+
+        synchronized (this) {
+            future = pending.get(id);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(id, future);
+
+            if (pending.size() == 1) {
+                // ID đầu tiên của batch mở cửa sổ gom
+                Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> batch = pending;
+                try {
+                    scheduler.schedule(() -> flushIfPending(batch), windowMicros, TimeUnit.MICROSECONDS);
+                } catch (RejectedExecutionException ex) {
+                    // Đang shutdown: không có gì đóng cửa sổ, caller hiện tại tự chạy truy vấn
+                    fullBatch = takePending();
+                }
+            }
+            if (fullBatch == null && pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            }
+        }
+
+        if (fullBatch != null) {
+            // Batch đã đầy (hoặc scheduler đã dừng): caller hiện tại tự chạy truy vấn, không chờ hết cửa sổ
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    private void flushIfPending(Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> batch) {
+        synchronized (this) {
+            // Batch có thể đã được gửi đi sớm vì đầy
+            if (pending != batch) {
+                return;
+            }
+            takePending();
+        }
+        try {
+            dispatcher.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException ex) {
+            // Đang shutdown: chạy luôn để caller không chờ mãi
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> takePending() {
+        Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchSizeSummary.record(batch.size());
+            // Batch chạy trên thread dispatch hoặc thread của caller: gắn lane để dùng connection pool của POINT_READ
+            Map<Long, ProductResponseDTO> productsById = WorkloadLanes.bind(WorkloadLane.POINT_READ,
+                    () -> readOnlyTransaction.execute(status -> {
+                        Map<Long, ProductResponseDTO> result = new HashMap<>();
+                        for (Product product : productRepository.findAllById(new ArrayList<>(batch.keySet()))) {
+                            result.put(product.getId(), productMapper.toResponseDTO(product));
+                        }
+                        return result;
+                    }));
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(productsById.get(id))));
+        } catch (Throwable ex) {
+            // Kể cả Error: caller không bao giờ bị bỏ lại chờ một future không ai hoàn thành
+            batch.values().forEach(future -> future.completeExceptionally(ex));
+            if (ex instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        dispatcher.shutdown();
+        Map<Long, CompletableFuture<Optional<ProductResponseDTO>>> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+}
@@ -0,0 +1,225 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductBatchOperationDTO;
+import com.congdinh.tms.dtos.ProductBatchRequestDTO;
+import com.congdinh.tms.dtos.ProductBatchResponseDTO;
+import com.congdinh.tms.dtos.ProductBatchResultDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.exceptions.ErrorResponse;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.repositories.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * ProductBatchService - Thực hiện nhiều thao tác create/update/delete trong một request (POST /api/products/batch)
+ * Các thao tác chạy theo thứ tự qua chính ProductService (cùng validation, event, cache invalidation),
+ * gom theo chunk: mỗi chunk là một transaction. Một thao tác lỗi làm rollback cả chunk của nó;
+ * các chunk khác không bị ảnh hưởng. UPDATE/DELETE được ghi xuống bằng JDBC batch khi flush
+ * Chạy trên lane BULK: các thao tác ghi của batch không chiếm thread và connection của lane WRITE
+ */
+@Service
+@Lane(WorkloadLane.BULK)
+public class ProductBatchService {
+
+    private static final String PATH = "uri=/api/products";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+    private final int maxOperations;
+
+    public ProductBatchService(ProductService productService,
+                               ProductRepository productRepository,
+                               Validator validator,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tms.product.batch.chunk-size:0}") int defaultChunkSize,
+                               @Value("${tms.product.batch.max-operations:1000}") int maxOperations) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Thực hiện các thao tác theo thứ tự; kết quả trả về cùng thứ tự với request
+     */
+    public ProductBatchResponseDTO execute(ProductBatchRequestDTO request) {
+        List<ProductBatchOperationDTO> operations = request.getOperations();
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách thao tác không được để trống");
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("Chỉ được gửi tối đa " + maxOperations + " thao tác mỗi batch");
+        }
+        int chunkSize = request.getChunkSize() == null ? defaultChunkSize : request.getChunkSize();
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("Chunk size không được âm");
+        }
+        if (chunkSize == 0) {
+            chunkSize = operations.size();
+        }
+
+        ProductBatchResultDTO[] results = new ProductBatchResultDTO[operations.size()];
+        for (int start = 0; start < operations.size(); start += chunkSize) {
+            executeChunk(operations, start, Math.min(start + chunkSize, operations.size()), results);
+        }
+        return new ProductBatchResponseDTO(Arrays.asList(results));
+    }
+
+    private void executeChunk(List<ProductBatchOperationDTO> operations, int start, int end,
+                              ProductBatchResultDTO[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                preloadProducts(operations.subList(start, end));
+                for (int index = start; index < end; index++) {
+                    try {
+                        results[index] = executeOperation(index, operations.get(index));
+                    } catch (RuntimeException ex) {
+                        results[index] = failure(index, operations.get(index), ex);
+                        status.setRollbackOnly();
+                        markRolledBack(operations, start, end, index, results);
+                        return;
+                    }
+                }
+                // Flush trong chunk để lỗi ghi (ví dụ vi phạm constraint) được gắn với chunk này
+                productRepository.flush();
+            });
+        } catch (RuntimeException ex) {
+            // Lỗi khi flush/commit: không biết thao tác nào gây ra, cả chunk bị coi là thất bại
+            for (int index = start; index < end; index++) {
+                results[index] = failure(index, operations.get(index), ex);
+            }
+        }
+    }
+
+    private ProductBatchResultDTO executeOperation(int index, ProductBatchOperationDTO operation) {
+        validate(operation);
+        return switch (operation.getOp()) {
+            case CREATE -> new ProductBatchResultDTO(index, operation.getOp(), HttpStatus.CREATED.value(),
+                    productService.createProduct(operation.getProduct()), null);
+            case UPDATE -> new ProductBatchResultDTO(index, operation.getOp(), HttpStatus.OK.value(),
+                    productService.updateProduct(operation.getId(), operation.getProduct()), null);
+            case DELETE -> {
+                productService.deleteProduct(operation.getId());
+                yield new ProductBatchResultDTO(index, operation.getOp(), HttpStatus.NO_CONTENT.value(), null, null);
+            }
+        };
+    }
+
+    /**
+     * Load trước các product sẽ bị UPDATE/DELETE trong chunk bằng một câu WHERE id IN (...):
+     * findById trong ProductService sau đó lấy từ persistence context thay vì mỗi thao tác một SELECT
+     */
+    private void preloadProducts(List<ProductBatchOperationDTO> chunk) {
+        List<Long> ids = chunk.stream()
+                .filter(operation -> operation != null && operation.getOp() != ProductBatchOperationDTO.Type.CREATE)
+                .map(ProductBatchOperationDTO::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.size() > 1) {
+            productRepository.findAllById(ids);
+        }
+    }
+
+    private void validate(ProductBatchOperationDTO operation) {
+        if (operation == null || operation.getOp() == null) {
+            throw new IllegalArgumentException("Loại thao tác không được để trống. Các giá trị hợp lệ: CREATE, UPDATE, DELETE");
+        }
+        if (operation.getOp() != ProductBatchOperationDTO.Type.CREATE && operation.getId() == null) {
+            throw new IllegalArgumentException("ID không được để trống với thao tác " + operation.getOp());
+        }
+        if (operation.getOp() == ProductBatchOperationDTO.Type.DELETE) {
+            return;
+        }
+        ProductRequestDTO product = operation.getProduct();
+        if (product == null) {
+            throw new IllegalArgumentException("Dữ liệu product không được để trống với thao tác " + operation.getOp());
+        }
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            throw new InvalidOperationException(violations);
+        }
+    }
+
+    private void markRolledBack(List<ProductBatchOperationDTO> operations, int start, int end, int failedIndex,
+                                ProductBatchResultDTO[] results) {
+        for (int index = start; index < end; index++) {
+            if (index == failedIndex) {
+                continue;
+            }
+            String message = index < failedIndex
+                    ? "Đã bị rollback vì thao tác #" + failedIndex + " trong cùng transaction bị lỗi"
+                    : "Không được thực hiện vì thao tác #" + failedIndex + " trong cùng transaction bị lỗi";
+            ProductBatchOperationDTO operation = operations.get(index);
+            results[index] = new ProductBatchResultDTO(index, operation == null ? null : operation.getOp(),
+                    HttpStatus.FAILED_DEPENDENCY.value(), null,
+                    new ErrorResponse(HttpStatus.FAILED_DEPENDENCY.value(), "Failed Dependency", message, path(operation)));
+        }
+    }
+
+    /**
+     * Chuyển exception thành ErrorResponse giống GlobalExceptionHandler khi gọi thao tác riêng lẻ
+     */
+    private static ProductBatchResultDTO failure(int index, ProductBatchOperationDTO operation, RuntimeException ex) {
+        ErrorResponse error;
+        if (ex instanceof InvalidOperationException invalid) {
+            error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation Failed",
+                    "Dữ liệu đầu vào không hợp lệ: " + invalid.getValidationErrors(), path(operation));
+        } else if (ex instanceof ResourceNotFoundException) {
+            error = new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Resource Not Found", ex.getMessage(), path(operation));
+        } else if (ex instanceof IllegalArgumentException) {
+            error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Bad Request", ex.getMessage(), path(operation));
+        } else {
+            error = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error",
+                    "Đã xảy ra lỗi hệ thống: " + ex.getMessage(), path(operation));
+        }
+        return new ProductBatchResultDTO(index, operation == null ? null : operation.getOp(), error.getStatus(),
+                null, error);
+    }
+
+    // Path của request riêng lẻ tương ứng, cùng định dạng WebRequest#getDescription(false)
+    private static String path(ProductBatchOperationDTO operation) {
+        if (operation == null || operation.getOp() == null || operation.getOp() == ProductBatchOperationDTO.Type.CREATE
+                || operation.getId() == null) {
+            return PATH;
+        }
+        return PATH + "/" + operation.getId();
+    }
+
+    /**
+     * Lỗi Bean Validation của một thao tác (tương đương MethodArgumentNotValidException khi gọi riêng lẻ)
+     */
+    private static final class InvalidOperationException extends RuntimeException {
+
+        private final Map<String, String> validationErrors = new TreeMap<>();
+
+        private InvalidOperationException(Set<ConstraintViolation<ProductRequestDTO>> violations) {
+            super("Dữ liệu đầu vào không hợp lệ");
+            for (ConstraintViolation<ProductRequestDTO> violation : violations) {
+                validationErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+        }
+
+        private Map<String, String> getValidationErrors() {
+            return validationErrors;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.congdinh.tms.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * ProductChangeToken - Vị trí đã đồng bộ tới trong feed thay đổi (GET /api/products/changes)
+ * Feed được sắp xếp theo (changeSeq, id) nên cặp này xác định duy nhất điểm tiếp tục, kể cả khi
+ * một transaction thay đổi nhiều product (cùng changeSeq) và bị cắt giữa hai trang.
+ * issuedAt (epoch giây) cho biết token đã cũ hơn thời gian lưu giữ tombstone hay chưa
+ */
+public record ProductChangeToken(long changeSeq, long id, long issuedAt) {
+
+    private static final String INVALID_TOKEN = "Token đồng bộ không hợp lệ";
+
+    // Đồng bộ từ đầu: mọi product hiện có
+    public static final ProductChangeToken START = new ProductChangeToken(-1, 0, 0);
+
+    /**
+     * Dạng token gửi cho client: changeSeq:id:issuedAt, mã hóa base64 url-safe
+     */
+    public String encode() {
+        String raw = changeSeq + ":" + id + ":" + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Đọc lại token do encode() tạo ra
+     * Token dạng cũ changeSeq:id (trước khi có issuedAt) được coi là cấp từ epoch 0, tức đã hết hạn
+     */
+    public static ProductChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2 && parts.length != 3) {
+                throw new IllegalArgumentException(INVALID_TOKEN);
+            }
+            return new ProductChangeToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    parts.length == 3 ? Long.parseLong(parts[2]) : 0);
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException và lỗi base64 cũng là IllegalArgumentException
+            throw new IllegalArgumentException(INVALID_TOKEN);
+        }
+    }
+
+    public boolean isBefore(long otherChangeSeq, long otherId) {
+        return changeSeq < otherChangeSeq || (changeSeq == otherChangeSeq && id < otherId);
+    }
+}
@@ -0,0 +1,229 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductChangesResponseDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.entities.ProductTombstone;
+import com.congdinh.tms.repositories.ProductChangeRow;
+import com.congdinh.tms.repositories.ProductChangeSequence;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductTombstoneRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductChangeTracker - Change sequence cho Product và feed đồng bộ delta (GET /api/products/changes)
+ * Mỗi transaction ghi nhận một change sequence từ ProductChangeSequence (trên Postgres là transaction ID),
+ * không có khóa chung nên các transaction ghi chạy song song. Feed chỉ đọc tới committed horizon: mọi transaction
+ * có sequence nhỏ hơn hoặc bằng horizon đã kết thúc, nên client đã đọc tới horizon không bao giờ bỏ lỡ
+ * một thay đổi commit muộn với sequence nhỏ hơn.
+ * Tombstone được giữ tombstone-retention rồi bị dọn; token cũ hơn token-ttl (luôn ngắn hơn thời gian giữ)
+ * nhận response resync bắt đầu lại từ đầu catalog
+ */
+@Service
+public class ProductChangeTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeTracker.class);
+    private static final int DEFAULT_LIMIT = 100;
+
+    // Key để gắn sequence của transaction hiện tại vào TransactionSynchronizationManager
+    private final Object transactionKey = new Object();
+
+    private final ProductChangeSequence changeSequence;
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxLimit;
+    private final Duration tokenTtl;
+    private final Duration tombstoneRetention;
+    private final long purgeIntervalMinutes;
+    private final ScheduledExecutorService purgeScheduler;
+
+    public ProductChangeTracker(ProductChangeSequence changeSequence,
+                                ProductRepository productRepository,
+                                ProductTombstoneRepository tombstoneRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${tms.product.changes.max-limit:1000}") int maxLimit,
+                                @Value("${tms.product.changes.token-ttl-days:30}") int tokenTtlDays,
+                                @Value("${tms.product.changes.tombstone-retention-days:31}") int tombstoneRetentionDays,
+                                @Value("${tms.product.changes.purge-interval-minutes:60}") long purgeIntervalMinutes) {
+        // Khoảng chênh giữa hai giá trị che cho transaction ghi còn mở lúc token được cấp
+        if (tombstoneRetentionDays <= tokenTtlDays) {
+            throw new IllegalArgumentException("tms.product.changes.tombstone-retention-days phải lớn hơn token-ttl-days");
+        }
+        this.changeSequence = changeSequence;
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxLimit = maxLimit;
+        this.tokenTtl = Duration.ofDays(tokenTtlDays);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+        this.purgeIntervalMinutes = purgeIntervalMinutes;
+        this.purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Bắt đầu dọn tombstone định kỳ khi ứng dụng đã sẵn sàng (mọi node cùng dọn, thao tác idempotent)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurge() {
+        if (purgeIntervalMinutes > 0) {
+            purgeScheduler.scheduleWithFixedDelay(this::purgeTombstonesQuietly, 0, purgeIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purgeScheduler.shutdownNow();
+    }
+
+    /**
+     * Xóa tombstone cũ hơn tombstone-retention; trả về số tombstone đã xóa
+     */
+    public int purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        Integer deleted = WorkloadLanes.bind(WorkloadLane.BULK,
+                () -> writeTransaction.execute(status -> tombstoneRepository.deleteDeletedBefore(cutoff)));
+        if (deleted != null && deleted > 0) {
+            log.info("Đã dọn {} tombstone xóa trước {}", deleted, cutoff);
+        }
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void purgeTombstonesQuietly() {
+        try {
+            purgeTombstones();
+        } catch (RuntimeException ex) {
+            // Thử lại ở lần chạy sau; tombstone chỉ tồn tại lâu hơn một chút
+            log.warn("Không thể dọn tombstone: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Change sequence của transaction ghi hiện tại; chỉ lấy từ ProductChangeSequence một lần mỗi transaction
+     */
+    public long currentTransactionSeq() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Change sequence chỉ được cấp trong transaction ghi");
+        }
+        Long bound = (Long) TransactionSynchronizationManager.getResource(transactionKey);
+        if (bound != null) {
+            return bound;
+        }
+        long seq = changeSequence.currentTransactionSeq();
+        TransactionSynchronizationManager.bindResource(transactionKey, seq);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+            }
+        });
+        return seq;
+    }
+
+    /**
+     * Đánh dấu product sắp được lưu là thay đổi của transaction hiện tại
+     */
+    public void recordUpsert(Product product) {
+        product.setChangeSeq(currentTransactionSeq());
+    }
+
+    /**
+     * Ghi tombstone cho product vừa bị xóa trong transaction hiện tại
+     */
+    public void recordDelete(Long productId) {
+        tombstoneRepository.save(new ProductTombstone(productId, currentTransactionSeq()));
+    }
+
+    /**
+     * Các thay đổi sau token (null = đồng bộ từ đầu), tối đa limit dòng
+     * Chi phí tỉ lệ với số thay đổi: cả hai truy vấn đi thẳng tới vị trí token qua index (change_seq, id)
+     */
+    @Lane(WorkloadLane.SEARCH)
+    public ProductChangesResponseDTO getChanges(String since, Integer limit) {
+        ProductChangeToken token = StringUtils.hasText(since) ? ProductChangeToken.decode(since) : ProductChangeToken.START;
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > maxLimit) {
+            throw new IllegalArgumentException("Limit phải nằm trong khoảng 1 đến " + maxLimit);
+        }
+        long now = Instant.now().getEpochSecond();
+        // Tombstone cần cho token quá hạn có thể đã bị dọn: đồng bộ lại từ đầu thay vì trả về thiếu deletedIds
+        boolean resync = token != ProductChangeToken.START && token.issuedAt() < now - tokenTtl.toSeconds();
+        ProductChangeToken from = resync ? ProductChangeToken.START : token;
+        ProductChangesResponseDTO changes = readOnlyTransaction.execute(status -> readChanges(from, pageSize, now));
+        changes.setResync(resync);
+        return changes;
+    }
+
+    private ProductChangesResponseDTO readChanges(ProductChangeToken from, int pageSize, long now) {
+        // Chỉ đọc tới sequence đã commit: mọi thay đổi <= horizon đều đã hiển thị, kể cả giữa hai câu truy vấn dưới đây
+        long horizon = changeSequence.committedHorizon();
+        List<ProductChangeRow> rows = productRepository.findChangedAfter(from.changeSeq(), from.id(), horizon,
+                Limit.of(pageSize + 1));
+        // Client đồng bộ từ đầu chưa có bản sao nào cần xóa
+        List<ProductTombstone> tombstones = from == ProductChangeToken.START
+                ? List.of()
+                : tombstoneRepository.findChangedAfter(from.changeSeq(), from.id(), horizon, Limit.of(pageSize + 1));
+
+        // Trộn hai danh sách đã sắp xếp theo (changeSeq, id)
+        List<ProductResponseDTO> products = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        long lastSeq = from.changeSeq();
+        long lastId = from.id();
+        int rowIndex = 0;
+        int tombstoneIndex = 0;
+        while (products.size() + deletedIds.size() < pageSize
+                && (rowIndex < rows.size() || tombstoneIndex < tombstones.size())) {
+            ProductChangeRow row = rowIndex < rows.size() ? rows.get(rowIndex) : null;
+            ProductTombstone tombstone = tombstoneIndex < tombstones.size() ? tombstones.get(tombstoneIndex) : null;
+            if (tombstone == null || (row != null
+                    && new ProductChangeToken(row.changeSeq(), row.id(), 0).isBefore(tombstone.getChangeSeq(), tombstone.getProductId()))) {
+                products.add(new ProductResponseDTO(row.id(), row.name(), row.description(), row.price()));
+                lastSeq = row.changeSeq();
+                lastId = row.id();
+                rowIndex++;
+            } else {
+                deletedIds.add(tombstone.getProductId());
+                lastSeq = tombstone.getChangeSeq();
+                lastId = tombstone.getProductId();
+                tombstoneIndex++;
+            }
+        }
+        boolean hasMore = rowIndex < rows.size() || tombstoneIndex < tombstones.size();
+        // issuedAt = thời điểm bản sao của client đầy đủ gần nhất: chỉ làm mới khi đã đọc hết tới horizon
+        // (hoặc khi bắt đầu đồng bộ từ đầu), các trang giữa chừng giữ issuedAt của token trước
+        long issuedAt = !hasMore || from == ProductChangeToken.START ? now : from.issuedAt();
+        // Đã đọc hết tới horizon: các transaction <= horizon đã commit toàn bộ, lần sau bắt đầu ngay sau horizon
+        ProductChangeToken next = hasMore || lastSeq > horizon
+                ? new ProductChangeToken(lastSeq, lastId, issuedAt)
+                : new ProductChangeToken(horizon, Long.MAX_VALUE, issuedAt);
+        return new ProductChangesResponseDTO(products, deletedIds, next.encode(), hasMore);
+    }
+}
@@ -0,0 +1,353 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.services.ProductColumns.Filter;
+import com.congdinh.tms.services.ProductColumns.RowOrder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ProductColumnarCatalog - Bản sao dạng cột trong bộ nhớ của bảng products cho các endpoint đọc
+ * (tms.product.columnar.enabled=true, dành cho deployment chủ yếu đọc)
+ * - Load toàn bộ bảng khi ứng dụng sẵn sàng (trước warmup, nên readiness chỉ UP sau khi load xong),
+ *   sau đó cập nhật từng product qua ProductChangedEvent (hoặc cả một chunk giá qua ProductPricesChangedEvent)
+ *   sau khi transaction ghi commit
+ * - Snapshot bất biến, đọc không cần lock: base (ProductColumns lớn) + delta (ProductColumns nhỏ chứa
+ *   các product đã ghi từ lần compact trước) + bitmap ẩn các dòng base đã bị sửa/xóa.
+ *   Mỗi lần ghi chỉ build lại delta và chép bitmap; khi delta hoặc số dòng ẩn vượt
+ *   tms.product.columnar.compact-threshold thì gộp tất cả thành base mới
+ * - Lọc theo tên, keyword, khoảng giá và cursor chạy trên các cột, song song bằng fork/join
+ */
+@Component
+public class ProductColumnarCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductColumnarCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+    private final int chunkRows;
+    private final int compactThreshold;
+    private final ForkJoinPool scanPool;
+
+    private final Object writeLock = new Object();
+    // Không cho hai lần load (khởi động và ProductInvalidationListener#flushAll) chạy chồng lên nhau
+    private final Object loadLock = new Object();
+    // null cho tới khi load xong: ProductService đọc từ database
+    private volatile Snapshot snapshot;
+    // Khác null trong lúc đang load: thay đổi commit trong lúc này được áp dụng lại sau khi load xong
+    private List<Object> pendingChanges;
+
+    public ProductColumnarCatalog(ProductRepository productRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tms.product.columnar.enabled:false}") boolean enabled,
+                                  @Value("${tms.product.columnar.load-batch-size:10000}") int loadBatchSize,
+                                  @Value("${tms.product.columnar.parallelism:0}") int parallelism,
+                                  @Value("${tms.product.columnar.chunk-rows:16384}") int chunkRows,
+                                  @Value("${tms.product.columnar.compact-threshold:4096}") int compactThreshold) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+        this.chunkRows = chunkRows;
+        this.compactThreshold = compactThreshold;
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        Gauge.builder("tms.product.columnar.products", this, ProductColumnarCatalog::size)
+                .description("Số product trong bản sao dạng cột")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.columnar.memory", this, ProductColumnarCatalog::memoryBytes)
+                .description("Bộ nhớ heap của bản sao dạng cột")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.columnar.object_memory", this, ProductColumnarCatalog::objectMemoryBytes)
+                .description("Ước lượng bộ nhớ heap nếu cùng các product được giữ dưới dạng entity + DTO")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load toàn bộ bảng theo từng trang id
+     * Order: sau ProductInvalidationListener#start (đã LISTEN) và trước ProductWarmup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 100)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (loadLock) {
+            synchronized (writeLock) {
+                pendingChanges = new ArrayList<>();
+            }
+            try {
+                long start = System.nanoTime();
+                List<ProductResponseDTO> products = new ArrayList<>();
+                List<ProductResponseDTO> page = productRepository.findPageAfter(Long.MIN_VALUE, Limit.of(loadBatchSize));
+                while (!page.isEmpty()) {
+                    products.addAll(page);
+                    page = page.size() < loadBatchSize ? List.of()
+                            : productRepository.findPageAfter(page.get(page.size() - 1).getId(), Limit.of(loadBatchSize));
+                }
+                ProductColumns base = ProductColumns.of(products);
+                synchronized (writeLock) {
+                    snapshot = Snapshot.of(base);
+                    pendingChanges.forEach(this::applyEvent);
+                    pendingChanges = null;
+                }
+                log.info("Đã load {} sản phẩm vào bản sao dạng cột sau {} ms: {} byte/sản phẩm (entity + DTO ước lượng {} byte/sản phẩm)",
+                        base.size(), (System.nanoTime() - start) / 1_000_000,
+                        base.size() == 0 ? 0 : base.memoryBytes() / base.size(),
+                        base.size() == 0 ? 0 : base.objectBytes() / base.size());
+            } catch (RuntimeException ex) {
+                synchronized (writeLock) {
+                    pendingChanges = null;
+                }
+                // Không phục vụ từ bộ nhớ, ProductService tiếp tục đọc từ database
+                log.warn("Không thể load bản sao dạng cột, các endpoint đọc dùng database", ex);
+            }
+        }
+    }
+
+    /**
+     * Load lại toàn bộ (ví dụ khi mất notification giữa các node, xem ProductInvalidationListener#flushAll)
+     */
+    public void reload() {
+        load();
+    }
+
+    /**
+     * Cập nhật bản sao sau khi thay đổi đã được commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            } else if (snapshot != null) {
+                applyEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Cập nhật giá của cả một chunk với một lần build lại delta
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPricesChanged(ProductPricesChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            } else if (snapshot != null) {
+                applyEvent(event);
+            }
+        }
+    }
+
+    /**
+     * true khi bản sao đã load xong và có thể thay database cho các endpoint đọc
+     */
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    public Optional<ProductResponseDTO> findById(long id) {
+        Snapshot current = snapshot;
+        int deltaRow = current.delta().indexOf(id);
+        if (deltaRow >= 0) {
+            return Optional.of(current.delta().toDTO(deltaRow, ProductField.all()));
+        }
+        int row = current.base().indexOf(id);
+        if (row < 0 || ProductColumns.isSet(current.hidden(), row)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.base().toDTO(row, ProductField.all()));
+    }
+
+    /**
+     * Các product tìm thấy theo id, chỉ với các trường được chọn
+     */
+    public Map<Long, ProductResponseDTO> findByIds(Collection<Long> ids, Set<ProductField> fields) {
+        Snapshot current = snapshot;
+        Map<Long, ProductResponseDTO> products = new HashMap<>();
+        for (Long id : ids) {
+            int deltaRow = current.delta().indexOf(id);
+            int row = current.base().indexOf(id);
+            if (deltaRow >= 0) {
+                products.put(id, current.delta().toDTO(deltaRow, fields));
+            } else if (row >= 0 && !ProductColumns.isSet(current.hidden(), row)) {
+                products.put(id, current.base().toDTO(row, fields));
+            }
+        }
+        return products;
+    }
+
+    public List<ProductResponseDTO> findAll(Set<ProductField> fields) {
+        return scan(Filter.ALL, RowOrder.BY_ID, 0, fields);
+    }
+
+    public List<ProductResponseDTO> searchByName(String name, Set<ProductField> fields) {
+        return scan(Filter.name(name), RowOrder.BY_ID, 0, fields);
+    }
+
+    public List<ProductResponseDTO> searchByKeyword(String keyword, Set<ProductField> fields) {
+        return scan(Filter.keyword(keyword), RowOrder.BY_ID, 0, fields);
+    }
+
+    public List<ProductResponseDTO> findByPriceRange(double minPrice, double maxPrice, Set<ProductField> fields) {
+        return scan(Filter.priceRange(minPrice, maxPrice), RowOrder.BY_ID, 0, fields);
+    }
+
+    /**
+     * Một trang của truy vấn kết hợp (xem ProductService#queryProducts): lọc, sắp xếp theo sortField rồi id,
+     * bắt đầu sau cursor, tối đa limit dòng
+     */
+    public List<ProductResponseDTO> query(String name, String keyword, Double minPrice, Double maxPrice,
+                                          ProductQueryCursor cursor, ProductField sortField, Sort.Direction direction,
+                                          int limit, Set<ProductField> fields) {
+        return scan(new Filter(name, keyword, minPrice, maxPrice, cursor),
+                new RowOrder(sortField, direction.isAscending()), limit, fields);
+    }
+
+    // Quét base (song song) và delta, merge hai kết quả đã sắp xếp
+    private List<ProductResponseDTO> scan(Filter filter, RowOrder order, int limit, Set<ProductField> fields) {
+        Snapshot current = snapshot;
+        ProductColumns base = current.base();
+        ProductColumns delta = current.delta();
+        int[] baseRows = base.scan(scanPool, current.hidden(), filter, order, limit, chunkRows);
+        int[] deltaRows = delta.scan(scanPool, null, filter, order, limit, chunkRows);
+
+        int total = baseRows.length + deltaRows.length;
+        List<ProductResponseDTO> result = new ArrayList<>(limit > 0 ? Math.min(limit, total) : total);
+        int i = 0;
+        int j = 0;
+        while ((i < baseRows.length || j < deltaRows.length) && (limit <= 0 || result.size() < limit)) {
+            if (j >= deltaRows.length
+                    || (i < baseRows.length && ProductColumns.compare(base, baseRows[i], delta, deltaRows[j], order) < 0)) {
+                result.add(base.toDTO(baseRows[i++], fields));
+            } else {
+                result.add(delta.toDTO(deltaRows[j++], fields));
+            }
+        }
+        return result;
+    }
+
+    // Chỉ gọi khi đang giữ writeLock
+    private void applyEvent(Object event) {
+        Map<Long, ProductResponseDTO> changes = new HashMap<>();
+        if (event instanceof ProductChangedEvent changed) {
+            ProductResponseDTO product = changed.type() == ProductChangedEvent.ChangeType.DELETED ? null : changed.product();
+            changes.put(changed.productId(), product == null ? null
+                    : new ProductResponseDTO(product.getId(), product.getName(), product.getDescription(), product.getPrice()));
+        } else if (event instanceof ProductPricesChangedEvent pricesChanged) {
+            // Chỉ giá đổi: giữ nguyên các trường khác; product không có trong bản sao (vừa bị xóa) được bỏ qua
+            pricesChanged.prices().forEach((id, price) -> findById(id).ifPresent(product -> {
+                product.setPrice(price);
+                changes.put(id, product);
+            }));
+        }
+        if (!changes.isEmpty()) {
+            apply(changes);
+        }
+    }
+
+    // Chỉ gọi khi đang giữ writeLock; giá trị null = product đã bị xóa
+    private void apply(Map<Long, ProductResponseDTO> changes) {
+        Snapshot current = snapshot;
+        Map<Long, ProductResponseDTO> overlay = new HashMap<>(current.overlay());
+        long[] hidden = current.hidden().clone();
+        int hiddenCount = current.hiddenCount();
+        for (Map.Entry<Long, ProductResponseDTO> change : changes.entrySet()) {
+            long id = change.getKey();
+            int row = current.base().indexOf(id);
+            if (row >= 0 && !ProductColumns.isSet(hidden, row)) {
+                hidden[row >>> 6] |= 1L << row;
+                hiddenCount++;
+            }
+            if (change.getValue() == null) {
+                overlay.remove(id);
+            } else {
+                overlay.put(id, change.getValue());
+            }
+        }
+
+        ProductColumns delta = ProductColumns.of(overlay.values());
+        if (overlay.size() > compactThreshold || hiddenCount > compactThreshold) {
+            snapshot = Snapshot.of(ProductColumns.compact(current.base(), hidden, delta));
+        } else {
+            snapshot = new Snapshot(current.base(), hidden, hiddenCount, overlay, delta);
+        }
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.base().size() - current.hiddenCount() + current.delta().size();
+    }
+
+    /**
+     * Số byte heap của các cột (base + delta + bitmap)
+     */
+    public long memoryBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.base().memoryBytes() + current.delta().memoryBytes()
+                + ProductColumns.arrayBytes(current.hidden().length, 8);
+    }
+
+    /**
+     * Ước lượng số byte heap nếu cùng các product được giữ dưới dạng Product entity + ProductResponseDTO
+     */
+    public long objectMemoryBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.base().objectBytes() + current.delta().objectBytes();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    /**
+     * @param base        các product tại lần compact gần nhất
+     * @param hidden      bitmap các dòng của base đã bị sửa hoặc xóa sau đó
+     * @param hiddenCount số bit đã bật trong hidden
+     * @param overlay     trạng thái mới nhất của các product đã ghi sau lần compact, theo id
+     * @param delta       overlay dưới dạng cột
+     */
+    private record Snapshot(ProductColumns base, long[] hidden, int hiddenCount,
+                            Map<Long, ProductResponseDTO> overlay, ProductColumns delta) {
+
+        static Snapshot of(ProductColumns base) {
+            return new Snapshot(base, new long[(base.size() + 63) >>> 6], 0, Map.of(), ProductColumns.EMPTY);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ProductColumns - Bản sao dạng cột, bất biến, của một tập product (xem ProductColumnarCatalog)
+ * Mỗi thuộc tính là một mảng primitive, dòng thứ i của mọi cột là cùng một product, sắp xếp theo id tăng dần:
+ * - ids: long[], prices: double[]
+ * - names, foldedNames (tên đã lower-case để tìm không phân biệt hoa thường), descriptions:
+ *   UTF-8 nối liền trong một byte[] + int[] offset, thay vì một String (và byte[]) riêng cho mỗi product
+ * So khớp chuỗi chạy trực tiếp trên byte UTF-8: UTF-8 tự đồng bộ nên "chứa chuỗi con" trên byte
+ * cho kết quả giống String.contains, và thứ tự byte không dấu là thứ tự code point
+ */
+final class ProductColumns {
+
+    // Ước lượng kích thước object trên heap (compressed oops, header 12 byte, căn 8 byte) để so sánh
+    // với biểu diễn entity + DTO: Product entity kể cả các field do Hibernate bytecode enhancement thêm vào,
+    // ProductResponseDTO (4 tham chiếu), Long id dùng chung, Double price của DTO, String name/description
+    // dùng chung giữa entity và DTO
+    private static final int ENTITY_BYTES = 72;
+    private static final int DTO_BYTES = 32;
+    private static final int BOXED_BYTES = 16;
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    static final ProductColumns EMPTY = new Builder(0).build();
+
+    private final long[] ids;
+    private final double[] prices;
+    private final Utf8Column names;
+    private final Utf8Column foldedNames;
+    private final Utf8Column descriptions;
+    private final long objectBytes;
+
+    private ProductColumns(long[] ids, double[] prices, Utf8Column names, Utf8Column foldedNames,
+                           Utf8Column descriptions, long objectBytes) {
+        this.ids = ids;
+        this.prices = prices;
+        this.names = names;
+        this.foldedNames = foldedNames;
+        this.descriptions = descriptions;
+        this.objectBytes = objectBytes;
+    }
+
+    /**
+     * Build từ danh sách DTO đầy đủ trường (thứ tự bất kỳ)
+     */
+    static ProductColumns of(Collection<ProductResponseDTO> products) {
+        List<ProductResponseDTO> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(ProductResponseDTO::getId));
+        Builder builder = new Builder(sorted.size());
+        sorted.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Gộp các dòng còn hiển thị của base (không nằm trong hidden) với delta thành một bản mới, theo id tăng dần
+     * Byte UTF-8 được chép nguyên, không decode lại chuỗi
+     */
+    static ProductColumns compact(ProductColumns base, long[] hidden, ProductColumns delta) {
+        Builder builder = new Builder(base.size() + delta.size());
+        int row = 0;
+        int deltaRow = 0;
+        while (row < base.size() || deltaRow < delta.size()) {
+            if (row < base.size() && isSet(hidden, row)) {
+                row++;
+            } else if (deltaRow >= delta.size() || (row < base.size() && base.ids[row] < delta.ids[deltaRow])) {
+                builder.copy(base, row++);
+            } else {
+                builder.copy(delta, deltaRow++);
+            }
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Vị trí dòng của id, hoặc -1 nếu không có
+     */
+    int indexOf(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * Dựng DTO chỉ với các trường được chọn (giống kết quả của ProductRepositoryCustom#findProjected)
+     */
+    ProductResponseDTO toDTO(int row, Set<ProductField> fields) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        for (ProductField field : fields) {
+            switch (field) {
+                case ID -> dto.setId(ids[row]);
+                case NAME -> dto.setName(names.get(row));
+                case DESCRIPTION -> dto.setDescription(descriptions.get(row));
+                case PRICE -> dto.setPrice(prices[row]);
+            }
+        }
+        dto.setFields(fields);
+        return dto;
+    }
+
+    boolean matches(int row, Filter filter) {
+        double price = prices[row];
+        if (price < filter.minPrice || price > filter.maxPrice) {
+            return false;
+        }
+        if (filter.foldedName != null && !foldedNames.contains(row, filter.foldedName)) {
+            return false;
+        }
+        if (filter.keyword != null && !names.contains(row, filter.keyword) && !descriptions.contains(row, filter.keyword)) {
+            return false;
+        }
+        return filter.cursor == null || compareToCursor(row, filter) > 0;
+    }
+
+    // > 0 nếu dòng đứng sau cursor theo thứ tự của cursor
+    private int compareToCursor(int row, Filter filter) {
+        RowOrder order = filter.cursor;
+        int result = switch (order.field()) {
+            case PRICE -> Double.compare(prices[row], filter.cursorPrice);
+            case NAME -> names.compare(row, filter.cursorName);
+            default -> 0;
+        };
+        if (result == 0) {
+            result = Long.compare(ids[row], filter.cursorId);
+        }
+        return order.ascending() ? result : -result;
+    }
+
+    /**
+     * So sánh hai dòng (có thể thuộc hai ProductColumns khác nhau) theo order, id là tie-breaker
+     */
+    static int compare(ProductColumns a, int rowA, ProductColumns b, int rowB, RowOrder order) {
+        int result = switch (order.field()) {
+            case PRICE -> Double.compare(a.prices[rowA], b.prices[rowB]);
+            case NAME -> a.names.compare(rowA, b.names, rowB);
+            default -> 0;
+        };
+        if (result == 0) {
+            result = Long.compare(a.ids[rowA], b.ids[rowB]);
+        }
+        return order.ascending() ? result : -result;
+    }
+
+    /**
+     * Các dòng khớp filter và không bị ẩn, theo order; limit > 0 chỉ giữ limit dòng đầu tiên
+     * Bảng được chia thành các đoạn chunkRows dòng, quét song song bằng fork/join;
+     * mỗi đoạn giữ top-limit của riêng nó rồi được merge từng cặp
+     */
+    int[] scan(ForkJoinPool pool, long[] hidden, Filter filter, RowOrder order, int limit, int chunkRows) {
+        ScanTask task = new ScanTask(hidden, filter, order, limit, Math.max(1, chunkRows), 0, size());
+        return size() <= chunkRows ? task.compute() : pool.invoke(task);
+    }
+
+    // Quét tuần tự [from, to)
+    private int[] scanRange(long[] hidden, Filter filter, RowOrder order, int limit, int from, int to) {
+        if (limit > 0 && !order.isRowOrder()) {
+            return topRows(hidden, filter, order, limit, from, to);
+        }
+        // Dòng đã theo thứ tự id tăng dần: đi theo chiều của order, limit dòng khớp đầu tiên là kết quả
+        int[] rows = new int[limit > 0 ? Math.min(limit, to - from) : Math.min(16, to - from)];
+        int count = 0;
+        int step = order.ascending() ? 1 : -1;
+        for (int row = order.ascending() ? from : to - 1; row >= from && row < to; row += step) {
+            if (isSet(hidden, row) || !matches(row, filter)) {
+                continue;
+            }
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[count++] = row;
+            if (count == limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // Giữ limit dòng tốt nhất trong một mảng đã sắp xếp (chèn bằng tìm kiếm nhị phân)
+    private int[] topRows(long[] hidden, Filter filter, RowOrder order, int limit, int from, int to) {
+        int[] top = new int[limit];
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (isSet(hidden, row) || !matches(row, filter)) {
+                continue;
+            }
+            if (count == limit && compare(this, row, this, top[count - 1], order) >= 0) {
+                continue;
+            }
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(this, top[mid], this, row, order) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int moved = Math.min(count, limit - 1) - low;
+            System.arraycopy(top, low, top, low + 1, moved);
+            top[low] = row;
+            count = Math.min(count + 1, limit);
+        }
+        return Arrays.copyOf(top, count);
+    }
+
+    // Merge hai dãy dòng đã sắp xếp của cùng bảng này
+    private int[] merge(int[] left, int[] right, RowOrder order, int limit) {
+        if (right.length == 0) {
+            return left;
+        }
+        if (left.length == 0) {
+            return right;
+        }
+        int total = left.length + right.length;
+        int[] merged = new int[limit > 0 ? Math.min(limit, total) : total];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j >= right.length || (i < left.length && compare(this, left[i], this, right[j], order) <= 0)) {
+                merged[k] = left[i++];
+            } else {
+                merged[k] = right[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Số byte heap của các cột
+     */
+    long memoryBytes() {
+        return arrayBytes(ids.length, 8) + arrayBytes(prices.length, 8)
+                + names.memoryBytes() + foldedNames.memoryBytes() + descriptions.memoryBytes();
+    }
+
+    /**
+     * Ước lượng số byte heap nếu cùng các product này được giữ dưới dạng Product entity + ProductResponseDTO
+     */
+    long objectBytes() {
+        return objectBytes;
+    }
+
+    static long arrayBytes(long length, int elementSize) {
+        return align(ARRAY_HEADER_BYTES + length * elementSize);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static boolean isSet(long[] bits, int index) {
+        return bits != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Thứ tự sắp xếp của kết quả: theo field rồi theo id, cùng chiều
+     */
+    record RowOrder(ProductField field, boolean ascending) {
+
+        static final RowOrder BY_ID = new RowOrder(ProductField.ID, true);
+
+        // Dòng trong ProductColumns đã theo id tăng dần, không cần so sánh
+        boolean isRowOrder() {
+            return field == ProductField.ID;
+        }
+    }
+
+    /**
+     * Điều kiện lọc, đã chuẩn bị sẵn dạng byte UTF-8 để so khớp trên cột
+     * Cùng ngữ nghĩa với ProductSpecifications: tên chứa term không phân biệt hoa thường,
+     * keyword nằm trong tên hoặc mô tả (phân biệt hoa thường), giá trong [minPrice, maxPrice],
+     * và với cursor: chỉ các dòng đứng sau (giá trị cột sắp xếp, id) của cursor
+     */
+    static final class Filter {
+
+        static final Filter ALL = new Filter(null, null, null, null, null);
+
+        private final byte[] foldedName;
+        private final byte[] keyword;
+        private final double minPrice;
+        private final double maxPrice;
+        private final RowOrder cursor;
+        private final double cursorPrice;
+        private final byte[] cursorName;
+        private final long cursorId;
+
+        Filter(String name, String keyword, Double minPrice, Double maxPrice, ProductQueryCursor cursor) {
+            this.foldedName = name == null ? null : name.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+            this.keyword = keyword == null ? null : keyword.getBytes(StandardCharsets.UTF_8);
+            this.minPrice = minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+            this.maxPrice = maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+            this.cursor = cursor == null ? null : new RowOrder(cursor.sortField(), cursor.direction().isAscending());
+            this.cursorPrice = cursor != null && cursor.sortField() == ProductField.PRICE ? Double.parseDouble(cursor.value()) : 0;
+            this.cursorName = cursor != null && cursor.sortField() == ProductField.NAME
+                    ? cursor.value().getBytes(StandardCharsets.UTF_8) : null;
+            this.cursorId = cursor == null ? 0 : cursor.id();
+        }
+
+        static Filter name(String name) {
+            return new Filter(name, null, null, null, null);
+        }
+
+        static Filter keyword(String keyword) {
+            return new Filter(null, keyword, null, null, null);
+        }
+
+        static Filter priceRange(double minPrice, double maxPrice) {
+            return new Filter(null, null, minPrice, maxPrice, null);
+        }
+    }
+
+    private final class ScanTask extends RecursiveTask<int[]> {
+
+        private final long[] hidden;
+        private final Filter filter;
+        private final RowOrder order;
+        private final int limit;
+        private final int chunkRows;
+        private final int from;
+        private final int to;
+
+        ScanTask(long[] hidden, Filter filter, RowOrder order, int limit, int chunkRows, int from, int to) {
+            this.hidden = hidden;
+            this.filter = filter;
+            this.order = order;
+            this.limit = limit;
+            this.chunkRows = chunkRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkRows) {
+                return scanRange(hidden, filter, order, limit, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(hidden, filter, order, limit, chunkRows, from, middle);
+            ScanTask right = new ScanTask(hidden, filter, order, limit, chunkRows, middle, to);
+            left.fork();
+            int[] rightRows = right.compute();
+            int[] leftRows = left.join();
+            return merge(leftRows, rightRows, order, limit);
+        }
+    }
+
+    /**
+     * Cột chuỗi UTF-8: giá trị của dòng i là data[offsets[i], offsets[i + 1]), null được đánh dấu trong bitmap
+     */
+    private static final class Utf8Column {
+
+        private final byte[] data;
+        private final int[] offsets;
+        private final long[] nulls;
+
+        private Utf8Column(byte[] data, int[] offsets, long[] nulls) {
+            this.data = data;
+            this.offsets = offsets;
+            this.nulls = nulls;
+        }
+
+        String get(int row) {
+            if (isSet(nulls, row)) {
+                return null;
+            }
+            return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        // Giống LIKE '%term%': null không bao giờ khớp
+        boolean contains(int row, byte[] term) {
+            if (isSet(nulls, row)) {
+                return false;
+            }
+            int start = offsets[row];
+            int last = offsets[row + 1] - term.length;
+            if (term.length == 0) {
+                return true;
+            }
+            byte first = term[0];
+            outer:
+            for (int i = start; i <= last; i++) {
+                if (data[i] != first) {
+                    continue;
+                }
+                for (int j = 1; j < term.length; j++) {
+                    if (data[i + j] != term[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        int compare(int row, byte[] value) {
+            return Arrays.compareUnsigned(data, offsets[row], offsets[row + 1], value, 0, value.length);
+        }
+
+        int compare(int row, Utf8Column other, int otherRow) {
+            return Arrays.compareUnsigned(data, offsets[row], offsets[row + 1],
+                    other.data, other.offsets[otherRow], other.offsets[otherRow + 1]);
+        }
+
+        // Ước lượng String tương ứng: 24 byte + byte[] Latin-1 (1 byte/ký tự) hoặc UTF-16 (2 byte/ký tự)
+        long stringBytes(int row) {
+            if (isSet(nulls, row)) {
+                return 0;
+            }
+            int chars = 0;
+            boolean latin1 = true;
+            for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+                int b = data[i] & 0xFF;
+                if (b < 0x80) {
+                    chars++;
+                } else if (b >= 0xC0) {
+                    // Byte đầu của ký tự nhiều byte: 0xC2-0xC3 vẫn nằm trong Latin-1, 4 byte là surrogate pair
+                    chars += b >= 0xF0 ? 2 : 1;
+                    latin1 &= b < 0xC4;
+                }
+            }
+            return STRING_BYTES + arrayBytes(chars, latin1 ? 1 : 2);
+        }
+
+        long memoryBytes() {
+            return arrayBytes(data.length, 1) + arrayBytes(offsets.length, 4)
+                    + (nulls == null ? 0 : arrayBytes(nulls.length, 8));
+        }
+    }
+
+    private static final class Utf8ColumnBuilder {
+
+        private byte[] data = new byte[64];
+        private final int[] offsets;
+        private final long[] nulls;
+        private int length;
+        private int rows;
+        private boolean hasNull;
+
+        Utf8ColumnBuilder(int capacity) {
+            this.offsets = new int[capacity + 1];
+            this.nulls = new long[(capacity + 63) >>> 6];
+        }
+
+        void add(byte[] bytes, int from, int to) {
+            int size = to - from;
+            if (length + size > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + size));
+            }
+            System.arraycopy(bytes, from, data, length, size);
+            length += size;
+            offsets[++rows] = length;
+        }
+
+        void add(String value) {
+            if (value == null) {
+                addNull();
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            add(bytes, 0, bytes.length);
+        }
+
+        void copy(Utf8Column column, int row) {
+            if (isSet(column.nulls, row)) {
+                addNull();
+                return;
+            }
+            add(column.data, column.offsets[row], column.offsets[row + 1]);
+        }
+
+        private void addNull() {
+            nulls[rows >>> 6] |= 1L << rows;
+            hasNull = true;
+            offsets[++rows] = length;
+        }
+
+        Utf8Column build() {
+            return new Utf8Column(Arrays.copyOf(data, length), Arrays.copyOf(offsets, rows + 1),
+                    hasNull ? Arrays.copyOf(nulls, (rows + 63) >>> 6) : null);
+        }
+    }
+
+    private static final class Builder {
+
+        private final long[] ids;
+        private final double[] prices;
+        private final Utf8ColumnBuilder names;
+        private final Utf8ColumnBuilder foldedNames;
+        private final Utf8ColumnBuilder descriptions;
+        private int rows;
+
+        Builder(int capacity) {
+            this.ids = new long[capacity];
+            this.prices = new double[capacity];
+            this.names = new Utf8ColumnBuilder(capacity);
+            this.foldedNames = new Utf8ColumnBuilder(capacity);
+            this.descriptions = new Utf8ColumnBuilder(capacity);
+        }
+
+        void add(ProductResponseDTO product) {
+            ids[rows] = product.getId();
+            prices[rows] = product.getPrice();
+            names.add(product.getName());
+            foldedNames.add(product.getName() == null ? null : product.getName().toLowerCase(Locale.ROOT));
+            descriptions.add(product.getDescription());
+            rows++;
+        }
+
+        void copy(ProductColumns source, int row) {
+            ids[rows] = source.ids[row];
+            prices[rows] = source.prices[row];
+            names.copy(source.names, row);
+            foldedNames.copy(source.foldedNames, row);
+            descriptions.copy(source.descriptions, row);
+            rows++;
+        }
+
+        ProductColumns build() {
+            Utf8Column nameColumn = names.build();
+            Utf8Column descriptionColumn = descriptions.build();
+            long objectBytes = 0;
+            for (int row = 0; row < rows; row++) {
+                objectBytes += ENTITY_BYTES + DTO_BYTES + 2L * BOXED_BYTES
+                        + nameColumn.stringBytes(row) + descriptionColumn.stringBytes(row);
+            }
+            return new ProductColumns(Arrays.copyOf(ids, rows), Arrays.copyOf(prices, rows), nameColumn,
+                    foldedNames.build(), descriptionColumn, objectBytes);
+        }
+    }
+}
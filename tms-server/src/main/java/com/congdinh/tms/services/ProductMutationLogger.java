@@ -0,0 +1,46 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+
+/**
+ * ProductMutationLogger - Event JSON cho mỗi lần ghi Product (requestId có sẵn trong MDC, kể cả trên thread của lane)
+ * Chỉ ghi sau khi transaction commit: thay đổi bị rollback không bao giờ xuất hiện trong log.
+ * Thay đổi do node khác ghi (remote) không được log lại
+ */
+@Component
+public class ProductMutationLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductMutationLogger.class);
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        log.atInfo()
+                .addKeyValue("event", "product." + event.type().name().toLowerCase(Locale.ROOT))
+                .addKeyValue("productId", event.productId())
+                .log("Đã ghi product {}", event.productId());
+    }
+
+    /**
+     * Một event cho cả chunk đổi giá, không phải một event mỗi product
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPricesChanged(ProductPricesChangedEvent event) {
+        if (event.remote() || event.prices().isEmpty()) {
+            return;
+        }
+        log.atInfo()
+                .addKeyValue("event", "product.prices_changed")
+                .addKeyValue("count", event.prices().size())
+                .log("Đã đổi giá {} product", event.prices().size());
+    }
+}
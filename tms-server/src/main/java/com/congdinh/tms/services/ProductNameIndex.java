@@ -0,0 +1,545 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * ProductNameIndex - Index tiền tố (radix tree) trong bộ nhớ trên Product.name cho autocomplete
+ * Mỗi product được index theo cả tên đầy đủ và từng từ trong tên (đã lower-case),
+ * nên "pro" gợi ý được cả "Probook 450" và "iPhone 15 Pro".
+ * Kết quả top-K cho các tiền tố ngắn (nhiều kết quả nhất) được cache và chỉ bị xóa
+ * khi có product liên quan thay đổi.
+ */
+@Component
+public class ProductNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNameIndex.class);
+
+    // Giới hạn độ dài token để giới hạn bộ nhớ cho tên rất dài
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * Cách xếp hạng gợi ý khi có nhiều product khớp tiền tố
+     */
+    public enum Ranking {
+        // Tên ngắn hơn = khớp sát hơn với những gì người dùng đang gõ
+        SHORTEST_NAME(Comparator.comparingInt((IndexedProduct p) -> p.name().length())),
+        LOWEST_PRICE(Comparator.comparingDouble(IndexedProduct::price)),
+        HIGHEST_PRICE(Comparator.comparingDouble(IndexedProduct::price).reversed()),
+        ALPHABETICAL(Comparator.comparing(IndexedProduct::name, String.CASE_INSENSITIVE_ORDER));
+
+        private final Comparator<IndexedProduct> comparator;
+
+        Ranking(Comparator<IndexedProduct> comparator) {
+            // ID nhỏ hơn thắng khi điểm bằng nhau để kết quả ổn định
+            this.comparator = comparator.thenComparingLong(IndexedProduct::id);
+        }
+    }
+
+    /**
+     * Thông tin tối thiểu của một product cần cho gợi ý
+     */
+    public record IndexedProduct(long id, String name, double price) {
+    }
+
+    private final ProductRepository productRepository;
+    private final Comparator<IndexedProduct> ranking;
+    private final int maxResults;
+    private final int cachedPrefixLength;
+    private final int loadBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Không cho hai lần rebuild (khởi động và ProductInvalidationListener#flushAll) chạy chồng lên nhau
+    private final Object rebuildLock = new Object();
+    private Node root = new Node();
+    private Map<Long, IndexedProduct> products = new HashMap<>();
+    private final Map<String, List<IndexedProduct>> topResultCache = new ConcurrentHashMap<>();
+    // Khác null trong lúc đang rebuild: thay đổi commit trong lúc này được áp dụng lại lên index mới trước khi đổi
+    private List<Object> pendingChanges;
+
+    public ProductNameIndex(ProductRepository productRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${tms.product.suggest.ranking:SHORTEST_NAME}") Ranking ranking,
+                            @Value("${tms.product.suggest.max-results:20}") int maxResults,
+                            @Value("${tms.product.suggest.cached-prefix-length:3}") int cachedPrefixLength,
+                            @Value("${tms.product.suggest.load-batch-size:10000}") int loadBatchSize) {
+        this.productRepository = productRepository;
+        this.ranking = ranking.comparator;
+        this.maxResults = maxResults;
+        this.cachedPrefixLength = cachedPrefixLength;
+        this.loadBatchSize = loadBatchSize;
+        Gauge.builder("tms.product.suggest.index.products", this, ProductNameIndex::size)
+                .description("Số product trong index gợi ý")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.suggest.index.memory", this, ProductNameIndex::estimateMemoryBytes)
+                .description("Ước lượng bộ nhớ của index gợi ý")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build index từ database khi ứng dụng đã sẵn sàng
+     * Đọc theo từng trang id và dựng cây mới ngoài lock (index cũ vẫn phục vụ), rồi đổi sang cây mới dưới write lock
+     * Order: sau ProductInvalidationListener#start (đã LISTEN) và trước ProductWarmup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 100)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                Node newRoot = new Node();
+                Map<Long, IndexedProduct> newProducts = new HashMap<>();
+                List<ProductResponseDTO> page = productRepository.findPageAfter(Long.MIN_VALUE, Limit.of(loadBatchSize));
+                while (!page.isEmpty()) {
+                    for (ProductResponseDTO product : page) {
+                        newProducts.put(product.getId(), new IndexedProduct(product.getId(), product.getName(), product.getPrice()));
+                        for (String token : tokens(product.getName())) {
+                            newRoot.insert(token, product.getId());
+                        }
+                    }
+                    page = page.size() < loadBatchSize ? List.of()
+                            : productRepository.findPageAfter(page.get(page.size() - 1).getId(), Limit.of(loadBatchSize));
+                }
+                lock.writeLock().lock();
+                try {
+                    root = newRoot;
+                    products = newProducts;
+                    topResultCache.clear();
+                    pendingChanges.forEach(this::applyEvent);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info("Đã build index gợi ý cho {} sản phẩm", newProducts.size());
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Cập nhật index sau khi thay đổi đã được commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Cập nhật giá của cả một chunk dưới một lần giữ write lock; product không có trong index được bỏ qua
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPricesChanged(ProductPricesChangedEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Thêm mới hoặc thay thế một product trong index
+     */
+    public void upsert(IndexedProduct product) {
+        lock.writeLock().lock();
+        try {
+            delete(product.id());
+            insert(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Xóa một product khỏi index
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            delete(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-K product có tên (hoặc một từ trong tên) bắt đầu bằng prefix
+     */
+    public List<IndexedProduct> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        int k = Math.min(Math.max(limit, 1), maxResults);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (normalized.length() <= cachedPrefixLength) {
+                // Giữ read lock khi ghi cache để writer không thể xóa cache xen giữa lúc tính và lúc ghi
+                List<IndexedProduct> cached = topResultCache.computeIfAbsent(normalized,
+                        key -> collectTop(key, maxResults));
+                return cached.size() <= k ? cached : cached.subList(0, k);
+            }
+            return collectTop(normalized, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ước lượng số byte heap mà index đang dùng (giả định compressed oops)
+     */
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = root.estimateBytes();
+            for (IndexedProduct product : products.values()) {
+                // HashMap.Node + Long key + IndexedProduct + String tên
+                bytes += 32 + 16 + 32 + 40 + product.name().length();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Áp dụng ngay lên index đang phục vụ; trong lúc rebuild thì ghi lại để áp dụng lên index mới
+    private void apply(Object event) {
+        lock.writeLock().lock();
+        try {
+            applyEvent(event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void applyEvent(Object event) {
+        if (event instanceof ProductChangedEvent changed) {
+            delete(changed.productId());
+            if (changed.type() != ProductChangedEvent.ChangeType.DELETED) {
+                ProductResponseDTO product = changed.product();
+                insert(new IndexedProduct(product.getId(), product.getName(), product.getPrice()));
+            }
+        } else if (event instanceof ProductPricesChangedEvent pricesChanged) {
+            pricesChanged.prices().forEach((id, price) -> {
+                IndexedProduct existing = products.get(id);
+                if (existing != null) {
+                    delete(id);
+                    insert(new IndexedProduct(id, existing.name(), price));
+                }
+            });
+        }
+    }
+
+    // Chỉ gọi khi đang giữ read lock
+    private List<IndexedProduct> collectTop(String prefix, int k) {
+        Node node = root.find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        // Heap ngược (phần tử xếp hạng thấp nhất ở đầu) để giữ k phần tử tốt nhất
+        PriorityQueue<IndexedProduct> heap = new PriorityQueue<>(k + 1, ranking.reversed());
+        Set<Long> seen = new HashSet<>();
+        node.forEachId(id -> {
+            if (!seen.add(id)) {
+                return;
+            }
+            heap.offer(products.get(id));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        });
+        List<IndexedProduct> result = new ArrayList<>(heap);
+        result.sort(ranking);
+        return List.copyOf(result);
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void insert(IndexedProduct product) {
+        products.put(product.id(), product);
+        for (String token : tokens(product.name())) {
+            root.insert(token, product.id());
+            evictCachedPrefixes(token);
+        }
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void delete(long productId) {
+        IndexedProduct existing = products.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String token : tokens(existing.name())) {
+            root.remove(token, productId);
+            evictCachedPrefixes(token);
+        }
+    }
+
+    private void evictCachedPrefixes(String token) {
+        for (int length = 1; length <= Math.min(cachedPrefixLength, token.length()); length++) {
+            topResultCache.remove(token.substring(0, length));
+        }
+    }
+
+    private static Set<String> tokens(String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return tokens;
+        }
+        tokens.add(truncate(normalized));
+        for (String word : normalized.split("\\s+")) {
+            if (!word.isEmpty()) {
+                tokens.add(truncate(word));
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String truncate(String token) {
+        return token.length() <= MAX_TOKEN_LENGTH ? token : token.substring(0, MAX_TOKEN_LENGTH);
+    }
+
+    /**
+     * Node của radix tree: mỗi cạnh mang một chuỗi (nén các nhánh chỉ có một con)
+     * Các mảng con được sắp xếp theo ký tự đầu của nhãn để tìm kiếm nhị phân
+     */
+    private static final class Node {
+
+        private static final String[] NO_LABELS = new String[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final long[] NO_IDS = new long[0];
+
+        private String[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private long[] ids = NO_IDS;
+
+        void insert(String token, long id) {
+            Node node = this;
+            String rest = token;
+            while (!rest.isEmpty()) {
+                int index = node.childIndex(rest.charAt(0));
+                if (index < 0) {
+                    Node leaf = new Node();
+                    leaf.addId(id);
+                    node.addChild(-index - 1, rest, leaf);
+                    return;
+                }
+                String label = node.labels[index];
+                int common = commonPrefixLength(label, rest);
+                if (common < label.length()) {
+                    // Tách cạnh: label = common + phần còn lại
+                    Node middle = new Node();
+                    middle.labels = new String[]{label.substring(common)};
+                    middle.children = new Node[]{node.children[index]};
+                    node.labels[index] = label.substring(0, common);
+                    node.children[index] = middle;
+                }
+                node = node.children[index];
+                rest = rest.substring(common);
+            }
+            node.addId(id);
+        }
+
+        /**
+         * Xóa id khỏi token; trả về true nếu node này trở thành rỗng và có thể bị cắt bỏ
+         */
+        boolean remove(String token, long id) {
+            if (token.isEmpty()) {
+                removeId(id);
+            } else {
+                int index = childIndex(token.charAt(0));
+                if (index < 0 || !token.startsWith(labels[index])) {
+                    return false;
+                }
+                if (children[index].remove(token.substring(labels[index].length()), id)) {
+                    removeChild(index);
+                }
+            }
+            return ids.length == 0 && children.length == 0;
+        }
+
+        Node find(String prefix) {
+            Node node = this;
+            String rest = prefix;
+            while (!rest.isEmpty()) {
+                int index = node.childIndex(rest.charAt(0));
+                if (index < 0) {
+                    return null;
+                }
+                String label = node.labels[index];
+                if (label.startsWith(rest)) {
+                    return node.children[index];
+                }
+                if (!rest.startsWith(label)) {
+                    return null;
+                }
+                node = node.children[index];
+                rest = rest.substring(label.length());
+            }
+            return node;
+        }
+
+        void forEachId(LongConsumer consumer) {
+            for (long id : ids) {
+                consumer.accept(id);
+            }
+            for (Node child : children) {
+                child.forEachId(consumer);
+            }
+        }
+
+        long estimateBytes() {
+            // Node (header + 3 tham chiếu) + các mảng
+            long bytes = 24 + arrayBytes(labels.length, 4) + arrayBytes(children.length, 4) + arrayBytes(ids.length, 8);
+            for (int i = 0; i < labels.length; i++) {
+                // String (24) + byte[] Latin-1 hoặc UTF-16
+                bytes += 24 + arrayBytes(labels[i].length(), 2) + children[i].estimateBytes();
+            }
+            return bytes;
+        }
+
+        private static long arrayBytes(int length, int elementSize) {
+            return length == 0 ? 0 : align(16L + (long) length * elementSize);
+        }
+
+        private static long align(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+
+        private int childIndex(char first) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = labels[mid].charAt(0);
+                if (midChar < first) {
+                    low = mid + 1;
+                } else if (midChar > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void addChild(int position, String label, Node child) {
+            String[] newLabels = new String[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newLabels[position] = label;
+            newChildren[position] = child;
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void removeChild(int position) {
+            if (labels.length == 1) {
+                labels = NO_LABELS;
+                children = NO_CHILDREN;
+                return;
+            }
+            String[] newLabels = new String[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(labels, position + 1, newLabels, position, labels.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void addId(long id) {
+            for (long existing : ids) {
+                if (existing == id) {
+                    return;
+                }
+            }
+            long[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = id;
+            ids = newIds;
+        }
+
+        private void removeId(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    if (ids.length == 1) {
+                        ids = NO_IDS;
+                        return;
+                    }
+                    long[] newIds = new long[ids.length - 1];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    ids = newIds;
+                    return;
+                }
+            }
+        }
+
+        private static int commonPrefixLength(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.PriceAdjustmentType;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentJobDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductSpecifications;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ProductPriceAdjustmentService - Điều chỉnh giá hàng loạt (khuyến mãi) chạy nền theo từng chunk
+ * Mỗi chunk lấy tối đa chunkSize ID khớp điều kiện lọc, đứng sau chunk trước theo khóa chính,
+ * rồi chạy một câu UPDATE ... WHERE id IN (...) trong transaction riêng: lock chỉ giữ trên các dòng của chunk,
+ * không có transaction dài. Job có thể hủy giữa các chunk; các chunk đã commit được giữ nguyên
+ */
+@Service
+public class ProductPriceAdjustmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceAdjustmentService.class);
+    private static final String RESOURCE_NAME = "Price adjustment job";
+
+    private final ProductRepository productRepository;
+    private final ProductChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final int maxRetainedJobs;
+    private final ExecutorService executor;
+    private final Counter updatedCounter;
+    private final Timer chunkTimer;
+
+    // Các job theo thứ tự tạo - được bảo vệ bởi lock của chính map
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public ProductPriceAdjustmentService(ProductRepository productRepository,
+                                         ProductChangeTracker changeTracker,
+                                         ApplicationEventPublisher eventPublisher,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${tms.product.price-adjustment.chunk-size:500}") int chunkSize,
+                                         @Value("${tms.product.price-adjustment.chunk-pause-ms:0}") long chunkPauseMillis,
+                                         @Value("${tms.product.price-adjustment.max-concurrent-jobs:1}") int maxConcurrentJobs,
+                                         @Value("${tms.product.price-adjustment.max-retained-jobs:100}") int maxRetainedJobs) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size phải lớn hơn 0");
+        }
+        this.productRepository = productRepository;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        this.maxRetainedJobs = maxRetainedJobs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "product-price-adjustment-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.updatedCounter = Counter.builder("tms.product.price_adjustment.updated")
+                .description("Số product đã được điều chỉnh giá hàng loạt")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("tms.product.price_adjustment.chunk")
+                .description("Thời gian xử lý (và giữ lock) của một chunk điều chỉnh giá")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tạo job điều chỉnh giá và đưa vào hàng đợi; trả về ngay trạng thái ban đầu của job
+     */
+    @Lane(WorkloadLane.BULK)
+    public ProductPriceAdjustmentJobDTO startAdjustment(ProductPriceAdjustmentRequestDTO request) {
+        Specification<Product> filter = buildFilter(request);
+        double factor = 1.0;
+        double delta = 0.0;
+        if (request.getType() == PriceAdjustmentType.PERCENTAGE) {
+            if (request.getAmount() <= -100) {
+                throw new IllegalArgumentException("Phần trăm điều chỉnh phải lớn hơn -100");
+            }
+            factor = 1.0 + request.getAmount() / 100.0;
+        } else {
+            delta = request.getAmount();
+        }
+
+        Long total = readOnlyTransaction.execute(status -> productRepository.countMatching(filter));
+        Job job = new Job(UUID.randomUUID().toString(), request.getType(), request.getAmount(),
+                total == null ? 0 : total);
+        register(job);
+        double jobFactor = factor;
+        double jobDelta = delta;
+        // Job chạy trên thread riêng (giới hạn bởi max-concurrent-jobs) nhưng dùng connection pool của lane BULK
+        executor.execute(() -> WorkloadLanes.bind(WorkloadLane.BULK, () -> {
+            run(job, filter, jobFactor, jobDelta);
+            return null;
+        }));
+        return job.toDTO();
+    }
+
+    /**
+     * Lấy trạng thái và tiến độ của job
+     */
+    public ProductPriceAdjustmentJobDTO getAdjustment(String jobId) {
+        return findJob(jobId).toDTO();
+    }
+
+    /**
+     * Yêu cầu dừng job; job dừng trước chunk tiếp theo (chunk đang chạy vẫn được commit)
+     */
+    public ProductPriceAdjustmentJobDTO cancelAdjustment(String jobId) {
+        Job job = findJob(jobId);
+        job.cancelRequested = true;
+        return job.toDTO();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (jobs) {
+            jobs.values().forEach(job -> job.cancelRequested = true);
+        }
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Specification<Product> filter, double factor, double delta) {
+        if (job.cancelRequested) {
+            job.finish(ProductPriceAdjustmentJobDTO.Status.CANCELLED, null);
+            return;
+        }
+        job.status = ProductPriceAdjustmentJobDTO.Status.RUNNING;
+        long lastId = 0;
+        try {
+            while (!job.cancelRequested && !Thread.currentThread().isInterrupted()) {
+                long chunkStart = System.nanoTime();
+                long after = lastId;
+                List<Long> ids = writeTransaction.execute(status -> adjustNextChunk(filter, after, factor, delta));
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+                lastId = ids.get(ids.size() - 1);
+                job.updatedProducts.addAndGet(ids.size());
+                job.completedChunks.incrementAndGet();
+                updatedCounter.increment(ids.size());
+                if (ids.size() < chunkSize || !pause()) {
+                    break;
+                }
+            }
+            boolean cancelled = job.cancelRequested || Thread.currentThread().isInterrupted();
+            job.finish(cancelled ? ProductPriceAdjustmentJobDTO.Status.CANCELLED
+                    : ProductPriceAdjustmentJobDTO.Status.COMPLETED, null);
+            log.info("Job điều chỉnh giá {} kết thúc ({}): {} product, {} chunk",
+                    job.id, job.status, job.updatedProducts.get(), job.completedChunks.get());
+        } catch (RuntimeException ex) {
+            log.error("Job điều chỉnh giá {} thất bại sau {} chunk", job.id, job.completedChunks.get(), ex);
+            job.finish(ProductPriceAdjustmentJobDTO.Status.FAILED, ex.getMessage());
+        }
+    }
+
+    /**
+     * Một chunk = một transaction: chọn ID, UPDATE theo ID, đọc lại giá mới và publish một ProductPricesChangedEvent
+     * cho cả chunk (search cache bị vô hiệu hóa một lần, chỉ một NOTIFY cho các node khác).
+     * Các truy vấn của job không qua query cache vì không bao giờ lặp lại
+     */
+    private List<Long> adjustNextChunk(Specification<Product> filter, long lastId, double factor, double delta) {
+        // Chỉ đi tiếp theo khóa chính: product vẫn còn khớp điều kiện sau khi đổi giá không bị điều chỉnh lần hai
+        List<Long> ids = productRepository.findProjectedUncached(filter.and(ProductSpecifications.idGreaterThan(lastId)),
+                        EnumSet.of(ProductField.ID), Sort.by("id"), chunkSize).stream()
+                .map(ProductResponseDTO::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        productRepository.adjustPrices(ids, factor, delta, changeTracker.currentTransactionSeq());
+        Map<Long, Double> prices = new HashMap<>();
+        for (ProductResponseDTO product : productRepository.findProjectedUncached(ProductSpecifications.idIn(ids),
+                EnumSet.of(ProductField.ID, ProductField.PRICE), Sort.by("id"), 0)) {
+            prices.put(product.getId(), product.getPrice());
+        }
+        eventPublisher.publishEvent(ProductPricesChangedEvent.of(prices));
+        return ids;
+    }
+
+    private Specification<Product> buildFilter(ProductPriceAdjustmentRequestDTO request) {
+        Double minPrice = request.getMinPrice();
+        Double maxPrice = request.getMaxPrice();
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!hasIds && minPrice == null && maxPrice == null && !StringUtils.hasText(request.getName())) {
+            throw new IllegalArgumentException("Phải chỉ định ít nhất một điều kiện lọc: ids, minPrice, maxPrice hoặc name");
+        }
+        if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+            throw new IllegalArgumentException("Giá không được âm");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Giá tối thiểu không được lớn hơn giá tối đa");
+        }
+
+        Specification<Product> filter = ProductSpecifications.all();
+        if (hasIds) {
+            filter = filter.and(ProductSpecifications.idIn(request.getIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList()));
+        }
+        if (minPrice != null) {
+            filter = filter.and(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filter = filter.and(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        if (StringUtils.hasText(request.getName())) {
+            filter = filter.and(ProductSpecifications.nameContainsIgnoreCase(request.getName().trim()));
+        }
+        return filter;
+    }
+
+    private void register(Job job) {
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            // Chỉ giữ lịch sử của maxRetainedJobs job gần nhất; job chưa kết thúc không bao giờ bị xóa
+            Iterator<Job> iterator = jobs.values().iterator();
+            while (jobs.size() > maxRetainedJobs && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private Job findJob(String jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job == null) {
+                throw new ResourceNotFoundException(RESOURCE_NAME, "id", jobId);
+            }
+            return job;
+        }
+    }
+
+    private boolean pause() {
+        if (chunkPauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPauseMillis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Trạng thái của một job - được cập nhật bởi thread chạy job, đọc bởi các request kiểm tra tiến độ
+     */
+    private static final class Job {
+        private final String id;
+        private final PriceAdjustmentType type;
+        private final double amount;
+        private final long totalProducts;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong updatedProducts = new AtomicLong();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private volatile ProductPriceAdjustmentJobDTO.Status status = ProductPriceAdjustmentJobDTO.Status.PENDING;
+        private volatile boolean cancelRequested;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(String id, PriceAdjustmentType type, double amount, long totalProducts) {
+            this.id = id;
+            this.type = type;
+            this.amount = amount;
+            this.totalProducts = totalProducts;
+        }
+
+        private void finish(ProductPriceAdjustmentJobDTO.Status finalStatus, String errorMessage) {
+            this.error = errorMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.status = finalStatus;
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private ProductPriceAdjustmentJobDTO toDTO() {
+            ProductPriceAdjustmentJobDTO dto = new ProductPriceAdjustmentJobDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setType(type);
+            dto.setAmount(amount);
+            dto.setTotalProducts(totalProducts);
+            dto.setUpdatedProducts(updatedProducts.get());
+            dto.setCompletedChunks(completedChunks.get());
+            dto.setCancelRequested(cancelRequested);
+            dto.setCreatedAt(createdAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.repositories.ProductSpecifications;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ProductQueryCursor - Vị trí của bản ghi cuối cùng trong một trang (keyset pagination)
+ * Lưu giá trị cột sắp xếp và id của bản ghi cuối, trang sau chỉ lấy các bản ghi đứng sau cặp này,
+ * nên database đi thẳng tới vị trí đó qua index thay vì bỏ qua OFFSET dòng
+ */
+public record ProductQueryCursor(ProductField sortField, Sort.Direction direction, String value, long id) {
+
+    private static final String INVALID_CURSOR = "Cursor không hợp lệ";
+
+    /**
+     * Cursor trỏ tới sau product này theo thứ tự sắp xếp đã cho
+     */
+    public static ProductQueryCursor after(ProductResponseDTO product, ProductField sortField, Sort.Direction direction) {
+        String value = switch (sortField) {
+            case NAME -> product.getName();
+            case PRICE -> String.valueOf(product.getPrice());
+            default -> "";
+        };
+        return new ProductQueryCursor(sortField, direction, value, product.getId());
+    }
+
+    /**
+     * Dạng token gửi cho client: sortField:direction:id:value, mã hóa base64 url-safe
+     * value đứng cuối vì tên sản phẩm có thể chứa dấu ':'
+     */
+    public String encode() {
+        String raw = sortField.getAttribute() + ":" + direction.name().toLowerCase(Locale.ROOT) + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Đọc lại token do encode() tạo ra
+     */
+    public static ProductQueryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+            Set<ProductField> sortFields = ProductField.parse(parts[0]);
+            if (sortFields.size() != 1) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+            ProductField sortField = sortFields.iterator().next();
+            ProductQueryCursor cursor = new ProductQueryCursor(sortField, Sort.Direction.fromString(parts[1]),
+                    parts[3], Long.parseLong(parts[2]));
+            if (sortField == ProductField.PRICE) {
+                Double.parseDouble(cursor.value());
+            }
+            return cursor;
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException và lỗi base64 cũng là IllegalArgumentException
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Điều kiện WHERE chỉ lấy các product đứng sau cursor
+     */
+    public Specification<Product> toSpecification() {
+        boolean ascending = direction.isAscending();
+        return switch (sortField) {
+            case PRICE -> ProductSpecifications.after("price", ascending, Double.valueOf(value), id);
+            case NAME -> ProductSpecifications.after("name", ascending, value, id);
+            default -> ProductSpecifications.after("id", ascending, id, id);
+        };
+    }
+}
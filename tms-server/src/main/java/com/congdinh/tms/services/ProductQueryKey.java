@@ -0,0 +1,82 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ProductQueryKey - Khóa đã được chuẩn hóa cho một truy vấn đọc Product
+ * Hai request có cùng ý nghĩa (ví dụ "Laptop" và " laptop ") sẽ có cùng key
+ */
+public record ProductQueryKey(Kind kind, String value) {
+
+    /**
+     * Loại truy vấn đọc
+     */
+    public enum Kind {
+        ID,
+        NAME,
+        KEYWORD,
+        PRICE_RANGE,
+        QUERY
+    }
+
+    /**
+     * Key cho truy vấn theo ID
+     */
+    public static ProductQueryKey byId(Long id) {
+        return new ProductQueryKey(Kind.ID, String.valueOf(id));
+    }
+
+    /**
+     * Key cho tìm kiếm theo tên - không phân biệt hoa thường nên có thể lower-case
+     */
+    public static ProductQueryKey byName(String name) {
+        return new ProductQueryKey(Kind.NAME, name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Key cho tìm kiếm theo keyword - JPQL LIKE phân biệt hoa thường nên chỉ trim
+     */
+    public static ProductQueryKey byKeyword(String keyword) {
+        return new ProductQueryKey(Kind.KEYWORD, keyword.trim());
+    }
+
+    /**
+     * Key cho tìm kiếm theo khoảng giá (giá được làm tròn bằng roundPrice)
+     */
+    public static ProductQueryKey byPriceRange(double minPrice, double maxPrice) {
+        return new ProductQueryKey(Kind.PRICE_RANGE, roundPrice(minPrice) + ".." + roundPrice(maxPrice));
+    }
+
+    /**
+     * Key cho GET /api/products/query - các tham số đã được chuẩn hóa bởi caller
+     */
+    public static ProductQueryKey byQuery(String normalizedParameters) {
+        return new ProductQueryKey(Kind.QUERY, normalizedParameters);
+    }
+
+    /**
+     * Key của cùng truy vấn nhưng chỉ lấy một phần các trường (?fields=...)
+     */
+    public ProductQueryKey withFields(Set<ProductField> fields) {
+        return new ProductQueryKey(kind, value + "|fields=" + ProductField.format(fields));
+    }
+
+    /**
+     * Key của cùng truy vấn gắn với một generation của ProductSearchCache (key của flight trong ProductReadCoalescer)
+     */
+    public ProductQueryKey withGeneration(long generation) {
+        return new ProductQueryKey(kind, value + "|generation=" + generation);
+    }
+
+    /**
+     * Làm tròn giá tới 2 chữ số thập phân
+     */
+    public static double roundPrice(double price) {
+        return BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.congdinh.tms.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * ProductReadCoalescer - Gộp các truy vấn đọc giống hệt nhau đang chạy đồng thời (single-flight)
+ * Trong khi một truy vấn cho một key đang chạy, các caller khác với cùng key sẽ chờ
+ * và dùng chung kết quả thay vì gửi thêm câu SQL xuống database.
+ * Caller chạy loader nhận kết quả gốc; flight giữ một bản sao chụp trước khi trả về, mỗi caller đang chờ
+ * nhận bản sao riêng của nó (xem ProductResults)
+ */
+@Component
+public class ProductReadCoalescer {
+
+    private final ConcurrentMap<ProductQueryKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public ProductReadCoalescer(MeterRegistry meterRegistry,
+                                @Value("${tms.product.single-flight.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.executedCounter = Counter.builder("tms.product.reads")
+                .description("Số truy vấn đọc thực sự được gửi xuống database")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("tms.product.reads")
+                .description("Số truy vấn đọc được gộp vào một truy vấn đang chạy")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        meterRegistry.gauge("tms.product.reads.in_flight", inFlight, ConcurrentMap::size);
+    }
+
+    /**
+     * Chạy loader cho key, hoặc chờ kết quả của loader đang chạy với cùng key
+     * Exception của loader được ném lại cho tất cả các caller đang chờ
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(ProductQueryKey key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return ProductResults.copy((T) await(existing));
+        }
+
+        executedCounter.increment();
+        try {
+            T result = loader.get();
+            flight.complete(ProductResults.copy(result));
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            // Chỉ xóa đúng flight của mình, tránh xóa nhầm flight mới của cùng key
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
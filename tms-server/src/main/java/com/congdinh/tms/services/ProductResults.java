@@ -0,0 +1,36 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ProductResults - Bản sao riêng cho từng caller của kết quả đọc được dùng chung (ProductSearchCache, ProductReadCoalescer)
+ * DTO có setter: trả cùng một instance thì một caller sửa DTO hay danh sách sẽ làm hỏng kết quả của caller khác và của cache.
+ * Kiểu khác (không phải DTO của product) được trả nguyên
+ */
+final class ProductResults {
+
+    private ProductResults() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T value) {
+        if (value instanceof ProductResponseDTO product) {
+            return (T) product.copy();
+        }
+        if (value instanceof ProductPageResponseDTO page) {
+            return (T) page.copy();
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element));
+            }
+            return (T) copy;
+        }
+        return value;
+    }
+}
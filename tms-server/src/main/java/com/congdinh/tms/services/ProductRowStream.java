@@ -0,0 +1,81 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.repositories.ProductRowHandler;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ProductRowStream - Danh sách product được đọc khi response được ghi ra, không phải khi service trả về
+ * Khi đọc từ database, mỗi dòng của ResultSet được đưa thẳng cho handler (ví dụ JSON writer của
+ * ProductRowStreamHttpMessageConverter) nên không có List<Product> hay List<ProductResponseDTO> nào được dựng.
+ * Kết quả đã nằm sẵn trong bộ nhớ (search cache, bản sao dạng cột) được bọc bằng of(...).
+ * fields() là các trường được chọn (?fields=...): trường không được chọn bị bỏ khỏi response, trường được chọn
+ * có giá trị null vẫn được ghi null (giống ProductResponseDTO)
+ */
+@FunctionalInterface
+public interface ProductRowStream {
+
+    /**
+     * Đọc toàn bộ kết quả, gọi handler cho từng dòng theo thứ tự; mỗi lần gọi chạy lại truy vấn
+     */
+    void forEach(ProductRowHandler handler);
+
+    /**
+     * Các trường được chọn; handler nhận null cho các trường còn lại
+     */
+    default Set<ProductField> fields() {
+        return ProductField.all();
+    }
+
+    /**
+     * true nếu kết quả đã nằm sẵn trong bộ nhớ: forEach không truy vấn database
+     */
+    default boolean isInMemory() {
+        return false;
+    }
+
+    static ProductRowStream of(List<ProductResponseDTO> products) {
+        return of(products, ProductField.all());
+    }
+
+    static ProductRowStream of(List<ProductResponseDTO> products, Set<ProductField> fields) {
+        return new ProductRowStream() {
+            @Override
+            public void forEach(ProductRowHandler handler) {
+                for (ProductResponseDTO product : products) {
+                    handler.handle(product.getId(), product.getName(), product.getDescription(), product.getPrice());
+                }
+            }
+
+            @Override
+            public Set<ProductField> fields() {
+                return fields;
+            }
+
+            @Override
+            public boolean isInMemory() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Stream đọc từ database chỉ với các trường được chọn
+     */
+    static ProductRowStream projected(Set<ProductField> fields, ProductRowStream rows) {
+        return new ProductRowStream() {
+            @Override
+            public void forEach(ProductRowHandler handler) {
+                rows.forEach(handler);
+            }
+
+            @Override
+            public Set<ProductField> fields() {
+                return fields;
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * ProductSearchCache - Cache có giới hạn cho kết quả tìm kiếm, key là truy vấn đã chuẩn hóa
+ * Invalidation dùng generation counter: mỗi lần ghi chỉ tăng generation (O(1)),
+ * entry của generation cũ bị coi là miss và dần bị đẩy ra theo LRU, không cần quét từng key.
+ * Giá trị trong cache không bao giờ được trả ra: mỗi caller nhận một bản sao riêng (xem ProductResults)
+ */
+@Component
+public class ProductSearchCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<ProductQueryKey, Entry> entries;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    public ProductSearchCache(MeterRegistry meterRegistry,
+                              @Value("${tms.product.search-cache.enabled:true}") boolean enabled,
+                              @Value("${tms.product.search-cache.max-entries:1000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        // LinkedHashMap theo thứ tự truy cập = LRU đơn giản; truy cập được đồng bộ bằng synchronized
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProductQueryKey, Entry> eldest) {
+                if (size() > ProductSearchCache.this.maxEntries) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hitCounter = Counter.builder("tms.product.search_cache.requests")
+                .description("Số lần tìm thấy kết quả trong search cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("tms.product.search_cache.requests")
+                .description("Số lần phải truy vấn database do cache miss")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("tms.product.search_cache.evictions")
+                .description("Số entry bị đẩy ra do vượt quá kích thước cache")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.search_cache.size", this, ProductSearchCache::size)
+                .description("Số entry hiện có trong search cache")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.search_cache.hit_ratio", this, ProductSearchCache::hitRatio)
+                .description("Tỉ lệ hit của search cache")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Trả về kết quả đã cache cho key, hoặc chạy loader và cache lại kết quả
+     * Kết quả chỉ được cache nếu không có lần ghi nào xảy ra trong lúc loader chạy
+     */
+    public <T> T get(ProductQueryKey key, Supplier<T> loader) {
+        return get(key, currentGeneration -> loader.get());
+    }
+
+    /**
+     * Như get, nhưng khi cache miss các caller cùng key được gộp vào một truy vấn qua coalescer
+     * Generation là một phần key của flight: caller đến sau một lần ghi mở flight mới thay vì nhận
+     * kết quả của flight đã bắt đầu trước lần ghi, và flight cũ không thể ghi vào cache sau lần ghi đó
+     */
+    public <T> T get(ProductQueryKey key, ProductReadCoalescer coalescer, Supplier<T> loader) {
+        return get(key, currentGeneration -> coalescer.execute(key.withGeneration(currentGeneration), loader));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(ProductQueryKey key, LongFunction<T> loader) {
+        if (!enabled) {
+            return loader.apply(generation.get());
+        }
+
+        long currentGeneration = generation.get();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.generation() == currentGeneration) {
+            hitCounter.increment();
+            return ProductResults.copy((T) entry.value());
+        }
+
+        missCounter.increment();
+        T value = loader.apply(currentGeneration);
+        synchronized (entries) {
+            // Nếu generation đã đổi, kết quả có thể đã cũ - không cache
+            if (generation.get() == currentGeneration) {
+                entries.put(key, new Entry(currentGeneration, value));
+            }
+        }
+        return ProductResults.copy(value);
+    }
+
+    /**
+     * Vô hiệu hóa toàn bộ cache bằng cách tăng generation
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Mọi thay đổi Product đều có thể ảnh hưởng tới bất kỳ kết quả tìm kiếm nào
+     * Chạy sau khi transaction commit để không cache lại dữ liệu chưa commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Cả một chunk đổi giá chỉ tăng generation một lần
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPricesChanged(ProductPricesChangedEvent event) {
+        invalidateAll();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private record Entry(long generation, Object value) {
+    }
+}
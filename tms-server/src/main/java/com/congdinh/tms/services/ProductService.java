@@ -1,52 +1,225 @@
 package com.congdinh.tms.services;
 
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
 import com.congdinh.tms.dtos.ProductRequestDTO;
 import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.dtos.ProductSuggestionDTO;
+import com.congdinh.tms.dtos.SimilarProductDTO;
 import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.events.ProductChangedEvent;
 import com.congdinh.tms.exceptions.ResourceNotFoundException;
 import com.congdinh.tms.mappers.ProductMapper;
 import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductSpecifications;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * ProductService - Business logic layer
  * Xử lý các logic nghiệp vụ liên quan đến Product với DTOs
+ * @Observed: mỗi method public được gọi từ ngoài là một span (tên ProductService#method)
+ * Khi bản sao dạng cột đã sẵn sàng (tms.product.columnar.enabled, xem ProductColumnarCatalog)
+ * các method đọc được phục vụ từ bộ nhớ thay vì database
+ * @Lane: mỗi method chạy trên executor và connection pool của loại tải tương ứng (xem WorkloadLane);
+ * method không ghi rõ lane là thao tác ghi
  */
+@Observed(name = "tms.product.service")
 @Service
 @Transactional
+@Lane(WorkloadLane.WRITE)
 public class ProductService {
     
     private static final String RESOURCE_NAME = "Product";
+    private static final int DEFAULT_QUERY_LIMIT = 20;
+    private static final List<String> SORTABLE_FIELDS = List.of("id", "name", "price");
     
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductReadCoalescer readCoalescer;
+    private final ProductBatchLoader batchLoader;
+    private final ProductSearchCache searchCache;
+    private final ProductNameIndex nameIndex;
+    private final ProductColumnarCatalog columnarCatalog;
+    private final ProductSimilarityIndex similarityIndex;
+    private final ProductChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Số ID tối đa cho một request multi-get
+    @Value("${tms.product.multi-get.max-ids:100}")
+    private int maxMultiGetIds = 100;
+
+    // Số dòng tối đa cho một trang của GET /api/products/query
+    @Value("${tms.product.query.max-limit:100}")
+    private int maxQueryLimit = 100;
+
+    // Số product tương tự tối đa cho GET /api/products/{id}/similar
+    @Value("${tms.product.similar.max-k:50}")
+    private int maxSimilarK = 50;
+
+    // Danh sách của REST được ghi ra response từng dòng thay vì dựng List trước (xem ProductRowStream)
+    @Value("${tms.product.streaming.enabled:true}")
+    private boolean streamingEnabled = true;
     
     // Constructor injection (best practice)
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+                          ProductReadCoalescer readCoalescer, ProductBatchLoader batchLoader,
+                          ProductSearchCache searchCache, ProductNameIndex nameIndex,
+                          ProductColumnarCatalog columnarCatalog, ProductSimilarityIndex similarityIndex,
+                          ProductChangeTracker changeTracker,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.readCoalescer = readCoalescer;
+        this.batchLoader = batchLoader;
+        this.searchCache = searchCache;
+        this.nameIndex = nameIndex;
+        this.columnarCatalog = columnarCatalog;
+        this.similarityIndex = similarityIndex;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
     /**
      * Lấy tất cả products
      */
     @Transactional(readOnly = true)
+    @Lane(WorkloadLane.BULK)
     public List<ProductResponseDTO> getAllProducts() {
+        if (columnarCatalog.isServing()) {
+            return columnarCatalog.findAll(ProductField.all());
+        }
         List<Product> products = productRepository.findAll();
         return productMapper.toResponseDTOList(products);
     }
+
+    /**
+     * Lấy tất cả products, chỉ với các trường được chọn
+     * Chỉ các cột được chọn nằm trong câu SELECT (xem ProductRepositoryCustom#findProjected)
+     */
+    @Transactional(readOnly = true)
+    @Lane(WorkloadLane.BULK)
+    public List<ProductResponseDTO> getAllProducts(Set<ProductField> fields) {
+        if (isFullFieldSet(fields)) {
+            return getAllProducts();
+        }
+        if (columnarCatalog.isServing()) {
+            return columnarCatalog.findAll(fields);
+        }
+        return productRepository.findProjected(ProductSpecifications.all(), fields);
+    }
     
     /**
      * Lấy product theo ID
+     * Các request đồng thời cho cùng ID dùng chung một truy vấn (xem ProductReadCoalescer),
+     * các ID khác nhau có thể được gom thành một câu WHERE id IN (...) (xem ProductBatchLoader).
+     * Propagation.SUPPORTS: không mở transaction riêng, để các caller đang chờ không giữ connection.
+     * Khi batch loader bật, caller chờ batch trên thread của chính nó, không chiếm thread của lane (xem Lane)
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(value = WorkloadLane.POINT_READ, callerThreadWhenBatching = true)
     public ProductResponseDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(RESOURCE_NAME, "id", id));
-        return productMapper.toResponseDTO(product);
+        if (columnarCatalog.isServing()) {
+            return columnarCatalog.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(RESOURCE_NAME, "id", id));
+        }
+        return readCoalescer.execute(ProductQueryKey.byId(id), () -> findProductById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(RESOURCE_NAME, "id", id)));
+    }
+
+    /**
+     * Lấy nhiều product theo danh sách ID bằng một truy vấn
+     * Giữ thứ tự ID được yêu cầu, ID không tồn tại được trả về trong missingIds thay vì ném exception
+     */
+    @Transactional(readOnly = true)
+    @Lane(WorkloadLane.POINT_READ)
+    public ProductMultiGetResponseDTO getProductsByIds(List<Long> ids) {
+        return getProductsByIds(ids, ProductField.all());
+    }
+
+    /**
+     * Lấy nhiều product theo danh sách ID, chỉ với các trường được chọn
+     */
+    @Transactional(readOnly = true)
+    @Lane(WorkloadLane.POINT_READ)
+    public ProductMultiGetResponseDTO getProductsByIds(List<Long> ids, Set<ProductField> fields) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách ID không được để trống");
+        }
+        List<Long> uniqueIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (uniqueIds.size() > maxMultiGetIds) {
+            throw new IllegalArgumentException("Chỉ được lấy tối đa " + maxMultiGetIds + " sản phẩm mỗi lần");
+        }
+
+        Map<Long, ProductResponseDTO> productsById = new HashMap<>();
+        if (columnarCatalog.isServing()) {
+            productsById.putAll(columnarCatalog.findByIds(uniqueIds, isFullFieldSet(fields) ? ProductField.all() : fields));
+        } else if (isFullFieldSet(fields)) {
+            for (Product product : productRepository.findAllById(uniqueIds)) {
+                productsById.put(product.getId(), productMapper.toResponseDTO(product));
+            }
+        } else {
+            // Luôn cần id để ghép kết quả theo thứ tự yêu cầu, bỏ đi sau nếu client không chọn
+            Set<ProductField> selected = EnumSet.copyOf(fields);
+            selected.add(ProductField.ID);
+            for (ProductResponseDTO product : productRepository.findProjected(ProductSpecifications.idIn(uniqueIds), selected)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+
+        List<ProductResponseDTO> products = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            ProductResponseDTO product = productsById.get(id);
+            if (product != null) {
+                if (!isFullFieldSet(fields) && !fields.contains(ProductField.ID)) {
+                    product.setId(null);
+                    product.setFields(fields);
+                }
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductMultiGetResponseDTO(products, missingIds);
+    }
+
+    private Optional<ProductResponseDTO> findProductById(Long id) {
+        // Micro-batching chỉ có ý nghĩa khi không nằm trong transaction của caller
+        if (batchLoader.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return batchLoader.load(id);
+        }
+        return inReadOnlyTransaction(() -> productRepository.findById(id).map(productMapper::toResponseDTO));
     }
     
     /**
@@ -55,8 +228,11 @@ public class ProductService {
     public ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO) {
         // Validation sẽ được xử lý bởi @Valid annotation trong Controller
         Product product = productMapper.toEntity(productRequestDTO);
+        changeTracker.recordUpsert(product);
         Product savedProduct = productRepository.save(product);
-        return productMapper.toResponseDTO(savedProduct);
+        ProductResponseDTO createdProduct = productMapper.toResponseDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.created(createdProduct));
+        return createdProduct;
     }
     
     /**
@@ -67,8 +243,11 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException(RESOURCE_NAME, "id", id));
         
         productMapper.updateEntityFromDTO(productRequestDTO, existingProduct);
+        changeTracker.recordUpsert(existingProduct);
         Product updatedProduct = productRepository.save(existingProduct);
-        return productMapper.toResponseDTO(updatedProduct);
+        ProductResponseDTO updatedProductDTO = productMapper.toResponseDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedProductDTO));
+        return updatedProductDTO;
     }
     
     /**
@@ -78,39 +257,376 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(RESOURCE_NAME, "id", id));
         productRepository.delete(product);
+        changeTracker.recordDelete(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
     
     /**
      * Tìm kiếm product theo tên
+     * Kết quả được cache theo truy vấn đã chuẩn hóa (xem ProductSearchCache),
+     * khi cache miss thì các request trùng key được gộp như getProductById
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
     public List<ProductResponseDTO> searchProductsByName(String name) {
-        List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
-        return productMapper.toResponseDTOList(products);
+        String term = name.trim();
+        ProductQueryKey key = ProductQueryKey.byName(term);
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(key, () -> columnarCatalog.searchByName(term, ProductField.all()));
+        }
+        return searchCache.get(key, readCoalescer, () -> inReadOnlyTransaction(() -> {
+            List<Product> products = productRepository.findByNameContainingIgnoreCase(term);
+            return productMapper.toResponseDTOList(products);
+        }));
+    }
+
+    /**
+     * Tìm kiếm product theo tên, chỉ với các trường được chọn
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public List<ProductResponseDTO> searchProductsByName(String name, Set<ProductField> fields) {
+        if (isFullFieldSet(fields)) {
+            return searchProductsByName(name);
+        }
+        String term = name.trim();
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(ProductQueryKey.byName(term).withFields(fields),
+                    () -> columnarCatalog.searchByName(term, fields));
+        }
+        return findProjectedCached(ProductQueryKey.byName(term).withFields(fields),
+                ProductSpecifications.nameContainsIgnoreCase(term), fields);
     }
     
     /**
      * Tìm kiếm product theo keyword
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
     public List<ProductResponseDTO> searchProductsByKeyword(String keyword) {
-        List<Product> products = productRepository.searchByKeyword(keyword);
-        return productMapper.toResponseDTOList(products);
+        String term = keyword.trim();
+        ProductQueryKey key = ProductQueryKey.byKeyword(term);
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(key, () -> columnarCatalog.searchByKeyword(term, ProductField.all()));
+        }
+        return searchCache.get(key, readCoalescer, () -> inReadOnlyTransaction(() -> {
+            List<Product> products = productRepository.searchByKeyword(term);
+            return productMapper.toResponseDTOList(products);
+        }));
+    }
+
+    /**
+     * Tìm kiếm product theo keyword, chỉ với các trường được chọn
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public List<ProductResponseDTO> searchProductsByKeyword(String keyword, Set<ProductField> fields) {
+        if (isFullFieldSet(fields)) {
+            return searchProductsByKeyword(keyword);
+        }
+        String term = keyword.trim();
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(ProductQueryKey.byKeyword(term).withFields(fields),
+                    () -> columnarCatalog.searchByKeyword(term, fields));
+        }
+        return findProjectedCached(ProductQueryKey.byKeyword(term).withFields(fields),
+                ProductSpecifications.keywordContains(term), fields);
     }
     
     /**
      * Tìm kiếm product theo khoảng giá
+     * Giá được làm tròn tới 2 chữ số thập phân để các khoảng giá gần giống nhau dùng chung cache
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
     public List<ProductResponseDTO> findProductsByPriceRange(double minPrice, double maxPrice) {
+        validatePriceRange(minPrice, maxPrice);
+        
+        double min = ProductQueryKey.roundPrice(minPrice);
+        double max = ProductQueryKey.roundPrice(maxPrice);
+        ProductQueryKey key = ProductQueryKey.byPriceRange(min, max);
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(key, () -> columnarCatalog.findByPriceRange(min, max, ProductField.all()));
+        }
+        return searchCache.get(key, readCoalescer, () -> inReadOnlyTransaction(() -> {
+            List<Product> products = productRepository.findByPriceBetween(min, max);
+            return productMapper.toResponseDTOList(products);
+        }));
+    }
+
+    /**
+     * Tìm kiếm product theo khoảng giá, chỉ với các trường được chọn
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public List<ProductResponseDTO> findProductsByPriceRange(double minPrice, double maxPrice, Set<ProductField> fields) {
+        if (isFullFieldSet(fields)) {
+            return findProductsByPriceRange(minPrice, maxPrice);
+        }
+        validatePriceRange(minPrice, maxPrice);
+
+        double min = ProductQueryKey.roundPrice(minPrice);
+        double max = ProductQueryKey.roundPrice(maxPrice);
+        if (columnarCatalog.isServing()) {
+            return searchCache.get(ProductQueryKey.byPriceRange(min, max).withFields(fields),
+                    () -> columnarCatalog.findByPriceRange(min, max, fields));
+        }
+        return findProjectedCached(ProductQueryKey.byPriceRange(min, max).withFields(fields),
+                ProductSpecifications.priceBetween(min, max), fields);
+    }
+
+    /**
+     * Tất cả products dưới dạng stream cho REST: mỗi dòng đi thẳng từ ResultSet ra response (xem ProductRowStream)
+     * Truy vấn chạy trong transaction read-only riêng khi response được ghi, không qua query cache
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.BULK)
+    public ProductRowStream streamAllProducts(Set<ProductField> fields) {
+        if (!streamingEnabled || columnarCatalog.isServing()) {
+            return ProductRowStream.of(getAllProducts(fields), fields);
+        }
+        return streamFromDatabase(ProductSpecifications.all(), fields);
+    }
+
+    /**
+     * Tìm theo tên dưới dạng stream; khi search cache bật thì kết quả vẫn được dựng thành danh sách để cache
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public ProductRowStream streamProductsByName(String name, Set<ProductField> fields) {
+        if (!streamingEnabled || searchCache.isEnabled() || columnarCatalog.isServing()) {
+            return ProductRowStream.of(searchProductsByName(name, fields), fields);
+        }
+        return streamFromDatabase(ProductSpecifications.nameContainsIgnoreCase(name.trim()), fields);
+    }
+
+    /**
+     * Tìm theo keyword dưới dạng stream (xem streamProductsByName)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public ProductRowStream streamProductsByKeyword(String keyword, Set<ProductField> fields) {
+        if (!streamingEnabled || searchCache.isEnabled() || columnarCatalog.isServing()) {
+            return ProductRowStream.of(searchProductsByKeyword(keyword, fields), fields);
+        }
+        return streamFromDatabase(ProductSpecifications.keywordContains(keyword.trim()), fields);
+    }
+
+    /**
+     * Tìm theo khoảng giá dưới dạng stream (xem streamProductsByName); khoảng giá được kiểm tra ngay khi gọi
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public ProductRowStream streamProductsByPriceRange(double minPrice, double maxPrice, Set<ProductField> fields) {
+        if (!streamingEnabled || searchCache.isEnabled() || columnarCatalog.isServing()) {
+            return ProductRowStream.of(findProductsByPriceRange(minPrice, maxPrice, fields), fields);
+        }
+        validatePriceRange(minPrice, maxPrice);
+        return streamFromDatabase(ProductSpecifications.priceBetween(ProductQueryKey.roundPrice(minPrice),
+                ProductQueryKey.roundPrice(maxPrice)), fields);
+    }
+
+    /**
+     * Truy vấn kết hợp: tên, keyword, khoảng giá, sắp xếp, limit và cursor trong một câu SQL
+     * Lọc, sắp xếp và LIMIT đều chạy trong database; phân trang bằng keyset (xem ProductQueryCursor)
+     * nên trang sau không phải quét lại các dòng của trang trước như OFFSET
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @Lane(WorkloadLane.SEARCH)
+    public ProductPageResponseDTO queryProducts(ProductQueryRequestDTO request) {
+        Set<ProductField> fields = ProductField.parse(request.getFields());
+        Sort.Order order = parseSort(request.getSort());
+        ProductField sortField = ProductField.parse(order.getProperty()).iterator().next();
+        int limit = request.getLimit() == null ? DEFAULT_QUERY_LIMIT : request.getLimit();
+        if (limit < 1 || limit > maxQueryLimit) {
+            throw new IllegalArgumentException("Limit phải nằm trong khoảng 1 đến " + maxQueryLimit);
+        }
+        Double minPrice = request.getMinPrice();
+        Double maxPrice = request.getMaxPrice();
+        if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+            throw new IllegalArgumentException("Giá không được âm");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Giá tối thiểu không được lớn hơn giá tối đa");
+        }
+
+        Specification<Product> specification = ProductSpecifications.all();
+        if (StringUtils.hasText(request.getName())) {
+            specification = specification.and(ProductSpecifications.nameContainsIgnoreCase(request.getName().trim()));
+        }
+        if (StringUtils.hasText(request.getQ())) {
+            specification = specification.and(ProductSpecifications.keywordContains(request.getQ().trim()));
+        }
+        if (minPrice != null) {
+            specification = specification.and(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            specification = specification.and(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        ProductQueryCursor cursor = null;
+        if (StringUtils.hasText(request.getCursor())) {
+            cursor = ProductQueryCursor.decode(request.getCursor());
+            if (cursor.sortField() != sortField || cursor.direction() != order.getDirection()) {
+                throw new IllegalArgumentException("Cursor không khớp với tham số sort");
+            }
+            specification = specification.and(cursor.toSpecification());
+        }
+
+        // id là tie-breaker để thứ tự ổn định khi nhiều product cùng giá/tên
+        Sort sort = sortField == ProductField.ID
+                ? Sort.by(order.getDirection(), "id")
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+        // Cursor cần id và giá trị cột sắp xếp, kể cả khi client không chọn các trường này
+        Set<ProductField> selected = EnumSet.copyOf(fields);
+        selected.add(ProductField.ID);
+        selected.add(sortField);
+
+        Specification<Product> where = specification;
+        ProductQueryKey key = ProductQueryKey.byQuery(String.join("|",
+                request.getName() == null ? "" : request.getName().trim().toLowerCase(Locale.ROOT),
+                request.getQ() == null ? "" : request.getQ().trim(),
+                String.valueOf(minPrice), String.valueOf(maxPrice),
+                sortField.getAttribute(), order.getDirection().name(), String.valueOf(limit),
+                request.getCursor() == null ? "" : request.getCursor(), ProductField.format(fields)));
+        if (columnarCatalog.isServing()) {
+            ProductQueryCursor after = cursor;
+            // Lấy thêm một dòng để biết còn trang sau hay không
+            return searchCache.get(key, () -> toPage(columnarCatalog.query(
+                    StringUtils.hasText(request.getName()) ? request.getName().trim() : null,
+                    StringUtils.hasText(request.getQ()) ? request.getQ().trim() : null,
+                    minPrice, maxPrice, after, sortField, order.getDirection(), limit + 1, selected),
+                    limit, sortField, order.getDirection(), fields));
+        }
+        return searchCache.get(key, readCoalescer, () -> {
+            // Lấy thêm một dòng để biết còn trang sau hay không
+            List<ProductResponseDTO> rows = inReadOnlyTransaction(
+                    () -> productRepository.findProjected(where, selected, sort, limit + 1));
+            return toPage(rows, limit, sortField, order.getDirection(), fields);
+        });
+    }
+
+    /**
+     * Cắt limit + 1 dòng thành một trang, cursor trang sau lấy từ dòng cuối của trang
+     */
+    private static ProductPageResponseDTO toPage(List<ProductResponseDTO> rows, int limit, ProductField sortField,
+                                                 Sort.Direction direction, Set<ProductField> fields) {
+        boolean hasMore = rows.size() > limit;
+        List<ProductResponseDTO> page = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = hasMore
+                ? ProductQueryCursor.after(page.get(page.size() - 1), sortField, direction).encode()
+                : null;
+        page.forEach(product -> clearUnselectedFields(product, fields));
+        return new ProductPageResponseDTO(page, nextCursor);
+    }
+
+    /**
+     * Gợi ý product theo tiền tố tên (autocomplete)
+     * Phục vụ hoàn toàn từ index trong bộ nhớ (xem ProductNameIndex), không truy vấn database
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Lane(WorkloadLane.POINT_READ)
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        return nameIndex.suggest(prefix, limit).stream()
+                .map(product -> new ProductSuggestionDTO(product.id(), product.name(), product.price()))
+                .toList();
+    }
+
+    /**
+     * k product có name + description giống product id nhất, độ tương đồng giảm dần
+     * Xếp hạng từ ProductSimilarityIndex trong bộ nhớ; chỉ đọc name, price của k product kết quả
+     */
+    @Transactional(readOnly = true)
+    @Lane(WorkloadLane.SEARCH)
+    public List<SimilarProductDTO> findSimilarProducts(Long id, int k) {
+        if (k < 1 || k > maxSimilarK) {
+            throw new IllegalArgumentException("k phải nằm trong khoảng 1 đến " + maxSimilarK);
+        }
+        List<ProductSimilarityIndex.Match> matches = similarityIndex.findSimilar(id, k);
+        if (matches == null) {
+            throw new ResourceNotFoundException(RESOURCE_NAME, "id", id);
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductResponseDTO> productsById = new HashMap<>();
+        for (ProductResponseDTO product : getProductsByIds(matches.stream().map(ProductSimilarityIndex.Match::id).toList(),
+                EnumSet.of(ProductField.ID, ProductField.NAME, ProductField.PRICE)).getProducts()) {
+            productsById.put(product.getId(), product);
+        }
+        List<SimilarProductDTO> similar = new ArrayList<>(matches.size());
+        for (ProductSimilarityIndex.Match match : matches) {
+            ProductResponseDTO product = productsById.get(match.id());
+            // Product vừa bị xóa nhưng index chưa nhận event thì bỏ qua
+            if (product != null) {
+                similar.add(new SimilarProductDTO(product.getId(), product.getName(), product.getPrice(), match.score()));
+            }
+        }
+        return similar;
+    }
+
+    private void validatePriceRange(double minPrice, double maxPrice) {
         if (minPrice < 0 || maxPrice < 0) {
             throw new IllegalArgumentException("Giá không được âm");
         }
         if (minPrice > maxPrice) {
             throw new IllegalArgumentException("Giá tối thiểu không được lớn hơn giá tối đa");
         }
-        
-        List<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice);
-        return productMapper.toResponseDTOList(products);
+    }
+
+    private static Sort.Order parseSort(String sort) {
+        String[] parts = (StringUtils.hasText(sort) ? sort : "id").split(",");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Tham số sort không hợp lệ: " + sort);
+        }
+        String property = parts[0].trim().toLowerCase(Locale.ROOT);
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("Không thể sắp xếp theo trường: " + property
+                    + ". Các trường hợp lệ: " + String.join(", ", SORTABLE_FIELDS));
+        }
+        String direction = parts.length == 2 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new IllegalArgumentException("Chiều sắp xếp không hợp lệ: " + direction + ". Dùng asc hoặc desc");
+        }
+        return new Sort.Order(Sort.Direction.fromString(direction), property);
+    }
+
+    private static void clearUnselectedFields(ProductResponseDTO product, Set<ProductField> fields) {
+        product.setFields(fields);
+        for (ProductField field : ProductField.values()) {
+            if (fields.contains(field)) {
+                continue;
+            }
+            switch (field) {
+                case ID -> product.setId(null);
+                case NAME -> product.setName(null);
+                case DESCRIPTION -> product.setDescription(null);
+                case PRICE -> product.setPrice(null);
+            }
+        }
+    }
+
+    private List<ProductResponseDTO> findProjectedCached(ProductQueryKey key, Specification<Product> specification,
+                                                         Set<ProductField> fields) {
+        return searchCache.get(key, readCoalescer,
+                () -> inReadOnlyTransaction(() -> productRepository.findProjected(specification, fields)));
+    }
+
+    private ProductRowStream streamFromDatabase(Specification<Product> specification, Set<ProductField> fields) {
+        return ProductRowStream.projected(fields, handler -> inReadOnlyTransaction(() -> {
+            productRepository.forEachProjected(specification, fields, handler);
+            return null;
+        }));
+    }
+
+    private static boolean isFullFieldSet(Set<ProductField> fields) {
+        return fields == null || fields.containsAll(ProductField.all());
+    }
+
+    /**
+     * Chạy truy vấn và map sang DTO trong cùng một transaction read-only,
+     * để thuộc tính lazy (description) được load trước khi session đóng
+     */
+    private <T> T inReadOnlyTransaction(Supplier<T> work) {
+        return readOnlyTransaction.execute(status -> work.get());
     }
 }
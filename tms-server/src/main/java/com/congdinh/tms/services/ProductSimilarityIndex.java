@@ -0,0 +1,444 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ProductSimilarityIndex - Vector văn bản (name + description) của mọi product trong một ma trận float[]
+ * row-major (dims float mỗi dòng), dùng cho GET /api/products/{id}/similar
+ * Truy vấn là brute-force: cosine giữa vector của product và từng dòng (xem ProductTextVectorizer,
+ * vector đã chuẩn hóa nên cosine = tích vô hướng), chia ma trận thành các đoạn quét song song bằng fork/join,
+ * mỗi đoạn giữ top-k riêng rồi gộp. Tích vô hướng dùng Vector API nếu có (xem FloatDotProduct).
+ * Ghi product chỉ tính lại một dòng; dòng của product bị xóa được tái sử dụng.
+ */
+@Component
+public class ProductSimilarityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSimilarityIndex.class);
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Một product tương tự và độ tương đồng cosine (0..1)
+     */
+    public record Match(long id, float score) {
+    }
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int dims;
+    private final int loadBatchSize;
+    private final int chunkRows;
+    private final ForkJoinPool scanPool;
+    private FloatDotProduct dotProduct;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Không cho hai lần rebuild (khởi động và ProductInvalidationListener#flushAll) chạy chồng lên nhau
+    private final Object rebuildLock = new Object();
+    private float[] vectors;
+    private long[] ids;
+    // Số dòng đã từng dùng; dòng trống (product bị xóa) nằm trong freeRows
+    private int rows;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private Map<Long, Integer> rowOf = new HashMap<>();
+    // Khác null trong lúc đang rebuild: thay đổi commit trong lúc này được áp dụng lại lên ma trận mới trước khi đổi
+    private List<ProductChangedEvent> pendingChanges;
+
+    public ProductSimilarityIndex(ProductRepository productRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tms.product.similar.enabled:false}") boolean enabled,
+                                  @Value("${tms.product.similar.dims:128}") int dims,
+                                  @Value("${tms.product.similar.load-batch-size:10000}") int loadBatchSize,
+                                  @Value("${tms.product.similar.parallelism:0}") int parallelism,
+                                  @Value("${tms.product.similar.chunk-rows:32768}") int chunkRows) {
+        if (dims < 1) {
+            throw new IllegalArgumentException("Số chiều vector phải lớn hơn 0: " + dims);
+        }
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.dims = dims;
+        this.loadBatchSize = loadBatchSize;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.dotProduct = FloatDotProduct.best();
+        this.vectors = new float[INITIAL_CAPACITY * dims];
+        this.ids = new long[INITIAL_CAPACITY];
+        Arrays.fill(ids, EMPTY);
+
+        Gauge.builder("tms.product.similar.index.products", this, ProductSimilarityIndex::size)
+                .description("Số product trong index tìm sản phẩm tương tự")
+                .register(meterRegistry);
+        Gauge.builder("tms.product.similar.index.memory", this, ProductSimilarityIndex::memoryBytes)
+                .description("Bộ nhớ heap của ma trận vector")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tính vector cho toàn bộ product khi ứng dụng đã sẵn sàng
+     * Ma trận mới được dựng ngoài lock theo từng trang id (ma trận cũ vẫn phục vụ /similar và nhận thay đổi),
+     * rồi đổi vào dưới write lock; trong lúc rebuild heap chứa cả hai ma trận
+     * Order: sau ProductInvalidationListener#start (đã LISTEN) và trước ProductWarmup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 100)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                float[] newVectors = new float[INITIAL_CAPACITY * dims];
+                long[] newIds = new long[INITIAL_CAPACITY];
+                Map<Long, Integer> newRowOf = new HashMap<>();
+                int newRows = 0;
+                List<ProductResponseDTO> page = productRepository.findPageAfter(Long.MIN_VALUE, Limit.of(loadBatchSize));
+                while (!page.isEmpty()) {
+                    for (ProductResponseDTO product : page) {
+                        if (newRows == newIds.length) {
+                            int capacity = newIds.length + (newIds.length >> 1);
+                            newVectors = Arrays.copyOf(newVectors, capacity * dims);
+                            newIds = Arrays.copyOf(newIds, capacity);
+                        }
+                        ProductTextVectorizer.vectorize(product.getName(), product.getDescription(), newVectors, newRows * dims, dims);
+                        newIds[newRows] = product.getId();
+                        newRowOf.put(product.getId(), newRows++);
+                    }
+                    page = page.size() < loadBatchSize ? List.of()
+                            : productRepository.findPageAfter(page.get(page.size() - 1).getId(), Limit.of(loadBatchSize));
+                }
+                Arrays.fill(newIds, newRows, newIds.length, EMPTY);
+                lock.writeLock().lock();
+                try {
+                    vectors = newVectors;
+                    ids = newIds;
+                    rowOf = newRowOf;
+                    rows = newRows;
+                    freeCount = 0;
+                    pendingChanges.forEach(this::applyEvent);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Đã tính vector cho {} sản phẩm ({} chiều, {}) sau {} ms", size(), dims, dotProduct.name(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Cập nhật vector sau khi thay đổi đã được commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyEvent(event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(long id, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            put(id, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return rowOf.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * k product có name + description giống product id nhất (không gồm chính nó, chỉ các product có độ tương đồng > 0),
+     * sắp xếp theo độ tương đồng giảm dần; null nếu id không có trong index
+     */
+    public List<Match> findSimilar(long id, int k) {
+        lock.readLock().lock();
+        try {
+            Integer queryRow = rowOf.get(id);
+            if (queryRow == null) {
+                return null;
+            }
+            float[] query = Arrays.copyOfRange(vectors, queryRow * dims, (queryRow + 1) * dims);
+            // Giữ read lock trong lúc các worker quét: writer không thể sửa hay cấp phát lại ma trận
+            ScanTask task = new ScanTask(query, queryRow, k, 0, rows);
+            TopK top = rows <= chunkRows ? task.compute() : scanPool.invoke(task);
+            return top.toMatches(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return 16L + 4L * vectors.length + 16L + 8L * ids.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tên implementation tích vô hướng đang dùng (vector-256, scalar...)
+     */
+    public String dotProductName() {
+        return dotProduct.name();
+    }
+
+    // Cho test/benchmark so sánh scalar và Vector API trên cùng dữ liệu
+    void useDotProduct(FloatDotProduct dotProduct) {
+        lock.writeLock().lock();
+        try {
+            this.dotProduct = dotProduct;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void applyEvent(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED || event.product() == null) {
+            delete(event.productId());
+        } else {
+            put(event.productId(), event.product().getName(), event.product().getDescription());
+        }
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void delete(long id) {
+        Integer row = rowOf.remove(id);
+        if (row != null) {
+            ids[row] = EMPTY;
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+        }
+    }
+
+    // Chỉ gọi khi đang giữ write lock
+    private void put(long id, String name, String description) {
+        Integer existing = rowOf.get(id);
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (rows == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                vectors = Arrays.copyOf(vectors, capacity * dims);
+                ids = Arrays.copyOf(ids, capacity);
+                Arrays.fill(ids, rows, capacity, EMPTY);
+            }
+            row = rows++;
+        }
+        ProductTextVectorizer.vectorize(name, description, vectors, row * dims, dims);
+        ids[row] = id;
+        rowOf.put(id, row);
+    }
+
+    private final class ScanTask extends RecursiveTask<TopK> {
+
+        private final float[] query;
+        private final int skipRow;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        ScanTask(float[] query, int skipRow, int k, int from, int to) {
+            this.query = query;
+            this.skipRow = skipRow;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= chunkRows) {
+                TopK top = new TopK(k);
+                for (int row = from; row < to; row++) {
+                    if (row == skipRow || ids[row] == EMPTY) {
+                        continue;
+                    }
+                    float score = dotProduct.dot(vectors, row * dims, query, dims);
+                    if (score > 0) {
+                        top.offer(row, score);
+                    }
+                }
+                return top;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(query, skipRow, k, from, middle);
+            left.fork();
+            TopK top = new ScanTask(query, skipRow, k, middle, to).compute();
+            top.addAll(left.join());
+            return top;
+        }
+    }
+
+    /**
+     * k dòng có điểm cao nhất, min-heap trên hai mảng primitive (điểm thấp nhất ở gốc)
+     */
+    private static final class TopK {
+
+        private final int[] rows;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            this.rows = new int[k];
+            this.scores = new float[k];
+        }
+
+        void offer(int row, float score) {
+            if (size < rows.length) {
+                rows[size] = row;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (isBetter(row, score, 0)) {
+                rows[0] = row;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        void addAll(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i], other.scores[i]);
+            }
+        }
+
+        List<Match> toMatches(long[] ids) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            // Điểm giảm dần, dòng nhỏ hơn trước khi bằng điểm để kết quả ổn định
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a]) : Integer.compare(rows[a], rows[b]));
+            List<Match> matches = new ArrayList<>(size);
+            for (int i : order) {
+                matches.add(new Match(ids[rows[i]], scores[i]));
+            }
+            return matches;
+        }
+
+        // Dòng (row, score) xếp trên phần tử thứ i
+        private boolean isBetter(int row, float score, int i) {
+            return score > scores[i] || (score == scores[i] && row < rows[i]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isBetter(rows[parent], scores[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (isBetter(rows[smallest], scores[smallest], child)) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
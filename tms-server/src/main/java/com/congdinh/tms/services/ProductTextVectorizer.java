@@ -0,0 +1,89 @@
+package com.congdinh.tms.services;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * ProductTextVectorizer - Biến name + description thành vector float cố định số chiều (feature hashing)
+ * Đặc trưng: từng từ và các trigram ký tự của từ (bắt được "laptop" ~ "laptops", lỗi chính tả nhẹ),
+ * sau khi lower-case và bỏ dấu tiếng Việt ("Điện thoại" ~ "dien thoai").
+ * Mỗi đặc trưng được hash vào một chiều với dấu +/- ngẫu nhiên theo hash, nên không cần từ điển
+ * và vector của một product chỉ phụ thuộc vào chính nó - cập nhật từng product không làm thay đổi product khác
+ * (khác TF-IDF, nơi IDF thay đổi theo toàn bộ catalog). Vector được chuẩn hóa L2: cosine = tích vô hướng
+ */
+final class ProductTextVectorizer {
+
+    // Tên mô tả product sát hơn description nên có trọng số lớn hơn
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private ProductTextVectorizer() {
+    }
+
+    /**
+     * Ghi vector đã chuẩn hóa vào target[offset, offset + dims); trả về false nếu văn bản không có đặc trưng nào
+     */
+    static boolean vectorize(String name, String description, float[] target, int offset, int dims) {
+        Arrays.fill(target, offset, offset + dims, 0f);
+        addText(name, NAME_WEIGHT, target, offset, dims);
+        addText(description, DESCRIPTION_WEIGHT, target, offset, dims);
+        double norm = 0;
+        for (int i = offset; i < offset + dims; i++) {
+            norm += target[i] * target[i];
+        }
+        if (norm == 0) {
+            return false;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = offset; i < offset + dims; i++) {
+            target[i] *= scale;
+        }
+        return true;
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+
+    private static void addText(String text, float weight, float[] target, int offset, int dims) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        for (String word : SEPARATORS.split(normalize(text))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add(word.hashCode(), weight * WORD_WEIGHT, target, offset, dims);
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                // Nhân với hằng số lẻ để trigram không trùng không gian hash với từ 3 ký tự
+                add(padded.substring(i, i + 3).hashCode() * 0x9E3779B1, weight * TRIGRAM_WEIGHT, target, offset, dims);
+            }
+        }
+    }
+
+    private static void add(int hash, float weight, float[] target, int offset, int dims) {
+        int mixed = mix(hash);
+        int index = Math.floorMod(mixed, dims);
+        // Bit cao của hash quyết định dấu: va chạm hash triệt tiêu nhau thay vì cộng dồn
+        target[offset + index] += mixed < 0 ? -weight : weight;
+    }
+
+    // Bước finalizer của MurmurHash3 để phân tán String.hashCode
+    private static int mix(int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
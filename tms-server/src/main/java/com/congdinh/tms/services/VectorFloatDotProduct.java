@@ -0,0 +1,35 @@
+package com.congdinh.tms.services;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorFloatDotProduct - Tích vô hướng bằng Vector API: mỗi lần nhân-cộng (FMA) SPECIES.length() phần tử
+ * Chỉ được nạp qua FloatDotProduct#best() khi module jdk.incubator.vector có mặt lúc chạy
+ */
+final class VectorFloatDotProduct implements FloatDotProduct {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] matrix, int offset, float[] query, int dims) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(dims); i < bound; i += SPECIES.length()) {
+            FloatVector row = FloatVector.fromArray(SPECIES, matrix, offset + i);
+            sum = row.fma(FloatVector.fromArray(SPECIES, query, i), sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        // Phần đuôi khi dims không chia hết cho số lane
+        for (; i < dims; i++) {
+            result += matrix[offset + i] * query[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}
@@ -0,0 +1,65 @@
+package com.congdinh.tms.services;
+
+/**
+ * WorkloadLane - Các loại tải được cách ly với nhau (bulkhead): mỗi lane có executor riêng (xem WorkloadLanes)
+ * và connection pool riêng (xem WorkloadRoutingDataSource), nên một loại tải dùng hết tài nguyên của lane mình
+ * không làm các lane khác phải chờ. Giá trị mặc định có thể ghi đè bằng tms.workload.<key>.*
+ */
+public enum WorkloadLane {
+
+    /**
+     * Đọc theo ID (getProductById, multi-get). Khi ProductBatchLoader bật, getProductById chờ batch trên thread
+     * của caller (Lane#callerThreadWhenBatching) và truy vấn của batch dùng connection pool của lane này
+     */
+    POINT_READ("point-read", 4, 16, 200, 1000),
+    /** Tìm kiếm, lọc và quét theo điều kiện (search, price-range, query, changes) */
+    SEARCH("search", 4, 4, 100, 5000),
+    /** Create/update/delete từng product */
+    WRITE("write", 4, 8, 100, 5000),
+    /** Batch, điều chỉnh giá hàng loạt, danh sách cả bảng khi không stream; cũng là pool của công việc không thuộc lane nào */
+    BULK("bulk", 4, 2, 20, 30000),
+    /**
+     * Đọc database cho response dạng stream (mọi ProductRowStream không nằm sẵn trong bộ nhớ, xem WorkloadLaneAspect)
+     * Dòng được ghi ra ngay khi đọc nên tốc độ là tốc độ client nhận: client chậm giữ thread và connection của lane
+     * trong suốt thời gian ghi. Khi mọi thread đều bận, stream mới chờ rồi bị từ chối (503) thay vì chiếm BULK
+     */
+    EXPORT("export", 2, 2, 20, 30000);
+
+    private final String key;
+    private final int defaultPoolSize;
+    private final int defaultThreads;
+    private final int defaultQueueCapacity;
+    private final long defaultQueueTimeoutMillis;
+
+    WorkloadLane(String key, int defaultPoolSize, int defaultThreads, int defaultQueueCapacity,
+                 long defaultQueueTimeoutMillis) {
+        this.key = key;
+        this.defaultPoolSize = defaultPoolSize;
+        this.defaultThreads = defaultThreads;
+        this.defaultQueueCapacity = defaultQueueCapacity;
+        this.defaultQueueTimeoutMillis = defaultQueueTimeoutMillis;
+    }
+
+    /**
+     * Tên lane trong property (tms.workload.<key>.*), tên thread, tên pool và tag lane của metric
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultPoolSize() {
+        return defaultPoolSize;
+    }
+
+    public int getDefaultThreads() {
+        return defaultThreads;
+    }
+
+    public int getDefaultQueueCapacity() {
+        return defaultQueueCapacity;
+    }
+
+    public long getDefaultQueueTimeoutMillis() {
+        return defaultQueueTimeoutMillis;
+    }
+}
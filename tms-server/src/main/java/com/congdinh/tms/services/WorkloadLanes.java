@@ -0,0 +1,288 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.exceptions.WorkloadLaneSaturatedException;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * WorkloadLanes - Executor riêng cho từng WorkloadLane (bulkhead)
+ * Mỗi lane có số thread cố định và hàng đợi giới hạn: khi hàng đợi đầy, hoặc request chờ trong hàng đợi
+ * quá queue-timeout, request bị từ chối ngay (WorkloadLaneSaturatedException) thay vì chiếm thêm thread và connection.
+ * Thread của lane gắn lane vào thread hiện tại (current()), WorkloadRoutingDataSource dựa vào đó để chọn connection pool.
+ * Observation (span) và MDC của caller được chuyển sang thread của lane.
+ * Caller đang ở trong một lane hoặc trong transaction chạy tiếp trên thread hiện tại: giữ connection của transaction
+ * và tránh deadlock khi lane này chờ lane khác
+ */
+@Component
+public class WorkloadLanes {
+
+    private static final ThreadLocal<WorkloadLane> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Map<WorkloadLane, LaneExecutor> executors = new EnumMap<>(WorkloadLane.class);
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
+    public WorkloadLanes(MeterRegistry meterRegistry, Environment environment,
+                         @Value("${tms.workload.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            String prefix = "tms.workload." + lane.getKey() + ".";
+            int threads = environment.getProperty(prefix + "threads", Integer.class, lane.getDefaultThreads());
+            int queueCapacity = environment.getProperty(prefix + "queue-capacity", Integer.class,
+                    lane.getDefaultQueueCapacity());
+            long queueTimeoutMillis = environment.getProperty(prefix + "queue-timeout-ms", Long.class,
+                    lane.getDefaultQueueTimeoutMillis());
+            if (threads < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("Lane " + lane.getKey() + " cần ít nhất 1 thread và 1 chỗ trong hàng đợi");
+            }
+            executors.put(lane, new LaneExecutor(lane, threads, queueCapacity, queueTimeoutMillis, meterRegistry));
+        }
+    }
+
+    /**
+     * Lane của thread hiện tại, null nếu thread không chạy trong lane nào
+     */
+    public static WorkloadLane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Gắn lane vào thread hiện tại trong lúc chạy work, không qua executor của lane
+     * Dành cho thread nền đã tự giới hạn số việc (ví dụ ProductBatchLoader), để truy vấn dùng connection pool của lane
+     */
+    public static <T> T bind(WorkloadLane lane, Supplier<T> work) {
+        WorkloadLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Như bind, cho work ném checked exception (exception được ném lại nguyên vẹn)
+     */
+    public static <T> T callBound(WorkloadLane lane, Callable<T> work) throws Exception {
+        WorkloadLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return work.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(WorkloadLane previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Chạy work trên thread của lane và chờ kết quả; exception của work được ném lại nguyên vẹn
+     */
+    public <T> T call(WorkloadLane lane, Callable<T> work) throws Exception {
+        if (!enabled || CURRENT.get() != null) {
+            return work.call();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Transaction đã giữ connection của thread này - chỉ đánh dấu lane cho connection mở thêm (nếu có)
+            return callBound(lane, work);
+        }
+
+        LaneExecutor executor = executors.get(lane);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Callable<T> withContext = snapshotFactory.captureAll().wrap(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return work.call();
+            } finally {
+                MDC.clear();
+            }
+        });
+        LaneTask<T> task = new LaneTask<>(executor, withContext);
+        try {
+            executor.pool.execute(task);
+        } catch (RejectedExecutionException ex) {
+            executor.queueFullCounter.increment();
+            throw new WorkloadLaneSaturatedException(lane, "Lane " + lane.getKey() + " đang quá tải, vui lòng thử lại sau");
+        }
+        return executor.await(task);
+    }
+
+    /**
+     * Như call, cho công việc không trả về kết quả và không ném checked exception
+     */
+    public void run(WorkloadLane lane, Runnable work) {
+        try {
+            call(lane, () -> {
+                work.run();
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(executor -> executor.pool.shutdown());
+    }
+
+    /**
+     * Thread pool, cấu hình và metric của một lane (tag lane=key)
+     */
+    private static final class LaneExecutor {
+
+        private final WorkloadLane lane;
+        private final ThreadPoolExecutor pool;
+        private final long queueTimeoutNanos;
+        private final Timer waitTimer;
+        private final Counter queueFullCounter;
+        private final Counter queueTimeoutCounter;
+
+        private LaneExecutor(WorkloadLane lane, int threads, int queueCapacity, long queueTimeoutMillis,
+                             MeterRegistry meterRegistry) {
+            this.lane = lane;
+            this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+            AtomicInteger threadCount = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "tms-lane-" + lane.getKey() + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            String tag = lane.getKey();
+            Gauge.builder("tms.workload.lane.threads", pool, ThreadPoolExecutor::getMaximumPoolSize)
+                    .description("Số thread của lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("tms.workload.lane.active", pool, ThreadPoolExecutor::getActiveCount)
+                    .description("Số thread của lane đang chạy request")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("tms.workload.lane.queued", pool, executor -> executor.getQueue().size())
+                    .description("Số request đang chờ thread của lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("tms.workload.lane.utilization", pool,
+                            executor -> (double) executor.getActiveCount() / executor.getMaximumPoolSize())
+                    .description("Tỷ lệ thread đang bận (1 = lane bão hòa, request mới phải xếp hàng)")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("tms.workload.lane.wait")
+                    .description("Thời gian request chờ trong hàng đợi trước khi có thread của lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.queueFullCounter = Counter.builder("tms.workload.lane.rejected")
+                    .description("Số request bị từ chối vì lane quá tải")
+                    .tag("lane", tag)
+                    .tag("reason", "queue_full")
+                    .register(meterRegistry);
+            this.queueTimeoutCounter = Counter.builder("tms.workload.lane.rejected")
+                    .description("Số request bị từ chối vì lane quá tải")
+                    .tag("lane", tag)
+                    .tag("reason", "queue_timeout")
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Chờ task bắt đầu trong tối đa queue-timeout; task đã bắt đầu thì chờ tới khi xong
+         */
+        private <T> T await(LaneTask<T> task) throws Exception {
+            try {
+                try {
+                    return task.result.get(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ex) {
+                    if (task.abandon()) {
+                        pool.remove(task);
+                        queueTimeoutCounter.increment();
+                        throw new WorkloadLaneSaturatedException(lane, "Lane " + lane.getKey()
+                                + " đang quá tải: đã chờ quá " + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + " ms");
+                    }
+                    return task.result.get();
+                } catch (InterruptedException ex) {
+                    task.abandon();
+                    pool.remove(task);
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw (Error) ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * Một lần gọi trên lane; chỉ chạy nếu caller chưa bỏ đi (hết queue-timeout hoặc bị ngắt)
+     */
+    private static final class LaneTask<T> implements Runnable {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final LaneExecutor executor;
+        private final Callable<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final long enqueuedAt = System.nanoTime();
+
+        private LaneTask(LaneExecutor executor, Callable<T> work) {
+            this.executor = executor;
+            this.work = work;
+        }
+
+        private boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            executor.waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            CURRENT.set(executor.lane);
+            try {
+                result.complete(work.call());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            } finally {
+                CURRENT.remove();
+            }
+        }
+    }
+}
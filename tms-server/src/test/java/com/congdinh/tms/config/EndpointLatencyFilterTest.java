@@ -0,0 +1,62 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.controllers.ProductController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho EndpointLatencyFilter
+ */
+@ExtendWith(MockitoExtension.class)
+class EndpointLatencyFilterTest {
+
+    @Mock
+    private EndpointLatencyRecorder recorder;
+
+    @Mock
+    private ProductController controller;
+
+    @Test
+    void testFilter_RecordsMatchedHandlerAndStatus() throws Exception {
+        // Given
+        HandlerMethod handler = new HandlerMethod(controller, ProductController.class.getMethod("getProductById", Long.class));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(recorder.isEnabled()).thenReturn(true);
+
+        // When - DispatcherServlet gắn HandlerMethod và pattern vào request
+        new EndpointLatencyFilter(recorder).doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+            ((MockHttpServletResponse) res).setStatus(404);
+        });
+
+        // Then
+        verify(recorder).record(eq(handler), eq("GET"), eq("/api/products/{id}"), eq(404), anyLong());
+    }
+
+    @Test
+    void testFilter_SkipsUnmatchedRequests() throws Exception {
+        // Given
+        when(recorder.isEnabled()).thenReturn(true);
+
+        // When
+        new EndpointLatencyFilter(recorder).doFilter(new MockHttpServletRequest("GET", "/favicon.ico"),
+                new MockHttpServletResponse(), (req, res) -> { });
+
+        // Then
+        verify(recorder, never()).record(any(), any(), any(), anyInt(), anyLong());
+    }
+}
@@ -0,0 +1,120 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.EndpointLatencyDTO;
+import com.congdinh.tms.dtos.LatencyPercentilesDTO;
+import com.congdinh.tms.dtos.LatencySloWindowDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho EndpointLatencyRecorder
+ */
+class EndpointLatencyRecorderTest {
+
+    private final Object getById = new Object();
+    private final Object search = new Object();
+    private final EndpointLatencyRecorder recorder = new EndpointLatencyRecorder(true, 10, 200, 0.99,
+            List.of("GET /api/products/{id}=50"));
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    @Test
+    void testReport_PercentilesPerEndpointAndStatus() {
+        // Given - 1000 request: 990 request 10ms, 10 request 100ms (chậm hơn ngưỡng 50ms)
+        for (int i = 0; i < 990; i++) {
+            recorder.record(getById, "GET", "/api/products/{id}", 200, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.record(getById, "GET", "/api/products/{id}", 200, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        recorder.record(getById, "GET", "/api/products/{id}", 404, TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.rotate();
+
+        // When
+        EndpointLatencyDTO report = recorder.report().get(0);
+
+        // Then
+        assertEquals("GET /api/products/{id}", report.getEndpoint());
+        assertEquals(50.0, report.getSloThresholdMs());
+        LatencyPercentilesDTO ok = report.getStatuses().get(200).get("1m");
+        assertEquals(1000, ok.getCount());
+        assertEquals(10.0, ok.getP50(), 0.1);
+        assertEquals(10.0, ok.getP99(), 0.1);
+        assertEquals(100.0, ok.getP999(), 1.0);
+        assertEquals(100.0, ok.getMax(), 1.0);
+        assertEquals(1, report.getStatuses().get(404).get("15m").getCount());
+
+        LatencySloWindowDTO slo = report.getSlo().get("5m");
+        assertEquals(1001, slo.getTotal());
+        assertEquals(10, slo.getBad());
+        assertEquals(10.0 / 1001 / 0.01, slo.getBurnRate(), 1e-9);
+    }
+
+    @Test
+    void testReport_ServerErrorsSpendErrorBudget() {
+        // Given - endpoint không có ngưỡng riêng dùng ngưỡng mặc định 200ms
+        recorder.record(search, "GET", "/api/products/search/keyword", 200, TimeUnit.MILLISECONDS.toNanos(20));
+        recorder.record(search, "GET", "/api/products/search/keyword", 500, TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.rotate();
+
+        // When
+        EndpointLatencyDTO report = recorder.report().get(0);
+
+        // Then
+        assertEquals(200.0, report.getSloThresholdMs());
+        assertEquals(1, report.getSlo().get("1m").getBad());
+        assertEquals(0.5, report.getSlo().get("1m").getErrorRate());
+    }
+
+    @Test
+    void testReport_OldSlotsLeaveShorterWindows() {
+        // Given - dữ liệu của slot đầu tiên, sau đó 6 slot trống (1 phút)
+        recorder.record(getById, "GET", "/api/products/{id}", 200, TimeUnit.MILLISECONDS.toNanos(10));
+        for (int i = 0; i < 7; i++) {
+            recorder.rotate();
+        }
+
+        // When
+        EndpointLatencyDTO report = recorder.report().get(0);
+
+        // Then
+        assertEquals(0, report.getStatuses().get(200).get("1m").getCount());
+        assertEquals(1, report.getStatuses().get(200).get("5m").getCount());
+        assertEquals(1, report.getStatuses().get(200).get("15m").getCount());
+    }
+
+    @Test
+    void testReport_NotRotatedYet() {
+        // Given - dữ liệu chỉ xuất hiện sau khi slot hiện tại được đóng
+        recorder.record(getById, "GET", "/api/products/{id}", 200, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // When & Then
+        assertEquals(0, recorder.report().get(0).getSlo().get("15m").getTotal());
+    }
+
+    @Test
+    void testRecord_ClampsValuesAboveOneMinute() {
+        // Given
+        recorder.record(getById, "GET", "/api/products/{id}", 200, TimeUnit.MINUTES.toNanos(5));
+        recorder.rotate();
+
+        // When & Then
+        assertEquals(60_000.0, recorder.report().get(0).getStatuses().get(200).get("1m").getMax(), 600);
+    }
+
+    @Test
+    void testParseThresholds_Invalid() {
+        // When & Then
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> EndpointLatencyRecorder.parseThresholds(List.of("GET /api/products")));
+        assertEquals("Ngưỡng SLO không hợp lệ: GET /api/products", ex.getMessage());
+    }
+}
@@ -0,0 +1,62 @@
+package com.congdinh.tms.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho JfrEndpointAuthFilter
+ */
+class JfrEndpointAuthFilterTest {
+
+    @Test
+    void testFilter_ValidToken() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/jfr");
+        request.addHeader("Authorization", "Bearer s3cret");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        new JfrEndpointAuthFilter("s3cret").doFilter(request, response, chain);
+
+        // Then
+        assertSame(request, chain.getRequest());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testFilter_InvalidToken() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/actuator/jfr");
+        request.addHeader("Authorization", "Bearer wrong");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> fail("Request không có token hợp lệ không được đi tiếp");
+
+        // When
+        new JfrEndpointAuthFilter("s3cret").doFilter(request, response, chain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+    }
+
+    @Test
+    void testFilter_DisabledWithoutToken() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/jfr");
+        request.addHeader("Authorization", "Bearer ");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> fail("Endpoint phải bị tắt khi chưa cấu hình token");
+
+        // When
+        new JfrEndpointAuthFilter("").doFilter(request, response, chain);
+
+        // Then
+        assertEquals(403, response.getStatus());
+    }
+}
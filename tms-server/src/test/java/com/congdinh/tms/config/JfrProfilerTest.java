@@ -0,0 +1,105 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.JfrFrameStatDTO;
+import com.congdinh.tms.dtos.JfrRecordingDTO;
+import com.congdinh.tms.dtos.JfrSummaryDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho JfrProfiler - chạy recording JFR thật trên JVM của test
+ */
+class JfrProfilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JfrProfiler profiler;
+
+    @AfterEach
+    void tearDown() {
+        if (profiler != null) {
+            profiler.shutdown();
+        }
+    }
+
+    @Test
+    void testRecording_FileAndSummaryRestrictedToApplicationFrames() throws Exception {
+        // Given
+        profiler = new JfrProfiler(tempDir, 60, 50, 3, 20);
+        JfrRecordingDTO started = profiler.start("profile", 1);
+        assertEquals("RUNNING", started.getState());
+
+        // When - tạo tải CPU và cấp phát trong code com.congdinh.tms tới khi recording tự dừng
+        List<long[]> sink = new ArrayList<>();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (profiler.list().get(0).getState().equals("RUNNING") && System.nanoTime() < deadline) {
+            burn(sink);
+        }
+        Path file = profiler.file(started.getId());
+        JfrSummaryDTO summary = profiler.summarize(started.getId());
+
+        // Then
+        assertTrue(Files.size(file) > 0);
+        assertEquals("STOPPED", summary.getRecording().getState());
+        assertFalse(summary.getHotMethods().isEmpty());
+        List<JfrFrameStatDTO> frames = new ArrayList<>(summary.getHotMethods());
+        frames.addAll(summary.getAllocationSites());
+        frames.addAll(summary.getLockContention());
+        assertTrue(frames.stream().allMatch(frame -> frame.getFrame().startsWith("com.congdinh.tms.")));
+        assertTrue(summary.getHotMethods().stream().anyMatch(frame -> frame.getFrame().endsWith("JfrProfilerTest.burn")));
+    }
+
+    private static void burn(List<long[]> sink) {
+        long[] values = new long[4096];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) i * i % 7919;
+        }
+        sink.add(values);
+        if (sink.size() > 256) {
+            sink.clear();
+        }
+    }
+
+    @Test
+    void testStart_InvalidProfileOrDuration() {
+        // Given
+        profiler = new JfrProfiler(tempDir, 60, 50, 3, 20);
+
+        // When & Then
+        IllegalArgumentException profile = assertThrows(IllegalArgumentException.class, () -> profiler.start("gc", 10));
+        assertTrue(profile.getMessage().startsWith("Profile JFR phải là một trong"));
+        IllegalArgumentException duration = assertThrows(IllegalArgumentException.class, () -> profiler.start("default", 61));
+        assertEquals("Thời gian recording phải nằm trong khoảng 1 đến 60 giây", duration.getMessage());
+    }
+
+    @Test
+    void testStart_OnlyOneRunningRecording() {
+        // Given
+        profiler = new JfrProfiler(tempDir, 60, 50, 3, 20);
+        JfrRecordingDTO running = profiler.start("default", 30);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> profiler.start("default", 30));
+        IllegalStateException notFinished = assertThrows(IllegalStateException.class, () -> profiler.file(running.getId()));
+        assertEquals("Recording JFR " + running.getId() + " chưa kết thúc", notFinished.getMessage());
+    }
+
+    @Test
+    void testFile_UnknownRecording() {
+        // Given
+        profiler = new JfrProfiler(tempDir, 60, 50, 3, 20);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> profiler.file(42));
+    }
+}
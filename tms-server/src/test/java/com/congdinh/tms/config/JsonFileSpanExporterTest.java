@@ -0,0 +1,76 @@
+package com.congdinh.tms.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho JsonFileSpanExporter
+ */
+class JsonFileSpanExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExport_WritesOneJsonLinePerSpan() throws Exception {
+        // Given
+        Path file = tempDir.resolve("traces/spans.jsonl");
+        JsonFileSpanExporter exporter = new JsonFileSpanExporter(file, objectMapper);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Tracer tracer = tracerProvider.get("test");
+
+        // When - span "query" là con của span "http get"
+        Span parent = tracer.spanBuilder("http get").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            Span child = tracer.spanBuilder("query")
+                    .setAttribute("jdbc.query[0]", "select * from products")
+                    .startSpan();
+            child.addEvent("acquired");
+            child.end();
+        } finally {
+            parent.end();
+        }
+        tracerProvider.shutdown().join(5, java.util.concurrent.TimeUnit.SECONDS);
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode query = objectMapper.readTree(lines.get(0));
+        JsonNode http = objectMapper.readTree(lines.get(1));
+        assertEquals("query", query.get("name").asText());
+        assertEquals("select * from products", query.get("attributes").get("jdbc.query[0]").asText());
+        assertEquals("acquired", query.get("events").get(0).get("name").asText());
+        assertEquals(http.get("spanId").asText(), query.get("parentSpanId").asText());
+        assertEquals(http.get("traceId").asText(), query.get("traceId").asText());
+        assertFalse(http.has("parentSpanId"));
+        assertEquals("INTERNAL", http.get("kind").asText());
+    }
+
+    @Test
+    void testExport_AfterShutdownFails() throws Exception {
+        // Given
+        JsonFileSpanExporter exporter = new JsonFileSpanExporter(tempDir.resolve("spans.jsonl"), objectMapper);
+        exporter.shutdown();
+
+        // When & Then
+        assertFalse(exporter.export(List.of()).isSuccess());
+        assertTrue(exporter.shutdown().isSuccess());
+    }
+}
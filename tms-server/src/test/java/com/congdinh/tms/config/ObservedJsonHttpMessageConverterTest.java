@@ -0,0 +1,50 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho ObservedJsonHttpMessageConverter
+ */
+class ObservedJsonHttpMessageConverterTest {
+
+    @Test
+    void testWrite_CreatesObservationAroundSerialization() throws Exception {
+        // Given
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        ObservedJsonHttpMessageConverter converter = new ObservedJsonHttpMessageConverter(new ObjectMapper(), registry);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(new ProductResponseDTO(1L, "Laptop Dell", "Description", 100.0), MediaType.APPLICATION_JSON, output);
+
+        // Then
+        assertTrue(output.getBodyAsString().contains("\"name\":\"Laptop Dell\""));
+        assertEquals(1, stopped.size());
+        assertEquals(ObservedJsonHttpMessageConverter.OBSERVATION_NAME, stopped.get(0).getName());
+        assertEquals("ProductResponseDTO", stopped.get(0).getHighCardinalityKeyValue("json.type").getValue());
+    }
+}
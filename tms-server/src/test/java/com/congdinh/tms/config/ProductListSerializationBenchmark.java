@@ -0,0 +1,136 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.services.ProductRowStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark so sánh hai cách ghi một response danh sách (mặc định 10 nghìn dòng) ra JSON:
+ * - materialized: dựng List<Product>, ProductMapper#toResponseDTOList rồi ObservedJsonHttpMessageConverter (cách cũ)
+ * - streamed: ProductRowStream đưa từng dòng cho ProductRowStreamHttpMessageConverter
+ * Các dòng được đọc từ mảng cột trong bộ nhớ (thay cho ResultSet đã fetch), response được ghi vào output bỏ đi,
+ * nên kết quả chỉ gồm phần chênh lệch của ứng dụng, không gồm database và mạng (đọc từ database: xem
+ * ProductProjectionStreamingBenchmark).
+ * Chạy với GC profiler để thấy lượng cấp phát (gc.alloc.rate.norm, byte/op), số lần và thời gian GC (gc.count, gc.time):
+ * mvn -Pbenchmark test -Djmh.args="ProductListSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class ProductListSerializationBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private long[] ids;
+    private String[] names;
+    private String[] descriptions;
+    private double[] prices;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private ObservedJsonHttpMessageConverter listConverter;
+    private ProductRowStreamHttpMessageConverter streamConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        listConverter = new ObservedJsonHttpMessageConverter(objectMapper, ObservationRegistry.NOOP);
+        streamConverter = new ProductRowStreamHttpMessageConverter(objectMapper, ObservationRegistry.NOOP);
+
+        SplittableRandom random = new SplittableRandom(42);
+        ids = new long[rows];
+        names = new String[rows];
+        descriptions = new String[rows];
+        prices = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = i + 1;
+            names[i] = "Product " + (i + 1);
+            descriptions[i] = "Mô tả chi tiết của product " + (i + 1) + " - " + "x".repeat(random.nextInt(20, 200));
+            prices[i] = Math.round(random.nextDouble(1, 5000) * 100) / 100.0;
+        }
+    }
+
+    @Benchmark
+    public long materialized() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            products.add(new Product(ids[i], names[i], descriptions[i], prices[i]));
+        }
+        List<ProductResponseDTO> response = productMapper.toResponseDTOList(products);
+        DiscardingOutputMessage output = new DiscardingOutputMessage();
+        listConverter.write(response, MediaType.APPLICATION_JSON, output);
+        return output.body.bytes;
+    }
+
+    @Benchmark
+    public long streamed() throws IOException {
+        // Giá trị được box giống Tuple của Hibernate trả về cho mỗi dòng
+        ProductRowStream stream = handler -> {
+            for (int i = 0; i < rows; i++) {
+                handler.handle(ids[i], names[i], descriptions[i], prices[i]);
+            }
+        };
+        DiscardingOutputMessage output = new DiscardingOutputMessage();
+        streamConverter.write(stream, MediaType.APPLICATION_JSON, output);
+        return output.body.bytes;
+    }
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final CountingOutputStream body = new CountingOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.congdinh.tms.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductPartitionManager (phần không cần PostgreSQL, xem ProductPartitioningIntegrationTest)
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testPriceRangeDefinitions_CoverWholeDomain() {
+        // Given - mốc giá không theo thứ tự
+        ProductPartitionManager manager = newManager(ProductPartitionManager.Strategy.PRICE_RANGE,
+                new double[]{5000000, 1000000, 2500000.5});
+
+        // When
+        List<String> definitions = manager.partitionDefinitions();
+
+        // Then
+        assertEquals(List.of(
+                "CREATE TABLE products_p_min_1000000 PARTITION OF products FOR VALUES FROM (MINVALUE) TO (1000000)",
+                "CREATE TABLE products_p_1000000_2500000_5 PARTITION OF products FOR VALUES FROM (1000000) TO (2500000.5)",
+                "CREATE TABLE products_p_2500000_5_5000000 PARTITION OF products FOR VALUES FROM (2500000.5) TO (5000000)",
+                "CREATE TABLE products_p_5000000_max PARTITION OF products FOR VALUES FROM (5000000) TO (MAXVALUE)"),
+                definitions);
+    }
+
+    @Test
+    void testHashDefinitions() {
+        // Given
+        ProductPartitionManager manager = newManager(ProductPartitionManager.Strategy.ID_HASH, new double[0]);
+
+        // When
+        List<String> definitions = manager.partitionDefinitions();
+
+        // Then
+        assertEquals(8, definitions.size());
+        assertEquals("CREATE TABLE products_h7 PARTITION OF products FOR VALUES WITH (MODULUS 8, REMAINDER 7)",
+                definitions.get(7));
+    }
+
+    @Test
+    void testParsePriceRange_FromPostgresBoundExpression() {
+        // When
+        ProductPartitionManager.PriceRange first = ProductPartitionManager.PriceRange.parse("products_p_min_1000000",
+                "FOR VALUES FROM (MINVALUE) TO (1e+06)");
+        ProductPartitionManager.PriceRange middle = ProductPartitionManager.PriceRange.parse("products_p_1000000_5000000",
+                "FOR VALUES FROM ('1000000') TO (5e+06)");
+
+        // Then
+        assertEquals(Double.NEGATIVE_INFINITY, first.lower());
+        assertEquals(1000000.0, first.upper());
+        assertTrue(middle.contains(2000000.0));
+        assertFalse(middle.contains(5000000.0));
+        assertThrows(IllegalStateException.class, () -> ProductPartitionManager.PriceRange.parse("products_h0",
+                "FOR VALUES WITH (modulus 8, remainder 0)"));
+    }
+
+    @Test
+    void testDuplicateBounds_ThrowsException() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                newManager(ProductPartitionManager.Strategy.PRICE_RANGE, new double[]{1000000, 1000000}));
+        assertEquals("Các mốc giá của partition phải là số hữu hạn và không trùng nhau", exception.getMessage());
+    }
+
+    @Test
+    void testNonPostgresDatabase_IsNoOp() {
+        // Given - H2 của profile test
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Boolean>>any())).thenReturn(false);
+        ProductPartitionManager manager = new ProductPartitionManager(jdbcTemplate, transactionManager, true,
+                ProductPartitionManager.Strategy.PRICE_RANGE, new double[]{1000000}, 8);
+
+        // When
+        manager.partitionOnStartup();
+
+        // Then
+        assertEquals(List.of(), manager.listPartitions());
+        assertThrows(IllegalStateException.class, manager::partitionTable);
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+
+    private ProductPartitionManager newManager(ProductPartitionManager.Strategy strategy, double[] priceBounds) {
+        return new ProductPartitionManager(jdbcTemplate, transactionManager, false, strategy, priceBounds, 8);
+    }
+}
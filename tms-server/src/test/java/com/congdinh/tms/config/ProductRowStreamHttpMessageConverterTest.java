@@ -0,0 +1,89 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.services.ProductRowStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho ProductRowStreamHttpMessageConverter
+ */
+class ProductRowStreamHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductRowStreamHttpMessageConverter converter =
+            new ProductRowStreamHttpMessageConverter(objectMapper, ObservationRegistry.NOOP);
+
+    @Test
+    void testWrite_SameJsonAsSerializingDtoList() throws Exception {
+        // Given - có ký tự cần escape, description null và giá không nguyên
+        List<ProductResponseDTO> products = List.of(
+                new ProductResponseDTO(1L, "Laptop \"Dell\"", "Mô tả\nnhiều dòng", 1299.99),
+                new ProductResponseDTO(2L, "Chuột", null, 0.1));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(ProductRowStream.of(products), MediaType.APPLICATION_JSON, output);
+
+        // Then - trường null của response đầy đủ vẫn được ghi
+        assertEquals(objectMapper.writeValueAsString(products), output.getBodyAsString());
+        assertTrue(output.getBodyAsString().contains("\"description\":null"));
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+    }
+
+    @Test
+    void testWrite_Projected_OnlySelectedFieldsWithExplicitNulls() throws Exception {
+        // Given - ?fields=id,description: name và price không được chọn
+        Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.DESCRIPTION);
+        ProductResponseDTO projected = new ProductResponseDTO();
+        projected.setId(3L);
+        projected.setFields(fields);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(ProductRowStream.of(List.of(projected), fields), MediaType.APPLICATION_JSON, output);
+
+        // Then
+        assertEquals("[{\"id\":3,\"description\":null}]", output.getBodyAsString());
+        assertEquals(objectMapper.writeValueAsString(List.of(projected)), output.getBodyAsString());
+    }
+
+    @Test
+    void testWrite_EmptyStream() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(ProductRowStream.of(List.of()), MediaType.APPLICATION_JSON, output);
+
+        assertEquals("[]", output.getBodyAsString());
+    }
+
+    @Test
+    void testWrite_FailureBeforeFirstRow_WritesNothing() {
+        // Given - ví dụ không lấy được connection
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        ProductRowStream failing = handler -> {
+            throw new IllegalStateException("database không kết nối được");
+        };
+
+        // When & Then - response chưa có byte nào nên GlobalExceptionHandler vẫn trả về lỗi bình thường
+        assertThrows(IllegalStateException.class, () -> converter.write(failing, MediaType.APPLICATION_JSON, output));
+        assertEquals("", output.getBodyAsString());
+    }
+
+    @Test
+    void testSupportsOnlyProductRowStream() {
+        assertTrue(converter.canWrite(ProductRowStream.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ProductResponseDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(ProductRowStream.class, MediaType.APPLICATION_JSON));
+    }
+}
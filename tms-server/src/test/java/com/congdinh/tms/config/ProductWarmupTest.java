@@ -0,0 +1,158 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.controllers.ProductController;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductInvalidationListener;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.services.ProductColumnarCatalog;
+import com.congdinh.tms.services.ProductNameIndex;
+import com.congdinh.tms.services.ProductRowStream;
+import com.congdinh.tms.services.ProductSimilarityIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductWarmup
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductWarmupTest {
+
+    private static final ProductResponseDTO PRODUCT = new ProductResponseDTO(1L, "Laptop Dell", "Description", 100.0);
+
+    @Mock
+    private ProductController productController;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testWarmUp_PreloadsConfiguredProductsAndSearches() {
+        // Given - 150 product hot: multi-get được chia thành 2 lần (tối đa 100 ID mỗi lần)
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().toList();
+        stubController();
+        ProductWarmup warmup = newWarmup(true, ids, List.of("laptop"), 5);
+
+        // When
+        warmup.warmUp();
+
+        // Then
+        verify(productController).getProductsByIds(ids.subList(100, 150), null);
+        verify(productController, atLeastOnce()).searchProductsByName(eq("laptop"), isNull());
+        verify(productController, atLeastOnce()).searchProductsByKeyword(eq("laptop"), isNull());
+        verify(productController, atLeastOnce()).suggestProducts("lap", 10);
+        verify(productController, atLeastOnce()).getProductById(1L);
+        verifyNoInteractions(productRepository);
+        assertTrue(warmup.getRounds() >= 1 && warmup.getRounds() <= 5);
+        assertTrue(meterRegistry.get("tms.product.warmup.first_round").timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+        assertTrue(meterRegistry.get("tms.product.warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(warmup.getRounds(), meterRegistry.get("tms.product.warmup.rounds").gauge().value());
+    }
+
+    @Test
+    void testWarmUp_DefaultsToMostRecentlyChangedProducts() {
+        // Given
+        when(productRepository.findProjected(any(), eq(EnumSet.of(ProductField.ID)),
+                eq(Sort.by(Sort.Direction.DESC, "changeSeq", "id")), eq(200)))
+                .thenReturn(List.of(new ProductResponseDTO(7L, null, null, 0.0)));
+        stubController();
+        ProductWarmup warmup = newWarmup(true, List.of(), List.of(), 3);
+
+        // When
+        warmup.warmUp();
+
+        // Then
+        verify(productController, atLeastOnce()).getProductsByIds(List.of(7L), null);
+        verify(productController, atLeastOnce()).getProductById(7L);
+    }
+
+    @Test
+    void testWarmUp_FailureDoesNotBlockStartup() {
+        // Given
+        when(productController.searchProductsByName(anyString(), isNull()))
+                .thenThrow(new IllegalStateException("Database chưa sẵn sàng"));
+        ProductWarmup warmup = newWarmup(true, List.of(), List.of("laptop"), 3);
+
+        // When & Then
+        assertDoesNotThrow(warmup::warmUp);
+        assertEquals(0, warmup.getRounds());
+        assertFalse(warmup.isConverged());
+    }
+
+    @Test
+    void testWarmUp_Disabled() {
+        // Given
+        ProductWarmup warmup = newWarmup(false, List.of(1L), List.of("laptop"), 3);
+
+        // When
+        warmup.warmUp();
+
+        // Then
+        verifyNoInteractions(productController, productRepository);
+    }
+
+    @Test
+    void testWarmUp_OrderedAfterReplicaLoadsWhichFollowListen() throws NoSuchMethodException {
+        // Given
+        int listen = order(ProductInvalidationListener.class, "start");
+        int warmup = order(ProductWarmup.class, "warmUp");
+
+        // Then - LISTEN trước, rồi các bản sao load, warmup cuối cùng
+        for (int load : List.of(order(ProductNameIndex.class, "rebuild"), order(ProductColumnarCatalog.class, "load"),
+                order(ProductSimilarityIndex.class, "rebuild"))) {
+            assertTrue(listen < load);
+            assertTrue(load < warmup);
+        }
+    }
+
+    // Order của listener ApplicationReadyEvent; không khai báo thì Spring dùng LOWEST_PRECEDENCE
+    private static int order(Class<?> type, String method) throws NoSuchMethodException {
+        Order order = AnnotationUtils.findAnnotation(type.getMethod(method), Order.class);
+        return order == null ? Ordered.LOWEST_PRECEDENCE : order.value();
+    }
+
+    private void stubController() {
+        lenient().when(productController.getProductsByIds(anyList(), isNull()))
+                .thenReturn(ResponseEntity.ok(new ProductMultiGetResponseDTO(List.of(PRODUCT), List.of())));
+        lenient().when(productController.getProductById(anyLong())).thenReturn(ResponseEntity.ok(PRODUCT));
+        lenient().when(productController.searchProductsByName(anyString(), isNull()))
+                .thenReturn(ResponseEntity.ok(ProductRowStream.of(List.of(PRODUCT))));
+        lenient().when(productController.searchProductsByKeyword(anyString(), isNull()))
+                .thenReturn(ResponseEntity.ok(ProductRowStream.of(List.of(PRODUCT))));
+        lenient().when(productController.suggestProducts(anyString(), anyInt())).thenReturn(ResponseEntity.ok(List.of()));
+    }
+
+    private ProductWarmup newWarmup(boolean enabled, List<Long> productIds, List<String> searches, int maxRounds) {
+        return new ProductWarmup(productController, productRepository, new ObjectMapper(),
+                new ProductRowStreamHttpMessageConverter(new ObjectMapper(), ObservationRegistry.NOOP), meterRegistry,
+                enabled, productIds, 200, searches, 50, maxRounds, 10_000, 0.05, 3);
+    }
+}
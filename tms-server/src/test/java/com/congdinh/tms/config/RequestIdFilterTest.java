@@ -0,0 +1,49 @@
+package com.congdinh.tms.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho RequestIdFilter
+ */
+class RequestIdFilterTest {
+
+    @Test
+    void testFilter_PropagatesValidRequestId() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/products");
+        request.addHeader(RequestIdFilter.HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> inChain = new AtomicReference<>();
+
+        // When
+        new RequestIdFilter().doFilter(request, response, (req, res) -> inChain.set(MDC.get(RequestIdFilter.MDC_KEY)));
+
+        // Then - có trong MDC khi xử lý request, bị xóa sau đó
+        assertEquals("abc-123", inChain.get());
+        assertEquals("abc-123", response.getHeader(RequestIdFilter.HEADER));
+        assertNull(MDC.get(RequestIdFilter.MDC_KEY));
+        assertTrue(RequestIdFilter.elapsedMillis(request) >= 0);
+    }
+
+    @Test
+    void testFilter_ReplacesMissingOrInvalidRequestId() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.addHeader(RequestIdFilter.HEADER, "{\"injected\": true}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        new RequestIdFilter().doFilter(request, response, (req, res) -> { });
+
+        // Then - sinh UUID mới
+        assertEquals(36, response.getHeader(RequestIdFilter.HEADER).length());
+        assertEquals(-1, RequestIdFilter.elapsedMillis(new MockHttpServletRequest()));
+    }
+}
@@ -0,0 +1,213 @@
+package com.congdinh.tms.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho RingBufferAsyncAppender và LogEventRingBuffer
+ * Appender bên dưới có thể bị chặn bằng latch để mô phỏng stdout/đĩa chậm
+ */
+class RingBufferAsyncAppenderTest {
+
+    private LoggerContext context;
+    private Logger logger;
+    private RecordingAppender downstream;
+    private RingBufferAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        // Dùng chung MDC adapter với org.slf4j.MDC như LoggerContext mặc định
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        logger = context.getLogger("test");
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        downstream = new RecordingAppender();
+        downstream.setContext(context);
+        downstream.start();
+        appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName("ASYNC");
+        appender.setCapacity(4);
+        appender.addAppender(downstream);
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstream.release.countDown();
+        appender.stop();
+        context.stop();
+        MDC.clear();
+    }
+
+    @Test
+    void testDropPolicy_CountsDroppedEventsWithoutBlocking() throws Exception {
+        // Given - worker bị chặn ở event đầu tiên, buffer chứa thêm được 4 event
+        appender.setPolicy(RingBufferAsyncAppender.OverflowPolicy.DROP);
+        start();
+        logger.info("event 0");
+        assertTrue(downstream.firstEventReceived.await(5, TimeUnit.SECONDS));
+
+        // When
+        for (int i = 1; i <= 10; i++) {
+            logger.info("event {}", i);
+        }
+
+        // Then
+        assertEquals(6, appender.getDroppedCount());
+        assertEquals(4, appender.getQueueSize());
+        downstream.release.countDown();
+        appender.stop();
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3", "event 4"), downstream.messages());
+    }
+
+    @Test
+    void testDropPolicy_WaitsForRoomForWarnAndError() throws Exception {
+        // Given - worker bị chặn, buffer đã đầy
+        appender.setPolicy(RingBufferAsyncAppender.OverflowPolicy.DROP);
+        start();
+        logger.info("event 0");
+        assertTrue(downstream.firstEventReceived.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            logger.info("event {}", i);
+        }
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+
+        // When - INFO bị bỏ, WARN/ERROR chờ tới khi worker ghi tiếp
+        logger.info("dropped");
+        Future<?> warn = producer.submit(() -> {
+            logger.warn("warn");
+            logger.error("error");
+        });
+        assertThrows(TimeoutException.class, () -> warn.get(200, TimeUnit.MILLISECONDS));
+        downstream.release.countDown();
+        warn.get(5, TimeUnit.SECONDS);
+        producer.shutdown();
+        appender.stop();
+
+        // Then
+        assertEquals(1, appender.getDroppedCount());
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3", "event 4", "warn", "error"),
+                downstream.messages());
+    }
+
+    @Test
+    void testBlockPolicy_DeliversEveryEventFromConcurrentProducers() throws Exception {
+        // Given
+        appender.setPolicy(RingBufferAsyncAppender.OverflowPolicy.BLOCK);
+        downstream.release.countDown();
+        start();
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+
+        // When - 4 thread ghi 4 x 500 event qua buffer 4 slot
+        for (int thread = 0; thread < 4; thread++) {
+            int prefix = thread;
+            producers.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    logger.info("{}-{}", prefix, i);
+                }
+            });
+        }
+        producers.shutdown();
+        assertTrue(producers.awaitTermination(30, TimeUnit.SECONDS));
+        appender.stop();
+
+        // Then - không mất, không trùng event
+        List<String> messages = downstream.messages();
+        assertEquals(2000, messages.size());
+        assertEquals(2000, new HashSet<>(messages).size());
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void testEvent_KeepsMdcOfCallingThread() throws Exception {
+        // Given
+        downstream.release.countDown();
+        start();
+
+        // When - MDC bị xóa ngay sau khi log, trước khi worker kịp ghi
+        MDC.put(RequestIdFilter.MDC_KEY, "req-1");
+        logger.info("with request id");
+        MDC.remove(RequestIdFilter.MDC_KEY);
+        appender.stop();
+
+        // Then
+        assertEquals("req-1", downstream.events.get(0).getMDCPropertyMap().get(RequestIdFilter.MDC_KEY));
+        assertNotEquals(downstream.threads.get(0), downstream.events.get(0).getThreadName());
+    }
+
+    @Test
+    void testRingBuffer_FifoAndCapacity() {
+        // Given
+        LogEventRingBuffer<Integer> buffer = new LogEventRingBuffer<>(3);
+
+        // When & Then - dung lượng làm tròn lên 4
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        for (Integer value = buffer.poll(); value != null; value = buffer.poll()) {
+            drained.add(value);
+        }
+        assertEquals(List.of(1, 2, 3, 4), drained);
+        assertTrue(buffer.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new LogEventRingBuffer<>(1));
+    }
+
+    private void start() {
+        appender.start();
+        logger.addAppender(appender);
+        assertTrue(appender.isStarted());
+    }
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch firstEventReceived = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            firstEventReceived.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+        }
+
+        List<String> messages() {
+            synchronized (events) {
+                return events.stream().map(ILoggingEvent::getFormattedMessage).toList();
+            }
+        }
+    }
+}
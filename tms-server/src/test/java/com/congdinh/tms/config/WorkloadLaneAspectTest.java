@@ -0,0 +1,151 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.services.Lane;
+import com.congdinh.tms.services.ProductBatchLoader;
+import com.congdinh.tms.services.ProductRowStream;
+import com.congdinh.tms.services.WorkloadLane;
+import com.congdinh.tms.services.WorkloadLanes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho WorkloadLaneAspect
+ */
+class WorkloadLaneAspectTest {
+
+    private WorkloadLanes lanes;
+    private ProductBatchLoader batchLoader;
+    private LaneTarget target;
+
+    @BeforeEach
+    void setUp() {
+        lanes = new WorkloadLanes(new SimpleMeterRegistry(), new MockEnvironment(), true);
+        batchLoader = mock(ProductBatchLoader.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new LaneTarget());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkloadLaneAspect(lanes, batchLoader));
+        target = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    void testMethodWithoutAnnotation_UsesLaneOfClass() {
+        // When
+        String lane = target.write();
+
+        // Then
+        assertEquals("WRITE@tms-lane-write", lane);
+    }
+
+    @Test
+    void testMethodAnnotation_OverridesLaneOfClass() {
+        // When
+        String lane = target.search();
+
+        // Then
+        assertEquals("SEARCH@tms-lane-search", lane);
+    }
+
+    @Test
+    void testCallerThreadWhenBatching_RunsOnCallerThreadOnlyWhileBatchLoaderEnabled() {
+        // Given
+        String caller = Thread.currentThread().getName();
+
+        // When - batch loader tắt: chạy trên lane như mọi method khác
+        String withoutBatching = target.pointRead();
+        when(batchLoader.isEnabled()).thenReturn(true);
+        String withBatching = target.pointRead();
+
+        // Then - batch loader bật: thread của caller, lane vẫn được gắn để chọn connection pool
+        assertTrue(withoutBatching.startsWith("POINT_READ@tms-lane-point-read-"), withoutBatching);
+        assertEquals("POINT_READ@" + caller, withBatching);
+        assertNull(WorkloadLanes.current());
+    }
+
+    @Test
+    void testExceptionFromMethod_IsRethrown() {
+        // When / Then
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> target.invalid());
+        assertEquals("invalid", ex.getMessage());
+    }
+
+    @Test
+    void testReturnedRowStream_IsReadOnExportLane() {
+        // Given - stream chỉ được đọc sau khi method đã trả về (như khi response được ghi)
+        ProductRowStream stream = target.export();
+        List<String> rows = new ArrayList<>();
+
+        // When
+        stream.forEach((id, name, description, price) -> rows.add(name));
+
+        // Then - không trên lane của method: client chậm chỉ giữ thread của lane export
+        assertEquals(List.of("EXPORT@tms-lane-export"), rows);
+        assertNull(WorkloadLanes.current());
+    }
+
+    @Test
+    void testReturnedInMemoryStream_IsReadOnCallerThread() {
+        // Given - kết quả đã có sẵn (ví dụ từ search cache): không cần quay lại lane khi ghi response
+        ProductRowStream stream = target.cached();
+        List<String> threads = new ArrayList<>();
+
+        // When
+        stream.forEach((id, name, description, price) -> threads.add(Thread.currentThread().getName()));
+
+        // Then
+        assertEquals(List.of(Thread.currentThread().getName()), threads);
+    }
+
+    @Lane(WorkloadLane.WRITE)
+    static class LaneTarget {
+
+        public String write() {
+            return currentLane();
+        }
+
+        @Lane(WorkloadLane.SEARCH)
+        public String search() {
+            return currentLane();
+        }
+
+        @Lane(value = WorkloadLane.POINT_READ, callerThreadWhenBatching = true)
+        public String pointRead() {
+            return WorkloadLanes.current() + "@" + Thread.currentThread().getName();
+        }
+
+        @Lane(WorkloadLane.SEARCH)
+        public String invalid() {
+            throw new IllegalArgumentException("invalid");
+        }
+
+        @Lane(WorkloadLane.BULK)
+        public ProductRowStream export() {
+            return handler -> handler.handle(1L, currentLane(), null, null);
+        }
+
+        @Lane(WorkloadLane.SEARCH)
+        public ProductRowStream cached() {
+            return ProductRowStream.of(List.of(new ProductResponseDTO(1L, currentLane(), null, 10.0)));
+        }
+
+        private static String currentLane() {
+            String thread = Thread.currentThread().getName();
+            return WorkloadLanes.current() + "@" + thread.substring(0, thread.lastIndexOf('-'));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.congdinh.tms.config;
+
+import com.congdinh.tms.services.WorkloadLane;
+import com.congdinh.tms.services.WorkloadLanes;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho WorkloadRoutingDataSource
+ */
+class WorkloadRoutingDataSourceTest {
+
+    private final Map<WorkloadLane, HikariDataSource> pools = new EnumMap<>(WorkloadLane.class);
+    private final Map<WorkloadLane, Connection> connections = new EnumMap<>(WorkloadLane.class);
+    private WorkloadRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            HikariDataSource pool = mock(HikariDataSource.class);
+            Connection connection = mock(Connection.class);
+            when(pool.getConnection()).thenReturn(connection);
+            pools.put(lane, pool);
+            connections.put(lane, connection);
+        }
+        dataSource = new WorkloadRoutingDataSource(pools);
+        dataSource.afterPropertiesSet();
+    }
+
+    @Test
+    void testConnection_ComesFromPoolOfCurrentLane() {
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            // When
+            Connection connection = WorkloadLanes.bind(lane, this::getConnection);
+
+            // Then
+            assertSame(connections.get(lane), connection, lane.name());
+        }
+    }
+
+    @Test
+    void testConnectionWithoutLane_ComesFromBulkPool() throws SQLException {
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertSame(connections.get(WorkloadLane.BULK), connection);
+    }
+
+    @Test
+    void testClose_ClosesEveryPool() {
+        // When
+        dataSource.close();
+
+        // Then
+        pools.values().forEach(pool -> verify(pool).close());
+    }
+
+    private Connection getConnection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,7 +1,23 @@
 package com.congdinh.tms.controllers;
 
+import com.congdinh.tms.dtos.PriceAdjustmentType;
+import com.congdinh.tms.dtos.ProductBatchOperationDTO;
+import com.congdinh.tms.dtos.ProductBatchRequestDTO;
+import com.congdinh.tms.dtos.ProductBatchResponseDTO;
+import com.congdinh.tms.dtos.ProductChangesResponseDTO;
+import com.congdinh.tms.dtos.ProductBatchResultDTO;
+import com.congdinh.tms.exceptions.ErrorResponse;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductIdsRequestDTO;
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentJobDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentRequestDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
 import com.congdinh.tms.dtos.ProductRequestDTO;
 import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.dtos.ProductSuggestionDTO;
+import com.congdinh.tms.dtos.SimilarProductDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +27,18 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.services.ProductBatchService;
+import com.congdinh.tms.services.ProductChangeTracker;
+import com.congdinh.tms.services.ProductPriceAdjustmentService;
+import com.congdinh.tms.services.ProductRowStream;
 import com.congdinh.tms.services.ProductService;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -36,6 +59,15 @@ class ProductControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private ProductPriceAdjustmentService priceAdjustmentService;
+
+    @MockitoBean
+    private ProductBatchService batchService;
+
+    @MockitoBean
+    private ProductChangeTracker changeTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -46,7 +78,7 @@ class ProductControllerTest {
             new ProductResponseDTO(1L, "Product 1", "Description 1", 100.0),
             new ProductResponseDTO(2L, "Product 2", "Description 2", 200.0)
         );
-        when(productService.getAllProducts()).thenReturn(mockProducts);
+        when(productService.streamAllProducts(ProductField.all())).thenReturn(ProductRowStream.of(mockProducts));
 
         // When & Then
         mockMvc.perform(get("/api/products"))
@@ -60,6 +92,32 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Product 2"));
     }
 
+    @Test
+    void testGetAllProducts_WithFields() throws Exception {
+        // Given
+        ProductResponseDTO projected = new ProductResponseDTO();
+        projected.setId(1L);
+        projected.setName("Product 1");
+        when(productService.streamAllProducts(EnumSet.of(ProductField.ID, ProductField.NAME)))
+                .thenReturn(ProductRowStream.of(List.of(projected), EnumSet.of(ProductField.ID, ProductField.NAME)));
+
+        // When & Then - các trường không được chọn không xuất hiện trong JSON
+        mockMvc.perform(get("/api/products").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Product 1"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].price").doesNotExist());
+    }
+
+    @Test
+    void testSearchProductsByName_InvalidField() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/search").param("name", "Test").param("fields", "id,sku"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Trường không hợp lệ: sku. Các trường hợp lệ: id, name, description, price"));
+    }
+
     @Test
     void testGetProductById() throws Exception {
         // Given
@@ -76,6 +134,17 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(99.99));
     }
 
+    @Test
+    void testGetProductById_NullDescriptionIsSerialized() throws Exception {
+        // Given
+        when(productService.getProductById(1L)).thenReturn(new ProductResponseDTO(1L, "Test Product", null, 99.99));
+
+        // When & Then - response đầy đủ vẫn có key description với giá trị null
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"description\":null")));
+    }
+
     @Test
     void testCreateProduct() throws Exception {
         // Given
@@ -153,7 +222,7 @@ class ProductControllerTest {
         List<ProductResponseDTO> mockProducts = List.of(
             new ProductResponseDTO(1L, "Test Product", "Test Description", 99.99)
         );
-        when(productService.searchProductsByName("Test")).thenReturn(mockProducts);
+        when(productService.streamProductsByName("Test", ProductField.all())).thenReturn(ProductRowStream.of(mockProducts));
 
         // When & Then
         mockMvc.perform(get("/api/products/search")
@@ -171,7 +240,8 @@ class ProductControllerTest {
         List<ProductResponseDTO> mockProducts = List.of(
             new ProductResponseDTO(1L, "Test Product", "Test Description", 99.99)
         );
-        when(productService.findProductsByPriceRange(50.0, 150.0)).thenReturn(mockProducts);
+        when(productService.streamProductsByPriceRange(50.0, 150.0, ProductField.all()))
+                .thenReturn(ProductRowStream.of(mockProducts));
 
         // When & Then
         mockMvc.perform(get("/api/products/price-range")
@@ -183,4 +253,238 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].price").value(99.99));
     }
+
+    @Test
+    void testGetProductsByIds() throws Exception {
+        // Given
+        ProductMultiGetResponseDTO mockResult = new ProductMultiGetResponseDTO(
+            List.of(
+                new ProductResponseDTO(3L, "Product 3", "Description 3", 300.0),
+                new ProductResponseDTO(1L, "Product 1", "Description 1", 100.0)
+            ),
+            List.of(2L)
+        );
+        when(productService.getProductsByIds(List.of(3L, 2L, 1L))).thenReturn(mockResult);
+
+        // When & Then
+        mockMvc.perform(get("/api/products")
+                .param("ids", "3,2,1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].id").value(3))
+                .andExpect(jsonPath("$.products[1].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(2));
+    }
+
+    @Test
+    void testLookupProducts() throws Exception {
+        // Given
+        ProductMultiGetResponseDTO mockResult = new ProductMultiGetResponseDTO(
+            List.of(new ProductResponseDTO(1L, "Product 1", "Description 1", 100.0)),
+            List.of()
+        );
+        when(productService.getProductsByIds(List.of(1L))).thenReturn(mockResult);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductIdsRequestDTO(List.of(1L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("Product 1"))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void testLookupProducts_EmptyIds() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/products/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductIdsRequestDTO(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testQueryProducts() throws Exception {
+        // Given
+        ProductPageResponseDTO page = new ProductPageResponseDTO(
+            List.of(new ProductResponseDTO(2L, "Product 2", "Description 2", 200.0)), "next-token");
+        when(productService.queryProducts(any(ProductQueryRequestDTO.class))).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/products/query")
+                .param("name", "Product")
+                .param("minPrice", "100")
+                .param("sort", "price,desc")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void testQueryProducts_InvalidLimit() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/query").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSuggestProducts() throws Exception {
+        // Given
+        when(productService.suggestProducts("lap", 5)).thenReturn(List.of(
+            new ProductSuggestionDTO(1L, "Laptop Dell", 1500.0)
+        ));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/suggest")
+                .param("prefix", "lap")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Laptop Dell"));
+    }
+
+    @Test
+    void testFindSimilarProducts() throws Exception {
+        // Given
+        when(productService.findSimilarProducts(1L, 10)).thenReturn(List.of(
+            new SimilarProductDTO(2L, "Laptop Dell Inspiron", 1200.0, 0.82)
+        ));
+
+        // When & Then - k mặc định là 10
+        mockMvc.perform(get("/api/products/1/similar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].score").value(0.82));
+    }
+
+    @Test
+    void testStartPriceAdjustment() throws Exception {
+        // Given
+        ProductPriceAdjustmentRequestDTO request = new ProductPriceAdjustmentRequestDTO(
+            PriceAdjustmentType.PERCENTAGE, -10.0, null, 100.0, 500.0, null);
+        ProductPriceAdjustmentJobDTO job = new ProductPriceAdjustmentJobDTO();
+        job.setId("job-1");
+        job.setStatus(ProductPriceAdjustmentJobDTO.Status.PENDING);
+        job.setTotalProducts(42);
+        when(priceAdjustmentService.startAdjustment(any(ProductPriceAdjustmentRequestDTO.class))).thenReturn(job);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/price-adjustments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/products/price-adjustments/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.totalProducts").value(42));
+    }
+
+    @Test
+    void testStartPriceAdjustment_MissingType() throws Exception {
+        // Given
+        ProductPriceAdjustmentRequestDTO request = new ProductPriceAdjustmentRequestDTO(
+            null, -10.0, List.of(1L), null, null, null);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/price-adjustments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetPriceAdjustment_NotFound() throws Exception {
+        // Given
+        when(priceAdjustmentService.getAdjustment("missing"))
+            .thenThrow(new ResourceNotFoundException("Price adjustment job", "id", "missing"));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/price-adjustments/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelPriceAdjustment() throws Exception {
+        // Given
+        ProductPriceAdjustmentJobDTO job = new ProductPriceAdjustmentJobDTO();
+        job.setId("job-1");
+        job.setStatus(ProductPriceAdjustmentJobDTO.Status.RUNNING);
+        job.setCancelRequested(true);
+        when(priceAdjustmentService.cancelAdjustment("job-1")).thenReturn(job);
+
+        // When & Then
+        mockMvc.perform(delete("/api/products/price-adjustments/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cancelRequested").value(true));
+    }
+
+    @Test
+    void testExecuteBatch() throws Exception {
+        // Given
+        ProductBatchRequestDTO request = new ProductBatchRequestDTO(List.of(
+            ProductBatchOperationDTO.create(new ProductRequestDTO("New Product", "Description", 100.0)),
+            ProductBatchOperationDTO.delete(99L)), null);
+        ProductBatchResponseDTO response = new ProductBatchResponseDTO(List.of(
+            new ProductBatchResultDTO(0, ProductBatchOperationDTO.Type.CREATE, 201,
+                new ProductResponseDTO(1L, "New Product", "Description", 100.0), null),
+            new ProductBatchResultDTO(1, ProductBatchOperationDTO.Type.DELETE, 404, null,
+                new ErrorResponse(404, "Resource Not Found", "Không tìm thấy Product với id: 99", "uri=/api/products/99"))));
+        when(batchService.execute(any(ProductBatchRequestDTO.class))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].product.id").value(1))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status").value(404))
+                .andExpect(jsonPath("$.results[1].error.message").value("Không tìm thấy Product với id: 99"))
+                .andExpect(jsonPath("$.results[1].error.path").value("uri=/api/products/99"));
+    }
+
+    @Test
+    void testExecuteBatch_EmptyOperations() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operations\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+        // Given
+        when(changeTracker.getChanges("token-1", 50)).thenReturn(new ProductChangesResponseDTO(
+            List.of(new ProductResponseDTO(3L, "Product 3", "Description 3", 30.0)),
+            List.of(7L), "token-2", false));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/changes")
+                .param("since", "token-1")
+                .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(3))
+                .andExpect(jsonPath("$.deletedIds[0]").value(7))
+                .andExpect(jsonPath("$.nextToken").value("token-2"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void testGetChanges_InvalidToken() throws Exception {
+        // Given
+        when(changeTracker.getChanges("broken", null))
+                .thenThrow(new IllegalArgumentException("Token đồng bộ không hợp lệ"));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/changes").param("since", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Token đồng bộ không hợp lệ"));
+    }
 }
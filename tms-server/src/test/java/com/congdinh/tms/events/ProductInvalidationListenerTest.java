@@ -0,0 +1,218 @@
+package com.congdinh.tms.events;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.services.ProductColumnarCatalog;
+import com.congdinh.tms.services.ProductNameIndex;
+import com.congdinh.tms.services.ProductSearchCache;
+import com.congdinh.tms.services.ProductSimilarityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductInvalidationListener - xử lý payload nhận được qua LISTEN
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductInvalidationListenerTest {
+
+    @Mock
+    private ProductInvalidationNotifier notifier;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ProductSearchCache searchCache;
+
+    @Mock
+    private ProductNameIndex nameIndex;
+
+    @Mock
+    private ProductColumnarCatalog columnarCatalog;
+
+    @Mock
+    private ProductSimilarityIndex similarityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcConnectionDetails connectionDetails;
+
+    @Mock
+    private Cache entityCache;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+
+    private ProductInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ProductInvalidationListener(notifier, productRepository, productMapper, searchCache, nameIndex,
+                columnarCatalog, similarityIndex, eventPublisher, entityManagerFactory, transactionManager,
+                connectionDetails, new SimpleMeterRegistry(), true, "tms_product_changes", 5000, 1000);
+        lenient().when(notifier.getNodeId()).thenReturn("this-node");
+        lenient().when(entityManagerFactory.getCache()).thenReturn(entityCache);
+        lenient().when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        lenient().when(sessionFactory.getCache()).thenReturn(hibernateCache);
+    }
+
+    @Test
+    void testStart_DatabaseUnreachable_DoesNotFailStartup() {
+        // Given - cổng không có Postgres
+        when(connectionDetails.getJdbcUrl()).thenReturn("jdbc:postgresql://127.0.0.1:1/tms");
+        when(connectionDetails.getUsername()).thenReturn("tms");
+        when(connectionDetails.getPassword()).thenReturn("tms");
+
+        // When
+        listener.start();
+
+        // Then - thread nền thử lại; chưa LISTEN được thì chưa xóa cache
+        try {
+            assertFalse(listener.isConnected());
+            verifyNoInteractions(nameIndex, columnarCatalog, similarityIndex);
+        } finally {
+            listener.stop();
+        }
+    }
+
+    @Test
+    void testRemoteUpdate_EvictsAndPublishesFreshProduct() {
+        // Given
+        Product product = new Product(5L, "Updated", "Description", 50.0);
+        ProductResponseDTO productDTO = new ProductResponseDTO(5L, "Updated", "Description", 50.0);
+        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponseDTO(product)).thenReturn(productDTO);
+
+        // When
+        listener.handleNotification("other-node:UPDATED:5");
+
+        // Then
+        verify(entityCache).evict(Product.class, 5L);
+        verify(hibernateCache).evictQueryRegions();
+        verify(eventPublisher).publishEvent(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.UPDATED, 5L, productDTO));
+    }
+
+    @Test
+    void testRemoteUpdate_ProductAlreadyDeleted_PublishesDeleted() {
+        // Given
+        when(productRepository.findById(5L)).thenReturn(Optional.empty());
+
+        // When
+        listener.handleNotification("other-node:UPDATED:5");
+
+        // Then
+        verify(eventPublisher).publishEvent(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.DELETED, 5L, null));
+    }
+
+    @Test
+    void testRemoteDelete_DoesNotQueryDatabase() {
+        // When
+        listener.handleNotification("other-node:DELETED:7");
+
+        // Then
+        verify(entityCache).evict(Product.class, 7L);
+        verifyNoInteractions(productRepository);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.DELETED, 7L, null));
+    }
+
+    @Test
+    void testRemotePriceChunk_EvictsOnceAndPublishesFreshPrices() {
+        // Given
+        when(productRepository.findProjectedUncached(any(), eq(EnumSet.of(ProductField.ID, ProductField.PRICE)),
+                any(Sort.class), eq(0)))
+                .thenReturn(List.of(new ProductResponseDTO(1L, null, null, 9.0),
+                        new ProductResponseDTO(2L, null, null, 18.0)));
+
+        // When - id 3 đã bị xóa trước khi đọc lại
+        listener.handleNotification("other-node:PRICES:1,2,3");
+
+        // Then
+        verify(entityCache).evict(Product.class);
+        verify(hibernateCache, times(1)).evictQueryRegions();
+        verify(productRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(ProductPricesChangedEvent.remote(Map.of(1L, 9.0, 2L, 18.0)));
+    }
+
+    @Test
+    void testMalformedPriceNotification_FlushesEverything() {
+        // When
+        listener.handleNotification("other-node:PRICES:1,x");
+
+        // Then
+        verify(entityCache).evictAll();
+        verify(searchCache).invalidateAll();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testOwnNotification_IsIgnored() {
+        // When
+        listener.handleNotification("this-node:UPDATED:5");
+
+        // Then
+        verifyNoInteractions(entityCache, productRepository, eventPublisher);
+    }
+
+    @Test
+    void testMalformedNotification_FlushesEverything() {
+        // When
+        listener.handleNotification("garbage");
+
+        // Then
+        verify(entityCache).evictAll();
+        verify(hibernateCache).evictQueryRegions();
+        verify(searchCache).invalidateAll();
+        verify(nameIndex).rebuild();
+        verify(columnarCatalog).reload();
+        verify(similarityIndex).rebuild();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testInvalidChannelName_IsRejected() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                new ProductInvalidationListener(notifier, productRepository, productMapper, searchCache, nameIndex,
+                        columnarCatalog, similarityIndex, eventPublisher, entityManagerFactory, transactionManager,
+                        connectionDetails, new SimpleMeterRegistry(), true, "changes; DROP TABLE products", 5000, 1000));
+        assertEquals("Tên kênh LISTEN/NOTIFY không hợp lệ: changes; DROP TABLE products", exception.getMessage());
+    }
+}
@@ -0,0 +1,108 @@
+package com.congdinh.tms.events;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductInvalidationNotifier
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductInvalidationNotifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testLocalChange_IsNotified() {
+        // Given
+        ProductInvalidationNotifier notifier = new ProductInvalidationNotifier(jdbcTemplate, new SimpleMeterRegistry(),
+                true, "tms_product_changes");
+        ProductResponseDTO product = new ProductResponseDTO(3L, "Product", "Description", 10.0);
+
+        // When
+        notifier.onProductChanged(ProductChangedEvent.updated(product));
+
+        // Then
+        verify(jdbcTemplate).queryForObject("SELECT pg_notify(?, ?)", String.class,
+                "tms_product_changes", notifier.getNodeId() + ":UPDATED:3");
+    }
+
+    @Test
+    void testPriceChunk_IsNotifiedOnce() {
+        // Given
+        ProductInvalidationNotifier notifier = new ProductInvalidationNotifier(jdbcTemplate, new SimpleMeterRegistry(),
+                true, "tms_product_changes");
+
+        // When
+        notifier.onProductPricesChanged(ProductPricesChangedEvent.of(Map.of(3L, 30.0, 1L, 10.0, 2L, 20.0)));
+
+        // Then
+        verify(jdbcTemplate).queryForObject("SELECT pg_notify(?, ?)", String.class,
+                "tms_product_changes", notifier.getNodeId() + ":PRICES:1,2,3");
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testLargePriceChunk_IsSplitUnderPayloadLimit() {
+        // Given
+        Map<Long, Double> prices = new HashMap<>();
+        for (long id = 1_000_000; id < 1_002_000; id++) {
+            prices.put(id, 1.0);
+        }
+
+        // When
+        List<String> payloads = ProductInvalidationNotifier.encode("node", ProductPricesChangedEvent.of(prices));
+
+        // Then - mỗi payload dưới giới hạn, gộp lại đủ mọi id
+        assertTrue(payloads.size() > 1);
+        Set<Long> ids = new HashSet<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= ProductInvalidationNotifier.MAX_PAYLOAD_LENGTH);
+            assertTrue(payload.startsWith("node:PRICES:"));
+            for (String id : payload.substring("node:PRICES:".length()).split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        assertEquals(prices.keySet(), ids);
+    }
+
+    @Test
+    void testRemoteChange_IsNotNotifiedAgain() {
+        // Given
+        ProductInvalidationNotifier notifier = new ProductInvalidationNotifier(jdbcTemplate, new SimpleMeterRegistry(),
+                true, "tms_product_changes");
+
+        // When
+        notifier.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.DELETED, 3L, null));
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testDisabled_DoesNothing() {
+        // Given
+        ProductInvalidationNotifier notifier = new ProductInvalidationNotifier(jdbcTemplate, new SimpleMeterRegistry(),
+                false, "tms_product_changes");
+
+        // When
+        notifier.onProductChanged(ProductChangedEvent.deleted(3L));
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,218 @@
+package com.congdinh.tms.grpc;
+
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.grpc.proto.BatchGetProductsRequest;
+import com.congdinh.tms.grpc.proto.BatchGetProductsResponse;
+import com.congdinh.tms.grpc.proto.CreateProductRequest;
+import com.congdinh.tms.grpc.proto.DeleteProductRequest;
+import com.congdinh.tms.grpc.proto.GetProductRequest;
+import com.congdinh.tms.grpc.proto.ListProductsRequest;
+import com.congdinh.tms.grpc.proto.Product;
+import com.congdinh.tms.grpc.proto.ProductInput;
+import com.congdinh.tms.grpc.proto.ProductServiceGrpc;
+import com.congdinh.tms.grpc.proto.SearchProductsRequest;
+import com.congdinh.tms.services.ProductService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductGrpcService qua in-process gRPC server (serialize protobuf thật, không mở port)
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductGrpcServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private Server server;
+    private ManagedChannel channel;
+    private ProductServiceGrpc.ProductServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new ProductGrpcService(productService,
+                        Validation.buildDefaultValidatorFactory().getValidator()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = ProductServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void testGetProduct_Success() {
+        // Given - description null (không được load) trở thành chuỗi rỗng
+        when(productService.getProductById(1L)).thenReturn(new ProductResponseDTO(1L, "Laptop Dell", null, 100.0));
+
+        // When
+        Product product = stub.getProduct(GetProductRequest.newBuilder().setId(1L).build());
+
+        // Then
+        assertEquals(1L, product.getId());
+        assertEquals("Laptop Dell", product.getName());
+        assertEquals("", product.getDescription());
+        assertEquals(100.0, product.getPrice());
+    }
+
+    @Test
+    void testGetProduct_NotFound() {
+        // Given
+        when(productService.getProductById(999L)).thenThrow(new ResourceNotFoundException("Product", "id", 999L));
+
+        // When
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.getProduct(GetProductRequest.newBuilder().setId(999L).build()));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+        assertEquals("Không tìm thấy Product với id: 999", ex.getStatus().getDescription());
+    }
+
+    @Test
+    void testBatchGetProducts_ReportsMissingIds() {
+        // Given
+        when(productService.getProductsByIds(List.of(1L, 2L))).thenReturn(new ProductMultiGetResponseDTO(
+                List.of(new ProductResponseDTO(1L, "Laptop Dell", "Description", 100.0)), List.of(2L)));
+
+        // When
+        BatchGetProductsResponse response = stub.batchGetProducts(
+                BatchGetProductsRequest.newBuilder().addIds(1L).addIds(2L).build());
+
+        // Then
+        assertEquals(1, response.getProductsCount());
+        assertEquals(List.of(2L), response.getMissingIdsList());
+    }
+
+    @Test
+    void testCreateProduct_Success() {
+        // Given
+        ArgumentCaptor<ProductRequestDTO> captor = ArgumentCaptor.forClass(ProductRequestDTO.class);
+        when(productService.createProduct(captor.capture()))
+                .thenReturn(new ProductResponseDTO(5L, "iPhone 15", null, 999.0));
+
+        // When
+        Product product = stub.createProduct(CreateProductRequest.newBuilder()
+                .setProduct(ProductInput.newBuilder().setName("iPhone 15").setPrice(999.0))
+                .build());
+
+        // Then
+        assertEquals(5L, product.getId());
+        assertEquals("iPhone 15", captor.getValue().getName());
+        assertNull(captor.getValue().getDescription());
+    }
+
+    @Test
+    void testCreateProduct_InvalidInput() {
+        // When
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> stub.createProduct(
+                CreateProductRequest.newBuilder().setProduct(ProductInput.newBuilder().setName("X")).build()));
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        assertEquals("name: Tên sản phẩm phải có độ dài từ 2 đến 255 ký tự, price: Giá sản phẩm phải lớn hơn 0",
+                ex.getStatus().getDescription());
+        verify(productService, never()).createProduct(any());
+    }
+
+    @Test
+    void testDeleteProduct_Success() {
+        // When
+        stub.deleteProduct(DeleteProductRequest.newBuilder().setId(3L).build());
+
+        // Then
+        verify(productService).deleteProduct(3L);
+    }
+
+    @Test
+    void testListProducts_StreamsAllPages() {
+        // Given - 2 trang, trang 2 được đọc bằng cursor của trang 1
+        ArgumentCaptor<ProductQueryRequestDTO> captor = ArgumentCaptor.forClass(ProductQueryRequestDTO.class);
+        List<String> cursors = new ArrayList<>();
+        when(productService.queryProducts(captor.capture())).thenAnswer(invocation -> {
+            ProductQueryRequestDTO query = invocation.getArgument(0);
+            cursors.add(query.getCursor());
+            return query.getCursor() == null
+                    ? new ProductPageResponseDTO(List.of(product(1L), product(2L)), "cursor-2")
+                    : new ProductPageResponseDTO(List.of(product(3L)), null);
+        });
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.listProducts(ListProductsRequest.newBuilder().setPageSize(2).setMinPrice(50.0).build())
+                .forEachRemaining(product -> ids.add(product.getId()));
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertEquals(java.util.Arrays.asList(null, "cursor-2"), cursors);
+        ProductQueryRequestDTO query = captor.getValue();
+        assertEquals(2, query.getLimit());
+        assertEquals("id", query.getSort());
+        assertEquals(50.0, query.getMinPrice());
+        assertNull(query.getMaxPrice());
+        assertNull(query.getName());
+    }
+
+    @Test
+    void testListProducts_InvalidQueryEndsStream() {
+        // Given
+        when(productService.queryProducts(any())).thenThrow(new IllegalArgumentException("Limit phải nằm trong khoảng 1 đến 100"));
+
+        // When
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.listProducts(ListProductsRequest.newBuilder().setPageSize(500).build()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+    }
+
+    @Test
+    void testSearchProducts_KeywordMode() {
+        // Given
+        when(productService.searchProductsByKeyword("laptop")).thenReturn(List.of(product(1L), product(2L)));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.searchProducts(SearchProductsRequest.newBuilder()
+                        .setQuery("laptop").setMode(SearchProductsRequest.Mode.KEYWORD).build())
+                .forEachRemaining(product -> ids.add(product.getId()));
+
+        // Then
+        assertEquals(List.of(1L, 2L), ids);
+        verify(productService, never()).searchProductsByName(any());
+    }
+
+    private static ProductResponseDTO product(Long id) {
+        return new ProductResponseDTO(id, "Product " + id, "Description", 100.0);
+    }
+}
@@ -0,0 +1,401 @@
+package com.congdinh.tms.integration;
+
+import com.congdinh.tms.dtos.ProductBatchOperationDTO;
+import com.congdinh.tms.dtos.ProductBatchRequestDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Các integration test của Product API, chạy với từng storage backend:
+ * ProductIntegrationTest (PostgreSQL container) và EmbeddedProductIntegrationTest (profile embedded)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+abstract class AbstractProductIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Clean database before each test
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateAndRetrieveProduct() throws Exception {
+        // Given
+        ProductRequestDTO requestDTO = new ProductRequestDTO(
+            "Integration Test Product", 
+            "This is a test product for integration testing", 
+            299.99
+        );
+
+        // When - Create product
+        String response = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Integration Test Product"))
+                .andExpect(jsonPath("$.description").value("This is a test product for integration testing"))
+                .andExpect(jsonPath("$.price").value(299.99))
+                .andReturn().getResponse().getContentAsString();
+
+        ProductResponseDTO createdProduct = objectMapper.readValue(response, ProductResponseDTO.class);
+
+        // Then - Retrieve the created product
+        mockMvc.perform(get("/api/products/" + createdProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(createdProduct.getId()))
+                .andExpect(jsonPath("$.name").value("Integration Test Product"))
+                .andExpect(jsonPath("$.description").value("This is a test product for integration testing"))
+                .andExpect(jsonPath("$.price").value(299.99));
+    }
+
+    @Test
+    void testGetAllProducts() throws Exception {
+        // Given - Create multiple products
+        ProductRequestDTO product1 = new ProductRequestDTO("Product 1", "Description 1", 100.0);
+        ProductRequestDTO product2 = new ProductRequestDTO("Product 2", "Description 2", 200.0);
+
+        // Create products
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(product1)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(product2)))
+                .andExpect(status().isCreated());
+
+        // When & Then - Get all products
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testUpdateProduct() throws Exception {
+        // Given - Create a product first
+        ProductRequestDTO createRequest = new ProductRequestDTO("Original Product", "Original Description", 150.0);
+        
+        String createResponse = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        ProductResponseDTO createdProduct = objectMapper.readValue(createResponse, ProductResponseDTO.class);
+
+        // When - Update the product
+        ProductRequestDTO updateRequest = new ProductRequestDTO("Updated Product", "Updated Description", 250.0);
+
+        mockMvc.perform(put("/api/products/" + createdProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(createdProduct.getId()))
+                .andExpect(jsonPath("$.name").value("Updated Product"))
+                .andExpect(jsonPath("$.description").value("Updated Description"))
+                .andExpect(jsonPath("$.price").value(250.0));
+    }
+
+    @Test
+    void testDeleteProduct() throws Exception {
+        // Given - Create a product first
+        ProductRequestDTO createRequest = new ProductRequestDTO("Product to Delete", "Will be deleted", 100.0);
+        
+        String createResponse = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        ProductResponseDTO createdProduct = objectMapper.readValue(createResponse, ProductResponseDTO.class);
+
+        // When - Delete the product
+        mockMvc.perform(delete("/api/products/" + createdProduct.getId()))
+                .andExpect(status().isNoContent());
+
+        // Then - Verify product is deleted
+        mockMvc.perform(get("/api/products/" + createdProduct.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSearchProductsByName() throws Exception {
+        // Given - Create products with different names
+        ProductRequestDTO laptop = new ProductRequestDTO("Laptop Dell", "High performance laptop", 1500.0);
+        ProductRequestDTO phone = new ProductRequestDTO("iPhone 15", "Latest smartphone", 1000.0);
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(laptop)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(phone)))
+                .andExpect(status().isCreated());
+
+        // When & Then - Search by name
+        mockMvc.perform(get("/api/products/search")
+                .param("name", "Laptop"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Laptop Dell"));
+    }
+
+    @Test
+    void testFindProductsByPriceRange() throws Exception {
+        // Given - Create products with different prices
+        ProductRequestDTO cheapProduct = new ProductRequestDTO("Cheap Product", "Budget option", 50.0);
+        ProductRequestDTO expensiveProduct = new ProductRequestDTO("Expensive Product", "Premium option", 500.0);
+        ProductRequestDTO midRangeProduct = new ProductRequestDTO("Mid Range Product", "Good value", 150.0);
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cheapProduct)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(expensiveProduct)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(midRangeProduct)))
+                .andExpect(status().isCreated());
+
+        // When & Then - Search by price range
+        mockMvc.perform(get("/api/products/price-range")
+                .param("min", "100.0")
+                .param("max", "200.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Mid Range Product"));
+    }
+
+    @Test
+    void testFindProductsByPriceRangeWithFields() throws Exception {
+        // Given
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequestDTO("Sparse Product", "Not selected", 120.0))))
+                .andExpect(status().isCreated());
+
+        // When & Then - Only the selected fields are returned
+        mockMvc.perform(get("/api/products/price-range")
+                .param("min", "100.0")
+                .param("max", "200.0")
+                .param("fields", "name,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Sparse Product"))
+                .andExpect(jsonPath("$[0].price").value(120.0))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void testQueryProductsWithCursor() throws Exception {
+        // Given - Three matching products and one that is filtered out by price
+        for (ProductRequestDTO product : List.of(
+                new ProductRequestDTO("Query Phone A", "Phone", 300.0),
+                new ProductRequestDTO("Query Phone B", "Phone", 200.0),
+                new ProductRequestDTO("Query Phone C", "Phone", 100.0),
+                new ProductRequestDTO("Query Phone D", "Phone", 10.0))) {
+            mockMvc.perform(post("/api/products")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(product)))
+                    .andExpect(status().isCreated());
+        }
+
+        // When & Then - First page, most expensive first
+        String firstPage = mockMvc.perform(get("/api/products/query")
+                .param("name", "query phone")
+                .param("minPrice", "50")
+                .param("sort", "price,desc")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Query Phone A"))
+                .andExpect(jsonPath("$.products[1].name").value("Query Phone B"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        // When & Then - Second page continues after the cursor and is the last one
+        mockMvc.perform(get("/api/products/query")
+                .param("name", "query phone")
+                .param("minPrice", "50")
+                .param("sort", "price,desc")
+                .param("limit", "2")
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].name").value("Query Phone C"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testCreateProductWithInvalidData() throws Exception {
+        // Given - Invalid product with null name
+        ProductRequestDTO invalidProduct = new ProductRequestDTO(null, "Description", 100.0);
+
+        // When & Then
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalidProduct)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetNonExistentProduct() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetProductsByIds() throws Exception {
+        // Given - Create two products
+        String firstResponse = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequestDTO("Product A", "First", 100.0))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String secondResponse = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequestDTO("Product B", "Second", 200.0))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        Long firstId = objectMapper.readValue(firstResponse, ProductResponseDTO.class).getId();
+        Long secondId = objectMapper.readValue(secondResponse, ProductResponseDTO.class).getId();
+
+        // When & Then - Requested order is kept and missing IDs are reported
+        mockMvc.perform(get("/api/products")
+                .param("ids", secondId + ",999999," + firstId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Product B"))
+                .andExpect(jsonPath("$.products[1].name").value("Product A"))
+                .andExpect(jsonPath("$.missingIds[0]").value(999999));
+    }
+
+    @Test
+    void testExecuteBatch() throws Exception {
+        // Given
+        Long existingId = objectMapper.readValue(mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequestDTO("Existing", "Description", 100.0))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), ProductResponseDTO.class).getId();
+        ProductBatchRequestDTO request = new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.create(new ProductRequestDTO("Batch Created", "Description", 50.0)),
+                ProductBatchOperationDTO.update(existingId, new ProductRequestDTO("Batch Updated", "Description", 150.0))),
+                null);
+
+        // When & Then
+        mockMvc.perform(post("/api/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].product.name").value("Batch Updated"));
+
+        mockMvc.perform(get("/api/products/" + existingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(150.0));
+        mockMvc.perform(get("/api/products/search").param("name", "Batch Created"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    // Feed chỉ trả về thay đổi đã commit: chạy ngoài transaction của test (transaction đó rollback, không bao giờ commit)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testGetChangesSinceToken() throws Exception {
+        // Given - đồng bộ lần đầu trên database rỗng
+        String token = objectMapper.readTree(mockMvc.perform(get("/api/products/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn().getResponse().getContentAsString()).get("nextToken").asText();
+        Long keptId = createProduct(new ProductRequestDTO("Kept", "Description", 10.0));
+        Long deletedId = createProduct(new ProductRequestDTO("Deleted", "Description", 20.0));
+        mockMvc.perform(delete("/api/products/" + deletedId))
+                .andExpect(status().isNoContent());
+
+        // When & Then - chỉ còn product đang tồn tại, product đã xóa nằm trong deletedIds
+        mockMvc.perform(get("/api/products/changes").param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(keptId))
+                .andExpect(jsonPath("$.deletedIds[0]").value(deletedId))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(delete("/api/products/" + keptId))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    // Kết quả cache chỉ bị loại bỏ khi có ghi đã commit: chạy ngoài transaction của test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testMostExpensiveProductsSeeCommittedWrites() throws Exception {
+        // Given - kết quả đầu tiên được đưa vào query cache
+        Long cheapId = createProduct(new ProductRequestDTO("Cheap", "Description", 10.0));
+        assertEquals(List.of(cheapId), productRepository.findMostExpensiveProducts().stream().map(Product::getId).toList());
+
+        // When
+        Long expensiveId = createProduct(new ProductRequestDTO("Expensive", "Description", 99.0));
+
+        // Then
+        assertEquals(List.of(expensiveId), productRepository.findMostExpensiveProducts().stream().map(Product::getId).toList());
+
+        mockMvc.perform(delete("/api/products/" + cheapId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/products/" + expensiveId))
+                .andExpect(status().isNoContent());
+    }
+
+    private Long createProduct(ProductRequestDTO product) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(product)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), ProductResponseDTO.class).getId();
+    }
+}
@@ -0,0 +1,22 @@
+package com.congdinh.tms.integration;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Chạy cùng các integration test của ProductIntegrationTest với profile embedded (không cần Docker/PostgreSQL)
+ */
+@ActiveProfiles({"integration-test", "embedded"})
+class EmbeddedProductIntegrationTest extends AbstractProductIntegrationTest {
+
+    @DynamicPropertySource
+    static void embeddedStore(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("tms-embedded-it").toString();
+        registry.add("tms.embedded.directory", () -> directory);
+        registry.add("tms.embedded.fsync", () -> "false");
+    }
+}
@@ -0,0 +1,304 @@
+package com.congdinh.tms.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FaultInjectingProxy - TCP proxy cục bộ đặt giữa ứng dụng và database để giả lập mạng chậm / không ổn định
+ * Mỗi connection được chuyển tiếp theo hai chiều, mỗi chiều một thread đọc và một thread ghi, nên độ trễ không
+ * làm giảm throughput của connection (dữ liệu đọc được xếp hàng và gửi đi khi tới hạn). Các lỗi có thể bật/tắt
+ * trong lúc đang chạy tải:
+ * - latency: thêm vào mỗi round trip (áp dụng cho chiều database -> ứng dụng)
+ * - bandwidth: giới hạn byte/giây cho mỗi chiều của mỗi connection
+ * - reset: ngắt connection bằng RST (SO_LINGER 0), ngay lập tức hoặc ngẫu nhiên theo xác suất mỗi lần gửi dữ liệu
+ * - refuse: connection mới bị đóng ngay sau khi accept (database "không kết nối được")
+ */
+final class FaultInjectingProxy implements AutoCloseable {
+
+    private static final int CHUNK_BYTES = 16 * 1024;
+    // Chunk rỗng đánh dấu phía gửi đã đóng chiều ghi (EOF)
+    private static final Chunk EOF = new Chunk(new byte[0], 0);
+
+    private final ServerSocket serverSocket;
+    private final String targetHost;
+    private final int targetPort;
+    private final ExecutorService executor;
+    private final Set<Link> links = ConcurrentHashMap.newKeySet();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+
+    private volatile long latencyNanos;
+    private volatile long bytesPerSecond;
+    private volatile double resetProbability;
+    private volatile boolean refuseConnections;
+    private volatile boolean closed;
+
+    private FaultInjectingProxy(ServerSocket serverSocket, String targetHost, int targetPort) {
+        this.serverSocket = serverSocket;
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fault-proxy-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lắng nghe trên một port ngẫu nhiên của loopback và chuyển tiếp tới targetHost:targetPort
+     */
+    static FaultInjectingProxy start(String targetHost, int targetPort) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        FaultInjectingProxy proxy = new FaultInjectingProxy(serverSocket, targetHost, targetPort);
+        proxy.executor.execute(proxy::acceptLoop);
+        return proxy;
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void setLatency(Duration latency) {
+        this.latencyNanos = latency.toNanos();
+    }
+
+    // 0 = không giới hạn
+    void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    void setResetProbability(double resetProbability) {
+        this.resetProbability = resetProbability;
+    }
+
+    void setRefuseConnections(boolean refuseConnections) {
+        this.refuseConnections = refuseConnections;
+    }
+
+    void clearFaults() {
+        latencyNanos = 0;
+        bytesPerSecond = 0;
+        resetProbability = 0;
+        refuseConnections = false;
+    }
+
+    /**
+     * Ngắt mọi connection đang mở, trả về số connection bị ngắt
+     */
+    int resetConnections() {
+        int count = 0;
+        for (Link link : links) {
+            if (link.reset()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getOpenConnections() {
+        return links.size();
+    }
+
+    long getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    long getResets() {
+        return resets.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            // Đang đóng
+        }
+        resetConnections();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException ex) {
+                return;
+            }
+            acceptedConnections.incrementAndGet();
+            if (refuseConnections) {
+                abort(client);
+                continue;
+            }
+            try {
+                Socket upstream = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                Link link = new Link(client, upstream);
+                links.add(link);
+                link.start();
+            } catch (IOException ex) {
+                abort(client);
+            }
+        }
+    }
+
+    private static void abort(Socket socket) {
+        try {
+            socket.setSoLinger(true, 0);
+            socket.close();
+        } catch (IOException ex) {
+            // Socket đã đóng
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private record Chunk(byte[] data, long deliverAtNanos) {
+    }
+
+    /**
+     * Một connection được proxy: client (ứng dụng) <-> upstream (database)
+     */
+    private final class Link {
+
+        private final Socket client;
+        private final Socket upstream;
+        private final AtomicInteger openDirections = new AtomicInteger(2);
+        private volatile boolean done;
+
+        private Link(Socket client, Socket upstream) {
+            this.client = client;
+            this.upstream = upstream;
+        }
+
+        private void start() throws IOException {
+            pipe(client.getInputStream(), upstream, false);
+            pipe(upstream.getInputStream(), client, true);
+        }
+
+        private void pipe(InputStream in, Socket target, boolean delayed) throws IOException {
+            OutputStream out = target.getOutputStream();
+            BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+            executor.execute(() -> read(in, queue, delayed));
+            executor.execute(() -> write(queue, out, target));
+        }
+
+        private void read(InputStream in, BlockingQueue<Chunk> queue, boolean delayed) {
+            byte[] buffer = new byte[CHUNK_BYTES];
+            try {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    long deliverAt = System.nanoTime() + (delayed ? latencyNanos : 0);
+                    queue.add(new Chunk(Arrays.copyOf(buffer, read), deliverAt));
+                }
+            } catch (IOException ex) {
+                // Socket bị đóng hoặc bị reset: phía ghi sẽ dừng khi gặp EOF
+            }
+            queue.add(EOF);
+        }
+
+        private void write(BlockingQueue<Chunk> queue, OutputStream out, Socket target) {
+            long nextFreeNanos = System.nanoTime();
+            try {
+                while (!done) {
+                    Chunk chunk = queue.take();
+                    if (chunk == EOF) {
+                        target.shutdownOutput();
+                        break;
+                    }
+                    sleepUntil(chunk.deliverAtNanos());
+                    double probability = resetProbability;
+                    if (probability > 0 && ThreadLocalRandom.current().nextDouble() < probability) {
+                        reset();
+                        return;
+                    }
+                    nextFreeNanos = send(chunk.data(), out, nextFreeNanos);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ex) {
+                reset();
+                return;
+            }
+            if (openDirections.decrementAndGet() == 0) {
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Gửi theo từng lát ~20 ms dữ liệu khi bị giới hạn băng thông, trả về thời điểm được gửi tiếp
+         */
+        private long send(byte[] data, OutputStream out, long nextFreeNanos) throws IOException {
+            long limit = bytesPerSecond;
+            if (limit <= 0) {
+                out.write(data);
+                out.flush();
+                return System.nanoTime();
+            }
+            int slice = (int) Math.max(1, Math.min(CHUNK_BYTES, limit / 50));
+            for (int offset = 0; offset < data.length; offset += slice) {
+                int length = Math.min(slice, data.length - offset);
+                sleepUntil(nextFreeNanos);
+                out.write(data, offset, length);
+                out.flush();
+                nextFreeNanos = Math.max(nextFreeNanos, System.nanoTime()) + length * 1_000_000_000L / limit;
+            }
+            return nextFreeNanos;
+        }
+
+        private boolean reset() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            links.remove(this);
+            resets.incrementAndGet();
+            abort(client);
+            abort(upstream);
+            return true;
+        }
+
+        private void closeQuietly() {
+            done = true;
+            links.remove(this);
+            close(client);
+            close(upstream);
+        }
+
+        private static void close(Socket socket) {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                // Đã đóng
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.congdinh.tms.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho FaultInjectingProxy với một echo server cục bộ (không cần Docker)
+ */
+class FaultInjectingProxyTest {
+
+    private ServerSocket echoServer;
+    private ExecutorService executor;
+    private FaultInjectingProxy proxy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        echoServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool();
+        executor.execute(this::echo);
+        proxy = FaultInjectingProxy.start(InetAddress.getLoopbackAddress().getHostAddress(), echoServer.getLocalPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        proxy.close();
+        echoServer.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testForwardsBothDirections() throws IOException {
+        try (Socket socket = connect()) {
+            assertArrayEquals("ping".getBytes(), roundTrip(socket, "ping".getBytes()));
+        }
+        assertEquals(1, proxy.getAcceptedConnections());
+    }
+
+    @Test
+    void testLatency_AddedToEachRoundTrip() throws IOException {
+        // Given
+        proxy.setLatency(Duration.ofMillis(200));
+
+        try (Socket socket = connect()) {
+            // When
+            long start = System.nanoTime();
+            roundTrip(socket, "a".getBytes());
+            roundTrip(socket, "b".getBytes());
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            assertTrue(elapsedMillis >= 400, "elapsed " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void testBandwidth_LimitsBytesPerSecond() throws IOException {
+        // Given - 200 KB/s, 100 KB đi qua proxy hai lần (tới echo server và quay về)
+        proxy.setBandwidth(200 * 1024);
+        byte[] payload = new byte[100 * 1024];
+
+        try (Socket socket = connect()) {
+            // When
+            long start = System.nanoTime();
+            assertArrayEquals(payload, roundTrip(socket, payload));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then - mỗi chiều ít nhất ~0.5 giây, hai chiều chạy chồng lên nhau
+            assertTrue(elapsedMillis >= 450, "elapsed " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void testReset_BreaksOpenConnectionsAndRefuseRejectsNewOnes() throws Exception {
+        try (Socket socket = connect()) {
+            roundTrip(socket, "ping".getBytes());
+            awaitOpenConnections(1);
+
+            // When
+            assertEquals(1, proxy.resetConnections());
+
+            // Then
+            assertThrows(IOException.class, () -> {
+                socket.getOutputStream().write("after reset".getBytes());
+                socket.getOutputStream().flush();
+                assertEquals(-1, socket.getInputStream().read());
+            });
+        }
+
+        proxy.setRefuseConnections(true);
+        try (Socket socket = connect()) {
+            assertThrows(IOException.class, () -> {
+                socket.getOutputStream().write("refused".getBytes());
+                assertEquals(-1, socket.getInputStream().read());
+            });
+        }
+        assertEquals(1, proxy.getResets());
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), proxy.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static byte[] roundTrip(Socket socket, byte[] payload) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(payload);
+        out.flush();
+        byte[] response = new byte[payload.length];
+        new DataInputStream(socket.getInputStream()).readFully(response);
+        return response;
+    }
+
+    private void awaitOpenConnections(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (proxy.getOpenConnections() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, proxy.getOpenConnections());
+    }
+
+    private void echo() {
+        while (!echoServer.isClosed()) {
+            try {
+                Socket socket = echoServer.accept();
+                executor.execute(() -> {
+                    try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+                        in.transferTo(out);
+                    } catch (IOException ex) {
+                        // Client đã đóng connection
+                    }
+                });
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.congdinh.tms.integration;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadScenario - Tạo tải vòng kín (closed loop): mỗi user ảo gửi request tiếp theo ngay khi nhận được response
+ * Request lỗi là request ném exception (timeout, connection bị đóng) hoặc trả về status 5xx
+ */
+final class LoadScenario {
+
+    /**
+     * Một request của user ảo, trả về HTTP status
+     */
+    @FunctionalInterface
+    interface Request {
+        int execute(int user, long iteration) throws Exception;
+    }
+
+    /**
+     * Kết quả của một lần chạy; độ trễ tính cả request lỗi
+     */
+    record Result(String name, long requests, long errors, Duration elapsed, Histogram latencies) {
+
+        double throughput() {
+            return requests * 1_000_000_000.0 / elapsed.toNanos();
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        double p50Millis() {
+            return latencies.getValueAtPercentile(50) / 1_000_000.0;
+        }
+
+        double p99Millis() {
+            return latencies.getValueAtPercentile(99) / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return latencies.getMaxValue() / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d requests, %.1f req/s, lỗi %.2f%%, p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+                    name, requests, throughput(), errorRate() * 100, p50Millis(), p99Millis(), maxMillis());
+        }
+    }
+
+    private LoadScenario() {
+    }
+
+    /**
+     * Chạy users user ảo song song trong khoảng duration
+     * during (có thể null) được gọi trên thread hiện tại sau khi tải bắt đầu, ví dụ để bật lỗi giữa chừng
+     */
+    static Result run(String name, int users, Duration duration, Request request, Runnable during) throws Exception {
+        // Độ trễ tối đa ghi nhận được 10 phút, 3 chữ số có nghĩa
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(10), 3);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                int userId = user;
+                futures.add(executor.submit(() -> {
+                    for (long iteration = 0; System.nanoTime() < deadline; iteration++) {
+                        long sent = System.nanoTime();
+                        boolean failed;
+                        try {
+                            failed = request.execute(userId, iteration) >= 500;
+                        } catch (Exception ex) {
+                            failed = true;
+                        }
+                        latencies.recordValue(Math.min(System.nanoTime() - sent, latencies.getHighestTrackableValue()));
+                        requests.incrementAndGet();
+                        if (failed) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            if (during != null) {
+                during.run();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(name, requests.get(), errors.get(), Duration.ofNanos(System.nanoTime() - start), latencies);
+    }
+}
@@ -0,0 +1,189 @@
+package com.congdinh.tms.integration;
+
+import com.congdinh.tms.TmsApplication;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductInvalidationListener;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.services.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test cho cross-node cache invalidation qua Postgres LISTEN/NOTIFY
+ * Chạy hai application context (hai "node") dùng chung một PostgreSQL container:
+ * ghi trên node A, kiểm tra node B không còn trả dữ liệu cũ từ cache cục bộ
+ */
+@Testcontainers
+class ProductClusterInvalidationIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitTrue(() -> nodeA.getBean(ProductInvalidationListener.class).isConnected()
+                && nodeB.getBean(ProductInvalidationListener.class).isConnected());
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void testUpdateOnOneNode_EvictsCachesOnOtherNode() {
+        // Given - node B đã cache product (second-level cache) và kết quả tìm kiếm (search cache)
+        String oldName = uniqueName("Old");
+        String newName = uniqueName("New");
+        Long id = service(nodeA).createProduct(new ProductRequestDTO(oldName, "Description", 100.0)).getId();
+        awaitTrue(() -> service(nodeB).searchProductsByName(oldName).size() == 1);
+        assertEquals(oldName, service(nodeB).getProductById(id).getName());
+
+        // When
+        service(nodeA).updateProduct(id, new ProductRequestDTO(newName, "Description", 200.0));
+
+        // Then
+        awaitTrue(() -> newName.equals(service(nodeB).getProductById(id).getName()));
+        awaitTrue(() -> service(nodeB).searchProductsByName(oldName).isEmpty());
+        assertEquals(1, service(nodeB).searchProductsByName(newName).size());
+    }
+
+    @Test
+    void testDeleteOnOneNode_EvictsCachesOnOtherNode() {
+        // Given
+        String name = uniqueName("Deleted");
+        Long id = service(nodeA).createProduct(new ProductRequestDTO(name, "Description", 100.0)).getId();
+        awaitTrue(() -> name.equals(service(nodeB).getProductById(id).getName()));
+
+        // When
+        service(nodeA).deleteProduct(id);
+
+        // Then
+        awaitTrue(() -> {
+            try {
+                service(nodeB).getProductById(id);
+                return false;
+            } catch (ResourceNotFoundException ex) {
+                return true;
+            }
+        });
+        assertTrue(service(nodeB).searchProductsByName(name).isEmpty());
+    }
+
+    @Test
+    void testListenerReconnects_AndFlushesAfterMissedMessages() {
+        // Given - node B đã cache product
+        String oldName = uniqueName("Before");
+        String newName = uniqueName("After");
+        Long id = service(nodeA).createProduct(new ProductRequestDTO(oldName, "Description", 100.0)).getId();
+        awaitTrue(() -> oldName.equals(service(nodeB).getProductById(id).getName()));
+        double flushesBefore = flushes(nodeB);
+
+        // When - ngắt connection LISTEN của mọi node rồi ghi trong lúc chúng đang kết nối lại
+        nodeA.getBean(JdbcTemplate.class).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+                ProductInvalidationListener.APPLICATION_NAME);
+        service(nodeA).updateProduct(id, new ProductRequestDTO(newName, "Description", 200.0));
+
+        // Then - node B kết nối lại, xóa toàn bộ cache và đọc được dữ liệu mới
+        awaitTrue(() -> flushes(nodeB) > flushesBefore && nodeB.getBean(ProductInvalidationListener.class).isConnected());
+        ProductResponseDTO product = service(nodeB).getProductById(id);
+        assertEquals(newName, product.getName());
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        CacheManager cacheManager = newCacheManager();
+        return new SpringApplicationBuilder(TmsApplication.class)
+                .profiles("integration-test")
+                // Mỗi node một CacheManager riêng, nếu không hai context trong cùng JVM sẽ dùng chung second-level cache
+                .initializers(context -> context.getBeanFactory().registerSingleton("nodeCacheManagerCustomizer",
+                        (HibernatePropertiesCustomizer) properties ->
+                                properties.put(ConfigSettings.CACHE_MANAGER, cacheManager)))
+                // Truyền dạng command-line args: default properties của builder bị application.properties ghi đè
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--server.port=0",
+                        // Hai node dùng chung schema: không drop bảng khi một node tắt
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--tms.product.search-cache.enabled=true",
+                        "--tms.product.cluster-invalidation.enabled=true",
+                        "--tms.product.cluster-invalidation.poll-timeout-ms=200",
+                        "--tms.product.cluster-invalidation.reconnect-delay-ms=500");
+    }
+
+    private static CacheManager newCacheManager() {
+        // JCache provider trả về cùng CacheManager cho cùng cặp (URI, ClassLoader) - dùng ClassLoader riêng cho mỗi node
+        ClassLoader parent = ProductClusterInvalidationIntegrationTest.class.getClassLoader();
+        try {
+            return Caching.getCachingProvider().getCacheManager(parent.getResource("ehcache.xml").toURI(),
+                    new URLClassLoader(new URL[0], parent));
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static ProductService service(ConfigurableApplicationContext node) {
+        return node.getBean(ProductService.class);
+    }
+
+    private static double flushes(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).counter("tms.product.cluster_invalidation.flushes").count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Điều kiện không thành công sau " + TIMEOUT.toSeconds() + " giây");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail("Bị interrupt khi đang chờ");
+            }
+        }
+    }
+
+    private static String uniqueName(String prefix) {
+        return prefix + " " + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,110 @@
+package com.congdinh.tms.integration;
+
+import com.congdinh.tms.config.ProductPartitionManager;
+import com.congdinh.tms.dtos.ProductPartitionDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration Test cho bảng products đã partition theo dải giá (PostgreSQL thật qua Testcontainers)
+ */
+@SpringBootTest(properties = {
+        "tms.product.partitioning.enabled=true",
+        "tms.product.partitioning.strategy=PRICE_RANGE",
+        "tms.product.partitioning.price-bounds=1000000,5000000,10000000,20000000,50000000"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("integration-test")
+class ProductPartitioningIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductPartitionManager partitionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testTableIsPartitionedOnStartup() {
+        // When
+        List<ProductPartitionDTO> partitions = partitionManager.listPartitions();
+
+        // Then - dữ liệu mẫu được copy sang bảng partition
+        assertTrue(partitionManager.isPartitioned());
+        assertTrue(partitions.size() >= 6);
+        assertTrue(partitions.stream().anyMatch(partition -> partition.getName().equals("products_p_50000000_max")));
+        assertTrue(productRepository.count() >= 5);
+    }
+
+    @Test
+    void testPriceRangeQuery_UsesPartitionPruning() throws Exception {
+        // Given - id mới lấy từ sequence thay cho identity column
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequestDTO("Chuột không dây", "Description", 2000000.0))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber());
+
+        // When & Then
+        mockMvc.perform(get("/api/products/price-range").param("min", "1500000").param("max", "3000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Chuột không dây')]").exists());
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT id FROM products WHERE price BETWEEN 1500000 AND 3000000", String.class));
+        assertTrue(plan.contains("products_p_1000000_"), plan);
+        assertFalse(plan.contains("products_p_min_1000000"), plan);
+        assertFalse(plan.contains("products_p_20000000_50000000"), plan);
+    }
+
+    @Test
+    void testSplitPriceRange_KeepsRows() {
+        // Given
+        long before = productRepository.count();
+
+        // When
+        List<ProductPartitionDTO> partitions = partitionManager.splitPriceRange(30000000);
+
+        // Then
+        List<String> names = partitions.stream().map(ProductPartitionDTO::getName).toList();
+        assertTrue(names.contains("products_p_20000000_30000000"), names.toString());
+        assertTrue(names.contains("products_p_30000000_50000000"), names.toString());
+        assertFalse(names.contains("products_p_20000000_50000000"), names.toString());
+        assertEquals(before, productRepository.count());
+        assertThrows(IllegalArgumentException.class, () -> partitionManager.splitPriceRange(30000000));
+    }
+}
@@ -0,0 +1,303 @@
+package com.congdinh.tms.integration;
+
+import com.congdinh.tms.config.WorkloadRoutingDataSource;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.services.WorkloadLane;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kiểm tra ProductController/ProductService và cấu hình Hikari khi database chậm hoặc không ổn định
+ * Ứng dụng kết nối tới PostgreSQL container qua FaultInjectingProxy; mỗi test chạy tải thật qua HTTP
+ * (LoadScenario), bật lỗi trên proxy và kiểm tra throughput, p99 và tỷ lệ lỗi.
+ * Các lane giữ nguyên kích thước của application.properties; connection-timeout được rút xuống 2 giây và queue-timeout
+ * của lane search xuống 1 giây để kịch bản pool cạn chạy nhanh - các ngưỡng được tính từ các giá trị này.
+ * getById đi qua lane point-read và có thể qua ProductBatchLoader (một connection cho cả batch, khi bật), nên các
+ * kịch bản về pool dùng pooledRead (lane search): mỗi request giữ riêng một connection cho một câu SELECT.
+ * Chạy: make test-resilience (cần Docker)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.connection-timeout=2000",
+        "spring.datasource.hikari.validation-timeout=1000",
+        "tms.workload.search.queue-timeout-ms=1000",
+        // Đo đường đi tới database: second-level/query cache và LISTEN/NOTIFY sẽ che mất lỗi được bơm vào
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "tms.product.cluster-invalidation.enabled=false",
+        // Log mỗi câu SQL ra stdout sẽ trở thành nút thắt dưới tải
+        "spring.jpa.show-sql=false",
+        "logging.level.com.congdinh.tms=INFO"
+})
+@Testcontainers
+@ActiveProfiles("integration-test")
+class ProductResilienceIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductResilienceIntegrationTest.class);
+
+    private static final int PRODUCTS = 200;
+    private static final Duration ADDED_LATENCY = Duration.ofMillis(200);
+    private static final Duration LOAD_DURATION = Duration.ofSeconds(6);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static FaultInjectingProxy proxy;
+
+    @DynamicPropertySource
+    static void routeThroughProxy(DynamicPropertyRegistry registry) {
+        try {
+            proxy = FaultInjectingProxy.start(postgres.getHost(), postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        registry.add("spring.datasource.url", () -> "jdbc:postgresql://127.0.0.1:" + proxy.getPort() + "/testdb");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Pool của lane search (pooledRead); bean dataSource có thể là proxy (đo thời gian query) nên đọc qua unwrap
+    private HikariDataSource dataSource;
+
+    @Value("${tms.workload.search.queue-timeout-ms}")
+    private long queueTimeoutMillis;
+
+    @Autowired
+    void setDataSource(DataSource dataSource) throws SQLException {
+        this.dataSource = dataSource.unwrap(WorkloadRoutingDataSource.class).getPool(WorkloadLane.SEARCH);
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        proxy.clearFaults();
+        if (productRepository.count() < PRODUCTS) {
+            List<Product> products = new ArrayList<>();
+            for (int i = productRepository.findAll().size(); i < PRODUCTS; i++) {
+                products.add(new Product("Product " + i, "Mô tả của product " + i + " ".repeat(i % 100), 1000.0 + i));
+            }
+            productRepository.saveAll(products);
+        }
+        productRepository.findAll().forEach(product -> productIds.add(product.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.clearFaults();
+    }
+
+    @AfterAll
+    static void stopProxy() {
+        proxy.close();
+    }
+
+    @Test
+    void testBaseline_NoFaults() throws Exception {
+        // When - 90% đọc theo id, 10% tạo mới
+        LoadScenario.Result result = LoadScenario.run("baseline", 20, LOAD_DURATION, this::mixedRequest, null);
+
+        // Then
+        log.info("{}", result);
+        assertEquals(0, result.errors(), result::toString);
+        assertTrue(result.p99Millis() < dataSource.getConnectionTimeout(), result::toString);
+        assertTrue(result.throughput() > 20, result::toString);
+    }
+
+    @Test
+    void testAddedLatency_RequestsSlowDownButDoNotFail() throws Exception {
+        // Given - mỗi round trip tới database chậm thêm 200 ms, số user bằng kích thước pool (không phải chờ connection)
+        proxy.setLatency(ADDED_LATENCY);
+        int users = dataSource.getMaximumPoolSize();
+
+        // When
+        LoadScenario.Result result = LoadScenario.run("latency-200ms", users, LOAD_DURATION, this::pooledRead, null);
+
+        // Then - độ trễ tăng theo latency nhưng không request nào vượt connection-timeout hay lỗi
+        log.info("{}", result);
+        assertEquals(0, result.errors(), result::toString);
+        assertTrue(result.p50Millis() >= ADDED_LATENCY.toMillis(), result::toString);
+        assertTrue(result.p99Millis() < dataSource.getConnectionTimeout(), result::toString);
+    }
+
+    @Test
+    void testSaturatedPool_WaitsAreBoundedByConnectionTimeout() throws Exception {
+        // Given - 4 lần số connection, mỗi request giữ connection ít nhất 200 ms
+        proxy.setLatency(ADDED_LATENCY);
+        int poolSize = dataSource.getMaximumPoolSize();
+
+        // When
+        LoadScenario.Result result = LoadScenario.run("saturated-pool", poolSize * 4, LOAD_DURATION, this::pooledRead, null);
+
+        // Then - throughput bị giới hạn bởi pool (mỗi connection tối đa 1 request / 200 ms)
+        // và không request nào chờ lâu hơn queue-timeout + connection-timeout (lỗi nhanh thay vì treo)
+        log.info("{}", result);
+        assertTrue(result.throughput() <= poolSize * 1000.0 / ADDED_LATENCY.toMillis(), result::toString);
+        assertTrue(result.maxMillis() < queueTimeoutMillis + dataSource.getConnectionTimeout() + 3 * 1000, result::toString);
+        assertTrue(result.requests() > 0, result::toString);
+
+        // Khi hết lỗi, pool phục vụ lại bình thường
+        assertRecovered();
+    }
+
+    @Test
+    void testConnectionResets_FewRequestsFailAndPoolRecovers() throws Exception {
+        // When - ngắt mọi connection database mỗi giây trong lúc chạy tải
+        int users = 20;
+        LoadScenario.Result result = LoadScenario.run("connection-resets", users, LOAD_DURATION, this::mixedRequest,
+                () -> {
+                    for (int i = 0; i < LOAD_DURATION.toSeconds() - 1; i++) {
+                        sleep(Duration.ofSeconds(1));
+                        proxy.resetConnections();
+                    }
+                });
+
+        // Then - chỉ các request đang dùng connection bị ngắt mới lỗi (khi ProductBatchLoader bật, một batch có
+        // thể chứa request của mọi user), Hikari bỏ connection hỏng và mở connection mới
+        log.info("{} (proxy đã ngắt {} connection)", result, proxy.getResets());
+        assertTrue(proxy.getResets() > 0);
+        assertTrue(result.errors() <= proxy.getResets() * users, result::toString);
+        assertTrue(result.errorRate() < 0.5, result::toString);
+        assertTrue(result.p99Millis() < dataSource.getConnectionTimeout(), result::toString);
+        assertRecovered();
+    }
+
+    @Test
+    void testDatabaseUnreachable_FailsFastAndRecovers() throws Exception {
+        // When - database không nhận connection mới và mọi connection đang mở bị ngắt
+        LoadScenario.Result result = LoadScenario.run("database-unreachable", 20, Duration.ofSeconds(4), this::pooledRead,
+                () -> {
+                    proxy.setRefuseConnections(true);
+                    proxy.resetConnections();
+                });
+
+        // Then - request lỗi trong giới hạn queue-timeout + connection-timeout, không treo
+        log.info("{}", result);
+        assertTrue(result.errors() > 0, result::toString);
+        assertTrue(result.maxMillis() < queueTimeoutMillis + dataSource.getConnectionTimeout() + 3 * 1000, result::toString);
+
+        proxy.setRefuseConnections(false);
+        assertRecovered();
+    }
+
+    @Test
+    void testLimitedBandwidth_LargeListsSlowDownWithoutErrors() throws Exception {
+        // Given - 256 KB/s mỗi chiều của mỗi connection
+        proxy.setBandwidth(256 * 1024);
+
+        // When - xen kẽ danh sách 200 product ban đầu (vài chục KB) và đọc theo id
+        LoadScenario.Result result = LoadScenario.run("bandwidth-256KB/s", 10, LOAD_DURATION,
+                (user, iteration) -> iteration % 5 == 0
+                        ? get("/api/products/price-range?min=1000&max=" + (1000 + PRODUCTS))
+                        : getById(user, iteration), null);
+
+        // Then
+        log.info("{}", result);
+        assertEquals(0, result.errors(), result::toString);
+        assertTrue(result.p99Millis() < dataSource.getConnectionTimeout(), result::toString);
+    }
+
+    /**
+     * Sau khi bỏ lỗi: pool mở lại được connection trong vài lần connection-timeout (Hikari thử lại với backoff),
+     * sau đó 3 giây tải bình thường không có request lỗi
+     */
+    private void assertRecovered() throws Exception {
+        proxy.clearFaults();
+        long deadline = System.nanoTime() + Duration.ofMillis(dataSource.getConnectionTimeout() * 5).toNanos();
+        while (getById(0, 0) != 200) {
+            assertTrue(System.nanoTime() < deadline, "pool không phục hồi sau khi bỏ lỗi");
+            sleep(Duration.ofMillis(100));
+        }
+        LoadScenario.Result recovery = LoadScenario.run("recovery", 10, Duration.ofSeconds(3), this::getById, null);
+        log.info("{}", recovery);
+        assertEquals(0, recovery.errors(), recovery::toString);
+    }
+
+    private int mixedRequest(int user, long iteration) throws Exception {
+        if (iteration % 10 == 9) {
+            HttpRequest request = HttpRequest.newBuilder(uri("/api/products"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"name\":\"Load " + user + "-" + iteration + "\",\"description\":\"Tải\",\"price\":10.5}"))
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+        return getById(user, iteration);
+    }
+
+    private int getById(int user, long iteration) throws Exception {
+        long id = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+        return get("/api/products/" + id);
+    }
+
+    /**
+     * Đọc một product qua price-range với projection (không có description lazy): một câu SELECT trên
+     * connection riêng của request, không qua ProductBatchLoader
+     */
+    private int pooledRead(int user, long iteration) throws Exception {
+        int price = 1000 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+        return get("/api/products/price-range?min=" + price + "&max=" + price + "&fields=id,name,price");
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.entities.ProductTombstone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho các repository của profile embedded: kết quả phải giống các câu truy vấn JPA tương ứng
+ */
+class EmbeddedProductRepositoryTest {
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedProductStore store;
+    private EmbeddedProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmbeddedProductStore(directory, false, 1000, Long.MAX_VALUE, 0);
+        productRepository = new EmbeddedProductRepository(store);
+        productRepository.save(new Product("Laptop Dell", "Laptop mỏng nhẹ", 25999000.0));
+        productRepository.save(new Product("iPhone 15 Pro", "Điện thoại Apple", 28999000.0));
+        productRepository.save(new Product("Laptop Lenovo", null, 15999000.0));
+        productRepository.save(new Product("Bàn phím cơ", "Phụ kiện laptop", 15999000.0));
+        productRepository.save(new Product("MacBook Air", "Laptop Apple", 28999000.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testDerivedQueries_MatchJpaSemantics() {
+        // Then - tên không phân biệt hoa thường, keyword phân biệt hoa thường và bỏ qua mô tả null
+        assertEquals(List.of(1L, 3L), ids(productRepository.findByNameContainingIgnoreCase("LAPTOP")));
+        assertEquals(List.of(1L, 3L, 4L, 5L), ids(productRepository.searchByKeyword("aptop")));
+        assertEquals(List.of(2L, 5L), ids(productRepository.searchByKeyword("Apple")));
+        // Khoảng giá bao gồm hai đầu mút; lớn hơn là so sánh chặt
+        assertEquals(List.of(3L, 4L, 1L), ids(productRepository.findByPriceBetween(15999000.0, 25999000.0)));
+        assertEquals(List.of(2L, 5L), ids(productRepository.findByPriceGreaterThan(25999000.0)));
+        assertEquals(List.of(2L, 5L), ids(productRepository.findMostExpensiveProducts()));
+        assertEquals(5, productRepository.count());
+    }
+
+    @Test
+    void testFindProjected_SortsByIndexAndAppliesLimit() {
+        // When - thứ tự (price desc, id desc) đi theo index giá, keyset sau (28999000, 5)
+        List<ProductResponseDTO> page = productRepository.findProjected(
+                ProductSpecifications.priceAtLeast(15999000.0)
+                        .and(ProductSpecifications.after("price", false, 28999000.0, 5L)),
+                EnumSet.of(ProductField.ID, ProductField.PRICE),
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id")), 3);
+
+        // Then - chỉ các trường được chọn
+        assertEquals(List.of(2L, 1L, 4L), page.stream().map(ProductResponseDTO::getId).toList());
+        assertNull(page.get(0).getName());
+        assertEquals(28999000.0, page.get(0).getPrice());
+        assertEquals(List.of(1L, 3L), productRepository.findProjected(
+                ProductSpecifications.idIn(List.of(3L, 1L, 99L)), EnumSet.of(ProductField.ID)).stream()
+                .map(ProductResponseDTO::getId).toList());
+        assertEquals(2, productRepository.countMatching(ProductSpecifications.nameContainsIgnoreCase("laptop")));
+    }
+
+    @Test
+    void testChangeFeed_ReadsRowsAndTombstonesAfterPosition() {
+        // Given
+        EmbeddedProductTombstoneRepository tombstoneRepository = new EmbeddedProductTombstoneRepository(store);
+        EmbeddedProductChangeSequence changeSequence = new EmbeddedProductChangeSequence(store);
+        TransactionTemplate transaction = new TransactionTemplate(new EmbeddedTransactionManager(store));
+        transaction.executeWithoutResult(status -> {
+            assertEquals(1, changeSequence.currentTransactionSeq());
+            assertEquals(2, productRepository.adjustPrices(List.of(1L, 3L), 1.1, -0.004, 1));
+            productRepository.deleteById(4L);
+            tombstoneRepository.save(new ProductTombstone(4L, 1));
+        });
+
+        // Then
+        assertEquals(1, changeSequence.committedHorizon());
+        assertEquals(28598900.0, productRepository.findById(1L).orElseThrow().getPrice());
+        List<ProductChangeRow> changes = productRepository.findChangedAfter(0, 2, 1, Limit.of(10));
+        assertEquals(List.of(5L, 1L, 3L), changes.stream().map(ProductChangeRow::id).toList());
+        assertEquals(List.of(4L), tombstoneRepository.findChangedAfter(0, 0, 1, Limit.of(10)).stream()
+                .map(ProductTombstone::getProductId).toList());
+        assertTrue(tombstoneRepository.findChangedAfter(1, 4, 1, Limit.of(10)).isEmpty());
+        assertEquals(List.of(3L, 5L), productRepository.findPageAfter(2, Limit.of(2)).stream()
+                .map(ProductResponseDTO::getId).toList());
+        // Dọn tombstone theo thời điểm xóa
+        assertEquals(0, tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minusDays(1)));
+        assertEquals(1, tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().plusSeconds(1)));
+        assertTrue(tombstoneRepository.findAll().isEmpty());
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.repositories.EmbeddedProductStore.Index;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Row;
+import com.congdinh.tms.repositories.EmbeddedProductStore.Tombstone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho EmbeddedProductStore: transaction (bản nháp, rollback), duyệt index và khôi phục từ journal/snapshot
+ * Snapshot định kỳ bị tắt (interval 0) để test tự quyết định lúc ghi snapshot
+ */
+class EmbeddedProductStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedProductStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private EmbeddedProductStore open(long snapshotJournalBytes) {
+        return new EmbeddedProductStore(directory, false, 1000, snapshotJournalBytes, 0);
+    }
+
+    @Test
+    void testTransaction_ChangesVisibleOnlyToOwnerUntilCommit() {
+        // Given
+        store = open(Long.MAX_VALUE);
+        TransactionTemplate transaction = new TransactionTemplate(new EmbeddedTransactionManager(store));
+
+        // When / Then - bên trong transaction thấy dòng vừa thêm, thread khác thì chưa
+        Row inserted = transaction.execute(status -> {
+            Row row = store.insert("Laptop", "Mô tả", 1000.0, 1);
+            assertEquals(row, store.get(row.id()));
+            assertEquals(1, store.count());
+            assertNull(CompletableFuture.supplyAsync(() -> store.get(row.id())).join());
+            return row;
+        });
+        assertEquals(inserted, store.get(inserted.id()));
+
+        // When - rollback
+        transaction.executeWithoutResult(status -> {
+            store.delete(inserted.id());
+            assertNull(store.get(inserted.id()));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertEquals(inserted, store.get(inserted.id()));
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    void testScan_UsesIndexOrderAndMergesUncommittedRows() {
+        // Given
+        store = open(Long.MAX_VALUE);
+        store.insert("C", null, 300.0, 1);
+        store.insert("A", null, 100.0, 1);
+        store.insert("B", null, 200.0, 1);
+        TransactionTemplate transaction = new TransactionTemplate(new EmbeddedTransactionManager(store));
+
+        // When
+        List<Row> byPriceDesc = transaction.execute(status -> {
+            store.insert("D", null, 250.0, 2);
+            return store.scan(Index.PRICE, null, null, false, null, 3);
+        });
+        List<Row> byName = store.scan(Index.NAME, null, null, true, row -> row.price() >= 200.0, 0);
+
+        // Then
+        assertEquals(List.of(300.0, 250.0, 200.0), byPriceDesc.stream().map(Row::price).toList());
+        assertEquals(List.of("B", "C", "D"), byName.stream().map(Row::name).toList());
+    }
+
+    @Test
+    void testRecovery_ReplaysJournalAfterCrash() {
+        // Given - không close: mô phỏng tiến trình bị kill, chưa có snapshot nào
+        EmbeddedProductStore crashed = open(Long.MAX_VALUE);
+        Row kept = crashed.insert("Laptop", "Mô tả tiếng Việt", 1000.0, 1);
+        Row removed = crashed.insert("Phone", null, 500.0, 2);
+        crashed.put(new Row(kept.id(), "Laptop mới", null, 1200.0, 3));
+        crashed.delete(removed.id());
+        crashed.putTombstone(new Tombstone(removed.id(), 3, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6)));
+        crashed.setCounter(3);
+
+        // When
+        store = open(Long.MAX_VALUE);
+
+        // Then
+        assertEquals(new Row(kept.id(), "Laptop mới", null, 1200.0, 3), store.get(kept.id()));
+        assertNull(store.get(removed.id()));
+        assertEquals(new Tombstone(removed.id(), 3, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6)),
+                store.getTombstone(removed.id()));
+        assertEquals(3, store.counter());
+        // ID không được cấp lại kể cả khi product có id lớn nhất đã bị xóa
+        assertEquals(removed.id() + 1, store.insert("Tablet", null, 1.0, 4).id());
+    }
+
+    @Test
+    void testRecovery_TruncatesTornCommitAtJournalTail() throws IOException {
+        // Given - commit cuối chỉ ghi được một phần
+        EmbeddedProductStore crashed = open(Long.MAX_VALUE);
+        Row row = crashed.insert("Laptop", null, 1000.0, 1);
+        Path journal = files("journal-").get(0);
+        long committedBytes = Files.size(journal);
+        Files.write(journal, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // When
+        store = open(Long.MAX_VALUE);
+        Row next = store.insert("Phone", null, 500.0, 2);
+
+        // Then - phần ghi dở bị cắt, commit sau được ghi tiếp ngay sau commit hợp lệ cuối cùng
+        assertEquals(row, store.get(row.id()));
+        assertTrue(Files.size(journal) > committedBytes);
+        store.close();
+        store = open(Long.MAX_VALUE);
+        assertEquals(next, store.get(next.id()));
+        assertEquals(2, store.count());
+    }
+
+    @Test
+    void testSnapshot_RecoveryReadsSnapshotPlusNewerJournal() throws IOException {
+        // Given
+        EmbeddedProductStore first = open(1);
+        for (int i = 0; i < 10_000; i++) {
+            first.insert("Product " + i, i % 2 == 0 ? null : "Mô tả " + i, i, i);
+        }
+        first.snapshot();
+        first.put(new Row(1, "Đổi sau snapshot", null, 1.5, 10_001));
+        first.delete(2);
+
+        // Then - snapshot mới thay thế journal cũ
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(1, files("journal-").size());
+
+        // When - khởi động lại mà không close (journal sau snapshot phải được replay)
+        store = open(Long.MAX_VALUE);
+
+        // Then
+        assertEquals(9_999, store.count());
+        assertEquals(new Row(1, "Đổi sau snapshot", null, 1.5, 10_001), store.get(1));
+        assertNull(store.get(2));
+        assertEquals(new Row(10_000, "Product 9999", "Mô tả 9999", 9999.0, 9999), store.get(10_000));
+        assertEquals(10_001, store.insert("Mới", null, 1.0, 10_002).id());
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.TmsApplication;
+import com.congdinh.tms.config.ObservedJsonHttpMessageConverter;
+import com.congdinh.tms.config.ProductRowStreamHttpMessageConverter;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.services.ProductRowStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark như ProductListSerializationBenchmark nhưng đọc từ database thật (mặc định bảng 10 nghìn dòng):
+ * - findAllMapped: ProductRepository#findAll, ProductMapper#toResponseDTOList rồi ObservedJsonHttpMessageConverter
+ *   (đường đi của getAllProducts)
+ * - findProjectedList: ProductRepositoryCustom#findProjected rồi ObservedJsonHttpMessageConverter (đường đi của
+ *   /search, /search/keyword, /price-range khi search cache bật và cache miss)
+ * - forEachProjected: ProductRepositoryCustom#forEachProjected đưa từng dòng của ResultSet cho
+ *   ProductRowStreamHttpMessageConverter (đường đi của các endpoint stream khi search cache tắt)
+ * Mỗi lần đo chạy trong một transaction read-only riêng như ProductService; second-level cache và query cache của
+ * Hibernate được xóa trước mỗi lần đo để cả ba cách đều thực sự đọc bảng. Schema được tạo lại khi bắt đầu và xóa
+ * khi kết thúc (ddl-auto=create-drop). Mặc định dùng H2 in-memory (profile test); -p database=postgres dùng
+ * spring.datasource.* của ứng dụng, chỉ trỏ vào database dành riêng cho benchmark (POSTGRES_DB=...):
+ * mvn -Pbenchmark test -Djmh.args="ProductProjectionStreamingBenchmark -prof gc"
+ * POSTGRES_DB=tms_bench mvn -Pbenchmark test -Djmh.args="ProductProjectionStreamingBenchmark -p database=postgres -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class ProductProjectionStreamingBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    // h2 | postgres
+    @Param({"h2"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private ProductRepository productRepository;
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private ObservedJsonHttpMessageConverter listConverter;
+    private ProductRowStreamHttpMessageConverter streamConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(TmsApplication.class);
+        if ("h2".equals(database)) {
+            application.profiles("test");
+        }
+        context = application.run("--server.port=0", "--tms.grpc.port=0", "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--tms.product.warmup.enabled=false", "--tms.product.cluster-invalidation.enabled=false",
+                "--logging.level.root=WARN");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        productRepository = context.getBean(ProductRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        listConverter = new ObservedJsonHttpMessageConverter(objectMapper, ObservationRegistry.NOOP);
+        streamConverter = new ProductRowStreamHttpMessageConverter(objectMapper, ObservationRegistry.NOOP);
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{"Product " + (i + 1),
+                    "Mô tả chi tiết của product " + (i + 1) + " - " + "x".repeat(random.nextInt(20, 200)),
+                    Math.round(random.nextDouble(1, 5000) * 100) / 100.0});
+        }
+        // Bỏ các product mẫu của DataInitializer: bảng vừa được tạo lại, chỉ còn đúng số dòng cần đo
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, change_seq) VALUES (?, ?, ?, 0)", batch);
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long findAllMapped() {
+        return readOnlyTransaction.execute(status -> {
+            List<ProductResponseDTO> response = productMapper.toResponseDTOList(productRepository.findAll());
+            DiscardingOutputMessage output = new DiscardingOutputMessage();
+            write(() -> listConverter.write(response, MediaType.APPLICATION_JSON, output));
+            return output.body.bytes;
+        });
+    }
+
+    @Benchmark
+    public long findProjectedList() {
+        List<ProductResponseDTO> response = readOnlyTransaction.execute(status ->
+                productRepository.findProjected(ProductSpecifications.all(), ProductField.all()));
+        DiscardingOutputMessage output = new DiscardingOutputMessage();
+        write(() -> listConverter.write(response, MediaType.APPLICATION_JSON, output));
+        return output.body.bytes;
+    }
+
+    @Benchmark
+    public long forEachProjected() {
+        Set<ProductField> fields = ProductField.all();
+        ProductRowStream stream = ProductRowStream.projected(fields, handler -> readOnlyTransaction.execute(status -> {
+            productRepository.forEachProjected(ProductSpecifications.all(), fields, handler);
+            return null;
+        }));
+        DiscardingOutputMessage output = new DiscardingOutputMessage();
+        write(() -> streamConverter.write(stream, MediaType.APPLICATION_JSON, output));
+        return output.body.bytes;
+    }
+
+    private static void write(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final CountingOutputStream body = new CountingOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
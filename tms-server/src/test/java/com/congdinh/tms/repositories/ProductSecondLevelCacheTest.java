@@ -0,0 +1,140 @@
+package com.congdinh.tms.repositories;
+
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.services.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Hibernate second-level cache và query cache với H2
+ * Không dùng @Transactional: mỗi thao tác chạy trong transaction riêng và commit thật,
+ * giống như các request độc lập đi qua ProductService
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindById_IsServedFromSecondLevelCache() {
+        // Given - lần đọc đầu tiên đưa product vào cache
+        Long id = productService.createProduct(new ProductRequestDTO(uniqueName("Cached"), "Description", 100.0)).getId();
+        productRepository.findById(id);
+        statistics.clear();
+
+        // When
+        productRepository.findById(id);
+        productRepository.findById(id);
+
+        // Then - không có câu SQL nào được chạy
+        assertEquals(2, statistics.getDomainDataRegionStatistics("product").getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCacheableQuery_IsServedFromQueryCache() {
+        // Given
+        String name = uniqueName("Query");
+        productService.createProduct(new ProductRequestDTO(name, "Description", 100.0));
+        productRepository.findByNameContainingIgnoreCase(name);
+        statistics.clear();
+
+        // When
+        List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
+
+        // Then
+        assertEquals(1, products.size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUpdate_NoStaleReads() {
+        // Given - entity cache và query cache đều đã có dữ liệu cũ
+        String oldName = uniqueName("Old");
+        String newName = uniqueName("New");
+        Long id = productService.createProduct(new ProductRequestDTO(oldName, "Old description", 100.0)).getId();
+        productService.getProductById(id);
+        productRepository.findByNameContainingIgnoreCase(oldName);
+        productRepository.findByPriceBetween(99.0, 101.0);
+
+        // When
+        productService.updateProduct(id, new ProductRequestDTO(newName, "New description", 200.0));
+
+        // Then
+        ProductResponseDTO product = productService.getProductById(id);
+        assertEquals(newName, product.getName());
+        assertEquals("New description", product.getDescription());
+        assertEquals(200.0, product.getPrice());
+        assertTrue(productRepository.findByNameContainingIgnoreCase(oldName).isEmpty());
+        assertEquals(1, productRepository.findByNameContainingIgnoreCase(newName).size());
+        assertTrue(productRepository.findByPriceBetween(99.0, 101.0).stream().noneMatch(p -> p.getId().equals(id)));
+    }
+
+    @Test
+    void testDelete_NoStaleReads() {
+        // Given
+        String name = uniqueName("Deleted");
+        Long id = productService.createProduct(new ProductRequestDTO(name, "Description", 100.0)).getId();
+        productService.getProductById(id);
+        productRepository.findByNameContainingIgnoreCase(name);
+
+        // When
+        productService.deleteProduct(id);
+
+        // Then
+        assertTrue(productRepository.findById(id).isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(id));
+        assertTrue(productRepository.findByNameContainingIgnoreCase(name).isEmpty());
+    }
+
+    @Test
+    void testCacheStatistics_AreExportedAsMetrics() {
+        // Given
+        Long id = productService.createProduct(new ProductRequestDTO(uniqueName("Metrics"), "Description", 100.0)).getId();
+
+        // When
+        productRepository.findById(id);
+
+        // Then
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "product").meter());
+    }
+
+    private static String uniqueName(String prefix) {
+        return prefix + " " + UUID.randomUUID();
+    }
+}
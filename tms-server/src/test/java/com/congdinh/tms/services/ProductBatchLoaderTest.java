@@ -0,0 +1,168 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.exceptions.WorkloadLaneSaturatedException;
+import com.congdinh.tms.mappers.ProductMapper;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductBatchLoader
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductBatchLoaderTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Dùng mapper thật để kiểm tra dữ liệu trả về cho từng caller
+    private final ProductMapper productMapper = new ProductMapper();
+
+    private ProductBatchLoader batchLoader;
+
+    @AfterEach
+    void tearDown() {
+        if (batchLoader != null) {
+            batchLoader.shutdown();
+        }
+    }
+
+    @Test
+    void testFullBatch_IsLoadedWithOneQuery() throws Exception {
+        // Given - cửa sổ rất dài, batch chỉ được gửi khi đủ 3 ID
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 60_000_000L, 3, 2, 5_000L);
+        when(productRepository.findAllById(anyList())).thenReturn(List.of(
+                new Product(1L, "Product 1", "Description 1", 100.0),
+                new Product(3L, "Product 3", "Description 3", 300.0)
+        ));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            // When
+            Future<Optional<ProductResponseDTO>> first = executor.submit(() -> batchLoader.load(1L));
+            Future<Optional<ProductResponseDTO>> second = executor.submit(() -> batchLoader.load(2L));
+            Future<Optional<ProductResponseDTO>> third = executor.submit(() -> batchLoader.load(3L));
+
+            // Then
+            assertEquals("Product 1", first.get(5, TimeUnit.SECONDS).orElseThrow().getName());
+            assertTrue(second.get(5, TimeUnit.SECONDS).isEmpty());
+            assertEquals("Product 3", third.get(5, TimeUnit.SECONDS).orElseThrow().getName());
+            verify(productRepository, times(1)).findAllById(anyList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSingleLookup_IsFlushedAfterWindow() {
+        // Given
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 1_000L, 100, 2, 5_000L);
+        when(productRepository.findAllById(List.of(7L)))
+                .thenReturn(List.of(new Product(7L, "Product 7", "Description 7", 700.0)));
+
+        // When
+        Optional<ProductResponseDTO> result = batchLoader.load(7L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(7L, result.get().getId());
+    }
+
+    @Test
+    void testWindowFlush_QueryRunsOnDispatchThread() {
+        // Given - scheduler chỉ hẹn giờ, truy vấn của batch chạy trên executor dispatch
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 1_000L, 100, 2, 5_000L);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        // When
+        batchLoader.load(1L);
+        batchLoader.load(2L);
+
+        // Then
+        assertEquals(2, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("product-batch-loader-dispatch-")), threads::toString);
+    }
+
+    @Test
+    void testRepositoryFailure_IsPropagatedToCallers() {
+        // Given
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 1_000L, 100, 2, 5_000L);
+        when(productRepository.findAllById(anyList())).thenThrow(new IllegalStateException("DB down"));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> batchLoader.load(1L));
+        assertEquals("DB down", exception.getMessage());
+    }
+
+    @Test
+    void testErrorInBatch_IsPropagatedToCallers() {
+        // Given - Error (không phải RuntimeException) trên thread dispatch
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 1_000L, 100, 2, 5_000L);
+        when(productRepository.findAllById(anyList())).thenThrow(new AssertionError("boom"));
+
+        // When & Then - caller nhận lỗi thay vì chờ mãi
+        AssertionError error = assertThrows(AssertionError.class, () -> batchLoader.load(1L));
+        assertEquals("boom", error.getMessage());
+    }
+
+    @Test
+    void testSlowBatch_TimesOutWithLaneSaturated() throws Exception {
+        // Given - truy vấn của batch bị treo lâu hơn timeout
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 1_000L, 100, 2, 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        try {
+            // When & Then
+            WorkloadLaneSaturatedException exception = assertThrows(WorkloadLaneSaturatedException.class, () -> batchLoader.load(1L));
+            assertEquals(WorkloadLane.POINT_READ, exception.getLane());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testLoadAfterShutdown_RunsOnCallerThread() {
+        // Given - scheduler đã dừng nên không còn gì đóng cửa sổ gom
+        batchLoader = new ProductBatchLoader(productRepository, productMapper, transactionManager, new SimpleMeterRegistry(), true, 60_000_000L, 100, 2, 5_000L);
+        batchLoader.shutdown();
+        when(productRepository.findAllById(List.of(7L)))
+                .thenReturn(List.of(new Product(7L, "Product 7", "Description 7", 700.0)));
+
+        // When
+        Optional<ProductResponseDTO> result = batchLoader.load(7L);
+
+        // Then
+        assertEquals(7L, result.orElseThrow().getId());
+    }
+}
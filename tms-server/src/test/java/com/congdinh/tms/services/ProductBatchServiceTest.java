@@ -0,0 +1,202 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductBatchOperationDTO;
+import com.congdinh.tms.dtos.ProductBatchRequestDTO;
+import com.congdinh.tms.dtos.ProductBatchResponseDTO;
+import com.congdinh.tms.dtos.ProductBatchResultDTO;
+import com.congdinh.tms.dtos.ProductRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.repositories.ProductRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductBatchService
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Transaction của từng chunk theo thứ tự được mở
+    private final List<SimpleTransactionStatus> transactions = new ArrayList<>();
+
+    private ProductBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new ProductBatchService(productService, productRepository, VALIDATOR, transactionManager, 0, 5);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            SimpleTransactionStatus status = new SimpleTransactionStatus();
+            transactions.add(status);
+            return status;
+        });
+    }
+
+    @Test
+    void testMixedOperations_InOneTransaction() {
+        // Given
+        ProductRequestDTO created = new ProductRequestDTO("New Product", "Description", 100.0);
+        ProductRequestDTO updated = new ProductRequestDTO("Updated Product", "Description", 200.0);
+        when(productService.createProduct(created)).thenReturn(new ProductResponseDTO(10L, "New Product", "Description", 100.0));
+        when(productService.updateProduct(5L, updated)).thenReturn(new ProductResponseDTO(5L, "Updated Product", "Description", 200.0));
+
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.create(created),
+                ProductBatchOperationDTO.update(5L, updated),
+                ProductBatchOperationDTO.delete(6L)), null));
+
+        // Then
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(List.of(201, 200, 204), statuses(response));
+        assertEquals(10L, response.getResults().get(0).getProduct().getId());
+        verify(productService).deleteProduct(6L);
+        // Một transaction, các product cần UPDATE/DELETE được load bằng một truy vấn
+        assertEquals(1, transactions.size());
+        assertFalse(transactions.get(0).isRollbackOnly());
+        verify(productRepository).findAllById(List.of(5L, 6L));
+        verify(productRepository).flush();
+    }
+
+    @Test
+    void testFailedOperation_RollsBackWholeTransaction() {
+        // Given
+        ProductRequestDTO created = new ProductRequestDTO("New Product", "Description", 100.0);
+        when(productService.createProduct(created)).thenReturn(new ProductResponseDTO(10L, "New Product", "Description", 100.0));
+        when(productService.updateProduct(eq(99L), any())).thenThrow(new ResourceNotFoundException("Product", "id", 99L));
+
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.create(created),
+                ProductBatchOperationDTO.update(99L, new ProductRequestDTO("Name", "Description", 1.0)),
+                ProductBatchOperationDTO.delete(7L)), null));
+
+        // Then - thao tác lỗi trả về lỗi của nó, các thao tác khác trong transaction là 424
+        assertEquals(0, response.getSucceeded());
+        assertEquals(List.of(424, 404, 424), statuses(response));
+        ProductBatchResultDTO failed = response.getResults().get(1);
+        assertEquals("Resource Not Found", failed.getError().getError());
+        assertEquals("Không tìm thấy Product với id: 99", failed.getError().getMessage());
+        assertEquals("uri=/api/products/99", failed.getError().getPath());
+        assertNull(response.getResults().get(0).getProduct());
+        assertTrue(transactions.get(0).isRollbackOnly());
+        verify(productService, never()).deleteProduct(any());
+        verify(productRepository, never()).flush();
+    }
+
+    @Test
+    void testChunkedTransactions_FailureOnlyAffectsItsChunk() {
+        // Given
+        ProductRequestDTO created = new ProductRequestDTO("New Product", "Description", 100.0);
+        when(productService.createProduct(created)).thenReturn(new ProductResponseDTO(10L, "New Product", "Description", 100.0));
+        doThrow(new ResourceNotFoundException("Product", "id", 99L)).when(productService).deleteProduct(99L);
+
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.create(created),
+                ProductBatchOperationDTO.delete(99L),
+                ProductBatchOperationDTO.delete(7L)), 1));
+
+        // Then
+        assertEquals(List.of(201, 404, 204), statuses(response));
+        assertEquals(2, response.getSucceeded());
+        assertEquals(3, transactions.size());
+        assertFalse(transactions.get(0).isRollbackOnly());
+        assertTrue(transactions.get(1).isRollbackOnly());
+        assertFalse(transactions.get(2).isRollbackOnly());
+    }
+
+    @Test
+    void testInvalidProduct_ReturnsValidationError() {
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.create(new ProductRequestDTO("", "Description", -1.0))), null));
+
+        // Then
+        ProductBatchResultDTO result = response.getResults().get(0);
+        assertEquals(400, result.getStatus());
+        assertEquals("Validation Failed", result.getError().getError());
+        assertTrue(result.getError().getMessage().contains("name="));
+        assertTrue(result.getError().getMessage().contains("price=Giá sản phẩm phải lớn hơn 0"));
+        assertEquals("uri=/api/products", result.getError().getPath());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void testMissingOperationFields_ReturnBadRequest() {
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                new ProductBatchOperationDTO(null, 1L, null),
+                ProductBatchOperationDTO.delete(null),
+                ProductBatchOperationDTO.update(1L, null)), 1));
+
+        // Then
+        assertEquals(List.of(400, 400, 400), statuses(response));
+        assertEquals("ID không được để trống với thao tác DELETE", response.getResults().get(1).getError().getMessage());
+        assertEquals("Dữ liệu product không được để trống với thao tác UPDATE",
+                response.getResults().get(2).getError().getMessage());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void testFlushFailure_FailsWholeChunk() {
+        // Given
+        doThrow(new DataIntegrityViolationException("constraint")).when(productRepository).flush();
+
+        // When
+        ProductBatchResponseDTO response = batchService.execute(new ProductBatchRequestDTO(List.of(
+                ProductBatchOperationDTO.delete(6L),
+                ProductBatchOperationDTO.delete(7L)), null));
+
+        // Then
+        assertEquals(List.of(500, 500), statuses(response));
+        assertEquals("Internal Server Error", response.getResults().get(0).getError().getError());
+    }
+
+    @Test
+    void testTooManyOperations_ThrowsException() {
+        // Given
+        List<ProductBatchOperationDTO> operations = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            operations.add(ProductBatchOperationDTO.delete(id));
+        }
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> batchService.execute(new ProductBatchRequestDTO(operations, null)));
+        assertEquals("Chỉ được gửi tối đa 5 thao tác mỗi batch", exception.getMessage());
+        verifyNoInteractions(productService, transactionManager);
+    }
+
+    private static List<Integer> statuses(ProductBatchResponseDTO response) {
+        return response.getResults().stream().map(ProductBatchResultDTO::getStatus).toList();
+    }
+}
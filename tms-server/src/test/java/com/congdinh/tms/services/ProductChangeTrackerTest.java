@@ -0,0 +1,228 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductChangesResponseDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.entities.ProductTombstone;
+import com.congdinh.tms.repositories.ProductChangeRow;
+import com.congdinh.tms.repositories.ProductChangeSequence;
+import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductChangeTracker và ProductChangeToken
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductChangeTrackerTest {
+
+    @Mock
+    private ProductChangeSequence changeSequence;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductChangeTracker changeTracker;
+
+    @BeforeEach
+    void setUp() {
+        changeTracker = new ProductChangeTracker(changeSequence, productRepository, tombstoneRepository,
+                transactionManager, 500, 30, 31, 0);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeTracker.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testInitialSync_ReturnsAllProductsWithoutTombstones() {
+        // Given - mọi transaction tới 4 đã kết thúc, catalog có 2 product
+        when(changeSequence.committedHorizon()).thenReturn(4L);
+        when(productRepository.findChangedAfter(-1L, 0L, 4L, Limit.of(101))).thenReturn(List.of(
+                new ProductChangeRow(1L, "A", "Description", 10.0, 0L),
+                new ProductChangeRow(2L, "B", "Description", 20.0, 3L)));
+
+        // When
+        ProductChangesResponseDTO changes = changeTracker.getChanges(null, null);
+
+        // Then - đã đọc hết: token tiếp theo đứng ngay sau horizon
+        assertEquals(List.of(1L, 2L), changes.getProducts().stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(List.of(), changes.getDeletedIds());
+        assertFalse(changes.isHasMore());
+        assertFalse(changes.isResync());
+        assertPosition(4L, Long.MAX_VALUE, ProductChangeToken.decode(changes.getNextToken()));
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void testChangesSinceToken_MergesUpdatesAndDeletesInOrder() {
+        // Given - client đã đồng bộ tới (5, 1)
+        long issuedAt = Instant.now().minus(Duration.ofDays(1)).getEpochSecond();
+        String since = new ProductChangeToken(5L, 1L, issuedAt).encode();
+        when(changeSequence.committedHorizon()).thenReturn(9L);
+        when(productRepository.findChangedAfter(5L, 1L, 9L, Limit.of(3))).thenReturn(List.of(
+                new ProductChangeRow(2L, "B", "Description", 20.0, 5L),
+                new ProductChangeRow(8L, "H", "Description", 80.0, 7L),
+                new ProductChangeRow(9L, "I", "Description", 90.0, 8L)));
+        when(tombstoneRepository.findChangedAfter(5L, 1L, 9L, Limit.of(3))).thenReturn(List.of(
+                new ProductTombstone(4L, 6L)));
+
+        // When - trang 2 thay đổi
+        ProductChangesResponseDTO changes = changeTracker.getChanges(since, 2);
+
+        // Then - (5, 2) rồi (6, 4); còn (7, 8) cho trang sau, trang giữa chừng giữ issuedAt cũ
+        assertEquals(List.of(2L), changes.getProducts().stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(List.of(4L), changes.getDeletedIds());
+        assertTrue(changes.isHasMore());
+        assertEquals(new ProductChangeToken(6L, 4L, issuedAt), ProductChangeToken.decode(changes.getNextToken()));
+    }
+
+    @Test
+    void testNoChanges_AdvancesTokenToHorizon() {
+        // Given
+        String since = new ProductChangeToken(3L, 10L, Instant.now().getEpochSecond()).encode();
+        when(changeSequence.committedHorizon()).thenReturn(5L);
+
+        // When
+        ProductChangesResponseDTO changes = changeTracker.getChanges(since, 10);
+
+        // Then
+        assertTrue(changes.getProducts().isEmpty());
+        assertFalse(changes.isHasMore());
+        assertPosition(5L, Long.MAX_VALUE, ProductChangeToken.decode(changes.getNextToken()));
+    }
+
+    @Test
+    void testExpiredOrLegacyToken_RestartsFromBeginningWithResync() {
+        // Given - token quá token-ttl và token dạng cũ không có issuedAt
+        String expired = new ProductChangeToken(3L, 10L, Instant.now().minus(Duration.ofDays(31)).getEpochSecond()).encode();
+        String legacy = Base64.getUrlEncoder().withoutPadding().encodeToString("3:10".getBytes(StandardCharsets.UTF_8));
+        when(changeSequence.committedHorizon()).thenReturn(5L);
+        when(productRepository.findChangedAfter(-1L, 0L, 5L, Limit.of(11))).thenReturn(List.of(
+                new ProductChangeRow(1L, "A", "Description", 10.0, 2L)));
+
+        for (String since : List.of(expired, legacy)) {
+            // When
+            ProductChangesResponseDTO changes = changeTracker.getChanges(since, 10);
+
+            // Then - bắt đầu lại như lần đồng bộ đầu, không đọc tombstone
+            assertTrue(changes.isResync());
+            assertEquals(List.of(1L), changes.getProducts().stream().map(ProductResponseDTO::getId).toList());
+            assertPosition(5L, Long.MAX_VALUE, ProductChangeToken.decode(changes.getNextToken()));
+        }
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void testInvalidLimitOrToken_ThrowsException() {
+        // When & Then
+        IllegalArgumentException limit = assertThrows(IllegalArgumentException.class,
+                () -> changeTracker.getChanges(null, 501));
+        assertEquals("Limit phải nằm trong khoảng 1 đến 500", limit.getMessage());
+        IllegalArgumentException token = assertThrows(IllegalArgumentException.class,
+                () -> changeTracker.getChanges("not-a-token", null));
+        assertEquals("Token đồng bộ không hợp lệ", token.getMessage());
+        verifyNoInteractions(productRepository, changeSequence);
+    }
+
+    @Test
+    void testCurrentTransactionSeq_TakesSequenceOncePerTransaction() {
+        // Given
+        when(changeSequence.currentTransactionSeq()).thenReturn(42L, 43L);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        Product product = new Product("A", "Description", 10.0);
+
+        // When - hai lần ghi trong cùng transaction
+        changeTracker.recordUpsert(product);
+        changeTracker.recordDelete(7L);
+
+        // Then - cùng sequence, chỉ lấy một lần
+        assertEquals(42L, product.getChangeSeq());
+        ArgumentCaptor<ProductTombstone> tombstone = ArgumentCaptor.forClass(ProductTombstone.class);
+        verify(tombstoneRepository).save(tombstone.capture());
+        assertEquals(7L, tombstone.getValue().getProductId());
+        assertEquals(42L, tombstone.getValue().getChangeSeq());
+        verify(changeSequence, times(1)).currentTransactionSeq();
+
+        // Transaction kết thúc: transaction sau nhận sequence mới
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertEquals(43L, changeTracker.currentTransactionSeq());
+    }
+
+    @Test
+    void testCurrentTransactionSeq_WithoutTransaction_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> changeTracker.currentTransactionSeq());
+        verify(changeSequence, never()).currentTransactionSeq();
+        verify(productRepository, never()).findChangedAfter(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testPurgeTombstones_DeletesOlderThanRetention() {
+        // Given
+        when(tombstoneRepository.deleteDeletedBefore(any())).thenReturn(3);
+
+        // When
+        int deleted = changeTracker.purgeTombstones();
+
+        // Then - cutoff = bây giờ - 31 ngày
+        assertEquals(3, deleted);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tombstoneRepository).deleteDeletedBefore(cutoff.capture());
+        long days = Duration.between(cutoff.getValue(), LocalDateTime.now()).toHours() / 24;
+        assertEquals(31, days);
+    }
+
+    @Test
+    void testRetentionNotLongerThanTokenTtl_IsRejected() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                new ProductChangeTracker(changeSequence, productRepository, tombstoneRepository, transactionManager,
+                        500, 30, 30, 0));
+        assertEquals("tms.product.changes.tombstone-retention-days phải lớn hơn token-ttl-days", exception.getMessage());
+    }
+
+    private static void assertPosition(long changeSeq, long id, ProductChangeToken token) {
+        assertEquals(changeSeq, token.changeSeq());
+        assertEquals(id, token.id());
+        assertTrue(Math.abs(Instant.now().getEpochSecond() - token.issuedAt()) < 60);
+    }
+}
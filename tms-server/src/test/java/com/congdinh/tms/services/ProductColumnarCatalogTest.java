@@ -0,0 +1,181 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test cho ProductColumnarCatalog
+ * chunk-rows = 2 để các lần quét luôn được chia thành nhiều task fork/join
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductColumnarCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductColumnarCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductColumnarCatalog(productRepository, new SimpleMeterRegistry(), true, 100, 2, 2, 3);
+        when(productRepository.findPageAfter(anyLong(), any(Limit.class))).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Laptop Dell XPS 13", "Laptop mỏng nhẹ", 25999000.0),
+                new ProductResponseDTO(2L, "iPhone 15 Pro", "Điện thoại Apple", 28999000.0),
+                new ProductResponseDTO(3L, "Laptop Lenovo", null, 15999000.0),
+                new ProductResponseDTO(4L, "Điện thoại Samsung", "Android", 12999000.0),
+                new ProductResponseDTO(5L, "Bàn phím cơ", "Phụ kiện laptop", 1999000.0)
+        ));
+        catalog.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    @Test
+    void testSearches_MatchDatabaseSemantics() {
+        // Then - tên không phân biệt hoa thường (kể cả tiếng Việt có dấu)
+        assertTrue(catalog.isServing());
+        assertEquals(List.of(1L, 3L), ids(catalog.searchByName("LAPTOP", ProductField.all())));
+        assertEquals(List.of(4L), ids(catalog.searchByName("điện THOẠI", ProductField.all())));
+        // Keyword phân biệt hoa thường, tìm trong tên hoặc mô tả, mô tả null không khớp
+        assertEquals(List.of(1L, 3L, 5L), ids(catalog.searchByKeyword("aptop", ProductField.all())));
+        assertEquals(List.of(2L), ids(catalog.searchByKeyword("Điện thoại Apple", ProductField.all())));
+        // Khoảng giá bao gồm hai đầu mút
+        assertEquals(List.of(3L, 4L), ids(catalog.findByPriceRange(12999000.0, 15999000.0, ProductField.all())));
+        assertEquals(5, catalog.findAll(ProductField.all()).size());
+    }
+
+    @Test
+    void testProjection_OnlySelectedFields() {
+        // When
+        ProductResponseDTO product = catalog.searchByName("lenovo", EnumSet.of(ProductField.NAME)).get(0);
+        Map<Long, ProductResponseDTO> byIds = catalog.findByIds(List.of(3L, 9L), ProductField.all());
+
+        // Then
+        assertNull(product.getId());
+        assertEquals("Laptop Lenovo", product.getName());
+        assertNull(product.getPrice());
+        assertEquals(1, byIds.size());
+        assertNull(byIds.get(3L).getDescription());
+        assertEquals(15999000.0, byIds.get(3L).getPrice());
+    }
+
+    @Test
+    void testIncrementalUpdates_AreVisibleImmediately() {
+        // When
+        catalog.onProductChanged(ProductChangedEvent.updated(new ProductResponseDTO(1L, "Màn hình Dell", "Monitor", 5999000.0)));
+        catalog.onProductChanged(ProductChangedEvent.deleted(3L));
+        catalog.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(6L, "Laptop HP", "Laptop", 17999000.0)));
+
+        // Then
+        assertEquals(List.of(6L), ids(catalog.searchByName("laptop", ProductField.all())));
+        assertEquals("Màn hình Dell", catalog.findById(1L).orElseThrow().getName());
+        assertTrue(catalog.findById(3L).isEmpty());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), ids(catalog.findAll(ProductField.all())));
+        assertEquals(5, catalog.size());
+    }
+
+    @Test
+    void testPriceChunk_UpdatesOnlyPrices() {
+        // When - cả chunk trong một event; id 9 không tồn tại
+        catalog.onProductPricesChanged(ProductPricesChangedEvent.of(Map.of(1L, 23399100.0, 3L, 14399100.0, 9L, 1.0)));
+
+        // Then
+        ProductResponseDTO product = catalog.findById(3L).orElseThrow();
+        assertEquals("Laptop Lenovo", product.getName());
+        assertEquals(14399100.0, product.getPrice());
+        assertEquals(List.of(3L, 4L), ids(catalog.findByPriceRange(12999000.0, 15999000.0, ProductField.all())));
+        assertTrue(catalog.findById(9L).isEmpty());
+        assertEquals(5, catalog.size());
+    }
+
+    @Test
+    void testCompaction_KeepsContent() {
+        // Given - compact-threshold = 3: lần ghi thứ 4 gộp delta vào base
+        for (long id = 6; id <= 9; id++) {
+            catalog.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(id, "Chuột " + id, null, 100000.0 * id)));
+        }
+        catalog.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.DELETED, 2L, null));
+
+        // Then
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), ids(catalog.findAll(ProductField.all())));
+        assertEquals(List.of(6L, 7L, 8L, 9L), ids(catalog.searchByName("chuột", ProductField.all())));
+        assertEquals(8, catalog.size());
+    }
+
+    @Test
+    void testQuery_PagesByCursorAcrossBaseAndDelta() {
+        // Given - product 6 nằm trong delta, product 4 bị sửa giá
+        catalog.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(6L, "Tai nghe", "Phụ kiện", 2999000.0)));
+        catalog.onProductChanged(ProductChangedEvent.updated(new ProductResponseDTO(4L, "Điện thoại Samsung", "Android", 30999000.0)));
+
+        // When - sắp xếp giá giảm dần, mỗi trang 2 dòng
+        List<Long> seen = new ArrayList<>();
+        ProductQueryCursor cursor = null;
+        for (int page = 0; page < 3; page++) {
+            List<ProductResponseDTO> rows = catalog.query(null, null, null, null, cursor,
+                    ProductField.PRICE, Sort.Direction.DESC, 2, ProductField.all());
+            seen.addAll(ids(rows));
+            cursor = ProductQueryCursor.after(rows.get(rows.size() - 1), ProductField.PRICE, Sort.Direction.DESC);
+        }
+
+        // Then
+        assertEquals(List.of(4L, 2L, 1L, 3L, 6L, 5L), seen);
+        assertEquals(List.of(3L, 1L), ids(catalog.query("laptop", null, 10000000.0, null, null,
+                ProductField.NAME, Sort.Direction.DESC, 10, ProductField.all())));
+        assertEquals(List.of(5L, 3L), ids(catalog.query(null, null, null, 20000000.0,
+                ProductQueryCursor.after(new ProductResponseDTO(6L, null, null, 0), ProductField.ID, Sort.Direction.DESC),
+                ProductField.ID, Sort.Direction.DESC, 2, ProductField.all())));
+    }
+
+    @Test
+    void testMemory_ColumnsSmallerThanEntityAndDto() {
+        // Then
+        assertTrue(catalog.memoryBytes() > 0);
+        assertTrue(catalog.memoryBytes() < catalog.objectMemoryBytes());
+    }
+
+    @Test
+    void testDisabled_NeverServes() {
+        // Given
+        ProductColumnarCatalog disabled = new ProductColumnarCatalog(productRepository, new SimpleMeterRegistry(),
+                false, 100, 2, 2, 3);
+
+        // When
+        disabled.load();
+        disabled.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        // Then
+        assertFalse(disabled.isServing());
+        assertEquals(0, disabled.size());
+        disabled.shutdown();
+    }
+
+    private static List<Long> ids(List<ProductResponseDTO> products) {
+        return products.stream().map(ProductResponseDTO::getId).toList();
+    }
+}
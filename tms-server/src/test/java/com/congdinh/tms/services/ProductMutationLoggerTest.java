@@ -0,0 +1,85 @@
+package com.congdinh.tms.services;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho ProductMutationLogger
+ */
+class ProductMutationLoggerTest {
+
+    private final ProductMutationLogger mutationLogger = new ProductMutationLogger();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ProductMutationLogger.class);
+    private ListAppender<ILoggingEvent> appender;
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    void testOnProductChanged_LogsEventAndProductId() {
+        // When
+        mutationLogger.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(1L, "Laptop", "Gaming", 10.0)));
+        mutationLogger.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        // Then
+        assertEquals(2, appender.list.size());
+        assertEquals(Map.of("event", "product.created", "productId", 1L), keyValues(appender.list.get(0)));
+        assertEquals(Map.of("event", "product.deleted", "productId", 2L), keyValues(appender.list.get(1)));
+    }
+
+    @Test
+    void testOnProductPricesChanged_LogsOneEventPerChunk() {
+        // When
+        mutationLogger.onProductPricesChanged(ProductPricesChangedEvent.of(Map.of(1L, 10.0, 2L, 20.0, 3L, 30.0)));
+
+        // Then
+        assertEquals(1, appender.list.size());
+        assertEquals(Map.of("event", "product.prices_changed", "count", 3), keyValues(appender.list.get(0)));
+    }
+
+    @Test
+    void testRemoteChanges_AreNotLogged() {
+        // When
+        mutationLogger.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.ChangeType.DELETED, 1L, null));
+        mutationLogger.onProductPricesChanged(ProductPricesChangedEvent.remote(Map.of(1L, 10.0)));
+
+        // Then
+        assertTrue(appender.list.isEmpty());
+    }
+
+    private static Map<String, Object> keyValues(ILoggingEvent event) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        List<KeyValuePair> pairs = event.getKeyValuePairs();
+        pairs.forEach(pair -> values.put(pair.key, pair.value));
+        return values;
+    }
+}
@@ -0,0 +1,137 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test cho ProductNameIndex
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductNameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        nameIndex = new ProductNameIndex(productRepository, new SimpleMeterRegistry(),
+                ProductNameIndex.Ranking.SHORTEST_NAME, 20, 3, 3);
+        when(productRepository.findPageAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Laptop Dell XPS 13", "Laptop", 25999000.0),
+                new ProductResponseDTO(2L, "iPhone 15 Pro", "Phone", 28999000.0),
+                new ProductResponseDTO(3L, "Laptop Lenovo", "Laptop", 15999000.0)
+        ));
+        when(productRepository.findPageAfter(3L, Limit.of(3))).thenReturn(List.of(
+                new ProductResponseDTO(4L, "Probook 450", "Laptop", 12999000.0)
+        ));
+        nameIndex.rebuild();
+    }
+
+    @Test
+    void testRebuild_ReplaysChangesCommittedDuringLoad() {
+        // Given - hai thay đổi commit sau khi trang đã được đọc nhưng trước khi index mới được đổi vào
+        when(productRepository.findPageAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            nameIndex.onProductChanged(ProductChangedEvent.created(
+                    new ProductResponseDTO(5L, "Lamp", "Lamp", 500000.0)));
+            nameIndex.onProductChanged(ProductChangedEvent.deleted(4L));
+            return List.of(new ProductResponseDTO(4L, "Probook 450", "Laptop", 12999000.0));
+        });
+
+        // When
+        nameIndex.rebuild();
+
+        // Then - index cũ đã thấy thay đổi ngay, index mới áp dụng lại chúng sau khi đổi
+        assertEquals(List.of(5L), ids(nameIndex.suggest("lam", 10)));
+        assertTrue(nameIndex.suggest("pro", 10).isEmpty());
+        assertEquals(1, nameIndex.size());
+    }
+
+    @Test
+    void testSuggest_MatchesNameAndWordPrefixes() {
+        // When
+        List<Long> ids = ids(nameIndex.suggest("PRO", 10));
+
+        // Then - "Probook 450" (tên ngắn hơn) đứng trước "iPhone 15 Pro"
+        assertEquals(List.of(4L, 2L), ids);
+    }
+
+    @Test
+    void testSuggest_RespectsLimitAndRanking() {
+        // When
+        List<Long> ids = ids(nameIndex.suggest("lap", 1));
+
+        // Then
+        assertEquals(List.of(3L), ids);
+    }
+
+    @Test
+    void testSuggest_MultiWordPrefix() {
+        assertEquals(List.of(1L), ids(nameIndex.suggest("laptop d", 10)));
+        assertTrue(nameIndex.suggest("laptop x", 10).isEmpty());
+        assertTrue(nameIndex.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testProductChanges_UpdateIndexAndCachedPrefixes() {
+        // Given - prefix ngắn đã được cache
+        assertEquals(List.of(3L, 1L), ids(nameIndex.suggest("la", 10)));
+
+        // When
+        nameIndex.onProductChanged(ProductChangedEvent.updated(
+                new ProductResponseDTO(3L, "Desktop Lenovo", "Desktop", 15999000.0)));
+        nameIndex.onProductChanged(ProductChangedEvent.created(
+                new ProductResponseDTO(5L, "Lamp", "Lamp", 500000.0)));
+        nameIndex.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        // Then
+        assertEquals(List.of(5L), ids(nameIndex.suggest("la", 10)));
+        assertEquals(List.of(3L), ids(nameIndex.suggest("desk", 10)));
+        assertEquals(4, nameIndex.size());
+    }
+
+    @Test
+    void testPriceChunk_UpdatesPricesAndCachedPrefixes() {
+        // Given - prefix ngắn đã được cache với giá cũ
+        assertEquals(15999000.0, nameIndex.suggest("la", 10).get(0).price());
+
+        // When - id 9 không có trong index
+        nameIndex.onProductPricesChanged(ProductPricesChangedEvent.of(Map.of(3L, 14399100.0, 9L, 1.0)));
+
+        // Then
+        assertEquals(14399100.0, nameIndex.suggest("la", 10).get(0).price());
+        assertEquals(List.of(3L), ids(nameIndex.suggest("lenovo", 10)));
+        assertEquals(4, nameIndex.size());
+    }
+
+    @Test
+    void testMemoryEstimate_GrowsWithIndex() {
+        long before = nameIndex.estimateMemoryBytes();
+
+        nameIndex.upsert(new ProductNameIndex.IndexedProduct(6L, "Samsung Galaxy Watch 6", 6990000.0));
+
+        assertTrue(nameIndex.estimateMemoryBytes() > before);
+    }
+
+    private static List<Long> ids(List<ProductNameIndex.IndexedProduct> products) {
+        return products.stream().map(ProductNameIndex.IndexedProduct::id).toList();
+    }
+}
@@ -0,0 +1,235 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.PriceAdjustmentType;
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentJobDTO;
+import com.congdinh.tms.dtos.ProductPriceAdjustmentRequestDTO;
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductPricesChangedEvent;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test cho ProductPriceAdjustmentService
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductPriceAdjustmentServiceTest {
+
+    private static final EnumSet<ProductField> ID_ONLY = EnumSet.of(ProductField.ID);
+    private static final EnumSet<ProductField> ID_AND_PRICE = EnumSet.of(ProductField.ID, ProductField.PRICE);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeTracker changeTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductPriceAdjustmentService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testPercentageAdjustment_RunsInChunks() {
+        // Given - chunk size 2, có 3 product khớp điều kiện
+        service = newService(2, 0);
+        when(productRepository.countMatching(any())).thenReturn(3L);
+        when(changeTracker.currentTransactionSeq()).thenReturn(7L, 8L);
+        when(productRepository.findProjectedUncached(any(), eq(ID_ONLY), eq(Sort.by("id")), eq(2)))
+                .thenReturn(List.of(idOnly(1L), idOnly(2L)))
+                .thenReturn(List.of(idOnly(3L)));
+        when(productRepository.findProjectedUncached(any(), eq(ID_AND_PRICE), eq(Sort.by("id")), eq(0)))
+                .thenReturn(List.of(new ProductResponseDTO(1L, null, null, 90.0),
+                        new ProductResponseDTO(2L, null, null, 180.0)))
+                .thenReturn(List.of(new ProductResponseDTO(3L, null, null, 270.0)));
+
+        // When
+        ProductPriceAdjustmentJobDTO job = service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                PriceAdjustmentType.PERCENTAGE, -10.0, null, 100.0, null, null));
+        ProductPriceAdjustmentJobDTO result = awaitFinished(job.getId());
+
+        // Then
+        assertEquals(ProductPriceAdjustmentJobDTO.Status.COMPLETED, result.getStatus());
+        assertEquals(3, result.getTotalProducts());
+        assertEquals(3, result.getUpdatedProducts());
+        assertEquals(2, result.getCompletedChunks());
+        verify(productRepository).adjustPrices(List.of(1L, 2L), 0.9, 0.0, 7L);
+        verify(productRepository).adjustPrices(List.of(3L), 0.9, 0.0, 8L);
+        // Một event cho mỗi chunk, không phải mỗi product; job không dùng query cache
+        ArgumentCaptor<ProductPricesChangedEvent> events = ArgumentCaptor.forClass(ProductPricesChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(Map.of(1L, 90.0, 2L, 180.0), events.getAllValues().get(0).prices());
+        assertEquals(Map.of(3L, 270.0), events.getAllValues().get(1).prices());
+        verify(productRepository, never()).findProjected(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testAbsoluteAdjustment_NoMatchingProducts() {
+        // Given
+        service = newService(500, 0);
+        when(productRepository.findProjectedUncached(any(), eq(ID_ONLY), any(Sort.class), anyInt())).thenReturn(List.of());
+
+        // When
+        ProductPriceAdjustmentJobDTO job = service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                PriceAdjustmentType.ABSOLUTE, 5.0, null, null, null, "Laptop"));
+        ProductPriceAdjustmentJobDTO result = awaitFinished(job.getId());
+
+        // Then
+        assertEquals(ProductPriceAdjustmentJobDTO.Status.COMPLETED, result.getStatus());
+        assertEquals(0, result.getUpdatedProducts());
+        verify(productRepository, never()).adjustPrices(anyList(), anyDouble(), anyDouble(), anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testCancel_StopsBeforeNextChunk() throws Exception {
+        // Given - luôn còn chunk tiếp theo, nghỉ giữa các chunk để kịp hủy
+        service = newService(1, 50);
+        when(productRepository.countMatching(any())).thenReturn(1000L);
+        when(productRepository.findProjectedUncached(any(), eq(ID_ONLY), any(Sort.class), anyInt()))
+                .thenReturn(List.of(idOnly(1L)));
+
+        // When
+        ProductPriceAdjustmentJobDTO job = service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                PriceAdjustmentType.ABSOLUTE, -1.0, List.of(1L, 2L), null, null, null));
+        while (service.getAdjustment(job.getId()).getCompletedChunks() == 0) {
+            Thread.sleep(5);
+        }
+        assertTrue(service.cancelAdjustment(job.getId()).isCancelRequested());
+        ProductPriceAdjustmentJobDTO result = awaitFinished(job.getId());
+
+        // Then
+        assertEquals(ProductPriceAdjustmentJobDTO.Status.CANCELLED, result.getStatus());
+        assertTrue(result.getUpdatedProducts() < 1000);
+    }
+
+    @Test
+    void testChunkFailure_MarksJobFailed() {
+        // Given
+        service = newService(500, 0);
+        when(productRepository.findProjectedUncached(any(), eq(ID_ONLY), any(Sort.class), anyInt()))
+                .thenReturn(List.of(idOnly(1L)));
+        when(productRepository.adjustPrices(anyList(), anyDouble(), anyDouble(), anyLong()))
+                .thenThrow(new IllegalStateException("Lock timeout"));
+
+        // When
+        ProductPriceAdjustmentJobDTO job = service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                PriceAdjustmentType.ABSOLUTE, 1.0, List.of(1L), null, null, null));
+        ProductPriceAdjustmentJobDTO result = awaitFinished(job.getId());
+
+        // Then
+        assertEquals(ProductPriceAdjustmentJobDTO.Status.FAILED, result.getStatus());
+        assertEquals("Lock timeout", result.getError());
+        assertEquals(0, result.getUpdatedProducts());
+    }
+
+    @Test
+    void testWithoutFilter_ThrowsException() {
+        // Given
+        service = newService(500, 0);
+
+        // When & Then - không cho phép vô tình đổi giá toàn bộ catalog
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                        PriceAdjustmentType.PERCENTAGE, 10.0, List.of(), null, null, " ")));
+        assertEquals("Phải chỉ định ít nhất một điều kiện lọc: ids, minPrice, maxPrice hoặc name",
+                exception.getMessage());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testPercentageOfMinus100_ThrowsException() {
+        // Given
+        service = newService(500, 0);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                        PriceAdjustmentType.PERCENTAGE, -100.0, List.of(1L), null, null, null)));
+        assertEquals("Phần trăm điều chỉnh phải lớn hơn -100", exception.getMessage());
+    }
+
+    @Test
+    void testInvalidPriceBand_ThrowsException() {
+        // Given
+        service = newService(500, 0);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                service.startAdjustment(new ProductPriceAdjustmentRequestDTO(
+                        PriceAdjustmentType.ABSOLUTE, 1.0, null, 500.0, 100.0, null)));
+        assertEquals("Giá tối thiểu không được lớn hơn giá tối đa", exception.getMessage());
+    }
+
+    @Test
+    void testUnknownJob_ThrowsNotFound() {
+        // Given
+        service = newService(500, 0);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> service.getAdjustment("missing"));
+        assertThrows(ResourceNotFoundException.class, () -> service.cancelAdjustment("missing"));
+    }
+
+    private ProductPriceAdjustmentService newService(int chunkSize, long chunkPauseMillis) {
+        return new ProductPriceAdjustmentService(productRepository, changeTracker, eventPublisher, transactionManager,
+                new SimpleMeterRegistry(), chunkSize, chunkPauseMillis, 1, 100);
+    }
+
+    private ProductPriceAdjustmentJobDTO awaitFinished(String jobId) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        ProductPriceAdjustmentJobDTO job = service.getAdjustment(jobId);
+        while (job.getFinishedAt() == null) {
+            if (System.nanoTime() > deadline) {
+                fail("Job chưa kết thúc sau 5 giây: " + job);
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail("Bị interrupt khi đang chờ");
+            }
+            job = service.getAdjustment(jobId);
+        }
+        return job;
+    }
+
+    private static ProductResponseDTO idOnly(Long id) {
+        ProductResponseDTO product = new ProductResponseDTO();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,148 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho ProductReadCoalescer
+ */
+class ProductReadCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductReadCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new ProductReadCoalescer(meterRegistry, true);
+    }
+
+    @Test
+    void testConcurrentCallsWithSameKey_ShareOneExecution() throws Exception {
+        // Given - loader bị chặn cho tới khi tất cả caller đã vào
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.execute(ProductQueryKey.byId(1L), () -> {
+                    executions.incrementAndGet();
+                    awaitQuietly(release);
+                    return "product-1";
+                })));
+            }
+            // Chờ (có giới hạn) tới khi các follower đã gộp vào flight của leader
+            awaitReads("coalesced", callers - 1);
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("product-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCoalescedCallers_GetOwnCopies() throws Exception {
+        // Given - leader bị chặn cho tới khi follower đã gộp vào flight
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ProductResponseDTO> leader = executor.submit(() -> coalescer.execute(ProductQueryKey.byId(1L), () -> {
+                awaitQuietly(release);
+                return new ProductResponseDTO(1L, "Laptop", "Description", 100.0);
+            }));
+            awaitReads("executed", 1);
+            Future<ProductResponseDTO> follower = executor.submit(() -> coalescer.execute(ProductQueryKey.byId(1L),
+                    () -> new ProductResponseDTO(1L, "Other", "Other", 1.0)));
+            awaitReads("coalesced", 1);
+
+            // When - leader sửa DTO của mình
+            release.countDown();
+            ProductResponseDTO leaderResult = leader.get(5, TimeUnit.SECONDS);
+            leaderResult.setName(null);
+
+            // Then - follower nhận bản sao riêng, không thấy thay đổi của leader
+            ProductResponseDTO followerResult = follower.get(5, TimeUnit.SECONDS);
+            assertNotSame(leaderResult, followerResult);
+            assertEquals("Laptop", followerResult.getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSequentialCalls_ExecuteEachTime() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        coalescer.execute(ProductQueryKey.byName("Laptop"), executions::incrementAndGet);
+        coalescer.execute(ProductQueryKey.byName("laptop "), executions::incrementAndGet);
+
+        // Then - không có flight nào đang chạy nên mỗi lần gọi đều chạy loader
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testLoaderException_IsRethrown() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () ->
+                coalescer.execute(ProductQueryKey.byId(99L), () -> {
+                    throw new ResourceNotFoundException("Product", "id", 99L);
+                }));
+
+        // Flight lỗi phải được dọn dẹp, lần gọi sau chạy bình thường
+        assertEquals("ok", coalescer.execute(ProductQueryKey.byId(99L), () -> "ok"));
+    }
+
+    @Test
+    void testNormalizedKeys() {
+        assertEquals(ProductQueryKey.byName(" Laptop "), ProductQueryKey.byName("laptop"));
+        assertNotEquals(ProductQueryKey.byKeyword("Laptop"), ProductQueryKey.byKeyword("laptop"));
+        assertEquals(ProductQueryKey.byPriceRange(10.0, 20.0), ProductQueryKey.byPriceRange(10, 20));
+    }
+
+    private void awaitReads(String result, int count) {
+        waitUntil(() -> meterRegistry.counter("tms.product.reads", "result", result).count() >= count);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "điều kiện không xảy ra trong 5 giây");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
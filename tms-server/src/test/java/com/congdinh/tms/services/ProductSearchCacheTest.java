@@ -0,0 +1,198 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho ProductSearchCache
+ */
+class ProductSearchCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductSearchCache searchCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchCache = new ProductSearchCache(meterRegistry, true, 2);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedQuery_IsServedFromCache() {
+        // When
+        searchCache.get(ProductQueryKey.byName("Laptop"), this::load);
+        List<String> result = searchCache.get(ProductQueryKey.byName(" laptop"), this::load);
+
+        // Then
+        assertEquals(List.of("result-1"), result);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, searchCache.hitRatio());
+        assertEquals(1.0, meterRegistry.counter("tms.product.search_cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void testProductChange_InvalidatesAllEntries() {
+        // Given
+        searchCache.get(ProductQueryKey.byName("laptop"), this::load);
+        searchCache.get(ProductQueryKey.byPriceRange(10.0, 20.0), this::load);
+
+        // When
+        searchCache.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        // Then - cả hai truy vấn phải load lại
+        assertEquals(List.of("result-3"), searchCache.get(ProductQueryKey.byName("laptop"), this::load));
+        assertEquals(List.of("result-4"), searchCache.get(ProductQueryKey.byPriceRange(10.0, 20.0), this::load));
+    }
+
+    @Test
+    void testResultLoadedDuringWrite_IsNotCached() {
+        // When - có một lần ghi xảy ra trong lúc loader đang chạy
+        searchCache.get(ProductQueryKey.byKeyword("phone"), () -> {
+            searchCache.invalidateAll();
+            return load();
+        });
+        searchCache.get(ProductQueryKey.byKeyword("phone"), this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testWriteDuringCoalescedFlight_LaterCallerDoesNotReuseOrCacheOldResult() throws Exception {
+        // Given - một flight bắt đầu trước lần ghi và đang chạy
+        ProductReadCoalescer coalescer = new ProductReadCoalescer(meterRegistry, true);
+        ProductQueryKey key = ProductQueryKey.byKeyword("phone");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<List<String>> beforeWrite = executor.submit(() -> searchCache.get(key, coalescer, () -> {
+                started.countDown();
+                await(release);
+                return List.of("before-write");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When - lần ghi commit trong lúc flight chạy, sau đó một caller mới đến với cùng key
+            searchCache.onProductChanged(ProductChangedEvent.deleted(1L));
+            Future<List<String>> afterWrite = executor.submit(() -> searchCache.get(key, coalescer, () -> List.of("after-write")));
+
+            // Then - caller mới chạy truy vấn riêng (không chờ flight cũ), flight cũ không ghi đè cache
+            assertEquals(List.of("after-write"), afterWrite.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals(List.of("before-write"), beforeWrite.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("after-write"), searchCache.get(key, coalescer, () -> List.of("reloaded")));
+            assertEquals(0.0, meterRegistry.counter("tms.product.reads", "result", "coalesced").count());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentMisses_SameGeneration_AreCoalesced() throws Exception {
+        // Given
+        ProductReadCoalescer coalescer = new ProductReadCoalescer(meterRegistry, true);
+        ProductQueryKey key = ProductQueryKey.byName("laptop");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When - caller thứ hai đến khi truy vấn của caller đầu còn chạy, không có lần ghi nào
+            Future<List<String>> first = executor.submit(() -> searchCache.get(key, coalescer, () -> {
+                started.countDown();
+                await(release);
+                return load();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<String>> second = executor.submit(() -> searchCache.get(key, coalescer, this::load));
+            waitUntil(() -> meterRegistry.counter("tms.product.reads", "result", "coalesced").count() > 0);
+            release.countDown();
+
+            // Then
+            assertEquals(List.of("result-1"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("result-1"), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCallers_GetOwnCopies() {
+        // Given - caller đầu tiên (cache miss) sửa DTO và danh sách nhận được
+        List<ProductResponseDTO> first = searchCache.get(ProductQueryKey.byName("laptop"),
+                () -> new ArrayList<>(List.of(new ProductResponseDTO(1L, "Laptop", "Description", 100.0))));
+        first.get(0).setName(null);
+        first.clear();
+
+        // When - cache hit
+        List<ProductResponseDTO> second = searchCache.get(ProductQueryKey.byName("laptop"), List::of);
+        second.get(0).setPrice(1.0);
+        List<ProductResponseDTO> third = searchCache.get(ProductQueryKey.byName("laptop"), List::of);
+
+        // Then - giá trị trong cache không bị ảnh hưởng
+        assertEquals(1, third.size());
+        assertEquals("Laptop", third.get(0).getName());
+        assertEquals(100.0, third.get(0).getPrice());
+        assertNotSame(second.get(0), third.get(0));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        // When
+        searchCache.get(ProductQueryKey.byName("a"), this::load);
+        searchCache.get(ProductQueryKey.byName("b"), this::load);
+        searchCache.get(ProductQueryKey.byName("c"), this::load);
+
+        // Then
+        assertEquals(2, searchCache.size());
+        assertEquals(1.0, meterRegistry.counter("tms.product.search_cache.evictions").count());
+    }
+
+    @Test
+    void testPriceBoundsAreRounded() {
+        assertEquals(ProductQueryKey.byPriceRange(10.001, 20.0), ProductQueryKey.byPriceRange(10.0, 20.004));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "điều kiện không xảy ra trong 5 giây");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<String> load() {
+        return List.of("result-" + loads.incrementAndGet());
+    }
+}
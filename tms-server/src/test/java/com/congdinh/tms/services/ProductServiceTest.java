@@ -1,25 +1,43 @@
 package com.congdinh.tms.services;
 
+import com.congdinh.tms.dtos.ProductField;
+import com.congdinh.tms.dtos.ProductMultiGetResponseDTO;
+import com.congdinh.tms.dtos.ProductPageResponseDTO;
+import com.congdinh.tms.dtos.ProductQueryRequestDTO;
 import com.congdinh.tms.dtos.ProductRequestDTO;
 import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.dtos.ProductSuggestionDTO;
+import com.congdinh.tms.dtos.SimilarProductDTO;
 import com.congdinh.tms.entities.Product;
+import com.congdinh.tms.events.ProductChangedEvent;
 import com.congdinh.tms.exceptions.ResourceNotFoundException;
 import com.congdinh.tms.mappers.ProductMapper;
 import com.congdinh.tms.repositories.ProductRepository;
+import com.congdinh.tms.repositories.ProductRowHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,6 +55,33 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ProductBatchLoader batchLoader;
+
+    @Mock
+    private ProductNameIndex nameIndex;
+
+    @Mock
+    private ProductColumnarCatalog columnarCatalog;
+
+    @Mock
+    private ProductSimilarityIndex similarityIndex;
+
+    @Mock
+    private ProductChangeTracker changeTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ProductReadCoalescer readCoalescer = new ProductReadCoalescer(new SimpleMeterRegistry(), true);
+
+    @Spy
+    private ProductSearchCache searchCache = new ProductSearchCache(new SimpleMeterRegistry(), true, 100);
+
     @InjectMocks
     private ProductService productService;
 
@@ -76,6 +121,48 @@ class ProductServiceTest {
         verify(productMapper).toResponseDTOList(mockProducts);
     }
 
+    @Test
+    void testStreamAllProducts_RowsGoFromRepositoryToHandler() {
+        // Given - repository đưa từng dòng cho handler, không có entity nào
+        doAnswer(invocation -> {
+            ProductRowHandler handler = invocation.getArgument(2);
+            handler.handle(1L, "Product 1", null, 100.0);
+            handler.handle(2L, "Product 2", null, 200.0);
+            return null;
+        }).when(productRepository).forEachProjected(any(), eq(EnumSet.of(ProductField.ID, ProductField.NAME,
+                ProductField.PRICE)), any());
+        List<String> rows = new ArrayList<>();
+
+        // When - truy vấn chỉ chạy khi stream được đọc
+        ProductRowStream stream = productService.streamAllProducts(
+                EnumSet.of(ProductField.ID, ProductField.NAME, ProductField.PRICE));
+        verifyNoInteractions(productRepository);
+        stream.forEach((id, name, description, price) -> rows.add(id + ":" + name + ":" + price));
+
+        // Then
+        assertEquals(List.of("1:Product 1:100.0", "2:Product 2:200.0"), rows);
+        verify(productRepository, never()).findAll();
+        verifyNoInteractions(productMapper);
+    }
+
+    @Test
+    void testStreamProductsByName_SearchCacheEnabled_UsesCachedList() {
+        // Given - search cache cần cả danh sách nên kết quả vẫn được dựng và cache như searchProductsByName
+        List<Product> products = List.of(mockProduct);
+        when(productRepository.findByNameContainingIgnoreCase("Test")).thenReturn(products);
+        when(productMapper.toResponseDTOList(products)).thenReturn(List.of(mockResponseDTO));
+        List<Long> ids = new ArrayList<>();
+
+        // When
+        productService.streamProductsByName(" Test ", ProductField.all()).forEach((id, name, description, price) -> ids.add(id));
+        productService.streamProductsByName("Test", ProductField.all()).forEach((id, name, description, price) -> ids.add(id));
+
+        // Then
+        assertEquals(List.of(1L, 1L), ids);
+        verify(productRepository, times(1)).findByNameContainingIgnoreCase("Test");
+        verify(productRepository, never()).forEachProjected(any(), any(), any());
+    }
+
     @Test
     void testGetProductById_Success() {
         // Given
@@ -93,6 +180,21 @@ class ProductServiceTest {
         verify(productMapper).toResponseDTO(mockProduct);
     }
 
+    @Test
+    void testGetProductById_UsesBatchLoaderWhenEnabled() {
+        // Given
+        when(batchLoader.isEnabled()).thenReturn(true);
+        when(batchLoader.load(1L)).thenReturn(Optional.of(mockResponseDTO));
+
+        // When
+        ProductResponseDTO result = productService.getProductById(1L);
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(batchLoader).load(1L);
+        verify(productRepository, never()).findById(any());
+    }
+
     @Test
     void testGetProductById_NotFound() {
         // Given
@@ -126,8 +228,10 @@ class ProductServiceTest {
         assertEquals("Test Product", result.getName());
         assertEquals(1L, result.getId());
         verify(productMapper).toEntity(mockRequestDTO);
+        verify(changeTracker).recordUpsert(mockProduct);
         verify(productRepository).save(mockProduct);
         verify(productMapper).toResponseDTO(mockProduct);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.created(mockResponseDTO));
     }
 
     @Test
@@ -145,8 +249,10 @@ class ProductServiceTest {
         assertEquals("Test Product", result.getName());
         verify(productRepository).findById(1L);
         verify(productMapper).updateEntityFromDTO(mockRequestDTO, mockProduct);
+        verify(changeTracker).recordUpsert(mockProduct);
         verify(productRepository).save(mockProduct);
         verify(productMapper).toResponseDTO(mockProduct);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.updated(mockResponseDTO));
     }
 
     @Test
@@ -175,6 +281,8 @@ class ProductServiceTest {
         // Then
         verify(productRepository).findById(1L);
         verify(productRepository).delete(mockProduct);
+        verify(changeTracker).recordDelete(1L);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(1L));
     }
 
     @Test
@@ -190,6 +298,7 @@ class ProductServiceTest {
         assertTrue(exception.getMessage().contains("Product"));
         verify(productRepository).findById(1L);
         verify(productRepository, never()).delete(any());
+        verifyNoInteractions(changeTracker);
     }
 
     @Test
@@ -212,6 +321,23 @@ class ProductServiceTest {
         verify(productMapper).toResponseDTOList(mockProducts);
     }
 
+    @Test
+    void testSearchProductsByName_CachedByNormalizedTerm() {
+        // Given
+        List<Product> mockProducts = List.of(mockProduct);
+        List<ProductResponseDTO> mockResponseDTOs = List.of(mockResponseDTO);
+        when(productRepository.findByNameContainingIgnoreCase("Test")).thenReturn(mockProducts);
+        when(productMapper.toResponseDTOList(mockProducts)).thenReturn(mockResponseDTOs);
+
+        // When - cùng một truy vấn sau khi chuẩn hóa
+        productService.searchProductsByName("Test");
+        List<ProductResponseDTO> result = productService.searchProductsByName("  test ");
+
+        // Then - chỉ truy vấn database một lần
+        assertEquals(1, result.size());
+        verify(productRepository, times(1)).findByNameContainingIgnoreCase(any());
+    }
+
     @Test
     void testFindProductsByPriceRange_Success() {
         // Given
@@ -232,6 +358,42 @@ class ProductServiceTest {
         verify(productMapper).toResponseDTOList(mockProducts);
     }
 
+    @Test
+    void testSearchProductsByName_WithFields_UsesProjection() {
+        // Given
+        Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.NAME);
+        ProductResponseDTO projected = new ProductResponseDTO();
+        projected.setId(1L);
+        projected.setName("Test Product");
+        when(productRepository.findProjected(any(), eq(fields))).thenReturn(List.of(projected));
+
+        // When
+        List<ProductResponseDTO> result = productService.searchProductsByName(" Test ", fields);
+
+        // Then - chỉ các cột được chọn, không load entity
+        assertEquals(1, result.size());
+        assertEquals("Test Product", result.get(0).getName());
+        assertNull(result.get(0).getDescription());
+        assertNull(result.get(0).getPrice());
+        verify(productRepository, never()).findByNameContainingIgnoreCase(any());
+        verifyNoInteractions(productMapper);
+    }
+
+    @Test
+    void testSearchProductsByName_WithAllFields_UsesEntityQuery() {
+        // Given
+        List<Product> mockProducts = List.of(mockProduct);
+        when(productRepository.findByNameContainingIgnoreCase("Test")).thenReturn(mockProducts);
+        when(productMapper.toResponseDTOList(mockProducts)).thenReturn(List.of(mockResponseDTO));
+
+        // When
+        List<ProductResponseDTO> result = productService.searchProductsByName("Test", ProductField.all());
+
+        // Then
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findProjected(any(), any());
+    }
+
     @Test
     void testFindProductsByPriceRange_InvalidMinPrice() {
         // When & Then
@@ -264,4 +426,206 @@ class ProductServiceTest {
         assertEquals("Giá tối thiểu không được lớn hơn giá tối đa", exception.getMessage());
         verify(productRepository, never()).findByPriceBetween(any(Double.class), any(Double.class));
     }
+
+    @Test
+    void testGetProductsByIds_KeepsOrderAndReportsMissing() {
+        // Given
+        Product product3 = new Product(3L, "Product 3", "Description 3", 300.0);
+        ProductResponseDTO product3DTO = new ProductResponseDTO(3L, "Product 3", "Description 3", 300.0);
+        when(productRepository.findAllById(List.of(3L, 2L, 1L))).thenReturn(List.of(mockProduct, product3));
+        when(productMapper.toResponseDTO(mockProduct)).thenReturn(mockResponseDTO);
+        when(productMapper.toResponseDTO(product3)).thenReturn(product3DTO);
+
+        // When - ID 3 bị trùng
+        ProductMultiGetResponseDTO result = productService.getProductsByIds(List.of(3L, 2L, 3L, 1L));
+
+        // Then
+        assertEquals(2, result.getProducts().size());
+        assertEquals(3L, result.getProducts().get(0).getId());
+        assertEquals(1L, result.getProducts().get(1).getId());
+        assertEquals(List.of(2L), result.getMissingIds());
+        verify(productRepository).findAllById(List.of(3L, 2L, 1L));
+    }
+
+    @Test
+    void testGetProductsByIds_WithFields_KeepsOrderWithoutId() {
+        // Given - client không chọn id nhưng service vẫn cần id để ghép thứ tự
+        ProductResponseDTO product1 = new ProductResponseDTO();
+        product1.setId(1L);
+        product1.setPrice(100.0);
+        ProductResponseDTO product2 = new ProductResponseDTO();
+        product2.setId(2L);
+        product2.setPrice(200.0);
+        when(productRepository.findProjected(any(), eq(EnumSet.of(ProductField.ID, ProductField.PRICE))))
+                .thenReturn(List.of(product1, product2));
+
+        // When
+        ProductMultiGetResponseDTO result = productService.getProductsByIds(List.of(2L, 1L), EnumSet.of(ProductField.PRICE));
+
+        // Then
+        assertEquals(2, result.getProducts().size());
+        assertEquals(200.0, result.getProducts().get(0).getPrice());
+        assertNull(result.getProducts().get(0).getId());
+        assertTrue(result.getMissingIds().isEmpty());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetProductsByIds_TooManyIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.getProductsByIds(ids);
+        });
+
+        assertEquals("Chỉ được lấy tối đa 100 sản phẩm mỗi lần", exception.getMessage());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testQueryProducts_ReturnsPageWithNextCursor() {
+        // Given - limit 2, repository trả về 3 dòng (limit + 1) nghĩa là còn trang sau
+        ProductQueryRequestDTO request = new ProductQueryRequestDTO();
+        request.setName("Product");
+        request.setMinPrice(100.0);
+        request.setSort("price,desc");
+        request.setLimit(2);
+        request.setFields("name");
+        when(productRepository.findProjected(any(), eq(EnumSet.of(ProductField.ID, ProductField.NAME, ProductField.PRICE)),
+                eq(Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"))), eq(3)))
+                .thenReturn(List.of(
+                        new ProductResponseDTO(3L, "Product 3", null, 300.0),
+                        new ProductResponseDTO(2L, "Product 2", null, 200.0),
+                        new ProductResponseDTO(1L, "Product 1", null, 100.0)));
+
+        // When
+        ProductPageResponseDTO result = productService.queryProducts(request);
+
+        // Then - chỉ trả về các trường được chọn, cursor trỏ tới sau product cuối của trang
+        assertEquals(2, result.getProducts().size());
+        assertEquals("Product 2", result.getProducts().get(1).getName());
+        assertNull(result.getProducts().get(1).getId());
+        assertNull(result.getProducts().get(1).getPrice());
+        ProductQueryCursor cursor = ProductQueryCursor.decode(result.getNextCursor());
+        assertEquals(ProductField.PRICE, cursor.sortField());
+        assertEquals(2L, cursor.id());
+        assertEquals("200.0", cursor.value());
+    }
+
+    @Test
+    void testQueryProducts_LastPageHasNoCursor() {
+        // Given
+        ProductQueryRequestDTO request = new ProductQueryRequestDTO();
+        request.setCursor(new ProductQueryCursor(ProductField.ID, Sort.Direction.ASC, "", 1L).encode());
+        when(productRepository.findProjected(any(), eq(ProductField.all()), eq(Sort.by(Sort.Direction.ASC, "id")), eq(21)))
+                .thenReturn(List.of(mockResponseDTO));
+
+        // When
+        ProductPageResponseDTO result = productService.queryProducts(request);
+
+        // Then
+        assertEquals(1, result.getProducts().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testQueryProducts_InvalidSortField() {
+        // Given
+        ProductQueryRequestDTO request = new ProductQueryRequestDTO();
+        request.setSort("description");
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.queryProducts(request);
+        });
+
+        assertEquals("Không thể sắp xếp theo trường: description. Các trường hợp lệ: id, name, price", exception.getMessage());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testQueryProducts_CursorDoesNotMatchSort() {
+        // Given - cursor của truy vấn sắp xếp theo id, nhưng request sắp xếp theo giá
+        ProductQueryRequestDTO request = new ProductQueryRequestDTO();
+        request.setSort("price");
+        request.setCursor(new ProductQueryCursor(ProductField.ID, Sort.Direction.ASC, "", 5L).encode());
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.queryProducts(request);
+        });
+
+        assertEquals("Cursor không khớp với tham số sort", exception.getMessage());
+    }
+
+    @Test
+    void testQueryProducts_LimitTooLarge() {
+        // Given
+        ProductQueryRequestDTO request = new ProductQueryRequestDTO();
+        request.setLimit(101);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.queryProducts(request);
+        });
+
+        assertEquals("Limit phải nằm trong khoảng 1 đến 100", exception.getMessage());
+    }
+
+    @Test
+    void testSuggestProducts() {
+        // Given
+        when(nameIndex.suggest("test", 5)).thenReturn(List.of(
+            new ProductNameIndex.IndexedProduct(1L, "Test Product", 99.99)
+        ));
+
+        // When
+        List<ProductSuggestionDTO> result = productService.suggestProducts("test", 5);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Test Product", result.get(0).getName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testFindSimilarProducts() {
+        // Given - product 3 có trong index nhưng đã bị xóa khỏi database
+        when(similarityIndex.findSimilar(1L, 3)).thenReturn(List.of(
+            new ProductSimilarityIndex.Match(2L, 0.9f),
+            new ProductSimilarityIndex.Match(3L, 0.5f)
+        ));
+        when(productRepository.findProjected(any(), eq(EnumSet.of(ProductField.ID, ProductField.NAME, ProductField.PRICE))))
+            .thenReturn(List.of(new ProductResponseDTO(2L, "Laptop Dell", null, 1500.0)));
+
+        // When
+        List<SimilarProductDTO> result = productService.findSimilarProducts(1L, 3);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals("Laptop Dell", result.get(0).getName());
+        assertEquals(0.9, result.get(0).getScore(), 1e-6);
+    }
+
+    @Test
+    void testFindSimilarProducts_NotIndexed() {
+        // Given
+        when(similarityIndex.findSimilar(99L, 10)).thenReturn(null);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> productService.findSimilarProducts(99L, 10));
+    }
+
+    @Test
+    void testFindSimilarProducts_InvalidK() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+            productService.findSimilarProducts(1L, 51));
+
+        assertEquals("k phải nằm trong khoảng 1 đến 50", exception.getMessage());
+        verifyNoInteractions(similarityIndex);
+    }
 }
@@ -0,0 +1,81 @@
+package com.congdinh.tms.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark cho ProductSimilarityIndex#findSimilar trên catalog tổng hợp (mặc định 1 triệu product)
+ * Kết quả là số truy vấn /similar mỗi giây (không gồm bước đọc name, price từ database)
+ * Chạy: mvn -Pbenchmark test -Djmh.args="ProductSimilarityBenchmark -p products=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx2g"})
+public class ProductSimilarityBenchmark {
+
+    private static final String[] WORDS = {
+            "laptop", "dell", "xps", "lenovo", "thinkpad", "asus", "macbook", "pro", "air", "điện", "thoại",
+            "iphone", "samsung", "galaxy", "xiaomi", "tai", "nghe", "bluetooth", "bàn", "phím", "cơ", "chuột",
+            "không", "dây", "màn", "hình", "gaming", "4k", "sạc", "nhanh", "ốp", "lưng", "loa", "đồng", "hồ",
+            "thông", "minh", "máy", "ảnh", "canon", "sony", "ổ", "cứng", "ssd", "usb", "router", "wifi", "camera"
+    };
+
+    @Param({"1000000"})
+    private int products;
+
+    @Param({"vector", "scalar"})
+    private String dotProduct;
+
+    @Param({"10"})
+    private int k;
+
+    private ProductSimilarityIndex index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ProductSimilarityIndex(null, new SimpleMeterRegistry(), true, 128, 10000, 0, 32768);
+        index.useDotProduct("scalar".equals(dotProduct) ? FloatDotProduct.SCALAR : FloatDotProduct.best());
+        random = new SplittableRandom(42);
+        StringBuilder name = new StringBuilder();
+        StringBuilder description = new StringBuilder();
+        for (long id = 1; id <= products; id++) {
+            index.upsert(id, words(name, 4), words(description, 12));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        index.shutdown();
+    }
+
+    @Benchmark
+    public List<ProductSimilarityIndex.Match> findSimilar() {
+        return index.findSimilar(random.nextLong(1, products + 1L), k);
+    }
+
+    private String words(StringBuilder builder, int count) {
+        builder.setLength(0);
+        for (int i = 0; i < count; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.dtos.ProductResponseDTO;
+import com.congdinh.tms.events.ProductChangedEvent;
+import com.congdinh.tms.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test cho ProductSimilarityIndex
+ * chunk-rows = 2 để các lần quét luôn được chia thành nhiều task fork/join
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductSimilarityIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSimilarityIndex(productRepository, new SimpleMeterRegistry(), true, 256, 100, 2, 2);
+        when(productRepository.findPageAfter(anyLong(), any(Limit.class))).thenReturn(List.of(
+                new ProductResponseDTO(1L, "Laptop Dell XPS 13", "Laptop mỏng nhẹ màn hình 13 inch", 25999000.0),
+                new ProductResponseDTO(2L, "iPhone 15 Pro", "Điện thoại Apple", 28999000.0),
+                new ProductResponseDTO(3L, "Laptop Dell Inspiron", "Laptop văn phòng màn hình 15 inch", 15999000.0),
+                new ProductResponseDTO(4L, "Điện thoại Samsung Galaxy", "Điện thoại Android", 12999000.0),
+                new ProductResponseDTO(5L, "Bàn phím cơ", null, 1999000.0)
+        ));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void testFindSimilar_RanksByTextSimilarity() {
+        // When
+        List<ProductSimilarityIndex.Match> laptops = index.findSimilar(1L, 2);
+        List<ProductSimilarityIndex.Match> phones = index.findSimilar(2L, 1);
+
+        // Then - không gồm chính product, độ tương đồng giảm dần
+        assertEquals(3L, laptops.get(0).id());
+        assertTrue(laptops.get(0).score() > laptops.get(1).score());
+        assertTrue(laptops.stream().noneMatch(match -> match.id() == 1L));
+        // "Điện thoại" khớp không phân biệt dấu và hoa thường
+        assertEquals(List.of(4L), phones.stream().map(ProductSimilarityIndex.Match::id).toList());
+        assertNull(index.findSimilar(99L, 5));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testRebuild_ReplaysChangesCommittedDuringLoad() {
+        // Given - product 6 được tạo và product 2 bị xóa sau khi trang đã được đọc
+        when(productRepository.findPageAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            index.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(6L, "Laptop Dell XPS 15", "Laptop mỏng nhẹ", 35999000.0)));
+            index.onProductChanged(ProductChangedEvent.deleted(2L));
+            return List.of(
+                    new ProductResponseDTO(1L, "Laptop Dell XPS 13", "Laptop mỏng nhẹ màn hình 13 inch", 25999000.0),
+                    new ProductResponseDTO(2L, "iPhone 15 Pro", "Điện thoại Apple", 28999000.0));
+        });
+
+        // When
+        index.rebuild();
+
+        // Then - ma trận mới có cả hai thay đổi
+        assertTrue(index.contains(6L));
+        assertFalse(index.contains(2L));
+        assertEquals(6L, index.findSimilar(1L, 1).get(0).id());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testIncrementalUpdates_AreVisibleImmediately() {
+        // When - product 5 thành laptop, product 3 bị xóa, thêm product 6
+        index.onProductChanged(ProductChangedEvent.updated(new ProductResponseDTO(5L, "Laptop Dell XPS 15", "Laptop mỏng nhẹ màn hình 15 inch", 35999000.0)));
+        index.onProductChanged(ProductChangedEvent.deleted(3L));
+        index.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(6L, "Ốp lưng iPhone 15", null, 299000.0)));
+
+        // Then - dòng của product 3 được tái sử dụng cho product 6
+        assertEquals(5L, index.findSimilar(1L, 1).get(0).id());
+        assertEquals(6L, index.findSimilar(2L, 1).get(0).id());
+        assertFalse(index.contains(3L));
+        assertTrue(index.contains(6L));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testFindSimilar_MatchesAcrossGrowthAndParallelScan() {
+        // Given - vượt dung lượng ban đầu (1024 dòng) để ma trận phải mở rộng
+        for (long id = 100; id < 2100; id++) {
+            index.upsert(id, "Chuột không dây " + id, "Phụ kiện máy tính");
+        }
+        index.upsert(5000L, "Laptop Dell XPS 13 Plus", "Laptop mỏng nhẹ màn hình 13 inch");
+
+        // When
+        List<ProductSimilarityIndex.Match> matches = index.findSimilar(1L, 10);
+
+        // Then
+        assertEquals(5000L, matches.get(0).id());
+        assertEquals(10, matches.size());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).score() >= matches.get(i).score());
+        }
+    }
+
+    @Test
+    void testScalarAndVectorDotProduct_Agree() {
+        // Given - dims 131 để có phần đuôi không chia hết cho số lane
+        Random random = new Random(7);
+        float[] matrix = new float[3 * 131];
+        float[] query = new float[131];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = random.nextFloat() - 0.5f;
+        }
+        for (int i = 0; i < query.length; i++) {
+            query[i] = random.nextFloat() - 0.5f;
+        }
+        FloatDotProduct best = FloatDotProduct.best();
+
+        // Then - surefire chạy với --add-modules jdk.incubator.vector
+        assertTrue(best.name().startsWith("vector-"));
+        for (int row = 0; row < 3; row++) {
+            assertEquals(FloatDotProduct.SCALAR.dot(matrix, row * 131, query, 131),
+                    best.dot(matrix, row * 131, query, 131), 1e-4);
+        }
+
+        // When - cùng index nhưng quét bằng scalar
+        List<ProductSimilarityIndex.Match> vector = index.findSimilar(1L, 4);
+        index.useDotProduct(FloatDotProduct.SCALAR);
+
+        // Then
+        assertEquals(vector.stream().map(ProductSimilarityIndex.Match::id).toList(),
+                index.findSimilar(1L, 4).stream().map(ProductSimilarityIndex.Match::id).toList());
+    }
+
+    @Test
+    void testDisabled_IgnoresEvents() {
+        // Given
+        ProductSimilarityIndex disabled = new ProductSimilarityIndex(productRepository, new SimpleMeterRegistry(),
+                false, 64, 100, 2, 2);
+
+        // When
+        disabled.rebuild();
+        disabled.onProductChanged(ProductChangedEvent.created(new ProductResponseDTO(7L, "Tai nghe", null, 1.0)));
+
+        // Then
+        assertEquals(0, disabled.size());
+        assertNull(disabled.findSimilar(7L, 5));
+        disabled.shutdown();
+    }
+}
@@ -0,0 +1,175 @@
+package com.congdinh.tms.services;
+
+import com.congdinh.tms.exceptions.ResourceNotFoundException;
+import com.congdinh.tms.exceptions.WorkloadLaneSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test cho WorkloadLanes
+ */
+class WorkloadLanesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WorkloadLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Lane search: 1 thread, 1 chỗ trong hàng đợi, chờ tối đa 1 giây
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("tms.workload.search.threads", "1")
+                .withProperty("tms.workload.search.queue-capacity", "1")
+                .withProperty("tms.workload.search.queue-timeout-ms", "1000");
+        lanes = new WorkloadLanes(meterRegistry, environment, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+        MDC.clear();
+    }
+
+    @Test
+    void testCall_RunsOnLaneThreadWithCallerMdc() throws Exception {
+        // Given
+        MDC.put("requestId", "req-1");
+
+        // When
+        String result = lanes.call(WorkloadLane.POINT_READ, () -> Thread.currentThread().getName()
+                + "|" + WorkloadLanes.current() + "|" + MDC.get("requestId"));
+
+        // Then
+        assertTrue(result.startsWith("tms-lane-point-read-"), result);
+        assertTrue(result.endsWith("|POINT_READ|req-1"), result);
+        assertNull(WorkloadLanes.current());
+        assertEquals(1, meterRegistry.timer("tms.workload.lane.wait", "lane", "point-read").count());
+    }
+
+    @Test
+    void testCall_ExceptionIsRethrownUnchanged() {
+        // When / Then
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> lanes.call(WorkloadLane.WRITE, () -> {
+                    throw new ResourceNotFoundException("Product", "id", 1L);
+                }));
+        assertEquals("Không tìm thấy Product với id: 1", ex.getMessage());
+    }
+
+    @Test
+    void testCall_NestedCallStaysOnCurrentThread() throws Exception {
+        // When - một lane gọi sang lane khác: chạy luôn trên thread hiện tại, giữ lane ban đầu
+        String result = lanes.call(WorkloadLane.BULK, () -> {
+            String outer = Thread.currentThread().getName();
+            return lanes.call(WorkloadLane.SEARCH, () -> Thread.currentThread().getName().equals(outer)
+                    + "|" + WorkloadLanes.current());
+        });
+
+        // Then
+        assertEquals("true|BULK", result);
+    }
+
+    @Test
+    void testCall_QueueFull_RejectedImmediately() throws Exception {
+        // Given - thread duy nhất của lane đang bận, hàng đợi đã có một request
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> callQuietly(release));
+        waitUntil(() -> meterRegistry.get("tms.workload.lane.active").tag("lane", "search").gauge().value() == 1);
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> callQuietly(release));
+        waitUntil(() -> meterRegistry.get("tms.workload.lane.queued").tag("lane", "search").gauge().value() == 1);
+
+        try {
+            // When / Then
+            assertThrows(WorkloadLaneSaturatedException.class, () -> lanes.call(WorkloadLane.SEARCH, () -> "rejected"));
+            assertEquals(1, meterRegistry.counter("tms.workload.lane.rejected", "lane", "search", "reason", "queue_full").count());
+            assertEquals(1.0, meterRegistry.get("tms.workload.lane.utilization").tag("lane", "search").gauge().value());
+        } finally {
+            release.countDown();
+        }
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCall_QueueTimeout_RejectedAndNeverRuns() throws Exception {
+        // Given - thread duy nhất của lane bận lâu hơn queue-timeout
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> callQuietly(release));
+        waitUntil(() -> meterRegistry.get("tms.workload.lane.active").tag("lane", "search").gauge().value() == 1);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(WorkloadLaneSaturatedException.class, () -> lanes.call(WorkloadLane.SEARCH, () -> {
+            executed.set(true);
+            return "late";
+        }));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+
+        // Then - request bỏ cuộc sau queue-timeout và không bao giờ được chạy
+        assertTrue(waitedMillis >= 1000 && waitedMillis < 5000, "waited " + waitedMillis + " ms");
+        assertEquals(1, meterRegistry.counter("tms.workload.lane.rejected", "lane", "search", "reason", "queue_timeout").count());
+        assertEquals(0, meterRegistry.get("tms.workload.lane.queued").tag("lane", "search").gauge().value());
+        assertFalse(executed.get());
+    }
+
+    @Test
+    void testCall_Disabled_RunsOnCallerThread() throws Exception {
+        // Given
+        WorkloadLanes disabled = new WorkloadLanes(new SimpleMeterRegistry(), new MockEnvironment(), false);
+
+        try {
+            // When
+            String thread = disabled.call(WorkloadLane.SEARCH, () -> Thread.currentThread().getName());
+
+            // Then
+            assertEquals(Thread.currentThread().getName(), thread);
+        } finally {
+            disabled.shutdown();
+        }
+    }
+
+    @Test
+    void testBind_RestoresPreviousLane() {
+        // When
+        String lanesSeen = WorkloadLanes.bind(WorkloadLane.BULK, () -> WorkloadLanes.current() + ","
+                + WorkloadLanes.bind(WorkloadLane.POINT_READ, WorkloadLanes::current) + "," + WorkloadLanes.current());
+
+        // Then
+        assertEquals("BULK,POINT_READ,BULK", lanesSeen);
+        assertNull(WorkloadLanes.current());
+    }
+
+    private Object callQuietly(CountDownLatch release) {
+        try {
+            return lanes.call(WorkloadLane.SEARCH, () -> {
+                release.await(5, TimeUnit.SECONDS);
+                return "done";
+            });
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "điều kiện không xảy ra trong 5 giây");
+            Thread.onSpinWait();
+        }
+    }
+}